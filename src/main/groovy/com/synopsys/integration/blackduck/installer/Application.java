@@ -24,12 +24,21 @@ package com.synopsys.integration.blackduck.installer;
 
 import com.synopsys.integration.blackduck.configuration.BlackDuckServerConfig;
 import com.synopsys.integration.blackduck.configuration.BlackDuckServerConfigBuilder;
+import com.synopsys.integration.blackduck.installer.bundle.BundleCreator;
+import com.synopsys.integration.blackduck.installer.bundle.BundleFile;
+import com.synopsys.integration.blackduck.installer.bundle.BundleImporter;
 import com.synopsys.integration.blackduck.installer.configure.*;
+import com.synopsys.integration.blackduck.installer.dockerswarm.ComposeImages;
 import com.synopsys.integration.blackduck.installer.dockerswarm.DockerCommands;
+import com.synopsys.integration.blackduck.installer.dockerswarm.DockerImageTransfer;
 import com.synopsys.integration.blackduck.installer.dockerswarm.DockerStackDeploy;
+import com.synopsys.integration.blackduck.installer.dockerswarm.ImagePrePuller;
+import com.synopsys.integration.blackduck.installer.dockerswarm.StackDrainer;
 import com.synopsys.integration.blackduck.installer.dockerswarm.deploy.AlertDockerManager;
+import com.synopsys.integration.blackduck.installer.dockerswarm.engine.DockerEngineClient;
+import com.synopsys.integration.blackduck.installer.dockerswarm.engine.DockerEngineRunner;
 import com.synopsys.integration.blackduck.installer.dockerswarm.install.*;
-import com.synopsys.integration.blackduck.installer.download.StandardCookieSpecHttpClient;
+import com.synopsys.integration.blackduck.installer.download.*;
 import com.synopsys.integration.blackduck.installer.exception.BlackDuckInstallerException;
 import com.synopsys.integration.blackduck.installer.hash.HashUtility;
 import com.synopsys.integration.blackduck.installer.keystore.KeyStoreManager;
@@ -37,10 +46,11 @@ import com.synopsys.integration.blackduck.installer.keystore.KeyStoreRequest;
 import com.synopsys.integration.blackduck.installer.keystore.OpenSslOutputParser;
 import com.synopsys.integration.blackduck.installer.keystore.OpenSslRunner;
 import com.synopsys.integration.blackduck.installer.model.*;
+import com.synopsys.integration.blackduck.installer.retention.DeployedVersions;
+import com.synopsys.integration.blackduck.installer.retention.InstallRetention;
 import com.synopsys.integration.exception.IntegrationException;
 import com.synopsys.integration.executable.DryRunExecutableRunner;
 import com.synopsys.integration.executable.ExecutableRunner;
-import com.synopsys.integration.executable.ProcessBuilderRunner;
 import com.synopsys.integration.log.IntLogger;
 import com.synopsys.integration.log.Slf4jIntLogger;
 import com.synopsys.integration.rest.client.IntHttpClient;
@@ -49,8 +59,7 @@ import com.synopsys.integration.rest.credentials.CredentialsBuilder;
 import com.synopsys.integration.rest.proxy.ProxyInfo;
 import com.synopsys.integration.rest.proxy.ProxyInfoBuilder;
 import com.synopsys.integration.rest.request.Request;
-import com.synopsys.integration.util.CommonZipExpander;
-import org.apache.commons.compress.archivers.examples.Expander;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.http.client.config.CookieSpecs;
 import org.apache.http.entity.ContentType;
 import org.slf4j.Logger;
@@ -63,6 +72,13 @@ import org.springframework.boot.builder.SpringApplicationBuilder;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 @SpringBootApplication
 public class Application implements ApplicationRunner {
@@ -78,6 +94,8 @@ public class Application implements ApplicationRunner {
 
     @Override
     public void run(final ApplicationArguments applicationArguments) {
+        ExecutorService prefetchExecutor = Executors.newFixedThreadPool(2);
+        ExecutorService retentionExecutor = Executors.newSingleThreadExecutor();
         try {
             File baseDirectory = new File(applicationValues.getBaseDirectory());
             baseDirectory.mkdirs();
@@ -85,8 +103,26 @@ public class Application implements ApplicationRunner {
                 throw new BlackDuckInstallerException("The base directory (" + applicationValues.getBaseDirectory() + ") must exist or be creatable.");
             }
 
+            if (InstallerMode.SERVE_CACHE == applicationValues.getInstallerMode()) {
+                IntLogger intLogger = new Slf4jIntLogger(logger);
+                ArtifactCache artifactCache = new ArtifactCache(intLogger, new File(baseDirectory, ArtifactCache.DEFAULT_DIRECTORY_NAME));
+                new ArtifactCacheServer(intLogger, artifactCache, applicationValues.getServeCachePort()).serve();
+                return;
+            }
+
+            if (InstallerMode.LOAD_BUNDLE == applicationValues.getInstallerMode()) {
+                IntLogger intLogger = new Slf4jIntLogger(logger);
+                BundleImporter bundleImporter = createBundleImporter(intLogger, baseDirectory);
+                bundleImporter.loadImages(BundleFile.open(new File(applicationValues.getBundlePath())));
+                return;
+            }
+
             if (null == applicationValues.getBlackDuckDeployMethod() || null == applicationValues.getAlertDeployMethod()) {
-                throw new BlackDuckInstallerException("The deploy methods must be set to either DEPLOY or NONE.");
+                throw new BlackDuckInstallerException("The deploy methods must be set to either DEPLOY, UPDATE or NONE.");
+            }
+
+            if (DeployMethod.UPDATE == applicationValues.getAlertDeployMethod()) {
+                throw new BlackDuckInstallerException("Alert can't be deployed with UPDATE - alert.deploy.method must be set to either DEPLOY or NONE.");
             }
 
             if (DeployMethod.NONE == applicationValues.getBlackDuckDeployMethod() && DeployMethod.NONE == applicationValues.getAlertDeployMethod()) {
@@ -95,12 +131,15 @@ public class Application implements ApplicationRunner {
 
             // use only unix style endings for now
             String lineSeparator = "\n";
-            Expander expander = new Expander();
             IntLogger intLogger = new Slf4jIntLogger(logger);
             HashUtility hashUtility = new HashUtility();
             ExecutableCreator executableCreator = new ExecutableCreator();
             DockerCommands dockerCommands = new DockerCommands(executableCreator);
-            CommonZipExpander commonZipExpander = new CommonZipExpander(intLogger, expander);
+            ParallelZipExpander parallelZipExpander = new ParallelZipExpander(intLogger, Runtime.getRuntime().availableProcessors());
+            SelectiveZipExpander selectiveZipExpander = new SelectiveZipExpander(intLogger, parallelZipExpander, Arrays.asList(applicationValues.getDownloadExpandPrefixes()));
+            TarArchiveExpander tarArchiveExpander = new TarArchiveExpander(intLogger, new ArchivePrefixes(Arrays.asList(applicationValues.getDownloadExpandPrefixes())), Runtime.getRuntime().availableProcessors());
+            ArchiveExpander archiveExpander = new MultiFormatExpander(selectiveZipExpander, tarArchiveExpander);
+            ArtifactCache artifactCache = new ArtifactCache(intLogger, new File(baseDirectory, ArtifactCache.DEFAULT_DIRECTORY_NAME));
             CustomCertificate customCertificate = new CustomCertificate(applicationValues.getBlackDuckInstallCustomCertPath(), applicationValues.getBlackDuckInstallCustomKeyPath());
             AlertEncryption alertEncryption = new AlertEncryption(applicationValues.getAlertInstallEncryptionPasswordPath(), applicationValues.getAlertInstallEncryptionGlobalSaltPath());
 
@@ -118,17 +157,42 @@ public class Application implements ApplicationRunner {
 
             ProxyInfo proxyInfo = proxyInfoBuilder.build();
             IntHttpClient intHttpClient = new StandardCookieSpecHttpClient(intLogger, applicationValues.getTimeoutInSeconds(), applicationValues.isAlwaysTrust(), proxyInfo);
+            ParallelDownloader parallelDownloader = new ParallelDownloader(intLogger, intHttpClient, applicationValues.getDownloadConnections(), applicationValues.getDownloadMinimumBytesPerSecond());
+            MirrorSelector mirrorSelector = new MirrorSelector(intLogger, intHttpClient);
+            DeltaUpgrader deltaUpgrader = new DeltaUpgrader(intLogger, intHttpClient, parallelDownloader, artifactCache, applicationValues.getDownloadDeltaUrlPrefix());
+            InstallTreeDeduplicator installTreeDeduplicator = new InstallTreeDeduplicator(intLogger, baseDirectory, applicationValues.isDownloadDeduplicate());
+            File releaseCacheDirectory = new File(baseDirectory, GithubReleaseResolver.DEFAULT_DIRECTORY_NAME);
+            GithubReleaseResolver githubReleaseResolver = new GithubReleaseResolver(intLogger, intHttpClient, releaseCacheDirectory, applicationValues.getGithubApiUrl(), applicationValues.getGithubToken(), applicationValues.getGithubReleaseCacheTtlSeconds(), applicationValues.getGithubRateLimitMaxWaitSeconds());
 
+            ExecutableRunner dockerRunner = createDockerRunner(intLogger);
             ExecutableRunner executableRunner;
             if (applicationValues.isInstallDryRun()) {
                 executableRunner = new DryRunExecutableRunner(intLogger::info);
             } else {
-                executableRunner = new ProcessBuilderRunner();
+                executableRunner = dockerRunner;
             }
-            ExecutablesRunner executablesRunner = new ExecutablesRunner(executableRunner);
+            // a dry run lists the steps in the order of the plan
+            int parallelSteps = applicationValues.isInstallDryRun() ? 1 : applicationValues.getDockerParallelSteps();
+            ExecutablesRunner executablesRunner = new ExecutablesRunner(executableRunner, intLogger, parallelSteps);
+            // archives are downloaded even on a dry run, so staging a local one can't use the dry run runner
+            LocalStager localStager = new LocalStager(intLogger, new ExecutablesRunner(new StreamingProcessRunner()));
+            DeployedVersions deployedVersions = new DeployedVersions(intLogger, dockerCommands, new ExecutablesRunner(dockerRunner), applicationValues.getStackName());
+            long megabyte = 1024L * 1024L;
+            InstallRetention installRetention = new InstallRetention(intLogger, baseDirectory, artifactCache, deployedVersions, applicationValues.getRetentionKeepLast(), applicationValues.getRetentionQuotaMegabytes() * megabyte, applicationValues.getRetentionMinimumFreeMegabytes() * megabyte, TimeUnit.HOURS.toMillis(applicationValues.getRetentionPartialMaxAgeHours()), applicationValues.isInstallDryRun());
             DockerStackDeploy deployStack = new DockerStackDeploy(applicationValues.getStackName());
+            StackDrainer stackDrainer = new StackDrainer(intLogger, dockerCommands, executablesRunner, applicationValues.getDockerStackRemovalTimeoutSeconds(), applicationValues.isInstallDryRun());
+            boolean prePullImages = applicationValues.isDockerPrePullImages() && StringUtils.isBlank(applicationValues.getBundlePath());
+            ImagePrePuller imagePrePuller = new ImagePrePuller(intLogger, new ComposeImages(), dockerCommands, executablesRunner, prePullImages);
 
-            DeployProductProperties deployProductProperties = new DeployProductProperties(baseDirectory, lineSeparator, intLogger, hashUtility, dockerCommands, commonZipExpander, customCertificate, intHttpClient, executablesRunner, deployStack);
+            DeployProductProperties deployProductProperties = new DeployProductProperties(baseDirectory, lineSeparator, intLogger, hashUtility, dockerCommands, archiveExpander, artifactCache, customCertificate, intHttpClient, parallelDownloader, mirrorSelector, localStager, deltaUpgrader, installRetention, githubReleaseResolver, executablesRunner, deployStack, stackDrainer, imagePrePuller);
+
+            // the images are loaded up front so nothing is pulled once the stack is deployed
+            if (InstallerMode.INSTALL == applicationValues.getInstallerMode() && StringUtils.isNotBlank(applicationValues.getBundlePath())) {
+                BundleFile bundleFile = BundleFile.open(new File(applicationValues.getBundlePath()));
+                BundleImporter bundleImporter = createBundleImporter(intLogger, baseDirectory);
+                bundleImporter.importArchives(bundleFile);
+                bundleImporter.loadImages(bundleFile);
+            }
 
             BlackDuckConfigurationOptions blackDuckConfigurationOptions = new BlackDuckConfigurationOptions(applicationValues.getBlackDuckConfigureRegistrationKey(), applicationValues.isBlackDuckConfigureAcceptEula(), applicationValues.isBlackDuckConfigureApiToken(), applicationValues.isInstallDryRun());
 
@@ -136,7 +200,34 @@ public class Application implements ApplicationRunner {
             AlertBlackDuckInstallOptionsBuilder alertBlackDuckInstallOptionsBuilder = new AlertBlackDuckInstallOptionsBuilder(applicationValues);
             DeployAlertProperties deployAlertProperties = new DeployAlertProperties(alertService, alertBlackDuckInstallOptionsBuilder, alertEncryption);
 
-            if (DeployMethod.DEPLOY == applicationValues.getBlackDuckDeployMethod()) {
+            //TODO pass in the req'd properties instead of applicationValues
+            AlertInstallerCreator alertInstallerCreator = new AlertInstallerCreator(applicationValues, deployProductProperties, deployAlertProperties);
+            ZipFileDownloader alertDownloader = null;
+            //TODO pass in the req'd properties instead of applicationValues
+            BlackDuckInstallerCreator blackDuckInstallerCreator = new BlackDuckInstallerCreator(applicationValues, deployProductProperties);
+            ZipFileDownloader blackDuckDownloader = null;
+
+            List<ZipFileDownloader> zipFileDownloaders = new ArrayList<>();
+            if (DeployMethod.NONE != applicationValues.getBlackDuckDeployMethod()) {
+                blackDuckDownloader = blackDuckInstallerCreator.createZipFileDownloader();
+                zipFileDownloaders.add(blackDuckDownloader);
+            }
+            if (DeployMethod.NONE != applicationValues.getAlertDeployMethod()) {
+                alertDownloader = alertInstallerCreator.createZipFileDownloader();
+                zipFileDownloaders.add(alertDownloader);
+            }
+            zipFileDownloaders.forEach(zipFileDownloader -> installRetention.protect(zipFileDownloader.getName(), zipFileDownloader.getVersion()));
+            installRetention.evictInBackground(retentionExecutor);
+
+            if (InstallerMode.CREATE_BUNDLE == applicationValues.getInstallerMode()) {
+                // images are pulled even on a dry run, since nothing is deployed
+                BundleCreator bundleCreator = new BundleCreator(intLogger, new ComposeImages(), dockerCommands, new DockerImageTransfer(), new ExecutablesRunner(new StreamingProcessRunner()), Runtime.getRuntime().availableProcessors());
+                bundleCreator.create(zipFileDownloaders, new File(applicationValues.getBundlePath()));
+                installTreeDeduplicator.deduplicate();
+                return;
+            }
+
+            if (DeployMethod.NONE != applicationValues.getBlackDuckDeployMethod()) {
                 logger.info("Attempting to deploy Black Duck.");
                 OpenSslOutputParser openSslOutputParser = new OpenSslOutputParser();
                 OpenSslRunner openSslRunner = new OpenSslRunner(intLogger, executablesRunner, openSslOutputParser);
@@ -146,33 +237,40 @@ public class Application implements ApplicationRunner {
                 BlackDuckServerConfig blackDuckServerConfig = createBlackDuckServerConfig(intLogger);
                 BlackDuckWait blackDuckWait = new BlackDuckWait(intLogger, applicationValues.getBlackDuckInstallTimeoutInSeconds(), blackDuckServerConfig, updateKeyStoreService);
                 BlackDuckConfigureService blackDuckConfigureService = new BlackDuckConfigureService(deployProductProperties.getIntLogger(), blackDuckServerConfig, applicationValues.getBlackDuckInstallTimeoutInSeconds(), blackDuckConfigurationOptions);
-                //TODO pass in the req'd properties instead of applicationValues
-                BlackDuckInstallerCreator blackDuckInstallerCreator = new BlackDuckInstallerCreator(applicationValues, deployProductProperties);
-                BlackDuckInstaller blackDuckInstaller = blackDuckInstallerCreator.create();
+                // the Alert archive doesn't need Black Duck to be running, so it is downloaded while Black Duck is installed and started
+                if (DeployMethod.NONE != applicationValues.getAlertDeployMethod()) {
+                    blackDuckDownloader.prefetch(prefetchExecutor);
+                    alertDownloader.prefetch(prefetchExecutor);
+                }
+                BlackDuckInstaller blackDuckInstaller = blackDuckInstallerCreator.create(blackDuckDownloader);
 
                 BlackDuckDeployResult blackDuckDeployResult = deployBlackDuck(blackDuckInstaller, blackDuckConfigurationOptions, blackDuckConfigureService, blackDuckWait);
 
-                if (DeployMethod.DEPLOY == applicationValues.getAlertDeployMethod()) {
+                if (DeployMethod.NONE != applicationValues.getAlertDeployMethod()) {
                     logger.info("Attempting to deploy Alert once Black Duck is healthy.");
                     blackDuckDeployResult.getApiToken().ifPresent(deployAlertProperties::setBlackDuckApiToken);
 
                     AlertWait alertWait = createAlertWait(intLogger);
-                    //TODO pass in the req'd properties instead of applicationValues
-                    AlertInstallerCreator alertInstallerCreator = new AlertInstallerCreator(applicationValues, deployProductProperties, deployAlertProperties);
-                    AlertInstaller alertInstaller = alertInstallerCreator.create();
+                    AlertInstaller alertInstaller = alertInstallerCreator.create(alertDownloader);
                     deployAlert(alertInstaller, alertWait);
                 }
             } else {
                 logger.info("Attempting to deploy Alert.");
 
                 AlertWait alertWait = createAlertWait(intLogger);
-                //TODO pass in the req'd properties instead of applicationValues
-                AlertInstallerCreator alertInstallerCreator = new AlertInstallerCreator(applicationValues, deployProductProperties, deployAlertProperties);
-                AlertInstaller alertInstaller = alertInstallerCreator.create();
+                AlertInstaller alertInstaller = alertInstallerCreator.create(alertDownloader);
                 deployAlert(alertInstaller, alertWait);
             }
+
+            // only once every download is done and every config file is edited - a file linked while an editor writes to it would change every version
+            installTreeDeduplicator.deduplicate();
         } catch (InterruptedException | IntegrationException | IOException e) {
             logger.error("The installer could not complete successfully: " + e.getMessage());
+        } finally {
+            // a download that is still running when the install fails will be resumed on the next run
+            prefetchExecutor.shutdownNow();
+            // a removal that has started is finished rather than left half done
+            retentionExecutor.shutdown();
         }
     }
 
@@ -207,6 +305,25 @@ public class Application implements ApplicationRunner {
         }
     }
 
+    /*
+    Used for every docker command that really runs - on a dry run that is only the listings.
+     */
+    private ExecutableRunner createDockerRunner(IntLogger intLogger) {
+        StreamingProcessRunner cliRunner = new StreamingProcessRunner();
+        String dockerHost = System.getenv("DOCKER_HOST");
+        if (!applicationValues.isDockerEngineApi() || (StringUtils.isNotBlank(dockerHost) && !dockerHost.startsWith("unix://"))) {
+            return cliRunner;
+        }
+
+        String socketPath = StringUtils.isNotBlank(dockerHost) ? StringUtils.removeStart(dockerHost, "unix://") : applicationValues.getDockerSocketPath();
+        return new DockerEngineRunner(intLogger, new DockerEngineClient(Paths.get(socketPath)), cliRunner);
+    }
+
+    private BundleImporter createBundleImporter(IntLogger intLogger, File baseDirectory) {
+        ArtifactCache artifactCache = new ArtifactCache(intLogger, new File(baseDirectory, ArtifactCache.DEFAULT_DIRECTORY_NAME));
+        return new BundleImporter(intLogger, artifactCache, new DockerImageTransfer(), Runtime.getRuntime().availableProcessors(), applicationValues.isInstallDryRun());
+    }
+
     private BlackDuckServerConfig createBlackDuckServerConfig(IntLogger intLogger) {
         BlackDuckServerConfigBuilder builder = BlackDuckServerConfig.newBuilder();
         builder.setLogger(intLogger);
@@ -23,7 +23,9 @@
 package com.synopsys.integration.blackduck.installer;
 
 import com.synopsys.integration.blackduck.installer.download.DownloadSource;
+import com.synopsys.integration.blackduck.installer.download.ArchiveFormat;
 import com.synopsys.integration.blackduck.installer.model.DeployMethod;
+import com.synopsys.integration.blackduck.installer.model.InstallerMode;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -38,6 +40,72 @@ public class ApplicationValues {
     @Value("${timeout.in.seconds}")
     private int timeoutInSeconds;
 
+    @Value("${download.connections}")
+    private int downloadConnections;
+
+    @Value("${download.minimum.bytes.per.second}")
+    private long downloadMinimumBytesPerSecond;
+
+    @Value("${download.expand.prefixes}")
+    private String[] downloadExpandPrefixes;
+
+    @Value("${download.delta.url.prefix}")
+    private String downloadDeltaUrlPrefix;
+
+    @Value("${download.deduplicate}")
+    private boolean downloadDeduplicate;
+
+    @Value("${github.api.url}")
+    private String githubApiUrl;
+
+    @Value("${github.token}")
+    private String githubToken;
+
+    @Value("${github.release.cache.ttl.seconds}")
+    private long githubReleaseCacheTtlSeconds;
+
+    @Value("${github.rate.limit.max.wait.seconds}")
+    private long githubRateLimitMaxWaitSeconds;
+
+    @Value("${docker.engine.api}")
+    private boolean dockerEngineApi;
+
+    @Value("${docker.socket.path}")
+    private String dockerSocketPath;
+
+    @Value("${docker.parallel.steps}")
+    private int dockerParallelSteps;
+
+    @Value("${docker.stack.removal.timeout.seconds}")
+    private long dockerStackRemovalTimeoutSeconds;
+
+    @Value("${docker.pre.pull.images}")
+    private boolean dockerPrePullImages;
+
+    @Value("${retention.keep.last}")
+    private int retentionKeepLast;
+
+    @Value("${retention.quota.megabytes}")
+    private long retentionQuotaMegabytes;
+
+    @Value("${retention.minimum.free.megabytes}")
+    private long retentionMinimumFreeMegabytes;
+
+    @Value("${retention.partial.max.age.hours}")
+    private long retentionPartialMaxAgeHours;
+
+    @Value("${download.peer.cache.urls}")
+    private String[] downloadPeerCacheUrls;
+
+    @Value("${installer.mode}")
+    private InstallerMode installerMode;
+
+    @Value("${serve.cache.port}")
+    private int serveCachePort;
+
+    @Value("${bundle.path}")
+    private String bundlePath;
+
     @Value("${proxy.host}")
     private String proxyHost;
 
@@ -92,6 +160,9 @@ public class ApplicationValues {
     @Value("${blackduck.github.download.url.prefix}")
     private String blackDuckGithubDownloadUrlPrefix;
 
+    @Value("${blackduck.github.repository}")
+    private String blackDuckGithubRepository;
+
     @Value("${blackduck.artifactory.url}")
     private String blackDuckArtifactoryUrl;
 
@@ -104,6 +175,12 @@ public class ApplicationValues {
     @Value("${blackduck.artifact}")
     private String blackDuckArtifact;
 
+    @Value("${blackduck.artifact.format}")
+    private ArchiveFormat blackDuckArtifactFormat;
+
+    @Value("${blackduck.local.path}")
+    private String blackDuckLocalPath;
+
     @Value("${blackduck.install.web.server.host}")
     private String blackDuckInstallWebServerHost;
 
@@ -131,6 +208,12 @@ public class ApplicationValues {
     @Value("${blackduck.install.use.local.overrides}")
     private boolean blackDuckInstallUseLocalOverrides;
 
+    @Value("${blackduck.update.parallelism}")
+    private int blackDuckUpdateParallelism;
+
+    @Value("${blackduck.update.delay.in.seconds}")
+    private long blackDuckUpdateDelayInSeconds;
+
     @Value("${blackduck.install.timeout.in.seconds}")
     private int blackDuckInstallTimeoutInSeconds;
 
@@ -164,6 +247,9 @@ public class ApplicationValues {
     @Value("${alert.github.download.url.prefix}")
     private String alertGithubDownloadUrlPrefix;
 
+    @Value("${alert.github.repository}")
+    private String alertGithubRepository;
+
     @Value("${alert.artifactory.url}")
     private String alertArtifactoryUrl;
 
@@ -176,6 +262,12 @@ public class ApplicationValues {
     @Value("${alert.artifact}")
     private String alertArtifact;
 
+    @Value("${alert.artifact.format}")
+    private ArchiveFormat alertArtifactFormat;
+
+    @Value("${alert.local.path}")
+    private String alertLocalPath;
+
     @Value("${alert.install.port}")
     private String alertInstallPort;
 
@@ -221,6 +313,94 @@ public class ApplicationValues {
         return timeoutInSeconds;
     }
 
+    public int getDownloadConnections() {
+        return downloadConnections;
+    }
+
+    public long getDownloadMinimumBytesPerSecond() {
+        return downloadMinimumBytesPerSecond;
+    }
+
+    public String[] getDownloadExpandPrefixes() {
+        return downloadExpandPrefixes;
+    }
+
+    public String getDownloadDeltaUrlPrefix() {
+        return downloadDeltaUrlPrefix;
+    }
+
+    public boolean isDownloadDeduplicate() {
+        return downloadDeduplicate;
+    }
+
+    public String getGithubApiUrl() {
+        return githubApiUrl;
+    }
+
+    public String getGithubToken() {
+        return githubToken;
+    }
+
+    public long getGithubReleaseCacheTtlSeconds() {
+        return githubReleaseCacheTtlSeconds;
+    }
+
+    public long getGithubRateLimitMaxWaitSeconds() {
+        return githubRateLimitMaxWaitSeconds;
+    }
+
+    public boolean isDockerEngineApi() {
+        return dockerEngineApi;
+    }
+
+    public String getDockerSocketPath() {
+        return dockerSocketPath;
+    }
+
+    public int getDockerParallelSteps() {
+        return dockerParallelSteps;
+    }
+
+    public long getDockerStackRemovalTimeoutSeconds() {
+        return dockerStackRemovalTimeoutSeconds;
+    }
+
+    public boolean isDockerPrePullImages() {
+        return dockerPrePullImages;
+    }
+
+    public int getRetentionKeepLast() {
+        return retentionKeepLast;
+    }
+
+    public long getRetentionQuotaMegabytes() {
+        return retentionQuotaMegabytes;
+    }
+
+    public long getRetentionMinimumFreeMegabytes() {
+        return retentionMinimumFreeMegabytes;
+    }
+
+    public long getRetentionPartialMaxAgeHours() {
+        return retentionPartialMaxAgeHours;
+    }
+
+    public String[] getDownloadPeerCacheUrls() {
+        return downloadPeerCacheUrls;
+    }
+
+    public InstallerMode getInstallerMode() {
+        return installerMode;
+    }
+
+    public int getServeCachePort() {
+        return serveCachePort;
+    }
+
+    public String getBundlePath() {
+        return bundlePath;
+    }
+
     public String getProxyHost() {
         return proxyHost;
     }
@@ -293,6 +473,10 @@ public class ApplicationValues {
         return blackDuckGithubDownloadUrlPrefix;
     }
 
+    public String getBlackDuckGithubRepository() {
+        return blackDuckGithubRepository;
+    }
+
     public String getBlackDuckArtifactoryUrl() {
         return blackDuckArtifactoryUrl;
     }
@@ -309,6 +493,14 @@ public class ApplicationValues {
         return blackDuckArtifact;
     }
 
+    public ArchiveFormat getBlackDuckArtifactFormat() {
+        return blackDuckArtifactFormat;
+    }
+
+    public String getBlackDuckLocalPath() {
+        return blackDuckLocalPath;
+    }
+
     public String getBlackDuckInstallWebServerHost() {
         return blackDuckInstallWebServerHost;
     }
@@ -345,6 +537,14 @@ public class ApplicationValues {
         return blackDuckInstallUseLocalOverrides;
     }
 
+    public int getBlackDuckUpdateParallelism() {
+        return blackDuckUpdateParallelism;
+    }
+
+    public long getBlackDuckUpdateDelayInSeconds() {
+        return blackDuckUpdateDelayInSeconds;
+    }
+
     public int getBlackDuckInstallTimeoutInSeconds() {
         return blackDuckInstallTimeoutInSeconds;
     }
@@ -389,6 +589,10 @@ public class ApplicationValues {
         return alertGithubDownloadUrlPrefix;
     }
 
+    public String getAlertGithubRepository() {
+        return alertGithubRepository;
+    }
+
     public String getAlertArtifactoryUrl() {
         return alertArtifactoryUrl;
     }
@@ -405,6 +609,14 @@ public class ApplicationValues {
         return alertArtifact;
     }
 
+    public ArchiveFormat getAlertArtifactFormat() {
+        return alertArtifactFormat;
+    }
+
+    public String getAlertLocalPath() {
+        return alertLocalPath;
+    }
+
     public String getAlertInstallPort() {
         return alertInstallPort;
     }
@@ -24,12 +24,21 @@ package com.synopsys.integration.blackduck.installer;
 
 import com.synopsys.integration.blackduck.installer.dockerswarm.DockerCommands;
 import com.synopsys.integration.blackduck.installer.dockerswarm.DockerStackDeploy;
+import com.synopsys.integration.blackduck.installer.dockerswarm.ImagePrePuller;
+import com.synopsys.integration.blackduck.installer.dockerswarm.StackDrainer;
+import com.synopsys.integration.blackduck.installer.download.ArchiveExpander;
+import com.synopsys.integration.blackduck.installer.download.ArtifactCache;
+import com.synopsys.integration.blackduck.installer.download.DeltaUpgrader;
+import com.synopsys.integration.blackduck.installer.download.GithubReleaseResolver;
+import com.synopsys.integration.blackduck.installer.download.LocalStager;
+import com.synopsys.integration.blackduck.installer.download.MirrorSelector;
+import com.synopsys.integration.blackduck.installer.download.ParallelDownloader;
 import com.synopsys.integration.blackduck.installer.hash.HashUtility;
 import com.synopsys.integration.blackduck.installer.model.CustomCertificate;
 import com.synopsys.integration.blackduck.installer.model.ExecutablesRunner;
+import com.synopsys.integration.blackduck.installer.retention.InstallRetention;
 import com.synopsys.integration.log.IntLogger;
 import com.synopsys.integration.rest.client.IntHttpClient;
-import com.synopsys.integration.util.CommonZipExpander;
 
 import java.io.File;
 
@@ -39,23 +48,41 @@ public class DeployProductProperties {
     private final IntLogger intLogger;
     private final HashUtility hashUtility;
     private final DockerCommands dockerCommands;
-    private final CommonZipExpander commonZipExpander;
+    private final ArchiveExpander archiveExpander;
+    private final ArtifactCache artifactCache;
     private final CustomCertificate customCertificate;
     private final IntHttpClient intHttpClient;
+    private final ParallelDownloader parallelDownloader;
+    private final MirrorSelector mirrorSelector;
+    private final LocalStager localStager;
+    private final DeltaUpgrader deltaUpgrader;
+    private final InstallRetention installRetention;
+    private final GithubReleaseResolver githubReleaseResolver;
     private final ExecutablesRunner executablesRunner;
     private final DockerStackDeploy deployStack;
+    private final StackDrainer stackDrainer;
+    private final ImagePrePuller imagePrePuller;
 
-    public DeployProductProperties(File baseDirectory, String lineSeparator, IntLogger intLogger, HashUtility hashUtility, DockerCommands dockerCommands, CommonZipExpander commonZipExpander, CustomCertificate customCertificate, IntHttpClient intHttpClient, ExecutablesRunner executablesRunner, DockerStackDeploy deployStack) {
+    public DeployProductProperties(File baseDirectory, String lineSeparator, IntLogger intLogger, HashUtility hashUtility, DockerCommands dockerCommands, ArchiveExpander archiveExpander, ArtifactCache artifactCache, CustomCertificate customCertificate, IntHttpClient intHttpClient, ParallelDownloader parallelDownloader, MirrorSelector mirrorSelector, LocalStager localStager, DeltaUpgrader deltaUpgrader, InstallRetention installRetention, GithubReleaseResolver githubReleaseResolver, ExecutablesRunner executablesRunner, DockerStackDeploy deployStack, StackDrainer stackDrainer, ImagePrePuller imagePrePuller) {
         this.baseDirectory = baseDirectory;
         this.lineSeparator = lineSeparator;
         this.intLogger = intLogger;
         this.hashUtility = hashUtility;
         this.dockerCommands = dockerCommands;
-        this.commonZipExpander = commonZipExpander;
+        this.archiveExpander = archiveExpander;
+        this.artifactCache = artifactCache;
         this.customCertificate = customCertificate;
         this.intHttpClient = intHttpClient;
+        this.parallelDownloader = parallelDownloader;
+        this.mirrorSelector = mirrorSelector;
+        this.localStager = localStager;
+        this.deltaUpgrader = deltaUpgrader;
+        this.installRetention = installRetention;
+        this.githubReleaseResolver = githubReleaseResolver;
         this.executablesRunner = executablesRunner;
         this.deployStack = deployStack;
+        this.stackDrainer = stackDrainer;
+        this.imagePrePuller = imagePrePuller;
     }
 
     public File getBaseDirectory() {
@@ -78,8 +105,12 @@ public class DeployProductProperties {
         return dockerCommands;
     }
 
-    public CommonZipExpander getCommonZipExpander() {
-        return commonZipExpander;
+    public ArchiveExpander getArchiveExpander() {
+        return archiveExpander;
+    }
+
+    public ArtifactCache getArtifactCache() {
+        return artifactCache;
     }
 
     public CustomCertificate getCustomCertificate() {
@@ -90,6 +121,30 @@ public class DeployProductProperties {
         return intHttpClient;
     }
 
+    public ParallelDownloader getParallelDownloader() {
+        return parallelDownloader;
+    }
+
+    public MirrorSelector getMirrorSelector() {
+        return mirrorSelector;
+    }
+
+    public LocalStager getLocalStager() {
+        return localStager;
+    }
+
+    public DeltaUpgrader getDeltaUpgrader() {
+        return deltaUpgrader;
+    }
+
+    public InstallRetention getInstallRetention() {
+        return installRetention;
+    }
+
+    public GithubReleaseResolver getGithubReleaseResolver() {
+        return githubReleaseResolver;
+    }
+
     public ExecutablesRunner getExecutablesRunner() {
         return executablesRunner;
     }
@@ -98,4 +153,12 @@ public class DeployProductProperties {
         return deployStack;
     }
 
+    public StackDrainer getStackDrainer() {
+        return stackDrainer;
+    }
+
+    public ImagePrePuller getImagePrePuller() {
+        return imagePrePuller;
+    }
+
 }
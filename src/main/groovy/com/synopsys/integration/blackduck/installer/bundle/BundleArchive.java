@@ -0,0 +1,60 @@
+/**
+ * blackduck-installer
+ *
+ * Copyright (c) 2019 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.installer.bundle;
+
+public class BundleArchive {
+    private final String name;
+    private final String version;
+    private final String downloadUrl;
+    private final String entryName;
+    private final String sha256;
+
+    public BundleArchive(String name, String version, String downloadUrl, String entryName, String sha256) {
+        this.name = name;
+        this.version = version;
+        this.downloadUrl = downloadUrl;
+        this.entryName = entryName;
+        this.sha256 = sha256;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public String getDownloadUrl() {
+        return downloadUrl;
+    }
+
+    public String getEntryName() {
+        return entryName;
+    }
+
+    public String getSha256() {
+        return sha256;
+    }
+
+}
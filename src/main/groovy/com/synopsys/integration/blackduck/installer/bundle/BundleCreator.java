@@ -0,0 +1,181 @@
+/**
+ * blackduck-installer
+ *
+ * Copyright (c) 2019 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.installer.bundle;
+
+import com.synopsys.integration.blackduck.installer.dockerswarm.ComposeImages;
+import com.synopsys.integration.blackduck.installer.dockerswarm.DockerCommands;
+import com.synopsys.integration.blackduck.installer.dockerswarm.DockerImageTransfer;
+import com.synopsys.integration.blackduck.installer.download.ArchiveFormat;
+import com.synopsys.integration.blackduck.installer.download.DownloadRecord;
+import com.synopsys.integration.blackduck.installer.download.ZipFileDownloader;
+import com.synopsys.integration.blackduck.installer.exception.BlackDuckInstallerException;
+import com.synopsys.integration.blackduck.installer.model.ExecutablesRunner;
+import com.synopsys.integration.log.IntLogger;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.io.FileUtils;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPOutputStream;
+
+/*
+Packages the release archives and every image their compose files reference into one bundle, so an air-gapped site never
+needs a registry. Each image is saved and compressed on its own thread - the tar itself is then written in one pass.
+ */
+public class BundleCreator {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final IntLogger logger;
+    private final ComposeImages composeImages;
+    private final DockerCommands dockerCommands;
+    private final DockerImageTransfer dockerImageTransfer;
+    private final ExecutablesRunner executablesRunner;
+    private final int threads;
+
+    public BundleCreator(IntLogger logger, ComposeImages composeImages, DockerCommands dockerCommands, DockerImageTransfer dockerImageTransfer, ExecutablesRunner executablesRunner, int threads) {
+        this.logger = logger;
+        this.composeImages = composeImages;
+        this.dockerCommands = dockerCommands;
+        this.dockerImageTransfer = dockerImageTransfer;
+        this.executablesRunner = executablesRunner;
+        this.threads = threads;
+    }
+
+    public void create(List<ZipFileDownloader> zipFileDownloaders, File bundleFile) throws BlackDuckInstallerException {
+        File workDirectory = new File(bundleFile.getAbsoluteFile().getParentFile(), bundleFile.getName() + ".tmp");
+        FileUtils.deleteQuietly(workDirectory);
+        workDirectory.mkdirs();
+
+        ExecutorService executorService = Executors.newFixedThreadPool(threads);
+        try {
+            BundleIndex bundleIndex = new BundleIndex();
+            Map<String, File> entryFiles = new LinkedHashMap<>();
+            SortedSet<String> images = new TreeSet<>();
+            for (ZipFileDownloader zipFileDownloader : zipFileDownloaders) {
+                File installDirectory = zipFileDownloader.download();
+                File archive = zipFileDownloader.findArchive().orElseThrow(() -> new BlackDuckInstallerException(String.format("There is no archive of %s %s to bundle - an extracted release can't be bundled.", zipFileDownloader.getName(), zipFileDownloader.getVersion())));
+                BundleArchive bundleArchive = createBundleArchive(zipFileDownloader, archive);
+                bundleIndex.addArchive(bundleArchive);
+                entryFiles.put(bundleArchive.getEntryName(), archive);
+                images.addAll(composeImages.find(zipFileDownloader.resolve("docker-swarm").orElse(new File(installDirectory, "docker-swarm"))));
+            }
+
+            logger.info(String.format("Saving %d images with %d threads.", images.size(), threads));
+            List<Future<BundleImage>> savedImages = new ArrayList<>();
+            int imageNumber = 0;
+            for (String image : images) {
+                String entryName = String.format("images/%03d.tar.gz", imageNumber++);
+                File imageFile = new File(workDirectory, entryName.replace('/', '-'));
+                entryFiles.put(entryName, imageFile);
+                savedImages.add(executorService.submit(() -> saveImage(image, entryName, imageFile)));
+            }
+            for (Future<BundleImage> savedImage : savedImages) {
+                bundleIndex.addImage(savedImage.get());
+            }
+
+            File partialFile = new File(workDirectory, bundleFile.getName());
+            writeBundle(bundleIndex, entryFiles, partialFile);
+            Files.move(partialFile.toPath(), bundleFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            logger.info(String.format("Created the bundle %s (%s) with %d archives and %d images.", bundleFile.getAbsolutePath(), FileUtils.byteCountToDisplaySize(bundleFile.length()), bundleIndex.getArchives().size(), bundleIndex.getImages().size()));
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof BlackDuckInstallerException) {
+                throw (BlackDuckInstallerException) e.getCause();
+            }
+            throw new BlackDuckInstallerException("Could not save an image: " + e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BlackDuckInstallerException("Interrupted while saving the images.", e);
+        } catch (IOException e) {
+            throw new BlackDuckInstallerException(String.format("Could not write the bundle %s: %s", bundleFile.getAbsolutePath(), e.getMessage()), e);
+        } finally {
+            executorService.shutdownNow();
+            FileUtils.deleteQuietly(workDirectory);
+        }
+    }
+
+    private BundleArchive createBundleArchive(ZipFileDownloader zipFileDownloader, File archive) throws BlackDuckInstallerException {
+        String downloadUrl = zipFileDownloader.getDownloadRecord().map(DownloadRecord::getDownloadUrl).orElse(null);
+        try (InputStream inputStream = new FileInputStream(archive)) {
+            String extension = ArchiveFormat.sniff(archive).orElse(ArchiveFormat.ZIP).getExtension();
+            String entryName = String.format("archives/%s-%s%s", zipFileDownloader.getName(), zipFileDownloader.getVersion(), extension);
+            return new BundleArchive(zipFileDownloader.getName(), zipFileDownloader.getVersion(), downloadUrl, entryName, DigestUtils.sha256Hex(inputStream));
+        } catch (IOException e) {
+            throw new BlackDuckInstallerException(String.format("Could not read %s: %s", archive.getAbsolutePath(), e.getMessage()), e);
+        }
+    }
+
+    private BundleImage saveImage(String image, String entryName, File imageFile) throws BlackDuckInstallerException {
+        // an image that was built locally can't be pulled, but can still be saved
+        if (0 != executablesRunner.runExecutableCode(dockerCommands.pullImage(image))) {
+            logger.warn(String.format("Could not pull %s - the local image will be saved.", image));
+        }
+
+        long start = System.currentTimeMillis();
+        MessageDigest messageDigest = DigestUtils.getSha256Digest();
+        try (OutputStream outputStream = new GZIPOutputStream(new DigestOutputStream(new BufferedOutputStream(new FileOutputStream(imageFile), BUFFER_SIZE), messageDigest), BUFFER_SIZE)) {
+            dockerImageTransfer.save(image, outputStream);
+        } catch (IOException e) {
+            throw new BlackDuckInstallerException(String.format("Could not save %s: %s", image, e.getMessage()), e);
+        }
+        logger.info(String.format("Saved %s (%s compressed) in %d ms.", image, FileUtils.byteCountToDisplaySize(imageFile.length()), System.currentTimeMillis() - start));
+        return new BundleImage(image, entryName, Hex.encodeHexString(messageDigest.digest()));
+    }
+
+    // the index goes first, then every entry in the order of the map
+    static void writeBundle(BundleIndex bundleIndex, Map<String, File> entryFiles, File bundleFile) throws IOException {
+        try (TarArchiveOutputStream tarArchiveOutputStream = new TarArchiveOutputStream(new BufferedOutputStream(new FileOutputStream(bundleFile), BUFFER_SIZE))) {
+            tarArchiveOutputStream.setBigNumberMode(TarArchiveOutputStream.BIGNUMBER_STAR);
+
+            ByteArrayOutputStream index = new ByteArrayOutputStream();
+            bundleIndex.write(index);
+            putEntry(tarArchiveOutputStream, BundleIndex.ENTRY_NAME, index.size());
+            index.writeTo(tarArchiveOutputStream);
+            tarArchiveOutputStream.closeArchiveEntry();
+
+            for (Map.Entry<String, File> entryFile : entryFiles.entrySet()) {
+                putEntry(tarArchiveOutputStream, entryFile.getKey(), entryFile.getValue().length());
+                Files.copy(entryFile.getValue().toPath(), tarArchiveOutputStream);
+                tarArchiveOutputStream.closeArchiveEntry();
+            }
+        }
+    }
+
+    private static void putEntry(TarArchiveOutputStream tarArchiveOutputStream, String entryName, long size) throws IOException {
+        TarArchiveEntry entry = new TarArchiveEntry(entryName);
+        entry.setSize(size);
+        entry.setModTime(0);
+        tarArchiveOutputStream.putArchiveEntry(entry);
+    }
+
+}
@@ -0,0 +1,128 @@
+/**
+ * blackduck-installer
+ *
+ * Copyright (c) 2019 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.installer.bundle;
+
+import com.synopsys.integration.blackduck.installer.exception.BlackDuckInstallerException;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.BoundedInputStream;
+
+import java.io.*;
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+A bundle is a plain tar, so it can be inspected with tar tf. Only the headers are read up front - each entry can then be
+opened on its own, which lets the images be loaded in parallel.
+ */
+public class BundleFile {
+    private static final int BLOCK_SIZE = 512;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final File file;
+    private final Map<String, Entry> entries;
+
+    public static BundleFile open(File file) throws BlackDuckInstallerException {
+        if (!file.isFile()) {
+            throw new BlackDuckInstallerException(String.format("The bundle %s does not exist.", file.getAbsolutePath()));
+        }
+
+        Map<String, Entry> entries = new HashMap<>();
+        byte[] header = new byte[BLOCK_SIZE];
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r")) {
+            long position = 0;
+            while (position + BLOCK_SIZE <= randomAccessFile.length()) {
+                randomAccessFile.seek(position);
+                randomAccessFile.readFully(header);
+                if (isEndOfArchive(header)) {
+                    break;
+                }
+                TarArchiveEntry entry = new TarArchiveEntry(header);
+                entries.put(entry.getName(), new Entry(position + BLOCK_SIZE, entry.getSize()));
+                position += BLOCK_SIZE + (entry.getSize() + BLOCK_SIZE - 1) / BLOCK_SIZE * BLOCK_SIZE;
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            throw new BlackDuckInstallerException(String.format("%s is not a bundle: %s", file.getAbsolutePath(), e.getMessage()), e);
+        }
+
+        return new BundleFile(file, entries);
+    }
+
+    private static boolean isEndOfArchive(byte[] header) {
+        for (byte b : header) {
+            if (0 != b) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private BundleFile(File file, Map<String, Entry> entries) {
+        this.file = file;
+        this.entries = entries;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public BundleIndex readIndex() throws BlackDuckInstallerException {
+        try (InputStream inputStream = openEntry(BundleIndex.ENTRY_NAME)) {
+            return BundleIndex.load(inputStream);
+        } catch (IOException e) {
+            throw new BlackDuckInstallerException(String.format("Could not read the index of %s: %s", file.getAbsolutePath(), e.getMessage()), e);
+        }
+    }
+
+    public InputStream openEntry(String entryName) throws BlackDuckInstallerException {
+        Entry entry = entries.get(entryName);
+        if (null == entry) {
+            throw new BlackDuckInstallerException(String.format("%s does not contain %s.", file.getAbsolutePath(), entryName));
+        }
+
+        try {
+            InputStream inputStream = new FileInputStream(file);
+            try {
+                IOUtils.skipFully(inputStream, entry.offset);
+            } catch (IOException e) {
+                inputStream.close();
+                throw e;
+            }
+            return new BufferedInputStream(new BoundedInputStream(inputStream, entry.size), BUFFER_SIZE);
+        } catch (IOException e) {
+            throw new BlackDuckInstallerException(String.format("Could not read %s from %s: %s", entryName, file.getAbsolutePath(), e.getMessage()), e);
+        }
+    }
+
+    private static class Entry {
+        private final long offset;
+        private final long size;
+
+        private Entry(long offset, long size) {
+            this.offset = offset;
+            this.size = size;
+        }
+
+    }
+
+}
@@ -20,23 +20,29 @@
  * specific language governing permissions and limitations
  * under the License.
  */
-package com.synopsys.integration.blackduck.installer.dockerswarm.output;
+package com.synopsys.integration.blackduck.installer.bundle;
 
-import com.synopsys.integration.blackduck.installer.model.DockerSecret;
+public class BundleImage {
+    private final String image;
+    private final String entryName;
+    private final String sha256;
 
-public class DockerSecrets {
-    private String dockerSecrets;
+    public BundleImage(String image, String entryName, String sha256) {
+        this.image = image;
+        this.entryName = entryName;
+        this.sha256 = sha256;
+    }
 
-    public static DockerSecrets create(String dockerSecretsOutput) {
-        return new DockerSecrets(dockerSecretsOutput);
+    public String getImage() {
+        return image;
     }
 
-    private DockerSecrets(String dockerSecretsOutput) {
-        this.dockerSecrets = dockerSecretsOutput;
+    public String getEntryName() {
+        return entryName;
     }
 
-    public boolean doesSecretExist(DockerSecret dockerSecret) {
-        return dockerSecrets.contains(dockerSecret.getLabel());
+    public String getSha256() {
+        return sha256;
     }
 
 }
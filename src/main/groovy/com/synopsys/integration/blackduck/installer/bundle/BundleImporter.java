@@ -0,0 +1,151 @@
+/**
+ * blackduck-installer
+ *
+ * Copyright (c) 2019 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.installer.bundle;
+
+import com.synopsys.integration.blackduck.installer.dockerswarm.DockerImageTransfer;
+import com.synopsys.integration.blackduck.installer.download.ArtifactCache;
+import com.synopsys.integration.blackduck.installer.download.DownloadResult;
+import com.synopsys.integration.blackduck.installer.exception.BlackDuckInstallerException;
+import com.synopsys.integration.log.IntLogger;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.NullOutputStream;
+
+import java.io.*;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPInputStream;
+
+/*
+The archives go into the artifact cache under the url they were downloaded from, so the normal download finds them there.
+ */
+public class BundleImporter {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final IntLogger logger;
+    private final ArtifactCache artifactCache;
+    private final DockerImageTransfer dockerImageTransfer;
+    private final int threads;
+    private final boolean dryRun;
+
+    public BundleImporter(IntLogger logger, ArtifactCache artifactCache, DockerImageTransfer dockerImageTransfer, int threads, boolean dryRun) {
+        this.logger = logger;
+        this.artifactCache = artifactCache;
+        this.dockerImageTransfer = dockerImageTransfer;
+        this.threads = threads;
+        this.dryRun = dryRun;
+    }
+
+    public void importArchives(BundleFile bundleFile) throws BlackDuckInstallerException {
+        for (BundleArchive bundleArchive : bundleFile.readIndex().getArchives()) {
+            File partialFile = artifactCache.getPartialFile(bundleArchive.getDownloadUrl(), bundleArchive.getVersion());
+            try {
+                DigestInputStream digestInputStream;
+                long size;
+                try (InputStream inputStream = bundleFile.openEntry(bundleArchive.getEntryName());
+                     OutputStream outputStream = new FileOutputStream(partialFile)) {
+                    digestInputStream = new DigestInputStream(inputStream, DigestUtils.getSha256Digest());
+                    size = IOUtils.copyLarge(digestInputStream, outputStream);
+                }
+                String sha256 = verify(bundleArchive.getEntryName(), digestInputStream.getMessageDigest(), bundleArchive.getSha256());
+                artifactCache.store(new DownloadResult(partialFile, sha256, size), bundleArchive.getDownloadUrl(), bundleArchive.getVersion());
+            } catch (IOException e) {
+                partialFile.delete();
+                throw new BlackDuckInstallerException(String.format("Could not import %s %s from %s: %s", bundleArchive.getName(), bundleArchive.getVersion(), bundleFile.getFile().getAbsolutePath(), e.getMessage()), e);
+            } catch (BlackDuckInstallerException e) {
+                partialFile.delete();
+                throw e;
+            }
+            logger.info(String.format("Imported %s %s from the bundle into the artifact cache.", bundleArchive.getName(), bundleArchive.getVersion()));
+        }
+    }
+
+    public void loadImages(BundleFile bundleFile) throws BlackDuckInstallerException {
+        List<BundleImage> bundleImages = bundleFile.readIndex().getImages();
+        if (dryRun) {
+            bundleImages.forEach(bundleImage -> logger.info("Dry run - would load " + bundleImage.getImage()));
+            return;
+        }
+
+        logger.info(String.format("Loading %d images with %d threads.", bundleImages.size(), threads));
+        long start = System.currentTimeMillis();
+        ExecutorService executorService = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> loadedImages = new ArrayList<>();
+            for (BundleImage bundleImage : bundleImages) {
+                loadedImages.add(executorService.submit(() -> {
+                    loadImage(bundleFile, bundleImage);
+                    return null;
+                }));
+            }
+            for (Future<?> loadedImage : loadedImages) {
+                loadedImage.get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof BlackDuckInstallerException) {
+                throw (BlackDuckInstallerException) e.getCause();
+            }
+            throw new BlackDuckInstallerException("Could not load an image: " + e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BlackDuckInstallerException("Interrupted while loading the images.", e);
+        } finally {
+            executorService.shutdownNow();
+        }
+        logger.info(String.format("Loaded %d images in %d ms.", bundleImages.size(), System.currentTimeMillis() - start));
+    }
+
+    private void loadImage(BundleFile bundleFile, BundleImage bundleImage) throws BlackDuckInstallerException {
+        // a corrupt entry must never reach docker, so the digest is checked in a pass of its own before the load
+        try (InputStream inputStream = bundleFile.openEntry(bundleImage.getEntryName())) {
+            DigestInputStream digestInputStream = new DigestInputStream(inputStream, DigestUtils.getSha256Digest());
+            IOUtils.copyLarge(digestInputStream, NullOutputStream.NULL_OUTPUT_STREAM);
+            verify(bundleImage.getEntryName(), digestInputStream.getMessageDigest(), bundleImage.getSha256());
+        } catch (IOException e) {
+            throw new BlackDuckInstallerException(String.format("Could not read %s from %s: %s", bundleImage.getEntryName(), bundleFile.getFile().getAbsolutePath(), e.getMessage()), e);
+        }
+
+        try (InputStream inputStream = bundleFile.openEntry(bundleImage.getEntryName())) {
+            String output = dockerImageTransfer.load(new GZIPInputStream(inputStream, BUFFER_SIZE));
+            logger.info(String.format("%s (%s)", output, bundleImage.getImage()));
+        } catch (IOException e) {
+            throw new BlackDuckInstallerException(String.format("Could not load %s from %s: %s", bundleImage.getImage(), bundleFile.getFile().getAbsolutePath(), e.getMessage()), e);
+        }
+    }
+
+    private String verify(String entryName, MessageDigest messageDigest, String expectedSha256) throws BlackDuckInstallerException {
+        String sha256 = Hex.encodeHexString(messageDigest.digest());
+        if (!sha256.equals(expectedSha256)) {
+            throw new BlackDuckInstallerException(String.format("%s in the bundle is corrupt - its digest is %s rather than %s.", entryName, sha256, expectedSha256));
+        }
+        return sha256;
+    }
+
+}
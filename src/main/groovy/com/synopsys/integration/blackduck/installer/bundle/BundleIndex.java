@@ -0,0 +1,111 @@
+/**
+ * blackduck-installer
+ *
+ * Copyright (c) 2019 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.installer.bundle;
+
+import com.synopsys.integration.blackduck.installer.exception.BlackDuckInstallerException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.*;
+
+/*
+The first entry of a bundle - it lists every other entry with its digest, so a bundle is checked as it is read.
+ */
+public class BundleIndex {
+    public static final String ENTRY_NAME = "bundle.properties";
+
+    private static final String FORMAT_KEY = "format";
+    private static final String FORMAT = "1";
+    private static final String ARCHIVE_COUNT_KEY = "archives";
+    private static final String IMAGE_COUNT_KEY = "images";
+
+    private final List<BundleArchive> archives = new ArrayList<>();
+    private final List<BundleImage> images = new ArrayList<>();
+
+    public static BundleIndex load(InputStream inputStream) throws BlackDuckInstallerException {
+        Properties properties = new Properties();
+        try {
+            properties.load(inputStream);
+        } catch (IOException e) {
+            throw new BlackDuckInstallerException("Could not read the bundle index: " + e.getMessage(), e);
+        }
+        if (!FORMAT.equals(properties.getProperty(FORMAT_KEY))) {
+            throw new BlackDuckInstallerException(String.format("The bundle format %s is not supported by this installer.", properties.getProperty(FORMAT_KEY)));
+        }
+
+        BundleIndex bundleIndex = new BundleIndex();
+        int archiveCount = Integer.parseInt(properties.getProperty(ARCHIVE_COUNT_KEY, "0"));
+        for (int i = 0; i < archiveCount; i++) {
+            String prefix = "archive." + i + ".";
+            bundleIndex.addArchive(new BundleArchive(properties.getProperty(prefix + "name"), properties.getProperty(prefix + "version"), properties.getProperty(prefix + "url"), properties.getProperty(prefix + "entry"), properties.getProperty(prefix + "sha256")));
+        }
+        int imageCount = Integer.parseInt(properties.getProperty(IMAGE_COUNT_KEY, "0"));
+        for (int i = 0; i < imageCount; i++) {
+            String prefix = "image." + i + ".";
+            bundleIndex.addImage(new BundleImage(properties.getProperty(prefix + "name"), properties.getProperty(prefix + "entry"), properties.getProperty(prefix + "sha256")));
+        }
+        return bundleIndex;
+    }
+
+    public void addArchive(BundleArchive bundleArchive) {
+        archives.add(bundleArchive);
+    }
+
+    public void addImage(BundleImage bundleImage) {
+        images.add(bundleImage);
+    }
+
+    public List<BundleArchive> getArchives() {
+        return Collections.unmodifiableList(archives);
+    }
+
+    public List<BundleImage> getImages() {
+        return Collections.unmodifiableList(images);
+    }
+
+    public void write(OutputStream outputStream) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty(FORMAT_KEY, FORMAT);
+        properties.setProperty(ARCHIVE_COUNT_KEY, String.valueOf(archives.size()));
+        for (int i = 0; i < archives.size(); i++) {
+            BundleArchive bundleArchive = archives.get(i);
+            String prefix = "archive." + i + ".";
+            properties.setProperty(prefix + "name", bundleArchive.getName());
+            properties.setProperty(prefix + "version", bundleArchive.getVersion());
+            properties.setProperty(prefix + "url", bundleArchive.getDownloadUrl());
+            properties.setProperty(prefix + "entry", bundleArchive.getEntryName());
+            properties.setProperty(prefix + "sha256", bundleArchive.getSha256());
+        }
+        properties.setProperty(IMAGE_COUNT_KEY, String.valueOf(images.size()));
+        for (int i = 0; i < images.size(); i++) {
+            BundleImage bundleImage = images.get(i);
+            String prefix = "image." + i + ".";
+            properties.setProperty(prefix + "name", bundleImage.getImage());
+            properties.setProperty(prefix + "entry", bundleImage.getEntryName());
+            properties.setProperty(prefix + "sha256", bundleImage.getSha256());
+        }
+        properties.store(outputStream, "release archives and service images of an air-gapped install");
+    }
+
+}
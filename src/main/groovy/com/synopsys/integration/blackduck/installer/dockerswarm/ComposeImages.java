@@ -0,0 +1,89 @@
+/**
+ * blackduck-installer
+ *
+ * Copyright (c) 2019 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.installer.dockerswarm;
+
+import com.synopsys.integration.blackduck.installer.exception.BlackDuckInstallerException;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/*
+Finds the images a release deploys - the compose files only ever use the plain "image: name:tag" form, so there is no need for a yaml parser.
+ */
+public class ComposeImages {
+    private static final Pattern IMAGE_LINE = Pattern.compile("^\\s*image:\\s*['\"]?([^'\"\\s#]+)['\"]?\\s*(#.*)?$");
+
+    public SortedSet<String> find(File orchestrationDirectory) throws BlackDuckInstallerException {
+        List<File> composeFiles;
+        try (Stream<Path> paths = Files.walk(orchestrationDirectory.toPath())) {
+            composeFiles = paths
+                    .filter(Files::isRegularFile)
+                    .filter(this::isComposeFile)
+                    .map(Path::toFile)
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new BlackDuckInstallerException(String.format("Could not read the compose files in %s: %s", orchestrationDirectory.getAbsolutePath(), e.getMessage()), e);
+        }
+        return find(composeFiles);
+    }
+
+    public SortedSet<String> find(Collection<File> composeFiles) throws BlackDuckInstallerException {
+        SortedSet<String> images = new TreeSet<>();
+        for (File composeFile : composeFiles) {
+            try {
+                images.addAll(parse(Files.readAllLines(composeFile.toPath(), StandardCharsets.UTF_8)));
+            } catch (IOException e) {
+                throw new BlackDuckInstallerException(String.format("Could not read the compose file %s: %s", composeFile.getAbsolutePath(), e.getMessage()), e);
+            }
+        }
+        return images;
+    }
+
+    public SortedSet<String> parse(List<String> composeLines) {
+        SortedSet<String> images = new TreeSet<>();
+        for (String line : composeLines) {
+            Matcher matcher = IMAGE_LINE.matcher(line);
+            if (matcher.matches()) {
+                images.add(matcher.group(1));
+            }
+        }
+        return images;
+    }
+
+    private boolean isComposeFile(Path path) {
+        String filename = path.getFileName().toString();
+        return filename.endsWith(".yml") || filename.endsWith(".yaml");
+    }
+
+}
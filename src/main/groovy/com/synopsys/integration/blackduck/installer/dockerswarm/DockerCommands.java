@@ -45,22 +45,51 @@ public class DockerCommands {
         return executableCreator.createExecutable(fullCommand);
     }
 
-    public Executable restartDocker() {
-        return executableCreator.createExecutable("systemctl restart docker");
-    }
-
+    /*
+    Nothing runs these through a shell, so the formats are unquoted and the fields are separated by real tabs.
+     */
     public Executable listStackNames() {
-        String fullCommand = "docker stack ls --format \"{{.Name}}\"";
+        String fullCommand = "docker stack ls --format {{.Name}}";
         return executableCreator.createExecutable(fullCommand);
     }
 
     public Executable listSecretNames() {
-        String fullCommand = "docker secret ls --format \"{{.Name}}\"";
+        String fullCommand = "docker secret ls --format {{.Name}}";
+        return executableCreator.createExecutable(fullCommand);
+    }
+
+    public Executable listServices() {
+        String fullCommand = "docker service ls --format {{.ID}}\t{{.Name}}\t{{.Mode}}\t{{.Image}}";
+        return executableCreator.createExecutable(fullCommand);
+    }
+
+    public Executable listNodes() {
+        String fullCommand = "docker node ls --format {{.ID}}\t{{.Hostname}}\t{{.Status}}\t{{.Availability}}";
+        return executableCreator.createExecutable(fullCommand);
+    }
+
+    public Executable listStackTasks(String stackName) {
+        String fullCommand = String.format("docker stack ps %s --format {{.ID}}\t{{.Name}}\t{{.Node}}\t{{.DesiredState}}\t{{.CurrentState}}", stackName);
         return executableCreator.createExecutable(fullCommand);
     }
 
-    public Executable listServiceNames() {
-        String fullCommand = "docker service ls --format \"{{.Name}}\"";
+    public Executable listServiceImages(String stackName) {
+        String fullCommand = String.format("docker service ls --filter label=com.docker.stack.namespace=%s --format {{.Image}}", stackName);
+        return executableCreator.createExecutable(fullCommand);
+    }
+
+    public Executable listStackServiceNames(String stackName) {
+        String fullCommand = String.format("docker service ls --filter label=com.docker.stack.namespace=%s --format {{.Name}}", stackName);
+        return executableCreator.createExecutable(fullCommand);
+    }
+
+    public Executable listStackContainerNames(String stackName) {
+        String fullCommand = String.format("docker container ls --filter label=com.docker.stack.namespace=%s --format {{.Names}}", stackName);
+        return executableCreator.createExecutable(fullCommand);
+    }
+
+    public Executable listStackNetworkNames(String stackName) {
+        String fullCommand = String.format("docker network ls --filter label=com.docker.stack.namespace=%s --format {{.Name}}", stackName);
         return executableCreator.createExecutable(fullCommand);
     }
 
@@ -69,6 +98,11 @@ public class DockerCommands {
         return executableCreator.createExecutable(fullCommand);
     }
 
+    public Executable pullImage(String image) {
+        String fullCommand = String.format("docker pull %s", image);
+        return executableCreator.createExecutable(fullCommand);
+    }
+
     public Executable createSecret(String stackName, DockerSecret dockerSecret) {
         String fullCommand = String.format("docker secret create %s_%s %s", stackName, dockerSecret.getLabel(), dockerSecret.getPath());
         return executableCreator.createExecutable(fullCommand);
@@ -0,0 +1,90 @@
+/**
+ * blackduck-installer
+ *
+ * Copyright (c) 2019 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.installer.dockerswarm;
+
+import com.synopsys.integration.blackduck.installer.exception.BlackDuckInstallerException;
+import org.apache.commons.io.IOUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/*
+docker save and docker load move whole images through a pipe, which the executable runner would buffer into a String.
+ */
+public class DockerImageTransfer {
+    public void save(String image, OutputStream imageStream) throws BlackDuckInstallerException {
+        Process process = start(Arrays.asList("docker", "save", image));
+        try (InputStream processOutput = process.getInputStream()) {
+            IOUtils.copy(processOutput, imageStream);
+        } catch (IOException e) {
+            process.destroy();
+            throw new BlackDuckInstallerException(String.format("Could not save %s: %s", image, e.getMessage()), e);
+        }
+        waitFor(process, "save " + image);
+    }
+
+    public String load(InputStream imageStream) throws BlackDuckInstallerException {
+        Process process = start(Arrays.asList("docker", "load"));
+        try (OutputStream processInput = process.getOutputStream()) {
+            IOUtils.copy(imageStream, processInput);
+        } catch (IOException e) {
+            process.destroy();
+            throw new BlackDuckInstallerException("Could not load an image: " + e.getMessage(), e);
+        }
+        try (InputStream processOutput = process.getInputStream()) {
+            String output = IOUtils.toString(processOutput, StandardCharsets.UTF_8).trim();
+            waitFor(process, "load");
+            return output;
+        } catch (IOException e) {
+            throw new BlackDuckInstallerException("Could not read the output of docker load: " + e.getMessage(), e);
+        }
+    }
+
+    private Process start(List<String> command) throws BlackDuckInstallerException {
+        try {
+            return new ProcessBuilder(command)
+                       .redirectError(ProcessBuilder.Redirect.INHERIT)
+                       .start();
+        } catch (IOException e) {
+            throw new BlackDuckInstallerException(String.format("Could not run %s: %s", String.join(" ", command), e.getMessage()), e);
+        }
+    }
+
+    private void waitFor(Process process, String description) throws BlackDuckInstallerException {
+        try {
+            int returnCode = process.waitFor();
+            if (0 != returnCode) {
+                throw new BlackDuckInstallerException(String.format("docker %s failed with return code %d.", description, returnCode));
+            }
+        } catch (InterruptedException e) {
+            process.destroy();
+            Thread.currentThread().interrupt();
+            throw new BlackDuckInstallerException(String.format("Interrupted while waiting for docker %s.", description), e);
+        }
+    }
+
+}
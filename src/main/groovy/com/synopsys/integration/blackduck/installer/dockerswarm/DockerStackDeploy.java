@@ -38,6 +38,16 @@ public class DockerStackDeploy {
         this.stackName = stackName;
     }
 
+    public String getStackName() {
+        return stackName;
+    }
+
+    public List<File> getOrchestrationFiles() {
+        List<File> orchestrationFiles = new ArrayList<>();
+        additionalOrchestrationFiles.forEach(orchestrationFile -> orchestrationFiles.add(new File(orchestrationFile)));
+        return orchestrationFiles;
+    }
+
     public void addOrchestrationFile(File orchestrationDirectory, String orchestrationFile) {
         additionalOrchestrationFiles.add(new File(orchestrationDirectory, orchestrationFile).getAbsolutePath());
     }
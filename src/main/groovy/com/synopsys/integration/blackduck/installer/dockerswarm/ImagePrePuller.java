@@ -0,0 +1,82 @@
+/**
+ * blackduck-installer
+ *
+ * Copyright (c) 2019 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.installer.dockerswarm;
+
+import com.synopsys.integration.blackduck.installer.exception.BlackDuckInstallerException;
+import com.synopsys.integration.blackduck.installer.model.ExecutableStep;
+import com.synopsys.integration.blackduck.installer.model.ExecutablesRunner;
+import com.synopsys.integration.blackduck.installer.model.ExecutionPlan;
+import com.synopsys.integration.executable.ExecutableOutput;
+import com.synopsys.integration.log.IntLogger;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.SortedSet;
+
+/*
+docker stack deploy returns once swarm has the new spec, and every task then pulls its own image - so the wait for a healthy
+product was mostly the wait for the registry. The images of the deployed compose files are pulled first instead, as steps of
+the install plan, so they run alongside each other and the deploy only starts once they are all done.
+ */
+public class ImagePrePuller {
+    private final IntLogger logger;
+    private final ComposeImages composeImages;
+    private final DockerCommands dockerCommands;
+    private final ExecutablesRunner executablesRunner;
+    private final boolean enabled;
+
+    public ImagePrePuller(IntLogger logger, ComposeImages composeImages, DockerCommands dockerCommands, ExecutablesRunner executablesRunner, boolean enabled) {
+        this.logger = logger;
+        this.composeImages = composeImages;
+        this.dockerCommands = dockerCommands;
+        this.executablesRunner = executablesRunner;
+        this.enabled = enabled;
+    }
+
+    public void addPullSteps(ExecutionPlan executionPlan, Collection<File> composeFiles) throws BlackDuckInstallerException {
+        if (!enabled) {
+            return;
+        }
+
+        SortedSet<String> images = composeImages.find(composeFiles);
+        logger.info(String.format("%d images will be pulled before the stack is deployed.", images.size()));
+        for (String image : images) {
+            String description = "docker pull " + image;
+            executionPlan.add(new ExecutableStep("pull-" + image, description, () -> pull(image), Collections.singleton(ExecutableStep.image(image)), Collections.emptyList()));
+        }
+    }
+
+    /*
+    A failed pull doesn't stop the deploy - the nodes still pull the image themselves, as they always did.
+     */
+    private int pull(String image) throws BlackDuckInstallerException {
+        ExecutableOutput executableOutput = executablesRunner.runExecutable(dockerCommands.pullImage(image), line -> logger.info(String.format("%s: %s", image, line)));
+        if (0 != executableOutput.getReturnCode()) {
+            logger.warn(String.format("Could not pull %s - it will be pulled when the stack is deployed: %s", image, StringUtils.trim(executableOutput.getErrorOutput())));
+        }
+        return 0;
+    }
+
+}
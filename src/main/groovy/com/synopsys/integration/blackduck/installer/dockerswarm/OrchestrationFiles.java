@@ -28,5 +28,7 @@ public class OrchestrationFiles {
     public static final String DBMIGRATE = "docker-compose.dbmigrate.yml";
     public static final String EXTERNALDB = "docker-compose.externaldb.yml";
     public static final String LOCAL_OVERRIDES = "docker-compose.local-overrides.yml";
+    // written by the installer for blackduck.deploy.method=UPDATE
+    public static final String ROLLING_UPDATE = "docker-compose.rolling-update.yml";
 
 }
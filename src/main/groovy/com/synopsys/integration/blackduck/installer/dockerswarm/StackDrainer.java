@@ -0,0 +1,139 @@
+/**
+ * blackduck-installer
+ *
+ * Copyright (c) 2019 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.installer.dockerswarm;
+
+import com.synopsys.integration.blackduck.installer.exception.BlackDuckInstallerException;
+import com.synopsys.integration.blackduck.installer.model.ExecutablesRunner;
+import com.synopsys.integration.executable.Executable;
+import com.synopsys.integration.executable.ExecutableOutput;
+import com.synopsys.integration.log.IntLogger;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/*
+docker stack rm returns as soon as swarm has accepted the removal - the containers still have to stop and the networks can only
+go once nothing is attached to them. Deploying the stack again before that fails, so this waits until nothing of the stack is
+left. The polls start quick, since a small stack is usually gone within a second or two, and slow down while nothing changes.
+ */
+public class StackDrainer {
+    public static final long MIN_POLL_MILLIS = 250;
+    public static final long MAX_POLL_MILLIS = 5000;
+
+    private final IntLogger logger;
+    private final DockerCommands dockerCommands;
+    private final ExecutablesRunner executablesRunner;
+    private final long timeoutMillis;
+    private final boolean dryRun;
+
+    public StackDrainer(IntLogger logger, DockerCommands dockerCommands, ExecutablesRunner executablesRunner, long timeoutSeconds, boolean dryRun) {
+        this.logger = logger;
+        this.dockerCommands = dockerCommands;
+        this.executablesRunner = executablesRunner;
+        this.timeoutMillis = TimeUnit.SECONDS.toMillis(timeoutSeconds);
+        this.dryRun = dryRun;
+    }
+
+    public int waitUntilDrained(String stackName) throws BlackDuckInstallerException {
+        if (dryRun) {
+            logger.info(String.format("Would wait until the services, containers and networks of the stack \"%s\" are gone.", stackName));
+            return 0;
+        }
+
+        long start = System.currentTimeMillis();
+        long deadline = start + timeoutMillis;
+        long pollMillis = MIN_POLL_MILLIS;
+        int previousRemaining = Integer.MAX_VALUE;
+        while (true) {
+            Map<String, List<String>> remaining = findRemaining(stackName);
+            int remainingCount = remaining.values().stream().mapToInt(List::size).sum();
+            if (0 == remainingCount) {
+                logger.info(String.format("The stack \"%s\" was removed in %d ms.", stackName, System.currentTimeMillis() - start));
+                return 0;
+            }
+
+            long now = System.currentTimeMillis();
+            if (now >= deadline) {
+                StringBuilder diagnostics = new StringBuilder();
+                remaining.forEach((kind, names) -> {
+                    if (!names.isEmpty()) {
+                        diagnostics.append(String.format("%n  %s: %s", kind, StringUtils.join(names, ", ")));
+                    }
+                });
+                throw new BlackDuckInstallerException(String.format("The stack \"%s\" was still not removed after %d seconds. Still there:%s", stackName, TimeUnit.MILLISECONDS.toSeconds(timeoutMillis), diagnostics));
+            }
+
+            if (remainingCount < previousRemaining) {
+                logger.info(String.format("Waiting for the stack \"%s\" to be removed - %s.", stackName, summarize(remaining)));
+                pollMillis = MIN_POLL_MILLIS;
+            } else {
+                pollMillis = Math.min(pollMillis * 2, MAX_POLL_MILLIS);
+            }
+            previousRemaining = remainingCount;
+
+            try {
+                Thread.sleep(Math.min(pollMillis, deadline - now));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new BlackDuckInstallerException(String.format("Interrupted while waiting for the stack \"%s\" to be removed.", stackName), e);
+            }
+        }
+    }
+
+    private Map<String, List<String>> findRemaining(String stackName) throws BlackDuckInstallerException {
+        Map<String, List<String>> remaining = new LinkedHashMap<>();
+        remaining.put("services", list(dockerCommands.listStackServiceNames(stackName)));
+        remaining.put("containers", list(dockerCommands.listStackContainerNames(stackName)));
+        remaining.put("networks", list(dockerCommands.listStackNetworkNames(stackName)));
+        return remaining;
+    }
+
+    /*
+    A listing that fails counts as something still being there, so the wait can only end on an answer from docker.
+     */
+    private List<String> list(Executable executable) throws BlackDuckInstallerException {
+        List<String> names = new ArrayList<>();
+        ExecutableOutput executableOutput = executablesRunner.runExecutable(executable, line -> {
+            if (StringUtils.isNotBlank(line)) {
+                names.add(line.trim());
+            }
+        });
+        if (0 != executableOutput.getReturnCode()) {
+            String error = StringUtils.defaultIfBlank(StringUtils.trim(executableOutput.getErrorOutput()), "exit code " + executableOutput.getReturnCode());
+            return Collections.singletonList(String.format("unknown (%s failed: %s)", executable.getExecutableDescription(), error));
+        }
+        return names;
+    }
+
+    private String summarize(Map<String, List<String>> remaining) {
+        List<String> counts = new ArrayList<>();
+        remaining.forEach((kind, names) -> {
+            if (!names.isEmpty()) {
+                counts.add(names.size() + " " + kind);
+            }
+        });
+        return StringUtils.join(counts, ", ");
+    }
+
+}
@@ -23,17 +23,15 @@
 package com.synopsys.integration.blackduck.installer.dockerswarm.deploy;
 
 import com.synopsys.integration.blackduck.installer.dockerswarm.DockerCommands;
-import com.synopsys.integration.blackduck.installer.dockerswarm.output.DockerSecrets;
-import com.synopsys.integration.blackduck.installer.dockerswarm.output.DockerServices;
-import com.synopsys.integration.blackduck.installer.dockerswarm.output.DockerStacks;
+import com.synopsys.integration.blackduck.installer.dockerswarm.output.SwarmSnapshot;
 import com.synopsys.integration.blackduck.installer.model.AlertEncryption;
 import com.synopsys.integration.blackduck.installer.model.DockerService;
-import com.synopsys.integration.executable.Executable;
+import com.synopsys.integration.blackduck.installer.model.ExecutableStep;
+import com.synopsys.integration.blackduck.installer.model.ExecutionPlan;
 import com.synopsys.integration.log.IntLogger;
 
 import java.io.File;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Collections;
 
 public class AlertDockerManager extends ProductDockerManager {
     public static final String ALERT_SERVICE_NAME = "alert";
@@ -47,20 +45,20 @@ public class AlertDockerManager extends ProductDockerManager {
         this.alertService = alertService;
     }
 
-    public List<Executable> createExecutables(File installDirectory, DockerStacks dockerStacks, DockerSecrets dockerSecrets, DockerServices dockerServices) {
-        List<Executable> executables = new ArrayList<>();
+    public ExecutionPlan createPlan(File installDirectory, SwarmSnapshot swarmSnapshot) {
+        ExecutionPlan executionPlan = new ExecutionPlan();
 
-        if (dockerServices.doesServiceExist(alertService)) {
+        if (swarmSnapshot.hasService(alertService.getDockerName())) {
             logger.info(String.format("Removing the service \"%s\".", alertService.getDockerName()));
-            executables.add(dockerCommands.removeService(alertService));
+            executionPlan.add(new ExecutableStep("remove-service", dockerCommands.removeService(alertService), Collections.singleton(ExecutableStep.service(alertService.getDockerName())), Collections.emptyList()));
         }
 
         if (!alertEncryption.isEmpty()) {
-            addSecret(executables, dockerSecrets, alertEncryption.getPassword());
-            addSecret(executables, dockerSecrets, alertEncryption.getSalt());
+            addSecret(executionPlan, swarmSnapshot, alertEncryption.getPassword(), Collections.emptyList());
+            addSecret(executionPlan, swarmSnapshot, alertEncryption.getSalt(), Collections.emptyList());
         }
 
-        return executables;
+        return executionPlan;
     }
 
 }
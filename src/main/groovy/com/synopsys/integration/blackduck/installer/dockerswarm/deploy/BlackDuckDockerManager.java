@@ -23,41 +23,47 @@
 package com.synopsys.integration.blackduck.installer.dockerswarm.deploy;
 
 import com.synopsys.integration.blackduck.installer.dockerswarm.DockerCommands;
-import com.synopsys.integration.blackduck.installer.dockerswarm.output.DockerSecrets;
-import com.synopsys.integration.blackduck.installer.dockerswarm.output.DockerServices;
-import com.synopsys.integration.blackduck.installer.dockerswarm.output.DockerStacks;
+import com.synopsys.integration.blackduck.installer.dockerswarm.StackDrainer;
+import com.synopsys.integration.blackduck.installer.dockerswarm.output.SwarmSnapshot;
 import com.synopsys.integration.blackduck.installer.model.CustomCertificate;
-import com.synopsys.integration.executable.Executable;
+import com.synopsys.integration.blackduck.installer.model.ExecutableStep;
+import com.synopsys.integration.blackduck.installer.model.ExecutionPlan;
 import com.synopsys.integration.log.IntLogger;
 
 import java.io.File;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Collections;
 
 public class BlackDuckDockerManager extends ProductDockerManager {
     private final CustomCertificate customCertificate;
+    private final StackDrainer stackDrainer;
+    private final boolean rollingUpdate;
 
-    public BlackDuckDockerManager(IntLogger logger, DockerCommands dockerCommands, String stackName, CustomCertificate customCertificate) {
+    public BlackDuckDockerManager(IntLogger logger, DockerCommands dockerCommands, String stackName, CustomCertificate customCertificate, StackDrainer stackDrainer, boolean rollingUpdate) {
         super(logger, dockerCommands, stackName);
         this.customCertificate = customCertificate;
+        this.stackDrainer = stackDrainer;
+        this.rollingUpdate = rollingUpdate;
     }
 
-    public List<Executable> createExecutables(File installDirectory, DockerStacks dockerStacks, DockerSecrets dockerSecrets, DockerServices dockerServices) {
-        List<Executable> executables = new ArrayList<>();
+    public ExecutionPlan createPlan(File installDirectory, SwarmSnapshot swarmSnapshot) {
+        ExecutionPlan executionPlan = new ExecutionPlan();
 
-        if (dockerStacks.doesStackExist(stackName)) {
-            logger.info(String.format("The stack \"%s\" already existed - removing it and restarting docker.", stackName));
-            executables.add(dockerCommands.stopStack(stackName));
-            //TODO it would be better to list services and wait for nothing stackName_, as the permissions for restarting Docker could be more restrictive
-            executables.add(dockerCommands.restartDocker());
+        if (swarmSnapshot.hasStack(stackName) && rollingUpdate) {
+            logger.info(String.format("The stack \"%s\" already existed - its changed services will be updated one at a time.", stackName));
+        } else if (swarmSnapshot.hasStack(stackName)) {
+            logger.info(String.format("The stack \"%s\" already existed - removing it and waiting until it is gone.", stackName));
+            executionPlan.add(new ExecutableStep("stop-stack", dockerCommands.stopStack(stackName), Collections.singleton(ExecutableStep.stack(stackName)), Collections.emptyList()));
+            String description = String.format("wait until the stack %s is removed", stackName);
+            executionPlan.add(new ExecutableStep("drain-stack", description, () -> stackDrainer.waitUntilDrained(stackName), Collections.singleton(ExecutableStep.stack(stackName)), Collections.singleton("stop-stack")));
         }
 
+        // the secrets are created outside of the stack, so removing the stack leaves them alone
         if (!customCertificate.isEmpty()) {
-            addSecret(executables, dockerSecrets, customCertificate.getCertificate());
-            addSecret(executables, dockerSecrets, customCertificate.getPrivateKey());
+            addSecret(executionPlan, swarmSnapshot, customCertificate.getCertificate(), Collections.emptyList());
+            addSecret(executionPlan, swarmSnapshot, customCertificate.getPrivateKey(), Collections.emptyList());
         }
 
-        return executables;
+        return executionPlan;
     }
 
 }
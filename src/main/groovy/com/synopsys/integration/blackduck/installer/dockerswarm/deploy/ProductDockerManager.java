@@ -23,15 +23,15 @@
 package com.synopsys.integration.blackduck.installer.dockerswarm.deploy;
 
 import com.synopsys.integration.blackduck.installer.dockerswarm.DockerCommands;
-import com.synopsys.integration.blackduck.installer.dockerswarm.output.DockerSecrets;
-import com.synopsys.integration.blackduck.installer.dockerswarm.output.DockerServices;
-import com.synopsys.integration.blackduck.installer.dockerswarm.output.DockerStacks;
+import com.synopsys.integration.blackduck.installer.dockerswarm.output.SwarmSnapshot;
 import com.synopsys.integration.blackduck.installer.model.DockerSecret;
-import com.synopsys.integration.executable.Executable;
+import com.synopsys.integration.blackduck.installer.model.ExecutableStep;
+import com.synopsys.integration.blackduck.installer.model.ExecutionPlan;
 import com.synopsys.integration.log.IntLogger;
 
 import java.io.File;
-import java.util.List;
+import java.util.Collection;
+import java.util.Collections;
 
 public abstract class ProductDockerManager {
     protected IntLogger logger;
@@ -44,11 +44,13 @@ public abstract class ProductDockerManager {
         this.stackName = stackName;
     }
 
-    public abstract List<Executable> createExecutables(File installDirectory, DockerStacks dockerStacks, DockerSecrets dockerSecrets, DockerServices dockerServices);
+    public abstract ExecutionPlan createPlan(File installDirectory, SwarmSnapshot swarmSnapshot);
 
-    protected void addSecret(List<Executable> executables, DockerSecrets dockerSecrets, DockerSecret dockerSecret) {
-        if (!dockerSecrets.doesSecretExist(dockerSecret)) {
-            executables.add(dockerCommands.createSecret(stackName, dockerSecret));
+    protected void addSecret(ExecutionPlan executionPlan, SwarmSnapshot swarmSnapshot, DockerSecret dockerSecret, Collection<String> dependencies) {
+        // the secrets of the stack are named <stack>_<label>
+        String secretName = String.format("%s_%s", stackName, dockerSecret.getLabel());
+        if (!swarmSnapshot.hasSecret(secretName)) {
+            executionPlan.add(new ExecutableStep("create-secret-" + dockerSecret.getLabel(), dockerCommands.createSecret(stackName, dockerSecret), Collections.singleton(ExecutableStep.secret(secretName)), dependencies));
         } else {
             logger.info(String.format("The secret \"%s\" already existed - it will not be changed.", dockerSecret.getLabel()));
         }
@@ -22,10 +22,10 @@
  */
 package com.synopsys.integration.blackduck.installer.dockerswarm.edit;
 
+import com.synopsys.integration.blackduck.installer.download.HardLinks;
 import com.synopsys.integration.blackduck.installer.exception.BlackDuckInstallerException;
 import com.synopsys.integration.blackduck.installer.hash.HashUtility;
 import com.synopsys.integration.log.IntLogger;
-import org.apache.commons.io.FileUtils;
 
 import java.io.File;
 import java.io.IOException;
@@ -48,9 +48,12 @@ public abstract class ConfigFileEditor {
 
     public abstract void edit(File installDirectory) throws BlackDuckInstallerException;
 
+    public String getRelativePath() {
+        return "docker-swarm/" + getFilename();
+    }
+
     protected ConfigFile createConfigFile(File installDirectory) throws BlackDuckInstallerException {
-        File dockerSwarm = new File(installDirectory, "docker-swarm");
-        File original = new File(dockerSwarm, getFilename());
+        File original = new File(installDirectory, getRelativePath());
         File originalCopy = copyOriginalIfNeeded(original);
 
         String currentHash = hashUtility.computeHash(originalCopy);
@@ -58,6 +61,13 @@ public abstract class ConfigFileEditor {
             logger.warn(String.format("The file '%s' is different than expected - it may not have been automatically edited correctly. Please double-check this file for any errors.", original.getAbsolutePath()));
         }
 
+        // the editors write in place, so the file gets its own copy first - the .orig and other versions keep the shared one
+        try {
+            HardLinks.unshare(original);
+        } catch (IOException e) {
+            throw new BlackDuckInstallerException("Could not copy the file to edit: " + e.getMessage());
+        }
+
         return new ConfigFile(original, originalCopy);
     }
 
@@ -65,7 +75,7 @@ public abstract class ConfigFileEditor {
         File originalCopy = new File(original.getParent(), original.getName() + ".orig");
         if (!originalCopy.exists()) {
             try {
-                FileUtils.copyFile(original, originalCopy);
+                HardLinks.linkOrCopy(original, originalCopy);
             } catch (IOException e) {
                 throw new BlackDuckInstallerException("Could not copy the file to edit: " + e.getMessage());
             }
@@ -0,0 +1,130 @@
+/**
+ * blackduck-installer
+ *
+ * Copyright (c) 2019 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.installer.dockerswarm.edit;
+
+import com.synopsys.integration.blackduck.installer.dockerswarm.OrchestrationFiles;
+import com.synopsys.integration.blackduck.installer.download.HardLinks;
+import com.synopsys.integration.blackduck.installer.exception.BlackDuckInstallerException;
+import com.synopsys.integration.log.IntLogger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/*
+Writes the update_config of every service of docker-compose.yml into a compose file of its own, so deploying over the running
+stack rolls the changed services one at a time. A service starts its new task before stopping the old one, unless it mounts a
+volume - two postgres or solr containers must never share their data, so those stop first.
+ */
+public class UpdateConfigWriter {
+    private static final Pattern TOP_LEVEL_KEY = Pattern.compile("^(\\w[\\w.-]*):.*$");
+    private static final Pattern KEY = Pattern.compile("^(\\s+)([\\w.-]+):\\s*(#.*)?$");
+    private static final Pattern VOLUMES = Pattern.compile("^\\s+volumes:(?!\\s*\\[\\s*])(?!\\s*\\{\\s*}).*$");
+
+    private final IntLogger logger;
+    private final String lineSeparator;
+    private final int parallelism;
+    private final long delaySeconds;
+
+    public UpdateConfigWriter(IntLogger logger, String lineSeparator, int parallelism, long delaySeconds) {
+        this.logger = logger;
+        this.lineSeparator = lineSeparator;
+        this.parallelism = parallelism;
+        this.delaySeconds = delaySeconds;
+    }
+
+    public void write(File installDirectory) throws BlackDuckInstallerException {
+        File dockerSwarm = new File(installDirectory, "docker-swarm");
+        File composeFile = new File(dockerSwarm, OrchestrationFiles.COMPOSE);
+        File updateConfigFile = new File(dockerSwarm, OrchestrationFiles.ROLLING_UPDATE);
+        try {
+            List<String> composeLines = Files.readAllLines(composeFile.toPath(), StandardCharsets.UTF_8);
+            String version = composeLines.stream().filter(line -> line.startsWith("version:")).findFirst().orElse("version: '3.4'");
+
+            StringBuilder updateConfig = new StringBuilder();
+            updateConfig.append(version).append(lineSeparator);
+            updateConfig.append("services:").append(lineSeparator);
+            for (Map.Entry<String, Boolean> service : findServices(composeLines).entrySet()) {
+                String order = service.getValue() ? "stop-first" : "start-first";
+                updateConfig.append("  ").append(service.getKey()).append(":").append(lineSeparator);
+                updateConfig.append("    deploy:").append(lineSeparator);
+                updateConfig.append("      update_config:").append(lineSeparator);
+                updateConfig.append("        parallelism: ").append(parallelism).append(lineSeparator);
+                updateConfig.append("        delay: ").append(delaySeconds).append("s").append(lineSeparator);
+                updateConfig.append("        order: ").append(order).append(lineSeparator);
+                logger.debug(String.format("%s will be updated %s.", service.getKey(), order));
+            }
+
+            // a previous run's file may be linked to the other versions' copies
+            if (updateConfigFile.exists()) {
+                HardLinks.unshare(updateConfigFile);
+            }
+            Files.write(updateConfigFile.toPath(), updateConfig.toString().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new BlackDuckInstallerException(String.format("Could not write %s: %s", updateConfigFile.getAbsolutePath(), e.getMessage()), e);
+        }
+    }
+
+    /*
+    The services of the compose file, each with whether it mounts a volume. The compose files are plain enough to read by
+    indentation, like ComposeImages reads them.
+     */
+    public Map<String, Boolean> findServices(List<String> composeLines) {
+        Map<String, Boolean> services = new LinkedHashMap<>();
+        boolean inServices = false;
+        int serviceIndent = -1;
+        String currentService = null;
+        for (String line : composeLines) {
+            if (line.trim().isEmpty() || line.trim().startsWith("#")) {
+                continue;
+            }
+
+            Matcher topLevelKey = TOP_LEVEL_KEY.matcher(line);
+            if (topLevelKey.matches()) {
+                inServices = "services".equals(topLevelKey.group(1));
+                currentService = null;
+                continue;
+            }
+            if (!inServices) {
+                continue;
+            }
+
+            Matcher key = KEY.matcher(line);
+            if (key.matches() && (-1 == serviceIndent || key.group(1).length() == serviceIndent)) {
+                serviceIndent = key.group(1).length();
+                currentService = key.group(2);
+                services.put(currentService, false);
+            } else if (null != currentService && VOLUMES.matcher(line).matches()) {
+                services.put(currentService, true);
+            }
+        }
+        return services;
+    }
+
+}
@@ -0,0 +1,230 @@
+/**
+ * blackduck-installer
+ *
+ * Copyright (c) 2019 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.installer.dockerswarm.engine;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ConnectException;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/*
+A minimal HTTP/1.1 client for the Docker Engine API on its unix socket. One connection is kept alive and reused, so a call
+costs a round trip on the socket rather than starting a docker process.
+ */
+public class DockerEngineClient {
+    public static final String DEFAULT_SOCKET_PATH = "/var/run/docker.sock";
+    public static final String API_VERSION = "v1.30";
+
+    private static final String CRLF = "\r\n";
+
+    private final Path socketPath;
+
+    private SocketChannel socketChannel;
+    private InputStream inputStream;
+    private OutputStream outputStream;
+
+    public DockerEngineClient(Path socketPath) {
+        this.socketPath = socketPath;
+    }
+
+    public boolean isAvailable() {
+        if (!UnixSocketChannels.isSupported() || !Files.exists(socketPath)) {
+            return false;
+        }
+        try {
+            return 200 == execute("GET", "/_ping", null).getStatusCode();
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    public Path getSocketPath() {
+        return socketPath;
+    }
+
+    /*
+    A ConnectException means nothing was sent. A kept-alive connection that the daemon has since closed is opened again once,
+    since the request could not have reached the daemon on it.
+     */
+    public synchronized DockerEngineResponse execute(String method, String path, String jsonBody) throws IOException {
+        boolean reused = null != socketChannel;
+        if (!reused) {
+            connect();
+        }
+        try {
+            return exchange(method, path, jsonBody);
+        } catch (IdleConnectionClosedException e) {
+            close();
+            if (!reused) {
+                throw e;
+            }
+            connect();
+            return exchange(method, path, jsonBody);
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    public synchronized void close() {
+        if (null != socketChannel) {
+            try {
+                socketChannel.close();
+            } catch (IOException e) {
+                // nothing is left to release
+            }
+        }
+        socketChannel = null;
+        inputStream = null;
+        outputStream = null;
+    }
+
+    private void connect() throws IOException {
+        try {
+            socketChannel = UnixSocketChannels.open(socketPath);
+        } catch (IOException e) {
+            throw new ConnectException(String.format("Could not connect to %s: %s", socketPath, e.getMessage()));
+        }
+        inputStream = new BufferedInputStream(Channels.newInputStream(socketChannel));
+        outputStream = Channels.newOutputStream(socketChannel);
+    }
+
+    private DockerEngineResponse exchange(String method, String path, String jsonBody) throws IOException {
+        byte[] body = null == jsonBody ? new byte[0] : jsonBody.getBytes(StandardCharsets.UTF_8);
+        StringBuilder request = new StringBuilder();
+        request.append(method).append(' ').append('/').append(API_VERSION).append(path).append(" HTTP/1.1").append(CRLF);
+        request.append("Host: docker").append(CRLF);
+        request.append("Content-Length: ").append(body.length).append(CRLF);
+        if (null != jsonBody) {
+            request.append("Content-Type: application/json").append(CRLF);
+        }
+        request.append(CRLF);
+        try {
+            outputStream.write(request.toString().getBytes(StandardCharsets.US_ASCII));
+            outputStream.write(body);
+            outputStream.flush();
+        } catch (IOException e) {
+            throw new IdleConnectionClosedException();
+        }
+
+        String statusLine = readLine();
+        if (null == statusLine) {
+            throw new IdleConnectionClosedException();
+        }
+        String[] statusPieces = statusLine.split(" ", 3);
+        if (statusPieces.length < 2 || !statusPieces[0].startsWith("HTTP/")) {
+            throw new IOException("The Docker Engine answered with an unexpected status line: " + statusLine);
+        }
+        int statusCode = Integer.parseInt(statusPieces[1]);
+
+        Map<String, String> headers = new HashMap<>();
+        for (String line = readLine(); StringUtils.isNotEmpty(line); line = readLine()) {
+            int colon = line.indexOf(':');
+            if (colon > 0) {
+                headers.put(line.substring(0, colon).trim().toLowerCase(Locale.ROOT), line.substring(colon + 1).trim());
+            }
+        }
+
+        byte[] responseBody;
+        if ("chunked".equalsIgnoreCase(headers.get("transfer-encoding"))) {
+            responseBody = readChunked();
+        } else if (headers.containsKey("content-length")) {
+            responseBody = readFully(Integer.parseInt(headers.get("content-length")));
+        } else {
+            responseBody = new byte[0];
+        }
+        if ("close".equalsIgnoreCase(headers.get("connection"))) {
+            close();
+        }
+
+        return new DockerEngineResponse(statusCode, new String(responseBody, StandardCharsets.UTF_8));
+    }
+
+    private byte[] readChunked() throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        while (true) {
+            String sizeLine = readLine();
+            if (null == sizeLine) {
+                throw new IOException("The Docker Engine closed the connection in the middle of a response.");
+            }
+            int chunkSize = Integer.parseInt(StringUtils.substringBefore(sizeLine, ";").trim(), 16);
+            if (0 == chunkSize) {
+                // trailers end with an empty line
+                for (String line = readLine(); StringUtils.isNotEmpty(line); line = readLine()) {
+                }
+                return body.toByteArray();
+            }
+            body.write(readFully(chunkSize));
+            readLine();
+        }
+    }
+
+    private byte[] readFully(int length) throws IOException {
+        byte[] bytes = new byte[length];
+        int offset = 0;
+        while (offset < length) {
+            int read = inputStream.read(bytes, offset, length - offset);
+            if (read < 0) {
+                throw new IOException("The Docker Engine closed the connection in the middle of a response.");
+            }
+            offset += read;
+        }
+        return bytes;
+    }
+
+    // null at the end of the stream
+    private String readLine() throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int read;
+        while ((read = inputStream.read()) >= 0 && '\n' != read) {
+            if ('\r' != read) {
+                line.write(read);
+            }
+        }
+        if (read < 0 && 0 == line.size()) {
+            return null;
+        }
+        return new String(line.toByteArray(), StandardCharsets.ISO_8859_1);
+    }
+
+    private static class IdleConnectionClosedException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        IdleConnectionClosedException() {
+            super("The Docker Engine closed the connection.");
+        }
+    }
+
+}
@@ -20,21 +20,27 @@
  * specific language governing permissions and limitations
  * under the License.
  */
-package com.synopsys.integration.blackduck.installer.dockerswarm.output;
+package com.synopsys.integration.blackduck.installer.dockerswarm.engine;
 
-public class DockerStacks {
-    private String dockerStacks;
+public class DockerEngineResponse {
+    private final int statusCode;
+    private final String body;
 
-    public static DockerStacks create(String dockerStacksOutput) {
-        return new DockerStacks(dockerStacksOutput);
+    public DockerEngineResponse(int statusCode, String body) {
+        this.statusCode = statusCode;
+        this.body = body;
     }
 
-    private DockerStacks(String dockerStacksOutput) {
-        this.dockerStacks = dockerStacksOutput;
+    public int getStatusCode() {
+        return statusCode;
     }
 
-    public boolean doesStackExist(String stackName) {
-        return dockerStacks.contains(stackName);
+    public String getBody() {
+        return body;
+    }
+
+    public boolean isSuccess() {
+        return statusCode >= 200 && statusCode < 300;
     }
 
 }
@@ -0,0 +1,444 @@
+/**
+ * blackduck-installer
+ *
+ * Copyright (c) 2019 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.installer.dockerswarm.engine;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import com.synopsys.integration.blackduck.installer.model.StreamingExecutableRunner;
+import com.synopsys.integration.executable.Executable;
+import com.synopsys.integration.executable.ExecutableOutput;
+import com.synopsys.integration.executable.ExecutableRunnerException;
+import com.synopsys.integration.log.IntLogger;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.ConnectException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/*
+Runs the docker commands from DockerCommands through the Docker Engine API instead of the docker CLI, with the same output the
+CLI would print. Anything it doesn't know how to translate (stack deploy, pulls that need registry credentials, other tools)
+and everything once the engine can't be reached goes to the CLI runner.
+ */
+public class DockerEngineRunner implements StreamingExecutableRunner {
+    public static final String STACK_NAMESPACE_LABEL = "com.docker.stack.namespace";
+
+    private static final Pattern TEMPLATE_FIELD = Pattern.compile("\\{\\{\\s*\\.(\\w+)\\s*}}");
+    private static final List<String> STACK_FIELDS = Arrays.asList("Name");
+    private static final List<String> SECRET_FIELDS = Arrays.asList("ID", "Name");
+    private static final List<String> SERVICE_FIELDS = Arrays.asList("ID", "Name", "Mode", "Image");
+    private static final List<String> NODE_FIELDS = Arrays.asList("ID", "Hostname", "Status", "Availability");
+    private static final List<String> TASK_FIELDS = Arrays.asList("ID", "Name", "Image", "Node", "DesiredState", "CurrentState", "Error");
+    private static final List<String> CONTAINER_FIELDS = Arrays.asList("ID", "Names");
+    private static final List<String> NETWORK_FIELDS = Arrays.asList("ID", "Name");
+
+    private final IntLogger logger;
+    private final DockerEngineClient dockerEngineClient;
+    private final StreamingExecutableRunner cliRunner;
+
+    private Boolean engineAvailable;
+
+    public DockerEngineRunner(IntLogger logger, DockerEngineClient dockerEngineClient, StreamingExecutableRunner cliRunner) {
+        this.logger = logger;
+        this.dockerEngineClient = dockerEngineClient;
+        this.cliRunner = cliRunner;
+    }
+
+    @Override
+    public ExecutableOutput execute(Executable executable) throws ExecutableRunnerException {
+        Optional<ExecutableOutput> executableOutput = tryEngine(executable);
+        return executableOutput.isPresent() ? executableOutput.get() : cliRunner.execute(executable);
+    }
+
+    /*
+    The engine answers in one response, so its output is handed over once it is complete - only the CLI really streams.
+     */
+    @Override
+    public ExecutableOutput execute(Executable executable, Consumer<String> standardOutputConsumer) throws ExecutableRunnerException {
+        Optional<ExecutableOutput> executableOutput = tryEngine(executable);
+        if (!executableOutput.isPresent()) {
+            return cliRunner.execute(executable, standardOutputConsumer);
+        }
+        StreamingExecutableRunner.forEachLine(executableOutput.get().getStandardOutput(), standardOutputConsumer);
+        return executableOutput.get();
+    }
+
+    private Optional<ExecutableOutput> tryEngine(Executable executable) throws ExecutableRunnerException {
+        List<String> commandWithArguments = executable.getCommandWithArguments();
+        if (commandWithArguments.size() < 3 || !"docker".equals(commandWithArguments.get(0)) || !isEngineAvailable()) {
+            return Optional.empty();
+        }
+
+        String description = executable.getExecutableDescription();
+        try {
+            Optional<ExecutableOutput> executableOutput = executeThroughEngine(description, commandWithArguments);
+            if (executableOutput.isPresent()) {
+                logger.debug(String.format("Ran \"%s\" through the Docker Engine API.", description));
+            }
+            return executableOutput;
+        } catch (ConnectException e) {
+            logger.warn(String.format("%s - the docker CLI will be used from now on.", e.getMessage()));
+            synchronized (this) {
+                engineAvailable = false;
+            }
+            return Optional.empty();
+        } catch (IOException e) {
+            throw new ExecutableRunnerException(String.format("The Docker Engine API failed to run \"%s\": %s", description, e.getMessage()), e);
+        }
+    }
+
+    private synchronized boolean isEngineAvailable() {
+        if (null == engineAvailable) {
+            engineAvailable = dockerEngineClient.isAvailable();
+            if (engineAvailable) {
+                logger.info(String.format("Docker will be used through the Docker Engine API on %s.", dockerEngineClient.getSocketPath()));
+            } else {
+                logger.info(String.format("The Docker Engine API can't be used on %s - the docker CLI will be used.", dockerEngineClient.getSocketPath()));
+            }
+        }
+        return engineAvailable;
+    }
+
+    // empty when the command has to be run by the CLI
+    private Optional<ExecutableOutput> executeThroughEngine(String description, List<String> commandWithArguments) throws IOException {
+        String command = commandWithArguments.get(1) + " " + commandWithArguments.get(2);
+        Map<String, List<String>> options = new LinkedHashMap<>();
+        List<String> arguments = new ArrayList<>();
+        if (!parseArguments(commandWithArguments.subList(3, commandWithArguments.size()), options, arguments)) {
+            return Optional.empty();
+        }
+        String format = options.containsKey("--format") ? StringUtils.strip(options.get("--format").get(0), "\"'") : null;
+        List<String> filters = options.getOrDefault("--filter", new ArrayList<>());
+        options.remove("--format");
+        options.remove("--filter");
+        if (!options.isEmpty()) {
+            return Optional.empty();
+        }
+
+        EngineOutput output = new EngineOutput();
+        if ("stack ls".equals(command) && arguments.isEmpty() && filters.isEmpty() && isSupported(format, STACK_FIELDS)) {
+            Set<String> stackNames = new LinkedHashSet<>();
+            for (JsonElement service : getArray("/services?filters=" + labelFilter(STACK_NAMESPACE_LABEL), output)) {
+                stackNames.add(getString(service, "Spec", "Labels", STACK_NAMESPACE_LABEL));
+            }
+            stackNames.forEach(stackName -> output.println(render(format, Collections.singletonMap("Name", stackName))));
+        } else if ("secret ls".equals(command) && arguments.isEmpty() && filters.isEmpty() && isSupported(format, SECRET_FIELDS)) {
+            for (JsonElement secret : getArray("/secrets", output)) {
+                Map<String, String> fields = new HashMap<>();
+                fields.put("ID", getString(secret, "ID"));
+                fields.put("Name", getString(secret, "Spec", "Name"));
+                output.println(render(format, fields));
+            }
+        } else if ("service ls".equals(command) && arguments.isEmpty() && isSupported(format, SERVICE_FIELDS) && areLabelFilters(filters)) {
+            for (JsonElement service : getArray("/services" + labelQuery(filters), output)) {
+                Map<String, String> fields = new HashMap<>();
+                fields.put("ID", getString(service, "ID"));
+                fields.put("Name", getString(service, "Spec", "Name"));
+                fields.put("Mode", getObject(service, "Spec", "Mode").has("Global") ? "global" : "replicated");
+                fields.put("Image", getString(service, "Spec", "TaskTemplate", "ContainerSpec", "Image"));
+                output.println(render(format, fields));
+            }
+        } else if ("node ls".equals(command) && arguments.isEmpty() && filters.isEmpty() && isSupported(format, NODE_FIELDS)) {
+            for (JsonElement node : getArray("/nodes", output)) {
+                Map<String, String> fields = new HashMap<>();
+                fields.put("ID", getString(node, "ID"));
+                fields.put("Hostname", getString(node, "Description", "Hostname"));
+                fields.put("Status", StringUtils.capitalize(getString(node, "Status", "State")));
+                fields.put("Availability", StringUtils.capitalize(getString(node, "Spec", "Availability")));
+                output.println(render(format, fields));
+            }
+        } else if ("container ls".equals(command) && arguments.isEmpty() && isSupported(format, CONTAINER_FIELDS) && areLabelFilters(filters)) {
+            for (JsonElement container : getArray("/containers/json" + labelQuery(filters), output)) {
+                JsonElement names = find(container, "Names");
+                Map<String, String> fields = new HashMap<>();
+                fields.put("ID", StringUtils.left(getString(container, "Id"), 12));
+                fields.put("Names", null != names && names.isJsonArray() && names.getAsJsonArray().size() > 0 ? StringUtils.removeStart(names.getAsJsonArray().get(0).getAsString(), "/") : "");
+                output.println(render(format, fields));
+            }
+        } else if ("network ls".equals(command) && arguments.isEmpty() && isSupported(format, NETWORK_FIELDS) && areLabelFilters(filters)) {
+            for (JsonElement network : getArray("/networks" + labelQuery(filters), output)) {
+                Map<String, String> fields = new HashMap<>();
+                fields.put("ID", StringUtils.left(getString(network, "Id"), 12));
+                fields.put("Name", getString(network, "Name"));
+                output.println(render(format, fields));
+            }
+        } else if ("stack ps".equals(command) && 1 == arguments.size() && filters.isEmpty() && isSupported(format, TASK_FIELDS)) {
+            listStackTasks(arguments.get(0), format, output);
+        } else if ("service rm".equals(command) && !arguments.isEmpty() && filters.isEmpty() && null == format) {
+            for (String serviceName : arguments) {
+                delete("/services/" + encode(serviceName), serviceName, output);
+            }
+        } else if ("secret create".equals(command) && 2 == arguments.size() && filters.isEmpty() && null == format && !"-".equals(arguments.get(1))) {
+            JsonObject secretSpec = new JsonObject();
+            secretSpec.addProperty("Name", arguments.get(0));
+            secretSpec.addProperty("Data", Base64.getEncoder().encodeToString(Files.readAllBytes(new File(arguments.get(1)).toPath())));
+            DockerEngineResponse response = dockerEngineClient.execute("POST", "/secrets/create", secretSpec.toString());
+            if (output.check(response)) {
+                output.println(getString(JsonParser.parseString(response.getBody()), "ID"));
+            }
+        } else if ("stack rm".equals(command) && !arguments.isEmpty() && filters.isEmpty() && null == format) {
+            for (String stackName : arguments) {
+                removeStack(stackName, output);
+            }
+        } else {
+            return Optional.empty();
+        }
+
+        return Optional.of(output.toExecutableOutput(description));
+    }
+
+    /*
+    Like the CLI, the services go first since the networks, secrets and configs can't be removed while they are in use.
+     */
+    private void removeStack(String stackName, EngineOutput output) throws IOException {
+        String filter = labelFilter(STACK_NAMESPACE_LABEL + "=" + stackName);
+        JsonArray services = getArray("/services?filters=" + filter, output);
+        JsonArray networks = getArray("/networks?filters=" + filter, output);
+        JsonArray secrets = getArray("/secrets?filters=" + filter, output);
+        JsonArray configs = getArray("/configs?filters=" + filter, output);
+        if (0 == services.size() + networks.size() + secrets.size() + configs.size()) {
+            output.printError("Nothing found in stack: " + stackName);
+            return;
+        }
+
+        for (JsonElement service : services) {
+            String serviceName = getString(service, "Spec", "Name");
+            output.println("Removing service " + serviceName);
+            delete("/services/" + encode(getString(service, "ID")), null, output);
+        }
+        for (JsonElement secret : secrets) {
+            output.println("Removing secret " + getString(secret, "Spec", "Name"));
+            delete("/secrets/" + encode(getString(secret, "ID")), null, output);
+        }
+        for (JsonElement config : configs) {
+            output.println("Removing config " + getString(config, "Spec", "Name"));
+            delete("/configs/" + encode(getString(config, "ID")), null, output);
+        }
+        for (JsonElement network : networks) {
+            output.println("Removing network " + getString(network, "Name"));
+            delete("/networks/" + encode(getString(network, "Id")), null, output);
+        }
+    }
+
+    /*
+    Tasks are named like the CLI names them, after their service and slot, or their node for a global service.
+     */
+    private void listStackTasks(String stackName, String format, EngineOutput output) throws IOException {
+        JsonArray tasks = getArray("/tasks?filters=" + labelFilter(STACK_NAMESPACE_LABEL + "=" + stackName), output);
+        if (0 == tasks.size()) {
+            output.printError("nothing found in stack: " + stackName);
+            output.fail();
+            return;
+        }
+
+        Map<String, String> serviceNames = new HashMap<>();
+        for (JsonElement service : getArray("/services?filters=" + labelFilter(STACK_NAMESPACE_LABEL + "=" + stackName), output)) {
+            serviceNames.put(getString(service, "ID"), getString(service, "Spec", "Name"));
+        }
+        Map<String, String> hostnames = new HashMap<>();
+        for (JsonElement node : getArray("/nodes", output)) {
+            hostnames.put(getString(node, "ID"), getString(node, "Description", "Hostname"));
+        }
+
+        for (JsonElement task : tasks) {
+            String slot = getString(task, "Slot");
+            String nodeId = getString(task, "NodeID");
+            Map<String, String> fields = new HashMap<>();
+            fields.put("ID", getString(task, "ID"));
+            fields.put("Name", serviceNames.getOrDefault(getString(task, "ServiceID"), getString(task, "ServiceID")) + "." + (StringUtils.isNotBlank(slot) && !"0".equals(slot) ? slot : nodeId));
+            fields.put("Image", StringUtils.substringBefore(getString(task, "Spec", "ContainerSpec", "Image"), "@"));
+            fields.put("Node", hostnames.getOrDefault(nodeId, nodeId));
+            fields.put("DesiredState", StringUtils.capitalize(getString(task, "DesiredState")));
+            fields.put("CurrentState", StringUtils.capitalize(getString(task, "Status", "State")));
+            fields.put("Error", getString(task, "Status", "Err"));
+            output.println(render(format, fields));
+        }
+    }
+
+    private boolean isSupported(String format, List<String> fieldNames) {
+        if (null == format) {
+            return false;
+        }
+        Matcher matcher = TEMPLATE_FIELD.matcher(format);
+        StringBuffer unknown = new StringBuffer();
+        while (matcher.find()) {
+            matcher.appendReplacement(unknown, fieldNames.contains(matcher.group(1)) ? "" : "{{");
+        }
+        matcher.appendTail(unknown);
+        return !unknown.toString().contains("{{");
+    }
+
+    private String render(String format, Map<String, String> fields) {
+        Matcher matcher = TEMPLATE_FIELD.matcher(format);
+        StringBuffer rendered = new StringBuffer();
+        while (matcher.find()) {
+            matcher.appendReplacement(rendered, Matcher.quoteReplacement(fields.getOrDefault(matcher.group(1), "")));
+        }
+        matcher.appendTail(rendered);
+        return rendered.toString();
+    }
+
+    // false when something other than --format and --filter is used, or an option has no value
+    private boolean parseArguments(List<String> pieces, Map<String, List<String>> options, List<String> arguments) {
+        for (int i = 0; i < pieces.size(); i++) {
+            String piece = pieces.get(i);
+            if (!piece.startsWith("-")) {
+                arguments.add(piece);
+            } else if (piece.contains("=")) {
+                options.computeIfAbsent(StringUtils.substringBefore(piece, "="), key -> new ArrayList<>()).add(StringUtils.substringAfter(piece, "="));
+            } else if (i + 1 < pieces.size()) {
+                options.computeIfAbsent(piece, key -> new ArrayList<>()).add(pieces.get(++i));
+            } else {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private JsonArray getArray(String path, EngineOutput output) throws IOException {
+        DockerEngineResponse response = dockerEngineClient.execute("GET", path, null);
+        if (!output.check(response)) {
+            return new JsonArray();
+        }
+        JsonElement body = JsonParser.parseString(response.getBody());
+        return body.isJsonArray() ? body.getAsJsonArray() : new JsonArray();
+    }
+
+    private void delete(String path, String printedName, EngineOutput output) throws IOException {
+        if (output.check(dockerEngineClient.execute("DELETE", path, null)) && null != printedName) {
+            output.println(printedName);
+        }
+    }
+
+    private boolean areLabelFilters(List<String> filters) {
+        return filters.stream().allMatch(filter -> filter.startsWith("label="));
+    }
+
+    private String labelQuery(List<String> filters) throws UnsupportedEncodingException {
+        String[] labels = filters.stream().map(filter -> StringUtils.removeStart(filter, "label=")).toArray(String[]::new);
+        return 0 == labels.length ? "" : "?filters=" + labelFilter(labels);
+    }
+
+    private String labelFilter(String... labels) throws UnsupportedEncodingException {
+        JsonArray labelArray = new JsonArray();
+        for (String label : labels) {
+            labelArray.add(new JsonPrimitive(label));
+        }
+        JsonObject filters = new JsonObject();
+        filters.add("label", labelArray);
+        return encode(filters.toString());
+    }
+
+    private String encode(String value) throws UnsupportedEncodingException {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8.name());
+    }
+
+    private JsonObject getObject(JsonElement element, String... path) {
+        JsonElement found = find(element, path);
+        return null != found && found.isJsonObject() ? found.getAsJsonObject() : new JsonObject();
+    }
+
+    private String getString(JsonElement element, String... path) {
+        JsonElement found = find(element, path);
+        return null == found || found.isJsonNull() ? "" : found.getAsString();
+    }
+
+    // null when any part of the path is missing
+    private JsonElement find(JsonElement element, String... path) {
+        JsonElement current = element;
+        for (String name : path) {
+            if (null == current || !current.isJsonObject() || !current.getAsJsonObject().has(name)) {
+                return null;
+            }
+            current = current.getAsJsonObject().get(name);
+        }
+        return current;
+    }
+
+    /*
+    Collects what the CLI would have printed - a failed call is reported on the error output and fails the command, but like
+    the CLI the remaining calls are still made.
+     */
+    private static class EngineOutput {
+        private final StringBuilder standardOutput = new StringBuilder();
+        private final StringBuilder errorOutput = new StringBuilder();
+        private int returnCode = 0;
+
+        public void println(String line) {
+            standardOutput.append(line).append('\n');
+        }
+
+        public void printError(String line) {
+            errorOutput.append(line).append('\n');
+        }
+
+        public boolean check(DockerEngineResponse response) {
+            if (response.isSuccess()) {
+                return true;
+            }
+
+            String message = response.getBody();
+            try {
+                JsonElement body = JsonParser.parseString(response.getBody());
+                if (body.isJsonObject() && body.getAsJsonObject().has("message")) {
+                    message = body.getAsJsonObject().get("message").getAsString();
+                }
+            } catch (RuntimeException e) {
+                // the plain body is reported instead
+            }
+            printError(String.format("Error response from daemon: %s", StringUtils.trim(message)));
+            fail();
+            return false;
+        }
+
+        public void fail() {
+            returnCode = 1;
+        }
+
+        public ExecutableOutput toExecutableOutput(String description) {
+            return new ExecutableOutput(description, returnCode, standardOutput.toString(), errorOutput.toString());
+        }
+    }
+
+}
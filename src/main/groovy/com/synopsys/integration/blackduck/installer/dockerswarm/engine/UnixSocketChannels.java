@@ -0,0 +1,72 @@
+/**
+ * blackduck-installer
+ *
+ * Copyright (c) 2019 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.installer.dockerswarm.engine;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.net.ProtocolFamily;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+
+/*
+Unix domain socket channels arrived in Java 16, after the Java 8 the installer is built for, so they are looked up at runtime.
+On older runtimes isSupported() is false and docker is used through its CLI.
+ */
+public final class UnixSocketChannels {
+    private UnixSocketChannels() {
+    }
+
+    public static boolean isSupported() {
+        try {
+            Class.forName("java.net.UnixDomainSocketAddress");
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    public static SocketChannel open(Path socketPath) throws IOException {
+        try {
+            Object address = Class.forName("java.net.UnixDomainSocketAddress").getMethod("of", Path.class).invoke(null, socketPath);
+            ProtocolFamily unix = StandardProtocolFamily.valueOf("UNIX");
+            SocketChannel socketChannel = (SocketChannel) SocketChannel.class.getMethod("open", ProtocolFamily.class).invoke(null, unix);
+            try {
+                socketChannel.connect((SocketAddress) address);
+            } catch (IOException e) {
+                socketChannel.close();
+                throw e;
+            }
+            return socketChannel;
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Could not open a unix domain socket: " + e.getCause().getMessage(), e.getCause());
+        } catch (ReflectiveOperationException | IllegalArgumentException e) {
+            throw new IOException("This Java runtime does not support unix domain sockets.", e);
+        }
+    }
+
+}
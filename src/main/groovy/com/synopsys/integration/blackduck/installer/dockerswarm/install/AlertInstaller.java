@@ -24,6 +24,7 @@ package com.synopsys.integration.blackduck.installer.dockerswarm.install;
 
 import com.synopsys.integration.blackduck.installer.dockerswarm.DockerCommands;
 import com.synopsys.integration.blackduck.installer.dockerswarm.DockerStackDeploy;
+import com.synopsys.integration.blackduck.installer.dockerswarm.ImagePrePuller;
 import com.synopsys.integration.blackduck.installer.dockerswarm.OrchestrationFiles;
 import com.synopsys.integration.blackduck.installer.dockerswarm.deploy.AlertDockerManager;
 import com.synopsys.integration.blackduck.installer.dockerswarm.edit.AlertLocalOverridesEditor;
@@ -38,8 +39,8 @@ public class AlertInstaller extends Installer {
     private final ConfigFileEditor alertLocalOverridesEditor;
     private final boolean useLocalOverrides;
 
-    public AlertInstaller(ZipFileDownloader zipFileDownloader, ExecutablesRunner executablesRunner, AlertDockerManager alertDockerManager, DockerStackDeploy dockerStackDeploy, DockerCommands dockerCommands, AlertLocalOverridesEditor alertLocalOverridesEditor, boolean useLocalOverrides) {
-        super(zipFileDownloader, executablesRunner, alertDockerManager, dockerStackDeploy, dockerCommands);
+    public AlertInstaller(ZipFileDownloader zipFileDownloader, ExecutablesRunner executablesRunner, AlertDockerManager alertDockerManager, DockerStackDeploy dockerStackDeploy, DockerCommands dockerCommands, ImagePrePuller imagePrePuller, AlertLocalOverridesEditor alertLocalOverridesEditor, boolean useLocalOverrides) {
+        super(zipFileDownloader, executablesRunner, alertDockerManager, dockerStackDeploy, dockerCommands, imagePrePuller);
 
         this.alertLocalOverridesEditor = alertLocalOverridesEditor;
         this.useLocalOverrides = useLocalOverrides;
@@ -47,17 +48,15 @@ public class AlertInstaller extends Installer {
 
     @Override
     public void postDownloadProcessing(File installDirectory) throws BlackDuckInstallerException {
-        alertLocalOverridesEditor.edit(installDirectory);
+        edit(installDirectory, alertLocalOverridesEditor);
     }
 
     @Override
-    public void populateDockerStackDeploy(File installDirectory) {
-        File dockerSwarm = new File(installDirectory, "docker-swarm");
-        File hub = new File(dockerSwarm, "hub");
-        addOrchestrationFile(hub, OrchestrationFiles.COMPOSE);
+    public void populateDockerStackDeploy(File installDirectory) throws BlackDuckInstallerException {
+        addOrchestrationFile(installDirectory, "docker-swarm/hub", OrchestrationFiles.COMPOSE);
 
         if (useLocalOverrides) {
-            addOrchestrationFile(dockerSwarm, OrchestrationFiles.LOCAL_OVERRIDES);
+            addOrchestrationFile(installDirectory, "docker-swarm", OrchestrationFiles.LOCAL_OVERRIDES);
         }
     }
 
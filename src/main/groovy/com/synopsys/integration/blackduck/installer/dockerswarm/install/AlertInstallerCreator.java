@@ -30,8 +30,11 @@ import com.synopsys.integration.blackduck.installer.dockerswarm.DockerStackDeplo
 import com.synopsys.integration.blackduck.installer.dockerswarm.deploy.AlertDockerManager;
 import com.synopsys.integration.blackduck.installer.dockerswarm.edit.AlertLocalOverridesEditor;
 import com.synopsys.integration.blackduck.installer.download.AlertGithubDownloadUrl;
+import com.synopsys.integration.blackduck.installer.download.ArchiveExpander;
 import com.synopsys.integration.blackduck.installer.download.ArtifactoryDownloadUrl;
+import com.synopsys.integration.blackduck.installer.download.LocalDownloadUrl;
 import com.synopsys.integration.blackduck.installer.download.ZipFileDownloader;
+import com.synopsys.integration.blackduck.installer.exception.BlackDuckInstallerException;
 import com.synopsys.integration.blackduck.installer.hash.HashUtility;
 import com.synopsys.integration.blackduck.installer.model.AlertBlackDuckInstallOptions;
 import com.synopsys.integration.blackduck.installer.model.AlertEncryption;
@@ -39,10 +42,9 @@ import com.synopsys.integration.blackduck.installer.model.CustomCertificate;
 import com.synopsys.integration.blackduck.installer.model.DockerService;
 import com.synopsys.integration.blackduck.installer.workflow.DownloadUrlDecider;
 import com.synopsys.integration.log.IntLogger;
-import com.synopsys.integration.rest.client.IntHttpClient;
-import com.synopsys.integration.util.CommonZipExpander;
 
 import java.io.File;
+import java.util.Arrays;
 
 public class AlertInstallerCreator {
     private ApplicationValues applicationValues;
@@ -55,34 +57,43 @@ public class AlertInstallerCreator {
         this.deployAlertProperties = deployAlertProperties;
     }
 
-    public AlertInstaller create() {
+    /*
+    The downloader doesn't depend on the Black Duck api token, so it can be created (and prefetched) before Black Duck is running.
+     */
+    public ZipFileDownloader createZipFileDownloader() throws BlackDuckInstallerException {
+        String version = deployProductProperties.getGithubReleaseResolver().resolve(applicationValues.getAlertGithubRepository(), applicationValues.getAlertVersion());
+        IntLogger intLogger = deployProductProperties.getIntLogger();
+        ArchiveExpander archiveExpander = deployProductProperties.getArchiveExpander();
+        File baseDirectory = deployProductProperties.getBaseDirectory();
+
+        AlertGithubDownloadUrl alertGithubDownloadUrl = new AlertGithubDownloadUrl(applicationValues.getAlertGithubDownloadUrlPrefix(), version);
+        ArtifactoryDownloadUrl alertArtifactoryDownloadUrl = new ArtifactoryDownloadUrl(applicationValues.getAlertArtifactoryUrl(), applicationValues.getAlertArtifactoryRepo(), applicationValues.getAlertArtifactPath(), applicationValues.getAlertArtifact(), version, applicationValues.getAlertArtifactFormat());
+        LocalDownloadUrl alertLocalDownloadUrl = new LocalDownloadUrl(applicationValues.getAlertLocalPath());
+        DownloadUrlDecider downloadUrlDecider = new DownloadUrlDecider(applicationValues.getAlertDownloadSource(), alertGithubDownloadUrl::getDownloadUrl, alertArtifactoryDownloadUrl::getDownloadUrl, alertLocalDownloadUrl::getDownloadUrl);
+
+        return new ZipFileDownloader(intLogger, deployProductProperties.getParallelDownloader(), archiveExpander, deployProductProperties.getArtifactCache(), deployProductProperties.getMirrorSelector(), deployProductProperties.getLocalStager(), deployProductProperties.getDeltaUpgrader(), deployProductProperties.getInstallRetention(), Arrays.asList(applicationValues.getDownloadPeerCacheUrls()), downloadUrlDecider, baseDirectory, "blackduck-alert", version, applicationValues.isAlertDownloadForce());
+    }
+
+    public AlertInstaller create(ZipFileDownloader alertDownloader) {
         IntLogger intLogger = deployProductProperties.getIntLogger();
         HashUtility hashUtility = deployProductProperties.getHashUtility();
         String lineSeparator = deployProductProperties.getLineSeparator();
         DockerCommands dockerCommands = deployProductProperties.getDockerCommands();
-        IntHttpClient intHttpClient = deployProductProperties.getIntHttpClient();
-        CommonZipExpander commonZipExpander = deployProductProperties.getCommonZipExpander();
-        File baseDirectory = deployProductProperties.getBaseDirectory();
         CustomCertificate customCertificate = deployProductProperties.getCustomCertificate();
 
         DockerService alertService = deployAlertProperties.getAlertService();
         AlertBlackDuckInstallOptions alertBlackDuckInstallOptions = deployAlertProperties.getAlertBlackDuckInstallOptions();
         AlertEncryption alertEncryption = deployAlertProperties.getAlertEncryption();
 
-        AlertGithubDownloadUrl alertGithubDownloadUrl = new AlertGithubDownloadUrl(applicationValues.getAlertGithubDownloadUrlPrefix(), applicationValues.getAlertVersion());
-        ArtifactoryDownloadUrl alertArtifactoryDownloadUrl = new ArtifactoryDownloadUrl(applicationValues.getAlertArtifactoryUrl(), applicationValues.getAlertArtifactoryRepo(), applicationValues.getAlertArtifactPath(), applicationValues.getAlertArtifact(), applicationValues.getAlertVersion());
-        DownloadUrlDecider downloadUrlDecider = new DownloadUrlDecider(applicationValues.getAlertDownloadSource(), alertGithubDownloadUrl::getDownloadUrl, alertArtifactoryDownloadUrl::getDownloadUrl);
-
         boolean useLocalOverrides = applicationValues.isAlertInstallUseLocalOverrides();
         if (!deployProductProperties.getCustomCertificate().isEmpty() || !alertEncryption.isEmpty() || !alertBlackDuckInstallOptions.isEmpty()) {
             useLocalOverrides = true;
         }
         AlertLocalOverridesEditor alertLocalOverridesEditor = new AlertLocalOverridesEditor(intLogger, hashUtility, lineSeparator, applicationValues.getStackName(), applicationValues.getBlackDuckInstallWebServerHost(), applicationValues.getAlertInstallDefaultAdminEmail(), alertEncryption, customCertificate, alertBlackDuckInstallOptions, useLocalOverrides);
-        ZipFileDownloader alertDownloader = new ZipFileDownloader(intLogger, intHttpClient, commonZipExpander, downloadUrlDecider, baseDirectory, "blackduck-alert", applicationValues.getAlertVersion(), applicationValues.isAlertDownloadForce());
         DockerStackDeploy dockerStackDeploy = new DockerStackDeploy(applicationValues.getStackName());
         AlertDockerManager alertDockerManager = new AlertDockerManager(intLogger, dockerCommands, applicationValues.getStackName(), alertEncryption, alertService);
 
-        return new AlertInstaller(alertDownloader, deployProductProperties.getExecutablesRunner(), alertDockerManager, dockerStackDeploy, dockerCommands, alertLocalOverridesEditor, useLocalOverrides);
+        return new AlertInstaller(alertDownloader, deployProductProperties.getExecutablesRunner(), alertDockerManager, dockerStackDeploy, dockerCommands, deployProductProperties.getImagePrePuller(), alertLocalOverridesEditor, useLocalOverrides);
     }
 
 }
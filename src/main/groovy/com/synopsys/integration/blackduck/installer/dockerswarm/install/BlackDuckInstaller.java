@@ -24,12 +24,14 @@ package com.synopsys.integration.blackduck.installer.dockerswarm.install;
 
 import com.synopsys.integration.blackduck.installer.dockerswarm.DockerCommands;
 import com.synopsys.integration.blackduck.installer.dockerswarm.DockerStackDeploy;
+import com.synopsys.integration.blackduck.installer.dockerswarm.ImagePrePuller;
 import com.synopsys.integration.blackduck.installer.dockerswarm.OrchestrationFiles;
 import com.synopsys.integration.blackduck.installer.dockerswarm.deploy.BlackDuckDockerManager;
 import com.synopsys.integration.blackduck.installer.dockerswarm.edit.BlackDuckConfigEnvEditor;
 import com.synopsys.integration.blackduck.installer.dockerswarm.edit.ConfigFileEditor;
 import com.synopsys.integration.blackduck.installer.dockerswarm.edit.HubWebServerEnvEditor;
 import com.synopsys.integration.blackduck.installer.dockerswarm.edit.LocalOverridesEditor;
+import com.synopsys.integration.blackduck.installer.dockerswarm.edit.UpdateConfigWriter;
 import com.synopsys.integration.blackduck.installer.download.ZipFileDownloader;
 import com.synopsys.integration.blackduck.installer.exception.BlackDuckInstallerException;
 import com.synopsys.integration.blackduck.installer.model.ExecutablesRunner;
@@ -41,30 +43,41 @@ public class BlackDuckInstaller extends Installer {
     private final ConfigFileEditor hubWebServerEnvEditor;
     private final ConfigFileEditor localOverridesEditor;
     private final boolean useLocalOverrides;
+    private final UpdateConfigWriter updateConfigWriter;
+    private final boolean rollingUpdate;
 
-    public BlackDuckInstaller(ZipFileDownloader zipFileDownloader, ExecutablesRunner executablesRunner, BlackDuckDockerManager blackDuckDockerManager, DockerStackDeploy dockerStackDeploy, DockerCommands dockerCommands, BlackDuckConfigEnvEditor blackDuckConfigEnvEditor, HubWebServerEnvEditor hubWebServerEnvEditor, LocalOverridesEditor localOverridesEditor, boolean useLocalOverrides) {
-        super(zipFileDownloader, executablesRunner, blackDuckDockerManager, dockerStackDeploy, dockerCommands);
+    public BlackDuckInstaller(ZipFileDownloader zipFileDownloader, ExecutablesRunner executablesRunner, BlackDuckDockerManager blackDuckDockerManager, DockerStackDeploy dockerStackDeploy, DockerCommands dockerCommands, ImagePrePuller imagePrePuller, BlackDuckConfigEnvEditor blackDuckConfigEnvEditor, HubWebServerEnvEditor hubWebServerEnvEditor, LocalOverridesEditor localOverridesEditor, boolean useLocalOverrides, UpdateConfigWriter updateConfigWriter, boolean rollingUpdate) {
+        super(zipFileDownloader, executablesRunner, blackDuckDockerManager, dockerStackDeploy, dockerCommands, imagePrePuller);
 
         this.blackDuckConfigEnvEditor = blackDuckConfigEnvEditor;
         this.hubWebServerEnvEditor = hubWebServerEnvEditor;
         this.localOverridesEditor = localOverridesEditor;
         this.useLocalOverrides = useLocalOverrides;
+        this.updateConfigWriter = updateConfigWriter;
+        this.rollingUpdate = rollingUpdate;
     }
 
     @Override
     public void postDownloadProcessing(File installDirectory) throws BlackDuckInstallerException {
-        blackDuckConfigEnvEditor.edit(installDirectory);
-        hubWebServerEnvEditor.edit(installDirectory);
-        localOverridesEditor.edit(installDirectory);
+        edit(installDirectory, blackDuckConfigEnvEditor);
+        edit(installDirectory, hubWebServerEnvEditor);
+        edit(installDirectory, localOverridesEditor);
+        if (rollingUpdate) {
+            resolve(installDirectory, "docker-swarm/" + OrchestrationFiles.COMPOSE);
+            updateConfigWriter.write(installDirectory);
+        }
     }
 
     @Override
-    public void populateDockerStackDeploy(File installDirectory) {
-        File dockerSwarm = new File(installDirectory, "docker-swarm");
-        addOrchestrationFile(dockerSwarm, OrchestrationFiles.COMPOSE);
+    public void populateDockerStackDeploy(File installDirectory) throws BlackDuckInstallerException {
+        addOrchestrationFile(installDirectory, "docker-swarm", OrchestrationFiles.COMPOSE);
 
         if (useLocalOverrides) {
-            addOrchestrationFile(dockerSwarm, OrchestrationFiles.LOCAL_OVERRIDES);
+            addOrchestrationFile(installDirectory, "docker-swarm", OrchestrationFiles.LOCAL_OVERRIDES);
+        }
+
+        if (rollingUpdate) {
+            addOrchestrationFile(installDirectory, "docker-swarm", OrchestrationFiles.ROLLING_UPDATE);
         }
     }
 
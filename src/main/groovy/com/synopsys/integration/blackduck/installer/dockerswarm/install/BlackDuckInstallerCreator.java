@@ -29,11 +29,17 @@ import com.synopsys.integration.blackduck.installer.dockerswarm.edit.BlackDuckCo
 import com.synopsys.integration.blackduck.installer.dockerswarm.edit.HubWebServerEnvEditor;
 import com.synopsys.integration.blackduck.installer.dockerswarm.edit.HubWebServerEnvTokens;
 import com.synopsys.integration.blackduck.installer.dockerswarm.edit.LocalOverridesEditor;
+import com.synopsys.integration.blackduck.installer.dockerswarm.edit.UpdateConfigWriter;
 import com.synopsys.integration.blackduck.installer.download.ArtifactoryDownloadUrl;
 import com.synopsys.integration.blackduck.installer.download.BlackDuckGithubDownloadUrl;
+import com.synopsys.integration.blackduck.installer.download.LocalDownloadUrl;
 import com.synopsys.integration.blackduck.installer.download.ZipFileDownloader;
+import com.synopsys.integration.blackduck.installer.exception.BlackDuckInstallerException;
+import com.synopsys.integration.blackduck.installer.model.DeployMethod;
 import com.synopsys.integration.blackduck.installer.workflow.DownloadUrlDecider;
 
+import java.util.Arrays;
+
 public class BlackDuckInstallerCreator {
     private ApplicationValues applicationValues;
     private DeployProductProperties deployProductProperties;
@@ -43,11 +49,17 @@ public class BlackDuckInstallerCreator {
         this.deployProductProperties = deployProductProperties;
     }
 
-    public BlackDuckInstaller create() {
-        BlackDuckGithubDownloadUrl blackDuckGithubDownloadUrl = new BlackDuckGithubDownloadUrl(applicationValues.getBlackDuckGithubDownloadUrlPrefix(), applicationValues.getBlackDuckVersion());
-        ArtifactoryDownloadUrl blackDuckArtifactoryDownloadUrl = new ArtifactoryDownloadUrl(applicationValues.getBlackDuckArtifactoryUrl(), applicationValues.getBlackDuckArtifactoryRepo(), applicationValues.getBlackDuckArtifactPath(), applicationValues.getBlackDuckArtifact(), applicationValues.getBlackDuckVersion());
-        DownloadUrlDecider downloadUrlDecider = new DownloadUrlDecider(applicationValues.getBlackDuckDownloadSource(), blackDuckGithubDownloadUrl::getDownloadUrl, blackDuckArtifactoryDownloadUrl::getDownloadUrl);
+    public ZipFileDownloader createZipFileDownloader() throws BlackDuckInstallerException {
+        String version = deployProductProperties.getGithubReleaseResolver().resolve(applicationValues.getBlackDuckGithubRepository(), applicationValues.getBlackDuckVersion());
+        BlackDuckGithubDownloadUrl blackDuckGithubDownloadUrl = new BlackDuckGithubDownloadUrl(applicationValues.getBlackDuckGithubDownloadUrlPrefix(), version);
+        ArtifactoryDownloadUrl blackDuckArtifactoryDownloadUrl = new ArtifactoryDownloadUrl(applicationValues.getBlackDuckArtifactoryUrl(), applicationValues.getBlackDuckArtifactoryRepo(), applicationValues.getBlackDuckArtifactPath(), applicationValues.getBlackDuckArtifact(), version, applicationValues.getBlackDuckArtifactFormat());
+        LocalDownloadUrl blackDuckLocalDownloadUrl = new LocalDownloadUrl(applicationValues.getBlackDuckLocalPath());
+        DownloadUrlDecider downloadUrlDecider = new DownloadUrlDecider(applicationValues.getBlackDuckDownloadSource(), blackDuckGithubDownloadUrl::getDownloadUrl, blackDuckArtifactoryDownloadUrl::getDownloadUrl, blackDuckLocalDownloadUrl::getDownloadUrl);
+
+        return new ZipFileDownloader(deployProductProperties.getIntLogger(), deployProductProperties.getParallelDownloader(), deployProductProperties.getArchiveExpander(), deployProductProperties.getArtifactCache(), deployProductProperties.getMirrorSelector(), deployProductProperties.getLocalStager(), deployProductProperties.getDeltaUpgrader(), deployProductProperties.getInstallRetention(), Arrays.asList(applicationValues.getDownloadPeerCacheUrls()), downloadUrlDecider, deployProductProperties.getBaseDirectory(), "blackduck", version, applicationValues.isBlackDuckDownloadForce());
+    }
 
+    public BlackDuckInstaller create(ZipFileDownloader blackDuckDownloader) {
         HubWebServerEnvTokens hubWebServerEnvTokens = new HubWebServerEnvTokens(applicationValues.getBlackDuckInstallWebServerHost());
         HubWebServerEnvEditor hubWebServerEnvEditor = new HubWebServerEnvEditor(deployProductProperties.getIntLogger(), deployProductProperties.getHashUtility(), deployProductProperties.getLineSeparator(), hubWebServerEnvTokens);
         BlackDuckConfigEnvEditor blackDuckConfigEnvEditor = new BlackDuckConfigEnvEditor(deployProductProperties.getIntLogger(), deployProductProperties.getHashUtility(), deployProductProperties.getLineSeparator(), applicationValues.getBlackDuckInstallProxyHost(), applicationValues.getBlackDuckInstallProxyPort(), applicationValues.getBlackDuckInstallProxyScheme(), applicationValues.getBlackDuckInstallProxyUser(), applicationValues.getBlackDuckInstallCustomKbHost());
@@ -58,10 +70,11 @@ public class BlackDuckInstallerCreator {
         }
         LocalOverridesEditor localOverridesEditor = new LocalOverridesEditor(deployProductProperties.getIntLogger(), deployProductProperties.getHashUtility(), deployProductProperties.getLineSeparator(), applicationValues.getStackName(), useLocalOverrides);
 
-        ZipFileDownloader blackDuckDownloader = new ZipFileDownloader(deployProductProperties.getIntLogger(), deployProductProperties.getIntHttpClient(), deployProductProperties.getCommonZipExpander(), downloadUrlDecider, deployProductProperties.getBaseDirectory(), "blackduck", applicationValues.getBlackDuckVersion(), applicationValues.isBlackDuckDownloadForce());
+        boolean rollingUpdate = DeployMethod.UPDATE == applicationValues.getBlackDuckDeployMethod();
+        UpdateConfigWriter updateConfigWriter = new UpdateConfigWriter(deployProductProperties.getIntLogger(), deployProductProperties.getLineSeparator(), applicationValues.getBlackDuckUpdateParallelism(), applicationValues.getBlackDuckUpdateDelayInSeconds());
 
-        BlackDuckDockerManager blackDuckDockerManager = new BlackDuckDockerManager(deployProductProperties.getIntLogger(), deployProductProperties.getDockerCommands(), applicationValues.getStackName(), deployProductProperties.getCustomCertificate());
-        return new BlackDuckInstaller(blackDuckDownloader, deployProductProperties.getExecutablesRunner(), blackDuckDockerManager, deployProductProperties.getDeployStack(), deployProductProperties.getDockerCommands(), blackDuckConfigEnvEditor, hubWebServerEnvEditor, localOverridesEditor, useLocalOverrides);
+        BlackDuckDockerManager blackDuckDockerManager = new BlackDuckDockerManager(deployProductProperties.getIntLogger(), deployProductProperties.getDockerCommands(), applicationValues.getStackName(), deployProductProperties.getCustomCertificate(), deployProductProperties.getStackDrainer(), rollingUpdate);
+        return new BlackDuckInstaller(blackDuckDownloader, deployProductProperties.getExecutablesRunner(), blackDuckDockerManager, deployProductProperties.getDeployStack(), deployProductProperties.getDockerCommands(), deployProductProperties.getImagePrePuller(), blackDuckConfigEnvEditor, hubWebServerEnvEditor, localOverridesEditor, useLocalOverrides, updateConfigWriter, rollingUpdate);
     }
 
 }
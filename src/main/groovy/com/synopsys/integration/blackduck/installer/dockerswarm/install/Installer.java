@@ -24,20 +24,16 @@ package com.synopsys.integration.blackduck.installer.dockerswarm.install;
 
 import com.synopsys.integration.blackduck.installer.dockerswarm.*;
 import com.synopsys.integration.blackduck.installer.dockerswarm.deploy.ProductDockerManager;
-import com.synopsys.integration.blackduck.installer.dockerswarm.output.DockerSecrets;
-import com.synopsys.integration.blackduck.installer.dockerswarm.output.DockerServices;
-import com.synopsys.integration.blackduck.installer.dockerswarm.output.DockerStacks;
+import com.synopsys.integration.blackduck.installer.dockerswarm.edit.ConfigFileEditor;
+import com.synopsys.integration.blackduck.installer.dockerswarm.output.SwarmSnapshot;
 import com.synopsys.integration.blackduck.installer.download.ZipFileDownloader;
 import com.synopsys.integration.blackduck.installer.exception.BlackDuckInstallerException;
-import com.synopsys.integration.blackduck.installer.model.ExecutablesRunner;
-import com.synopsys.integration.blackduck.installer.model.InstallResult;
+import com.synopsys.integration.blackduck.installer.model.*;
 import com.synopsys.integration.executable.Executable;
-import com.synopsys.integration.executable.ExecutableOutput;
 
 import java.io.File;
+import java.util.Collections;
 import java.util.List;
-import java.util.function.Function;
-import java.util.function.Supplier;
 
 public abstract class Installer {
     private final ZipFileDownloader zipFileDownloader;
@@ -45,24 +41,40 @@ public abstract class Installer {
     private final ProductDockerManager productDockerManager;
     private final DockerStackDeploy dockerStackDeploy;
     private final DockerCommands dockerCommands;
+    private final ImagePrePuller imagePrePuller;
 
-    public Installer(ZipFileDownloader zipFileDownloader, ExecutablesRunner executablesRunner, ProductDockerManager productDockerManager, DockerStackDeploy dockerStackDeploy, DockerCommands dockerCommands) {
+    public Installer(ZipFileDownloader zipFileDownloader, ExecutablesRunner executablesRunner, ProductDockerManager productDockerManager, DockerStackDeploy dockerStackDeploy, DockerCommands dockerCommands, ImagePrePuller imagePrePuller) {
         this.zipFileDownloader = zipFileDownloader;
         this.executablesRunner = executablesRunner;
         this.productDockerManager = productDockerManager;
         this.dockerStackDeploy = dockerStackDeploy;
         this.dockerCommands = dockerCommands;
+        this.imagePrePuller = imagePrePuller;
     }
 
     public abstract void postDownloadProcessing(File installDirectory) throws BlackDuckInstallerException;
 
-    public abstract void populateDockerStackDeploy(File installDirectory);
+    public abstract void populateDockerStackDeploy(File installDirectory) throws BlackDuckInstallerException;
 
-    public void addAdditionalExecutables(List<Executable> executables) {
+    public void addAdditionalSteps(ExecutionPlan executionPlan) {
     }
 
-    public void addOrchestrationFile(File orchestrationDirectory, String orchestrationFile) {
-        dockerStackDeploy.addOrchestrationFile(orchestrationDirectory, orchestrationFile);
+    public void addOrchestrationFile(File installDirectory, String orchestrationDirectory, String orchestrationFile) throws BlackDuckInstallerException {
+        File resolvedFile = resolve(installDirectory, orchestrationDirectory + "/" + orchestrationFile);
+        dockerStackDeploy.addOrchestrationFile(resolvedFile.getParentFile(), orchestrationFile);
+    }
+
+    public void edit(File installDirectory, ConfigFileEditor configFileEditor) throws BlackDuckInstallerException {
+        resolve(installDirectory, configFileEditor.getRelativePath());
+        configFileEditor.edit(installDirectory);
+    }
+
+    /*
+    Only the download.expand.prefixes are expanded up front - anything else is expanded from the cached archive here. Files
+    the installer writes itself aren't in the archive, so they are left where they would be.
+     */
+    public File resolve(File installDirectory, String relativePath) throws BlackDuckInstallerException {
+        return zipFileDownloader.resolve(relativePath).orElse(new File(installDirectory, relativePath));
     }
 
     public InstallResult performInstall() throws BlackDuckInstallerException {
@@ -70,28 +82,22 @@ public abstract class Installer {
 
         postDownloadProcessing(installDirectory);
 
-        DockerStacks dockerStacks = createDockerOutput(dockerCommands::listStackNames, DockerStacks::create);
-        DockerSecrets dockerSecrets = createDockerOutput(dockerCommands::listSecretNames, DockerSecrets::create);
-        DockerServices dockerServices = createDockerOutput(dockerCommands::listServiceNames, DockerServices::create);
-
-        List<Executable> executables = productDockerManager.createExecutables(installDirectory, dockerStacks, dockerSecrets, dockerServices);
-        addAdditionalExecutables(executables);
+        SwarmSnapshot swarmSnapshot = SwarmSnapshot.capture(dockerCommands, executablesRunner, dockerStackDeploy.getStackName());
 
-        int overallReturnCode = 0;
-        overallReturnCode += executablesRunner.runExecutables(executables);
+        ExecutionPlan executionPlan = productDockerManager.createPlan(installDirectory, swarmSnapshot);
+        addAdditionalSteps(executionPlan);
 
         populateDockerStackDeploy(installDirectory);
+        imagePrePuller.addPullSteps(executionPlan, dockerStackDeploy.getOrchestrationFiles());
 
+        // the stack is only deployed once everything it needs is in place
         Executable dockerStackDeployExecutable = dockerStackDeploy.createDeployExecutable();
-        overallReturnCode += executablesRunner.runExecutableCode(dockerStackDeployExecutable);
+        executionPlan.add(new ExecutableStep("deploy-stack", dockerStackDeployExecutable, Collections.singleton(ExecutableStep.stack(dockerStackDeploy.getStackName())), executionPlan.getStepNames()));
 
-        return new InstallResult(overallReturnCode, installDirectory, dockerStackDeploy);
-    }
+        List<StepResult> stepResults = executablesRunner.runPlan(executionPlan);
+        int overallReturnCode = stepResults.stream().mapToInt(StepResult::getReturnCode).sum();
 
-    private <T extends Object> T createDockerOutput(Supplier<Executable> executableSupplier, Function<String, T> creator) throws BlackDuckInstallerException {
-        Executable executable = executableSupplier.get();
-        ExecutableOutput executableOutput = executablesRunner.runExecutable(executable);
-        return creator.apply(executableOutput.getStandardOutput());
+        return new InstallResult(overallReturnCode, installDirectory, dockerStackDeploy, zipFileDownloader.getDownloadSummary().orElse(null));
     }
 
 }
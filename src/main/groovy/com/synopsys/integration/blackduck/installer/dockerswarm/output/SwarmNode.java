@@ -0,0 +1,58 @@
+/**
+ * blackduck-installer
+ *
+ * Copyright (c) 2019 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.installer.dockerswarm.output;
+
+public class SwarmNode {
+    private final String id;
+    private final String hostname;
+    private final String status;
+    private final String availability;
+
+    public SwarmNode(String id, String hostname, String status, String availability) {
+        this.id = id;
+        this.hostname = hostname;
+        this.status = status;
+        this.availability = availability;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getHostname() {
+        return hostname;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public String getAvailability() {
+        return availability;
+    }
+
+    public boolean isReady() {
+        return "Ready".equalsIgnoreCase(status);
+    }
+
+}
@@ -0,0 +1,63 @@
+/**
+ * blackduck-installer
+ *
+ * Copyright (c) 2019 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.installer.dockerswarm.output;
+
+import java.util.Optional;
+
+public class SwarmService {
+    private final String id;
+    private final String name;
+    private final String stackName;
+    private final String mode;
+    private final String image;
+
+    public SwarmService(String id, String name, String stackName, String mode, String image) {
+        this.id = id;
+        this.name = name;
+        this.stackName = stackName;
+        this.mode = mode;
+        this.image = image;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // empty for a service that isn't part of a stack
+    public Optional<String> getStackName() {
+        return Optional.ofNullable(stackName);
+    }
+
+    public String getMode() {
+        return mode;
+    }
+
+    public String getImage() {
+        return image;
+    }
+
+}
@@ -0,0 +1,217 @@
+/**
+ * blackduck-installer
+ *
+ * Copyright (c) 2019 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.installer.dockerswarm.output;
+
+import com.synopsys.integration.blackduck.installer.dockerswarm.DockerCommands;
+import com.synopsys.integration.blackduck.installer.exception.BlackDuckInstallerException;
+import com.synopsys.integration.blackduck.installer.model.ExecutablesRunner;
+import com.synopsys.integration.blackduck.installer.model.StreamingExecutableRunner;
+import com.synopsys.integration.executable.Executable;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/*
+The stacks, secrets, services, nodes and the tasks of one stack, read concurrently in one pass and indexed by name, so every
+decision of an install is made against the same state with exact lookups.
+ */
+public class SwarmSnapshot {
+    private static final String FIELD_SEPARATOR = "\t";
+
+    private final Set<String> stackNames;
+    private final Set<String> secretNames;
+    private final Map<String, SwarmService> servicesByName;
+    private final Map<String, SwarmNode> nodesById;
+    private final Map<String, List<SwarmTask>> tasksByServiceName;
+
+    /*
+    Like the other docker commands, these only print on a dry run, which leaves the snapshot empty. Each listing is parsed line by
+    line as it is read, on the thread that runs it, and only the parsed entries are kept.
+     */
+    public static SwarmSnapshot capture(DockerCommands dockerCommands, ExecutablesRunner executablesRunner, String stackName) throws BlackDuckInstallerException {
+        Listings listings = new Listings();
+        Map<Executable, Consumer<String>> executables = new LinkedHashMap<>();
+        executables.put(dockerCommands.listStackNames(), listings::addStack);
+        executables.put(dockerCommands.listSecretNames(), listings::addSecret);
+        executables.put(dockerCommands.listServices(), listings::addService);
+        executables.put(dockerCommands.listNodes(), listings::addNode);
+        executables.put(dockerCommands.listStackTasks(stackName), listings::addTask);
+
+        ExecutorService executorService = Executors.newFixedThreadPool(executables.size());
+        try {
+            List<Future<?>> listingsRead = new ArrayList<>();
+            executables.forEach((executable, lineConsumer) -> listingsRead.add(executorService.submit(() -> executablesRunner.runExecutable(executable, lineConsumer))));
+            for (Future<?> listingRead : listingsRead) {
+                listingRead.get();
+            }
+            return listings.toSnapshot();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof BlackDuckInstallerException) {
+                throw (BlackDuckInstallerException) e.getCause();
+            }
+            throw new BlackDuckInstallerException("Could not read the state of the swarm: " + e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BlackDuckInstallerException("Interrupted while reading the state of the swarm.", e);
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    public static SwarmSnapshot parse(String stacksOutput, String secretsOutput, String servicesOutput, String nodesOutput, String tasksOutput) {
+        Listings listings = new Listings();
+        StreamingExecutableRunner.forEachLine(stacksOutput, listings::addStack);
+        StreamingExecutableRunner.forEachLine(secretsOutput, listings::addSecret);
+        StreamingExecutableRunner.forEachLine(servicesOutput, listings::addService);
+        StreamingExecutableRunner.forEachLine(nodesOutput, listings::addNode);
+        StreamingExecutableRunner.forEachLine(tasksOutput, listings::addTask);
+        return listings.toSnapshot();
+    }
+
+    private SwarmSnapshot(Set<String> stackNames, Set<String> secretNames, Map<String, SwarmService> servicesByName, Map<String, SwarmNode> nodesById, Map<String, List<SwarmTask>> tasksByServiceName) {
+        this.stackNames = stackNames;
+        this.secretNames = secretNames;
+        this.servicesByName = servicesByName;
+        this.nodesById = nodesById;
+        this.tasksByServiceName = tasksByServiceName;
+    }
+
+    public boolean hasStack(String stackName) {
+        return stackNames.contains(stackName);
+    }
+
+    public boolean hasSecret(String secretName) {
+        return secretNames.contains(secretName);
+    }
+
+    public boolean hasService(String serviceName) {
+        return servicesByName.containsKey(serviceName);
+    }
+
+    public Optional<SwarmService> findService(String serviceName) {
+        return Optional.ofNullable(servicesByName.get(serviceName));
+    }
+
+    public List<SwarmService> getStackServices(String stackName) {
+        List<SwarmService> stackServices = new ArrayList<>();
+        for (SwarmService swarmService : servicesByName.values()) {
+            if (swarmService.getStackName().filter(stackName::equals).isPresent()) {
+                stackServices.add(swarmService);
+            }
+        }
+        return stackServices;
+    }
+
+    public List<SwarmTask> getTasks(String serviceName) {
+        return tasksByServiceName.getOrDefault(serviceName, Collections.emptyList());
+    }
+
+    public Collection<SwarmNode> getNodes() {
+        return nodesById.values();
+    }
+
+    /*
+    Stack services are named <stack>_<service>, and the longest matching stack wins so hub_2_x belongs to hub_2 rather than hub.
+     */
+    private static String findStackName(Set<String> stackNames, String serviceName) {
+        String stackName = null;
+        for (String candidate : stackNames) {
+            if (serviceName.startsWith(candidate + "_") && (null == stackName || candidate.length() > stackName.length())) {
+                stackName = candidate;
+            }
+        }
+        return stackName;
+    }
+
+    /*
+    Every listing only adds to its own collection, so the five can be read at the same time - the services are matched to their
+    stacks once all the stack names are known.
+     */
+    private static class Listings {
+        private final Set<String> stackNames = new HashSet<>();
+        private final Set<String> secretNames = new HashSet<>();
+        private final List<String[]> serviceFields = new ArrayList<>();
+        private final Map<String, SwarmNode> nodesById = new HashMap<>();
+        private final Map<String, List<SwarmTask>> tasksByServiceName = new HashMap<>();
+
+        public void addStack(String line) {
+            readName(line).ifPresent(stackNames::add);
+        }
+
+        public void addSecret(String line) {
+            readName(line).ifPresent(secretNames::add);
+        }
+
+        public void addService(String line) {
+            readFields(line, 4).ifPresent(serviceFields::add);
+        }
+
+        public void addNode(String line) {
+            readFields(line, 4).ifPresent(fields -> nodesById.put(fields[0], new SwarmNode(fields[0], fields[1], fields[2], fields[3])));
+        }
+
+        // tasks are named <service>.<slot>, or <service>.<node id> for a global service
+        public void addTask(String line) {
+            readFields(line, 5).ifPresent(fields -> {
+                String serviceName = StringUtils.substringBeforeLast(fields[1], ".");
+                String currentState = StringUtils.substringBefore(fields[4], " ");
+                tasksByServiceName.computeIfAbsent(serviceName, key -> new ArrayList<>()).add(new SwarmTask(fields[0], serviceName, fields[2], fields[3], currentState));
+            });
+        }
+
+        public SwarmSnapshot toSnapshot() {
+            Map<String, SwarmService> servicesByName = new HashMap<>();
+            for (String[] fields : serviceFields) {
+                servicesByName.put(fields[1], new SwarmService(fields[0], fields[1], findStackName(stackNames, fields[1]), fields[2], fields[3]));
+            }
+            return new SwarmSnapshot(stackNames, secretNames, servicesByName, nodesById, tasksByServiceName);
+        }
+
+        private Optional<String> readName(String line) {
+            String trimmed = StringUtils.strip(line, " \"");
+            return StringUtils.isNotEmpty(trimmed) ? Optional.of(trimmed) : Optional.empty();
+        }
+
+        // lines without every field are skipped
+        private Optional<String[]> readFields(String line, int fieldCount) {
+            Optional<String> trimmed = readName(line);
+            if (!trimmed.isPresent()) {
+                return Optional.empty();
+            }
+            String[] fields = trimmed.get().split(FIELD_SEPARATOR, -1);
+            if (fields.length < fieldCount) {
+                return Optional.empty();
+            }
+            for (int i = 0; i < fields.length; i++) {
+                fields[i] = fields[i].trim();
+            }
+            return Optional.of(fields);
+        }
+    }
+
+}
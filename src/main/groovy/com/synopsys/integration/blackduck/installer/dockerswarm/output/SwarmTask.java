@@ -0,0 +1,65 @@
+/**
+ * blackduck-installer
+ *
+ * Copyright (c) 2019 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.installer.dockerswarm.output;
+
+public class SwarmTask {
+    private final String id;
+    private final String serviceName;
+    private final String node;
+    private final String desiredState;
+    private final String currentState;
+
+    public SwarmTask(String id, String serviceName, String node, String desiredState, String currentState) {
+        this.id = id;
+        this.serviceName = serviceName;
+        this.node = node;
+        this.desiredState = desiredState;
+        this.currentState = currentState;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getServiceName() {
+        return serviceName;
+    }
+
+    public String getNode() {
+        return node;
+    }
+
+    public String getDesiredState() {
+        return desiredState;
+    }
+
+    // only the state itself, without the "2 minutes ago" the CLI adds
+    public String getCurrentState() {
+        return currentState;
+    }
+
+    public boolean isRunning() {
+        return "Running".equalsIgnoreCase(currentState);
+    }
+
+}
@@ -0,0 +1,43 @@
+/**
+ * blackduck-installer
+ *
+ * Copyright (c) 2019 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.installer.download;
+
+import com.synopsys.integration.blackduck.installer.exception.BlackDuckInstallerException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+
+public interface ArchiveExpander {
+    void expand(File archive, File destinationDirectory) throws BlackDuckInstallerException;
+
+    // file modes are only recorded in the central directory, so restorePermissions must follow once the whole archive is on disk
+    void expand(InputStream archiveStream, File destinationDirectory) throws IOException, BlackDuckInstallerException;
+
+    void restorePermissions(File archive, File destinationDirectory) throws BlackDuckInstallerException;
+
+    // entryPath is relative to the destinationDirectory - if it is a directory, everything beneath it is expanded
+    Optional<File> expandEntry(File archive, File destinationDirectory, String entryPath) throws BlackDuckInstallerException;
+
+}
@@ -0,0 +1,101 @@
+/**
+ * blackduck-installer
+ *
+ * Copyright (c) 2019 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.installer.download;
+
+import org.apache.commons.io.IOUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Optional;
+
+public enum ArchiveFormat {
+    ZIP(".zip", new int[] { 0x50, 0x4b, 0x03, 0x04 }),
+    TAR_GZ(".tar.gz", new int[] { 0x1f, 0x8b }),
+    TAR_ZST(".tar.zst", new int[] { 0x28, 0xb5, 0x2f, 0xfd });
+
+    public static final int MAGIC_LENGTH = 4;
+
+    private final String extension;
+    private final int[] magic;
+
+    ArchiveFormat(String extension, int[] magic) {
+        this.extension = extension;
+        this.magic = magic;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public static Optional<ArchiveFormat> fromName(String name) {
+        for (ArchiveFormat archiveFormat : values()) {
+            if (name.toLowerCase().endsWith(archiveFormat.extension)) {
+                return Optional.of(archiveFormat);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /*
+    The artifact cache names every blob by its digest alone, so the content decides - never the name.
+     */
+    public static Optional<ArchiveFormat> sniff(byte[] header, int length) {
+        for (ArchiveFormat archiveFormat : values()) {
+            if (archiveFormat.matches(header, length)) {
+                return Optional.of(archiveFormat);
+            }
+        }
+        return Optional.empty();
+    }
+
+    public static Optional<ArchiveFormat> sniff(File archive) throws IOException {
+        try (InputStream inputStream = Files.newInputStream(archive.toPath())) {
+            byte[] header = new byte[MAGIC_LENGTH];
+            return sniff(header, IOUtils.read(inputStream, header));
+        }
+    }
+
+    // the stream is reset to where it was, so it must support mark
+    public static Optional<ArchiveFormat> peek(InputStream inputStream) throws IOException {
+        inputStream.mark(MAGIC_LENGTH);
+        byte[] header = new byte[MAGIC_LENGTH];
+        int length = IOUtils.read(inputStream, header);
+        inputStream.reset();
+        return sniff(header, length);
+    }
+
+    private boolean matches(byte[] header, int length) {
+        if (length < magic.length) {
+            return false;
+        }
+        for (int i = 0; i < magic.length; i++) {
+            if ((header[i] & 0xff) != magic[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
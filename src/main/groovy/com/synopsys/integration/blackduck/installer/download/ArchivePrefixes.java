@@ -0,0 +1,76 @@
+/**
+ * blackduck-installer
+ *
+ * Copyright (c) 2019 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.installer.download;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/*
+Release archives contain a single top level directory (hub-2019.8.1/...) so the prefixes are matched against the path beneath it.
+ */
+public class ArchivePrefixes {
+    private final List<String> prefixes;
+
+    public ArchivePrefixes(List<String> prefixes) {
+        this.prefixes = prefixes
+                            .stream()
+                            .map(prefix -> StringUtils.strip(prefix.trim(), "/"))
+                            .filter(StringUtils::isNotBlank)
+                            .collect(Collectors.toList());
+    }
+
+    public boolean isSelected(String entryName) {
+        if (prefixes.isEmpty()) {
+            return true;
+        }
+
+        int rootEnd = entryName.indexOf('/');
+        String pathInRoot = rootEnd < 0 ? "" : entryName.substring(rootEnd + 1);
+        if (StringUtils.isEmpty(pathInRoot)) {
+            // the top level directory itself
+            return true;
+        }
+
+        for (String prefix : prefixes) {
+            if (pathInRoot.equals(prefix) || pathInRoot.startsWith(prefix + "/")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // entryPath is relative to the destination directory - if it is a directory, everything beneath it matches
+    public static boolean matchesEntryPath(String entryName, String entryPath) {
+        String normalizedPath = StringUtils.strip(entryPath.replace('\\', '/'), "/");
+        String normalizedName = StringUtils.removeEnd(entryName, "/");
+        return normalizedName.equals(normalizedPath) || normalizedName.startsWith(normalizedPath + "/");
+    }
+
+    @Override
+    public String toString() {
+        return prefixes.isEmpty() ? "everything" : StringUtils.join(prefixes, ", ");
+    }
+
+}
@@ -0,0 +1,208 @@
+/**
+ * blackduck-installer
+ *
+ * Copyright (c) 2019 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.installer.download;
+
+import com.synopsys.integration.blackduck.installer.exception.BlackDuckInstallerException;
+import com.synopsys.integration.log.IntLogger;
+import org.apache.commons.codec.digest.DigestUtils;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+import java.util.Properties;
+
+public class ArtifactCache {
+    public static final String DEFAULT_DIRECTORY_NAME = "artifact-cache";
+
+    private static final String BLOBS_DIRECTORY_NAME = "blobs";
+    private static final String TEMP_DIRECTORY_NAME = "tmp";
+    private static final String INDEX_FILENAME = "index.properties";
+    // the blobs are zip, tar.gz or tar.zst archives, which ArchiveFormat tells apart by their content
+    private static final String BLOB_EXTENSION = ".blob";
+    private static final String LEGACY_BLOB_EXTENSION = ".zip";
+    private static final String PARTIAL_EXTENSION = ".part";
+
+    private final IntLogger logger;
+    private final File blobsDirectory;
+    private final File tempDirectory;
+    private final File indexFile;
+
+    public ArtifactCache(IntLogger logger, File cacheDirectory) {
+        this.logger = logger;
+        blobsDirectory = new File(cacheDirectory, BLOBS_DIRECTORY_NAME);
+        tempDirectory = new File(cacheDirectory, TEMP_DIRECTORY_NAME);
+        indexFile = new File(cacheDirectory, INDEX_FILENAME);
+    }
+
+    public synchronized Optional<File> findArchive(String downloadUrl, String version) throws BlackDuckInstallerException {
+        Properties index = loadIndex();
+        String digest = index.getProperty(createKey(downloadUrl, version));
+        if (null == digest) {
+            return Optional.empty();
+        }
+
+        File blob = getBlob(digest);
+        if (!blob.isFile()) {
+            logger.warn(String.format("The artifact cache expected %s to exist for %s but it is missing - it will be downloaded again.", blob.getAbsolutePath(), downloadUrl));
+            index.remove(createKey(downloadUrl, version));
+            saveIndex(index);
+            return Optional.empty();
+        }
+
+        return Optional.of(blob);
+    }
+
+    /*
+    Looks an archive up by the id from getArchiveId, which is how peers ask for it.
+     */
+    public synchronized Optional<File> findArchiveById(String archiveId) throws BlackDuckInstallerException {
+        Properties index = loadIndex();
+        return index.stringPropertyNames().stream()
+                   .filter(key -> DigestUtils.sha256Hex(key).equals(archiveId))
+                   .map(key -> getBlob(index.getProperty(key)))
+                   .filter(File::isFile)
+                   .findFirst();
+    }
+
+    public String getArchiveId(String downloadUrl, String version) {
+        return DigestUtils.sha256Hex(createKey(downloadUrl, version));
+    }
+
+    /*
+    The same url and version always map to the same file so an interrupted download can be found again.
+     */
+    public File getPartialFile(String downloadUrl, String version) {
+        tempDirectory.mkdirs();
+        return new File(tempDirectory, getArchiveId(downloadUrl, version) + PARTIAL_EXTENSION);
+    }
+
+    /*
+    The downloaded file is moved (never copied) into place, so it must be the file from getPartialFile to be on the same file system.
+     */
+    public synchronized File store(DownloadResult downloadResult, String downloadUrl, String version) throws BlackDuckInstallerException {
+        File completedFile = downloadResult.getFile();
+        String digest = downloadResult.getSha256();
+        File blob = getBlob(digest);
+        blobsDirectory.mkdirs();
+        try {
+            if (blob.isFile()) {
+                Files.delete(completedFile.toPath());
+            } else {
+                Files.move(completedFile.toPath(), blob.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            }
+        } catch (IOException e) {
+            throw new BlackDuckInstallerException(String.format("Could not move %s into the artifact cache: %s", completedFile.getAbsolutePath(), e.getMessage()), e);
+        }
+
+        Properties index = loadIndex();
+        index.setProperty(createKey(downloadUrl, version), digest);
+        saveIndex(index);
+
+        return blob;
+    }
+
+    /*
+    Forgets the archive of this url and version, deleting it unless another entry shares it. Returns the bytes freed.
+     */
+    public synchronized long remove(String downloadUrl, String version) throws BlackDuckInstallerException {
+        Properties index = loadIndex();
+        String digest = (String) index.remove(createKey(downloadUrl, version));
+        if (null == digest) {
+            return 0;
+        }
+        saveIndex(index);
+
+        File blob = getBlob(digest);
+        if (index.containsValue(digest) || !blob.isFile()) {
+            return 0;
+        }
+        long size = blob.length();
+        try {
+            Files.delete(blob.toPath());
+        } catch (IOException e) {
+            throw new BlackDuckInstallerException(String.format("Could not delete %s from the artifact cache: %s", blob.getAbsolutePath(), e.getMessage()), e);
+        }
+        return size;
+    }
+
+    /*
+    A partial file that was written to recently may belong to a download that is still running, so only old ones are deleted.
+     */
+    public long deleteStalePartials(long maxAgeMillis) {
+        File[] partialFiles = tempDirectory.listFiles(file -> file.isFile() && file.getName().endsWith(PARTIAL_EXTENSION));
+        if (null == partialFiles) {
+            return 0;
+        }
+
+        long cutoff = System.currentTimeMillis() - maxAgeMillis;
+        long deletedBytes = 0;
+        for (File partialFile : partialFiles) {
+            long size = partialFile.length();
+            if (partialFile.lastModified() < cutoff && partialFile.delete()) {
+                logger.debug("Deleted the stale partial download " + partialFile.getAbsolutePath());
+                deletedBytes += size;
+            }
+        }
+        return deletedBytes;
+    }
+
+    /*
+    A cache from before the tar formats named every blob .zip - such a blob is renamed the first time it is asked for.
+     */
+    public File getBlob(String digest) {
+        File blob = new File(blobsDirectory, digest + BLOB_EXTENSION);
+        File legacyBlob = new File(blobsDirectory, digest + LEGACY_BLOB_EXTENSION);
+        if (!blob.exists() && legacyBlob.isFile() && !legacyBlob.renameTo(blob)) {
+            return legacyBlob;
+        }
+        return blob;
+    }
+
+    private String createKey(String downloadUrl, String version) {
+        return version + "@" + downloadUrl;
+    }
+
+    private Properties loadIndex() throws BlackDuckInstallerException {
+        Properties index = new Properties();
+        if (indexFile.isFile()) {
+            try (InputStream inputStream = new FileInputStream(indexFile)) {
+                index.load(inputStream);
+            } catch (IOException e) {
+                throw new BlackDuckInstallerException("Could not read the artifact cache index: " + e.getMessage(), e);
+            }
+        }
+
+        return index;
+    }
+
+    private void saveIndex(Properties index) throws BlackDuckInstallerException {
+        indexFile.getParentFile().mkdirs();
+        try (OutputStream outputStream = new FileOutputStream(indexFile)) {
+            index.store(outputStream, "download url and version to sha-256 of the archive");
+        } catch (IOException e) {
+            throw new BlackDuckInstallerException("Could not write the artifact cache index: " + e.getMessage(), e);
+        }
+    }
+
+}
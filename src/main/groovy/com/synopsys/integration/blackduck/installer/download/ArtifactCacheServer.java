@@ -0,0 +1,173 @@
+/**
+ * blackduck-installer
+ *
+ * Copyright (c) 2019 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.installer.download;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.synopsys.integration.blackduck.installer.exception.BlackDuckInstallerException;
+import com.synopsys.integration.log.IntLogger;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/*
+Serves the archives of the artifact cache to other installers, with the same range support the ParallelDownloader relies on.
+An archive is addressed by the id of its download url and version, and its strong ETag is the SHA-256 of its contents so the
+peer can check what it received.
+ */
+public class ArtifactCacheServer {
+    public static final String ARCHIVES_PATH = "/archives/";
+
+    private static final Pattern RANGE = Pattern.compile("bytes=(\\d*)-(\\d*)");
+
+    private final IntLogger logger;
+    private final ArtifactCache artifactCache;
+    private final int port;
+
+    public static String createArchiveUrl(String peerUrl, String archiveId) {
+        return StringUtils.removeEnd(peerUrl.trim(), "/") + ARCHIVES_PATH + archiveId;
+    }
+
+    public ArtifactCacheServer(IntLogger logger, ArtifactCache artifactCache, int port) {
+        this.logger = logger;
+        this.artifactCache = artifactCache;
+        this.port = port;
+    }
+
+    /*
+    Blocks until the installer is stopped.
+     */
+    public void serve() throws BlackDuckInstallerException, InterruptedException {
+        HttpServer httpServer;
+        try {
+            httpServer = HttpServer.create(new InetSocketAddress(port), 0);
+        } catch (IOException e) {
+            throw new BlackDuckInstallerException(String.format("Could not listen on port %s: %s", port, e.getMessage()), e);
+        }
+
+        ExecutorService executorService = Executors.newCachedThreadPool();
+        httpServer.setExecutor(executorService);
+        httpServer.createContext(ARCHIVES_PATH, this::handle);
+
+        CountDownLatch stopped = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            httpServer.stop(1);
+            executorService.shutdownNow();
+            stopped.countDown();
+        }));
+
+        httpServer.start();
+        logger.info(String.format("Serving the artifact cache on port %s.", port));
+        stopped.await();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String method = exchange.getRequestMethod();
+            if (!"GET".equals(method) && !"HEAD".equals(method)) {
+                sendEmpty(exchange, 405);
+                return;
+            }
+
+            String archiveId = exchange.getRequestURI().getPath().substring(ARCHIVES_PATH.length());
+            Optional<File> archive = artifactCache.findArchiveById(archiveId);
+            if (!archive.isPresent()) {
+                sendEmpty(exchange, 404);
+                return;
+            }
+
+            File blob = archive.get();
+            String eTag = "\"" + StringUtils.substringBefore(blob.getName(), ".") + "\"";
+            long length = blob.length();
+            exchange.getResponseHeaders().set(ParallelDownloader.ETAG_HEADER, eTag);
+            exchange.getResponseHeaders().set(ParallelDownloader.LAST_MODIFIED_HEADER, DateTimeFormatter.RFC_1123_DATE_TIME.format(Instant.ofEpochMilli(blob.lastModified()).atZone(ZoneOffset.UTC)));
+            exchange.getResponseHeaders().set("Accept-Ranges", "bytes");
+
+            long start = 0;
+            long end = length - 1;
+            int status = 200;
+            String range = exchange.getRequestHeaders().getFirst(ParallelDownloader.RANGE_HEADER);
+            String ifRange = exchange.getRequestHeaders().getFirst(ParallelDownloader.IF_RANGE_HEADER);
+            Matcher rangeMatcher = null == range ? null : RANGE.matcher(range.trim());
+            if (null != rangeMatcher && rangeMatcher.matches() && (null == ifRange || eTag.equals(ifRange)) && length > 0) {
+                if (rangeMatcher.group(1).isEmpty()) {
+                    // the last n bytes
+                    start = Math.max(0, length - Long.parseLong(rangeMatcher.group(2)));
+                } else {
+                    start = Long.parseLong(rangeMatcher.group(1));
+                    if (!rangeMatcher.group(2).isEmpty()) {
+                        end = Math.min(end, Long.parseLong(rangeMatcher.group(2)));
+                    }
+                }
+                if (start > end) {
+                    exchange.getResponseHeaders().set(ParallelDownloader.CONTENT_RANGE_HEADER, "bytes */" + length);
+                    sendEmpty(exchange, 416);
+                    return;
+                }
+                exchange.getResponseHeaders().set(ParallelDownloader.CONTENT_RANGE_HEADER, String.format("bytes %s-%s/%s", start, end, length));
+                status = ParallelDownloader.PARTIAL_CONTENT;
+            }
+
+            long count = end - start + 1;
+            if ("HEAD".equals(method)) {
+                exchange.getResponseHeaders().set(ParallelDownloader.CONTENT_LENGTH_HEADER, Long.toString(count));
+                exchange.sendResponseHeaders(status, -1);
+                return;
+            }
+
+            exchange.sendResponseHeaders(status, 0 == count ? -1 : count);
+            try (FileChannel fileChannel = FileChannel.open(blob.toPath(), StandardOpenOption.READ); OutputStream outputStream = exchange.getResponseBody()) {
+                WritableByteChannel responseChannel = Channels.newChannel(outputStream);
+                long position = start;
+                while (position <= end) {
+                    position += fileChannel.transferTo(position, end - position + 1, responseChannel);
+                }
+            }
+        } catch (IOException | BlackDuckInstallerException e) {
+            logger.debug(String.format("Could not serve %s: %s", exchange.getRequestURI(), e.getMessage()));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void sendEmpty(HttpExchange exchange, int status) throws IOException {
+        exchange.sendResponseHeaders(status, -1);
+    }
+
+}
@@ -31,13 +31,15 @@ public class ArtifactoryDownloadUrl implements DownloadUrl {
     private String artifactPath;
     private String artifact;
     private String version;
+    private ArchiveFormat archiveFormat;
 
-    public ArtifactoryDownloadUrl(String artifactoryUrl, String artifactoryRepo, String artifactPath, String artifact, String version) {
+    public ArtifactoryDownloadUrl(String artifactoryUrl, String artifactoryRepo, String artifactPath, String artifact, String version, ArchiveFormat archiveFormat) {
         this.artifactoryUrl = artifactoryUrl;
         this.artifactoryRepo = artifactoryRepo;
         this.artifactPath = artifactPath;
         this.artifact = artifact;
         this.version = version;
+        this.archiveFormat = archiveFormat;
     }
 
     public String getDownloadUrl() throws BlackDuckInstallerException {
@@ -45,7 +47,7 @@ public class ArtifactoryDownloadUrl implements DownloadUrl {
             throw new BlackDuckInstallerException("To use Artifactory for downloading, the url, repo, path, artifact and version must all be set.");
         }
 
-        return String.format("%s/%s/%s/%s/%s/%s-%s.zip", artifactoryUrl, artifactoryRepo, artifactPath, artifact, version, artifact, version);
+        return String.format("%s/%s/%s/%s/%s/%s-%s%s", artifactoryUrl, artifactoryRepo, artifactPath, artifact, version, artifact, version, archiveFormat.getExtension());
     }
 
 }
@@ -0,0 +1,156 @@
+/**
+ * blackduck-installer
+ *
+ * Copyright (c) 2019 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.installer.download;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.BoundedInputStream;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+
+/*
+Applies a patch in the BSDIFF40 format produced by bsdiff. The new file is written sequentially and hashed as it is written,
+so only the old file needs random access.
+ */
+public class BinaryPatch {
+    private static final byte[] MAGIC = "BSDIFF40".getBytes(StandardCharsets.US_ASCII);
+    private static final int HEADER_LENGTH = 32;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    public DownloadResult apply(File oldFile, File patchFile, File newFile) throws IOException {
+        byte[] header = new byte[HEADER_LENGTH];
+        try (InputStream inputStream = new FileInputStream(patchFile)) {
+            IOUtils.readFully(inputStream, header);
+        } catch (EOFException e) {
+            throw new IOException("The patch is too short to be a bsdiff patch.", e);
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (MAGIC[i] != header[i]) {
+                throw new IOException("The patch is not in the BSDIFF40 format.");
+            }
+        }
+        long controlLength = readOffset(header, 8);
+        long diffLength = readOffset(header, 16);
+        long newSize = readOffset(header, 24);
+        if (controlLength < 0 || diffLength < 0 || newSize < 0) {
+            throw new IOException("The patch header is corrupt.");
+        }
+
+        MessageDigest messageDigest = DigestUtils.getSha256Digest();
+        try (InputStream controlStream = openBlock(patchFile, HEADER_LENGTH, controlLength);
+             InputStream diffStream = openBlock(patchFile, HEADER_LENGTH + controlLength, diffLength);
+             InputStream extraStream = openBlock(patchFile, HEADER_LENGTH + controlLength + diffLength, Long.MAX_VALUE);
+             FileChannel oldChannel = FileChannel.open(oldFile.toPath(), StandardOpenOption.READ);
+             OutputStream outputStream = new DigestOutputStream(new BufferedOutputStream(new FileOutputStream(newFile), BUFFER_SIZE), messageDigest)) {
+            byte[] control = new byte[24];
+            byte[] buffer = new byte[BUFFER_SIZE];
+            byte[] oldBuffer = new byte[BUFFER_SIZE];
+            long oldSize = oldChannel.size();
+            long oldPosition = 0;
+            long newPosition = 0;
+            while (newPosition < newSize) {
+                IOUtils.readFully(controlStream, control);
+                long diffBytes = readOffset(control, 0);
+                long extraBytes = readOffset(control, 8);
+                long seek = readOffset(control, 16);
+                if (diffBytes < 0 || extraBytes < 0 || newPosition + diffBytes + extraBytes > newSize) {
+                    throw new IOException("The patch is corrupt.");
+                }
+
+                // the diff block holds the difference to the old bytes at the same position
+                for (long remaining = diffBytes; remaining > 0; ) {
+                    int length = (int) Math.min(remaining, BUFFER_SIZE);
+                    IOUtils.readFully(diffStream, buffer, 0, length);
+                    readOld(oldChannel, oldSize, oldPosition, oldBuffer, length);
+                    for (int i = 0; i < length; i++) {
+                        buffer[i] += oldBuffer[i];
+                    }
+                    outputStream.write(buffer, 0, length);
+                    oldPosition += length;
+                    remaining -= length;
+                }
+                newPosition += diffBytes;
+
+                for (long remaining = extraBytes; remaining > 0; ) {
+                    int length = (int) Math.min(remaining, BUFFER_SIZE);
+                    IOUtils.readFully(extraStream, buffer, 0, length);
+                    outputStream.write(buffer, 0, length);
+                    remaining -= length;
+                }
+                newPosition += extraBytes;
+                oldPosition += seek;
+            }
+        } catch (EOFException e) {
+            throw new IOException("The patch ended early.", e);
+        }
+
+        return new DownloadResult(newFile, Hex.encodeHexString(messageDigest.digest()), newSize);
+    }
+
+    // bytes outside of the old file count as zero, exactly as bspatch treats them
+    private void readOld(FileChannel oldChannel, long oldSize, long oldPosition, byte[] oldBuffer, int length) throws IOException {
+        int start = (int) Math.max(0, Math.min(length, -oldPosition));
+        int end = (int) Math.max(start, Math.min(length, oldSize - oldPosition));
+        for (int i = 0; i < start; i++) {
+            oldBuffer[i] = 0;
+        }
+        ByteBuffer byteBuffer = ByteBuffer.wrap(oldBuffer, start, end - start);
+        while (byteBuffer.hasRemaining()) {
+            if (oldChannel.read(byteBuffer, oldPosition + byteBuffer.position()) < 0) {
+                throw new EOFException("The old file changed while it was patched.");
+            }
+        }
+        for (int i = end; i < length; i++) {
+            oldBuffer[i] = 0;
+        }
+    }
+
+    private InputStream openBlock(File patchFile, long offset, long length) throws IOException {
+        InputStream inputStream = new FileInputStream(patchFile);
+        try {
+            IOUtils.skipFully(inputStream, offset);
+            return new BZip2CompressorInputStream(new BufferedInputStream(new BoundedInputStream(inputStream, length), BUFFER_SIZE));
+        } catch (IOException e) {
+            inputStream.close();
+            throw e;
+        }
+    }
+
+    // sign and magnitude, least significant byte first
+    private long readOffset(byte[] bytes, int start) {
+        long value = bytes[start + 7] & 0x7F;
+        for (int i = 6; i >= 0; i--) {
+            value = (value << 8) | (bytes[start + i] & 0xFF);
+        }
+        return (bytes[start + 7] & 0x80) != 0 ? -value : value;
+    }
+
+}
@@ -0,0 +1,224 @@
+/**
+ * blackduck-installer
+ *
+ * Copyright (c) 2019 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.installer.download;
+
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+import org.apache.commons.io.IOUtils;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.*;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/*
+A single gzip stream can only be inflated in order, but a blocked gzip (bgzip/BGZF) is a series of small members that each
+record their own compressed size - so they are read ahead and inflated on separate threads, then handed out in order.
+Any other gzip falls back to one thread.
+ */
+public class BlockGzipInputStream extends InputStream {
+    private static final int HEADER_SIZE = 12;
+    private static final int TRAILER_SIZE = 8;
+    private static final int MAX_BLOCK_SIZE = 64 * 1024;
+    private static final int FLAG_EXTRA = 4;
+
+    private final InputStream inputStream;
+    private final ExecutorService executorService;
+    private final int readAhead;
+    private final Deque<Future<byte[]>> pendingBlocks = new ArrayDeque<>();
+
+    private byte[] currentBlock = new byte[0];
+    private int currentPosition;
+    private boolean endOfInput;
+
+    public static InputStream open(InputStream inputStream, int threads) throws IOException {
+        BufferedInputStream bufferedInputStream = new BufferedInputStream(inputStream, MAX_BLOCK_SIZE);
+        // the largest possible header, so it can always be read again
+        bufferedInputStream.mark(HEADER_SIZE + 0xffff);
+        byte[] header = readHeader(bufferedInputStream);
+        bufferedInputStream.reset();
+
+        if (threads > 1 && null != header && getBlockSize(header) > 0) {
+            return new BlockGzipInputStream(bufferedInputStream, threads);
+        }
+        return new GzipCompressorInputStream(bufferedInputStream, true);
+    }
+
+    private BlockGzipInputStream(InputStream inputStream, int threads) {
+        this.inputStream = inputStream;
+        this.executorService = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "bgzf-inflater");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // enough blocks in flight to keep every thread busy while the oldest one is being consumed
+        this.readAhead = threads * 4;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        int read = read(single, 0, 1);
+        return -1 == read ? -1 : single[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        if (0 == length) {
+            return 0;
+        }
+        while (currentPosition == currentBlock.length) {
+            if (!nextBlock()) {
+                return -1;
+            }
+        }
+
+        int read = Math.min(length, currentBlock.length - currentPosition);
+        System.arraycopy(currentBlock, currentPosition, buffer, offset, read);
+        currentPosition += read;
+        return read;
+    }
+
+    @Override
+    public void close() throws IOException {
+        executorService.shutdownNow();
+        inputStream.close();
+    }
+
+    private boolean nextBlock() throws IOException {
+        while (!endOfInput && pendingBlocks.size() < readAhead) {
+            byte[] header = readHeader(inputStream);
+            if (null == header) {
+                endOfInput = true;
+                break;
+            }
+            int blockSize = getBlockSize(header);
+            if (blockSize < header.length + TRAILER_SIZE) {
+                throw new IOException("The gzip stream mixes blocked and plain members.");
+            }
+            byte[] block = new byte[blockSize];
+            System.arraycopy(header, 0, block, 0, header.length);
+            IOUtils.readFully(inputStream, block, header.length, blockSize - header.length);
+            pendingBlocks.add(executorService.submit(() -> inflate(block, header.length)));
+        }
+
+        Future<byte[]> pendingBlock = pendingBlocks.poll();
+        if (null == pendingBlock) {
+            return false;
+        }
+        try {
+            currentBlock = pendingBlock.get();
+            currentPosition = 0;
+            return true;
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while inflating a block.", e);
+        }
+    }
+
+    /*
+    Null at the end of the input, otherwise as much of the gzip header as there is - including the extra field, when there is one.
+     */
+    private static byte[] readHeader(InputStream inputStream) throws IOException {
+        byte[] fixedHeader = new byte[HEADER_SIZE];
+        int read = IOUtils.read(inputStream, fixedHeader);
+        if (0 == read) {
+            return null;
+        }
+        if (read < HEADER_SIZE || 0 == (fixedHeader[3] & FLAG_EXTRA)) {
+            return Arrays.copyOf(fixedHeader, read);
+        }
+
+        int extraLength = readShort(fixedHeader, 10);
+        byte[] header = Arrays.copyOf(fixedHeader, HEADER_SIZE + extraLength);
+        read = IOUtils.read(inputStream, header, HEADER_SIZE, extraLength);
+        return Arrays.copyOf(header, HEADER_SIZE + read);
+    }
+
+    // -1 unless this is the header of a BGZF block, which records its whole size in the BC subfield
+    private static int getBlockSize(byte[] header) {
+        if (header.length < HEADER_SIZE || (header[0] & 0xff) != 0x1f || (header[1] & 0xff) != 0x8b || 8 != header[2] || 0 == (header[3] & FLAG_EXTRA)) {
+            return -1;
+        }
+
+        int position = HEADER_SIZE;
+        while (position + 4 <= header.length) {
+            int subfieldLength = readShort(header, position + 2);
+            if ('B' == header[position] && 'C' == header[position + 1] && 2 == subfieldLength && position + 6 <= header.length) {
+                return readShort(header, position + 4) + 1;
+            }
+            position += 4 + subfieldLength;
+        }
+        return -1;
+    }
+
+    private static int readShort(byte[] bytes, int position) {
+        return (bytes[position] & 0xff) | (bytes[position + 1] & 0xff) << 8;
+    }
+
+    private static int readInt(byte[] bytes, int position) {
+        return readShort(bytes, position) | readShort(bytes, position + 2) << 16;
+    }
+
+    private byte[] inflate(byte[] block, int headerLength) throws IOException {
+        int inflatedSize = readInt(block, block.length - 4);
+        // a BGZF block never holds more than 64 KB, so a larger size is corruption and must not be allocated
+        if (inflatedSize < 0 || inflatedSize > MAX_BLOCK_SIZE) {
+            throw new IOException(String.format("A gzip block is corrupt: it claims to inflate to %s bytes.", Integer.toUnsignedString(inflatedSize)));
+        }
+        byte[] inflated = new byte[inflatedSize];
+
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(block, headerLength, block.length - headerLength - TRAILER_SIZE);
+            int position = 0;
+            while (position < inflatedSize && !inflater.finished()) {
+                int inflatedBytes = inflater.inflate(inflated, position, inflatedSize - position);
+                if (0 == inflatedBytes && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new EOFException("A gzip block ended early.");
+                }
+                position += inflatedBytes;
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("A gzip block is corrupt: " + e.getMessage(), e);
+        } finally {
+            inflater.end();
+        }
+
+        CRC32 crc32 = new CRC32();
+        crc32.update(inflated, 0, inflated.length);
+        if ((int) crc32.getValue() != readInt(block, block.length - TRAILER_SIZE)) {
+            throw new IOException("A gzip block failed its CRC check.");
+        }
+        return inflated;
+    }
+
+}
@@ -0,0 +1,123 @@
+/**
+ * blackduck-installer
+ *
+ * Copyright (c) 2019 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.installer.download;
+
+import com.synopsys.integration.blackduck.installer.exception.BlackDuckInstallerException;
+import com.synopsys.integration.exception.IntegrationException;
+import com.synopsys.integration.log.IntLogger;
+import com.synopsys.integration.rest.client.IntHttpClient;
+import com.synopsys.integration.rest.request.Request;
+import com.synopsys.integration.rest.request.Response;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/*
+Rebuilds the archive of a new version from the cached archive of the previous one and a bsdiff patch published as
+<deltaUrlPrefix>/<name>-<previous version>-<version>.bsdiff, with the SHA-256 of the rebuilt archive next to it in a .sha256 file.
+ */
+public class DeltaUpgrader {
+    public static final String PATCH_EXTENSION = ".bsdiff";
+    public static final String DIGEST_EXTENSION = ".sha256";
+
+    private static final Pattern SHA256 = Pattern.compile("[0-9a-fA-F]{64}");
+
+    private final IntLogger logger;
+    private final IntHttpClient intHttpClient;
+    private final ParallelDownloader parallelDownloader;
+    private final ArtifactCache artifactCache;
+    private final BinaryPatch binaryPatch;
+    private final String deltaUrlPrefix;
+
+    public DeltaUpgrader(IntLogger logger, IntHttpClient intHttpClient, ParallelDownloader parallelDownloader, ArtifactCache artifactCache, String deltaUrlPrefix) {
+        this.logger = logger;
+        this.intHttpClient = intHttpClient;
+        this.parallelDownloader = parallelDownloader;
+        this.artifactCache = artifactCache;
+        this.deltaUrlPrefix = StringUtils.removeEnd(StringUtils.trimToEmpty(deltaUrlPrefix), "/");
+        binaryPatch = new BinaryPatch();
+    }
+
+    public boolean isEnabled() {
+        return StringUtils.isNotBlank(deltaUrlPrefix);
+    }
+
+    /*
+    Empty whenever the archive has to be downloaded in full instead - no delta was published, it could not be downloaded, or the
+    rebuilt archive is not the expected one. The patch itself is never trusted, only the digest of what it produces.
+     */
+    public Optional<DownloadResult> upgrade(String name, String previousVersion, File previousArchive, String version) {
+        String deltaUrl = String.format("%s/%s-%s-%s%s", deltaUrlPrefix, name, previousVersion, version, PATCH_EXTENSION);
+        File patchFile = artifactCache.getPartialFile(deltaUrl, version);
+        File rebuiltFile = new File(patchFile.getParentFile(), patchFile.getName() + ".rebuilt");
+        try {
+            Optional<String> expectedDigest = fetchDigest(deltaUrl + DIGEST_EXTENSION);
+            if (!expectedDigest.isPresent()) {
+                logger.debug(String.format("No delta from %s %s to %s was published at %s.", name, previousVersion, version, deltaUrl));
+                return Optional.empty();
+            }
+
+            logger.info(String.format("Downloading the delta from %s %s to %s.", name, previousVersion, version));
+            DownloadResult patchResult = parallelDownloader.download(deltaUrl, patchFile, null, false);
+            DownloadResult rebuiltResult = binaryPatch.apply(previousArchive, patchFile, rebuiltFile);
+            if (!expectedDigest.get().equalsIgnoreCase(rebuiltResult.getSha256())) {
+                logger.warn(String.format("The archive rebuilt from the delta for %s %s has the digest %s instead of %s - the full archive will be downloaded.", name, version, rebuiltResult.getSha256(), expectedDigest.get()));
+                rebuiltFile.delete();
+                return Optional.empty();
+            }
+
+            logger.info(String.format("%s %s was rebuilt from %s %s with a delta of %s bytes.", name, version, name, previousVersion, patchResult.getSize()));
+            return Optional.of(new DownloadResult(rebuiltFile, rebuiltResult.getSha256(), rebuiltResult.getSize(), false, patchResult.getRemoteArchive().orElse(null), patchResult.getTransferStatistics().orElse(null)));
+        } catch (BlackDuckInstallerException | IOException e) {
+            logger.warn(String.format("Could not upgrade %s to %s with a delta (%s) - the full archive will be downloaded.", name, version, e.getMessage()));
+            rebuiltFile.delete();
+            return Optional.empty();
+        } finally {
+            PartialDownload.discard(patchFile);
+        }
+    }
+
+    private Optional<String> fetchDigest(String digestUrl) throws BlackDuckInstallerException {
+        Request digestRequest = new Request.Builder(digestUrl).build();
+        try (Response response = intHttpClient.execute(digestRequest)) {
+            if (response.isStatusCodeError()) {
+                return Optional.empty();
+            }
+
+            // the sha256sum format, the digest followed by the file name
+            String digest = StringUtils.substringBefore(IOUtils.toString(response.getContent(), StandardCharsets.UTF_8).trim(), " ");
+            if (!SHA256.matcher(digest).matches()) {
+                throw new BlackDuckInstallerException(String.format("%s does not contain a SHA-256 digest.", digestUrl));
+            }
+            return Optional.of(digest);
+        } catch (IntegrationException | IOException e) {
+            throw new BlackDuckInstallerException(String.format("Could not connect to %s: %s", digestUrl, e.getMessage()), e);
+        }
+    }
+
+}
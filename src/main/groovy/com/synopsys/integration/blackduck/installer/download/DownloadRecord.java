@@ -0,0 +1,128 @@
+/**
+ * blackduck-installer
+ *
+ * Copyright (c) 2019 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.installer.download;
+
+import com.synopsys.integration.blackduck.installer.exception.BlackDuckInstallerException;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+
+import java.io.*;
+import java.util.Optional;
+import java.util.Properties;
+
+/*
+Written into the download directory only after the archive has been fully expanded, so a directory without it was interrupted and can't be trusted.
+ */
+public class DownloadRecord {
+    public static final String FILENAME = ".download.properties";
+
+    private static final String URL_KEY = "url";
+    private static final String VERSION_KEY = "version";
+    private static final String ETAG_KEY = "etag";
+    private static final String LAST_MODIFIED_KEY = "last.modified";
+    private static final String CONTENT_LENGTH_KEY = "content.length";
+
+    private final String downloadUrl;
+    private final String version;
+    private final String eTag;
+    private final String lastModified;
+    private final long contentLength;
+
+    public static Optional<DownloadRecord> load(File downloadDirectory) {
+        File recordFile = new File(downloadDirectory, FILENAME);
+        if (!recordFile.isFile()) {
+            return Optional.empty();
+        }
+
+        Properties properties = new Properties();
+        try (InputStream inputStream = new FileInputStream(recordFile)) {
+            properties.load(inputStream);
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+
+        long contentLength = NumberUtils.toLong(properties.getProperty(CONTENT_LENGTH_KEY), -1);
+        return Optional.of(new DownloadRecord(properties.getProperty(URL_KEY), properties.getProperty(VERSION_KEY), properties.getProperty(ETAG_KEY), properties.getProperty(LAST_MODIFIED_KEY), contentLength));
+    }
+
+    public DownloadRecord(String downloadUrl, String version) {
+        this(downloadUrl, version, null, null, -1);
+    }
+
+    /*
+    The validators are what the server reported for the archive, so a forced download can ask whether it has changed since.
+     */
+    public DownloadRecord(String downloadUrl, String version, String eTag, String lastModified, long contentLength) {
+        this.downloadUrl = downloadUrl;
+        this.version = version;
+        this.eTag = StringUtils.trimToNull(eTag);
+        this.lastModified = StringUtils.trimToNull(lastModified);
+        this.contentLength = contentLength;
+    }
+
+    public void write(File downloadDirectory) throws BlackDuckInstallerException {
+        Properties properties = new Properties();
+        properties.setProperty(URL_KEY, downloadUrl);
+        properties.setProperty(VERSION_KEY, version);
+        if (null != eTag) {
+            properties.setProperty(ETAG_KEY, eTag);
+        }
+        if (null != lastModified) {
+            properties.setProperty(LAST_MODIFIED_KEY, lastModified);
+        }
+        if (contentLength >= 0) {
+            properties.setProperty(CONTENT_LENGTH_KEY, Long.toString(contentLength));
+        }
+
+        try (OutputStream outputStream = new FileOutputStream(new File(downloadDirectory, FILENAME))) {
+            properties.store(outputStream, "the archive was completely expanded");
+        } catch (IOException e) {
+            throw new BlackDuckInstallerException("Could not record the completed download: " + e.getMessage(), e);
+        }
+    }
+
+    public String getDownloadUrl() {
+        return downloadUrl;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public Optional<String> getETag() {
+        return Optional.ofNullable(eTag);
+    }
+
+    public Optional<String> getLastModified() {
+        return Optional.ofNullable(lastModified);
+    }
+
+    public long getContentLength() {
+        return contentLength;
+    }
+
+    public boolean hasValidators() {
+        return null != eTag || null != lastModified;
+    }
+
+}
@@ -0,0 +1,78 @@
+/**
+ * blackduck-installer
+ *
+ * Copyright (c) 2019 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.installer.download;
+
+import java.io.File;
+import java.util.Optional;
+
+public class DownloadResult {
+    private final File file;
+    private final String sha256;
+    private final long size;
+    private final boolean expanded;
+    private final RemoteArchive remoteArchive;
+    private final TransferStatistics transferStatistics;
+
+    public DownloadResult(File file, String sha256, long size) {
+        this(file, sha256, size, false);
+    }
+
+    public DownloadResult(File file, String sha256, long size, boolean expanded) {
+        this(file, sha256, size, expanded, null, null);
+    }
+
+    public DownloadResult(File file, String sha256, long size, boolean expanded, RemoteArchive remoteArchive, TransferStatistics transferStatistics) {
+        this.file = file;
+        this.sha256 = sha256;
+        this.size = size;
+        this.expanded = expanded;
+        this.remoteArchive = remoteArchive;
+        this.transferStatistics = transferStatistics;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public String getSha256() {
+        return sha256;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    // true when the archive was already expanded while it was being downloaded
+    public boolean isExpanded() {
+        return expanded;
+    }
+
+    public Optional<RemoteArchive> getRemoteArchive() {
+        return Optional.ofNullable(remoteArchive);
+    }
+
+    public Optional<TransferStatistics> getTransferStatistics() {
+        return Optional.ofNullable(transferStatistics);
+    }
+
+}
@@ -25,5 +25,6 @@ package com.synopsys.integration.blackduck.installer.download;
 public enum DownloadSource {
     ARTIFACTORY,
     GITHUB,
+    LOCAL,
     NONE;
 }
@@ -0,0 +1,88 @@
+/**
+ * blackduck-installer
+ *
+ * Copyright (c) 2019 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.installer.download;
+
+import org.apache.commons.io.FileUtils;
+
+import java.util.Optional;
+
+/*
+Keeps the network and the extraction apart so a slow install can be pinned on one of them.
+ */
+public class DownloadSummary {
+    private final String name;
+    private final String version;
+    private final String downloadUrl;
+    private final TransferStatistics transferStatistics;
+    private final long extractionMillis;
+    private final boolean expandedWhileDownloading;
+
+    public static DownloadSummary fromCache(String name, String version, String downloadUrl, long extractionMillis) {
+        return new DownloadSummary(name, version, downloadUrl, null, extractionMillis, false);
+    }
+
+    public DownloadSummary(String name, String version, String downloadUrl, TransferStatistics transferStatistics, long extractionMillis, boolean expandedWhileDownloading) {
+        this.name = name;
+        this.version = version;
+        this.downloadUrl = downloadUrl;
+        this.transferStatistics = transferStatistics;
+        this.extractionMillis = extractionMillis;
+        this.expandedWhileDownloading = expandedWhileDownloading;
+    }
+
+    public String describe() {
+        if (null == transferStatistics) {
+            return String.format("%s %s was expanded from the artifact cache in %s ms.", name, version, extractionMillis);
+        }
+
+        String extraction = expandedWhileDownloading ? "expanded alongside the download in" : "expanded in";
+        return String.format("%s %s: %s received from %s in %s ms (first byte after %s ms, on average %s/s), %s %s ms.", name, version, FileUtils.byteCountToDisplaySize(transferStatistics.getBytesReceived()), downloadUrl,
+            transferStatistics.getTransferMillis(), transferStatistics.getTimeToFirstByteMillis(), FileUtils.byteCountToDisplaySize(transferStatistics.getAverageBytesPerSecond()), extraction, extractionMillis);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public String getDownloadUrl() {
+        return downloadUrl;
+    }
+
+    // empty when nothing had to be downloaded
+    public Optional<TransferStatistics> getTransferStatistics() {
+        return Optional.ofNullable(transferStatistics);
+    }
+
+    public long getExtractionMillis() {
+        return extractionMillis;
+    }
+
+    public boolean isExpandedWhileDownloading() {
+        return expandedWhileDownloading;
+    }
+
+}
@@ -0,0 +1,209 @@
+/**
+ * blackduck-installer
+ *
+ * Copyright (c) 2019 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.installer.download;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.synopsys.integration.blackduck.installer.exception.BlackDuckInstallerException;
+import com.synopsys.integration.exception.IntegrationException;
+import com.synopsys.integration.log.IntLogger;
+import com.synopsys.integration.rest.client.IntHttpClient;
+import com.synopsys.integration.rest.request.Request;
+import com.synopsys.integration.rest.request.Response;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/*
+Turns "latest" or a version range into the exact version the download urls need. Exact versions never leave this class, so
+nothing changes for an installer that pins its versions.
+ */
+public class GithubReleaseResolver {
+    public static final String DEFAULT_DIRECTORY_NAME = "github-releases";
+    public static final String RATE_LIMIT_REMAINING_HEADER = "X-RateLimit-Remaining";
+    public static final String RATE_LIMIT_RESET_HEADER = "X-RateLimit-Reset";
+    public static final String RETRY_AFTER_HEADER = "Retry-After";
+
+    private static final int FORBIDDEN = 403;
+    private static final int TOO_MANY_REQUESTS = 429;
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final IntLogger logger;
+    private final IntHttpClient intHttpClient;
+    private final File cacheDirectory;
+    private final String apiUrl;
+    private final String token;
+    private final long ttlMillis;
+    private final long maxRateLimitWaitMillis;
+
+    private final Map<String, List<String>> releaseVersions = new HashMap<>();
+
+    public GithubReleaseResolver(IntLogger logger, IntHttpClient intHttpClient, File cacheDirectory, String apiUrl, String token, long ttlSeconds, long maxRateLimitWaitSeconds) {
+        this.logger = logger;
+        this.intHttpClient = intHttpClient;
+        this.cacheDirectory = cacheDirectory;
+        this.apiUrl = StringUtils.removeEnd(apiUrl, "/");
+        this.token = token;
+        this.ttlMillis = TimeUnit.SECONDS.toMillis(ttlSeconds);
+        this.maxRateLimitWaitMillis = TimeUnit.SECONDS.toMillis(maxRateLimitWaitSeconds);
+    }
+
+    public String resolve(String repository, String versionSpec) throws BlackDuckInstallerException {
+        VersionRange versionRange = VersionRange.parse(versionSpec);
+        if (versionRange.isExact()) {
+            return versionSpec;
+        }
+        if (StringUtils.isBlank(repository)) {
+            throw new BlackDuckInstallerException(String.format("The version %s can only be resolved when the GitHub repository is set.", versionSpec));
+        }
+
+        String version = getReleaseVersions(repository)
+                             .stream()
+                             .filter(versionRange::matches)
+                             .max(new VersionComparator())
+                             .orElseThrow(() -> new BlackDuckInstallerException(String.format("No release of %s matches %s.", repository, versionSpec)));
+        logger.info(String.format("Resolved %s of %s to %s.", versionSpec, repository, version));
+        return version;
+    }
+
+    private synchronized List<String> getReleaseVersions(String repository) throws BlackDuckInstallerException {
+        if (releaseVersions.containsKey(repository)) {
+            return releaseVersions.get(repository);
+        }
+
+        File metadataFile = new File(cacheDirectory, repository.replace('/', '_') + ".properties");
+        Optional<ReleaseMetadata> cachedMetadata = ReleaseMetadata.load(metadataFile);
+        long now = System.currentTimeMillis();
+        ReleaseMetadata releaseMetadata;
+        if (cachedMetadata.isPresent() && cachedMetadata.get().isFresh(now, ttlMillis)) {
+            logger.debug(String.format("Using the cached releases of %s.", repository));
+            releaseMetadata = cachedMetadata.get();
+        } else if (cachedMetadata.isPresent() && cachedMetadata.get().getRateLimitResetMillis() - now > maxRateLimitWaitMillis) {
+            logger.warn(String.format("The GitHub rate limit is exhausted until %s - the cached releases of %s will be used.", new Date(cachedMetadata.get().getRateLimitResetMillis()), repository));
+            releaseMetadata = cachedMetadata.get();
+        } else {
+            try {
+                releaseMetadata = fetch(repository, cachedMetadata.orElse(null), metadataFile);
+                releaseMetadata.write(metadataFile);
+            } catch (BlackDuckInstallerException e) {
+                if (!cachedMetadata.isPresent()) {
+                    throw e;
+                }
+                logger.warn(String.format("%s - the cached releases of %s will be used.", e.getMessage(), repository));
+                releaseMetadata = cachedMetadata.get();
+            }
+        }
+
+        releaseVersions.put(repository, releaseMetadata.getVersions());
+        return releaseMetadata.getVersions();
+    }
+
+    /*
+    Only the first page (the 100 most recent releases) is read - enough for latest and any range worth installing.
+     */
+    private ReleaseMetadata fetch(String repository, ReleaseMetadata cachedMetadata, File metadataFile) throws BlackDuckInstallerException {
+        String releasesUrl = String.format("%s/repos/%s/releases?per_page=100", apiUrl, repository);
+        for (int attempt = 1; ; attempt++) {
+            Request.Builder requestBuilder = new Request.Builder(releasesUrl).addAdditionalHeader("Accept", "application/vnd.github.v3+json");
+            if (StringUtils.isNotBlank(token)) {
+                requestBuilder.addAdditionalHeader("Authorization", "token " + token);
+            }
+            if (null != cachedMetadata && cachedMetadata.getETag().isPresent()) {
+                requestBuilder.addAdditionalHeader(ParallelDownloader.IF_NONE_MATCH_HEADER, cachedMetadata.getETag().get());
+            }
+
+            long waitMillis;
+            try (Response response = intHttpClient.execute(requestBuilder.build())) {
+                long now = System.currentTimeMillis();
+                boolean exhausted = "0".equals(StringUtils.trim(response.getHeaderValue(RATE_LIMIT_REMAINING_HEADER)));
+                long resetMillis = TimeUnit.SECONDS.toMillis(NumberUtils.toLong(StringUtils.trim(response.getHeaderValue(RATE_LIMIT_RESET_HEADER))));
+                long rememberedResetMillis = exhausted ? resetMillis : 0;
+
+                if (ParallelDownloader.NOT_MODIFIED == response.getStatusCode() && null != cachedMetadata) {
+                    return cachedMetadata.revalidated(now, rememberedResetMillis);
+                }
+
+                String retryAfter = StringUtils.trim(response.getHeaderValue(RETRY_AFTER_HEADER));
+                boolean rateLimited = (FORBIDDEN == response.getStatusCode() && exhausted) || TOO_MANY_REQUESTS == response.getStatusCode() || (FORBIDDEN == response.getStatusCode() && null != retryAfter);
+                if (rateLimited) {
+                    waitMillis = NumberUtils.isDigits(retryAfter) ? TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter)) : Math.max(0, resetMillis - now);
+                    if (null != cachedMetadata) {
+                        // the next run skips GitHub until the limit resets
+                        cachedMetadata.rateLimitedUntil(now + waitMillis).write(metadataFile);
+                    }
+                    if (waitMillis > maxRateLimitWaitMillis || attempt >= MAX_ATTEMPTS) {
+                        String hint = StringUtils.isBlank(token) ? " - setting github.token raises the limit" : "";
+                        throw new BlackDuckInstallerException(String.format("The GitHub rate limit is exhausted for another %s seconds%s", TimeUnit.MILLISECONDS.toSeconds(waitMillis), hint));
+                    }
+                } else if (response.isStatusCodeError()) {
+                    throw new BlackDuckInstallerException(String.format("Could not read the releases of %s. GitHub responded with %s.", repository, response.getStatusCode()));
+                } else {
+                    return new ReleaseMetadata(parseVersions(response.getContentString()), now, response.getHeaderValue(ParallelDownloader.ETAG_HEADER), rememberedResetMillis);
+                }
+            } catch (BlackDuckInstallerException e) {
+                throw e;
+            } catch (IntegrationException | IOException e) {
+                throw new BlackDuckInstallerException(String.format("Could not connect to %s: %s", releasesUrl, e.getMessage()), e);
+            }
+
+            logger.info(String.format("The GitHub rate limit is exhausted - retrying in %s seconds.", TimeUnit.MILLISECONDS.toSeconds(waitMillis)));
+            try {
+                Thread.sleep(waitMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new BlackDuckInstallerException("Interrupted while waiting for the GitHub rate limit to reset.", e);
+            }
+        }
+    }
+
+    private List<String> parseVersions(String releasesJson) throws BlackDuckInstallerException {
+        List<String> versions = new ArrayList<>();
+        try {
+            JsonArray releases = JsonParser.parseString(releasesJson).getAsJsonArray();
+            for (JsonElement releaseElement : releases) {
+                JsonObject release = releaseElement.getAsJsonObject();
+                if (isTrue(release, "draft") || isTrue(release, "prerelease") || !release.has("tag_name")) {
+                    continue;
+                }
+                String version = StringUtils.removeStart(release.get("tag_name").getAsString(), "v");
+                if (version.matches("\\d+(\\.\\d+)*")) {
+                    versions.add(version);
+                }
+            }
+        } catch (RuntimeException e) {
+            throw new BlackDuckInstallerException("Could not parse the GitHub releases: " + e.getMessage(), e);
+        }
+        return versions;
+    }
+
+    private boolean isTrue(JsonObject release, String property) {
+        return release.has(property) && !release.get(property).isJsonNull() && release.get(property).getAsBoolean();
+    }
+
+}
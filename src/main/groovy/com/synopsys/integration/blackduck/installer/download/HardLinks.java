@@ -0,0 +1,84 @@
+/**
+ * blackduck-installer
+ *
+ * Copyright (c) 2019 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.installer.download;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+
+/*
+Files under the base directory may be hard linked to identical files of other versions, so anything written in place has to be
+unshared first or the other versions would change with it.
+ */
+public final class HardLinks {
+    private HardLinks() {
+    }
+
+    public static void linkOrCopy(File source, File target) throws IOException {
+        try {
+            Files.createLink(target.toPath(), source.toPath());
+        } catch (UnsupportedOperationException | FileSystemException e) {
+            Files.copy(source.toPath(), target.toPath(), StandardCopyOption.COPY_ATTRIBUTES);
+        }
+    }
+
+    /*
+    Replaces the file with a private copy when other links to it exist. Where the link count can't be read the copy is always made.
+     */
+    public static void unshare(File file) throws IOException {
+        if (getLinkCount(file) == 1) {
+            return;
+        }
+
+        Path path = file.toPath();
+        Path copy = path.resolveSibling(path.getFileName() + ".unshared");
+        Files.copy(path, copy, StandardCopyOption.COPY_ATTRIBUTES, StandardCopyOption.REPLACE_EXISTING);
+        Files.move(copy, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /*
+    Points the target at the same data as the source. The link is made next to the target and moved over it, so the target
+    is never missing.
+     */
+    public static void replaceWithLink(File source, File target) throws IOException {
+        Path path = target.toPath();
+        Path link = path.resolveSibling(path.getFileName() + ".linked");
+        Files.deleteIfExists(link);
+        Files.createLink(link, source.toPath());
+        try {
+            Files.move(link, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            // a rename between two links to the same file does nothing at all
+            Files.deleteIfExists(link);
+        }
+    }
+
+    public static int getLinkCount(File file) {
+        try {
+            return (Integer) Files.getAttribute(file.toPath(), "unix:nlink", LinkOption.NOFOLLOW_LINKS);
+        } catch (UnsupportedOperationException | IllegalArgumentException | IOException e) {
+            return -1;
+        }
+    }
+
+}
@@ -0,0 +1,163 @@
+/**
+ * blackduck-installer
+ *
+ * Copyright (c) 2019 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.installer.download;
+
+import com.synopsys.integration.log.IntLogger;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+
+import java.io.*;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.*;
+
+/*
+Replaces identical files of the completely expanded version directories with hard links to one another. Files are only hashed
+again when their size or modification time changed since the last pass, which the index remembers.
+ */
+public class InstallTreeDeduplicator {
+    public static final String INDEX_FILENAME = "dedup-index.properties";
+
+    private final IntLogger logger;
+    private final File baseDirectory;
+    private final boolean enabled;
+
+    public InstallTreeDeduplicator(IntLogger logger, File baseDirectory, boolean enabled) {
+        this.logger = logger;
+        this.baseDirectory = baseDirectory;
+        this.enabled = enabled;
+    }
+
+    /*
+    Never fails the install - whatever could not be linked simply stays a copy.
+     */
+    public synchronized void deduplicate() {
+        if (!enabled) {
+            return;
+        }
+
+        File indexFile = new File(baseDirectory, INDEX_FILENAME);
+        Properties previousIndex = loadIndex(indexFile);
+        Properties index = new Properties();
+        Map<String, List<Path>> filesByContent = new HashMap<>();
+        int hashed = 0;
+        try {
+            for (Path file : findFiles()) {
+                BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                String relativePath = baseDirectory.toPath().relativize(file).toString();
+                String fingerprint = attributes.size() + "," + attributes.lastModifiedTime().toMillis();
+
+                String digest = readDigest(previousIndex.getProperty(relativePath), fingerprint);
+                if (null == digest) {
+                    try (InputStream inputStream = Files.newInputStream(file)) {
+                        digest = DigestUtils.sha256Hex(inputStream);
+                    }
+                    hashed++;
+                }
+                index.setProperty(relativePath, fingerprint + "," + digest);
+
+                // links share their permissions, so only files that already agree on them can be linked
+                String contentKey = digest + "," + attributes.size() + "," + PosixFilePermissions.toString(Files.getPosixFilePermissions(file, LinkOption.NOFOLLOW_LINKS));
+                filesByContent.computeIfAbsent(contentKey, key -> new ArrayList<>()).add(file);
+            }
+        } catch (IOException | UnsupportedOperationException e) {
+            logger.warn("Could not look for identical files to link: " + e.getMessage());
+            return;
+        }
+
+        long linkedBytes = 0;
+        int linkedFiles = 0;
+        for (List<Path> identicalFiles : filesByContent.values()) {
+            Path canonical = identicalFiles.get(0);
+            for (Path file : identicalFiles.subList(1, identicalFiles.size())) {
+                try {
+                    if (!Files.isSameFile(canonical, file)) {
+                        long size = Files.size(file);
+                        HardLinks.replaceWithLink(canonical.toFile(), file.toFile());
+                        // the link carries the modification time of the canonical file
+                        index.setProperty(baseDirectory.toPath().relativize(file).toString(), index.getProperty(baseDirectory.toPath().relativize(canonical).toString()));
+                        linkedBytes += size;
+                        linkedFiles++;
+                    }
+                } catch (IOException e) {
+                    logger.debug(String.format("Could not link %s to %s: %s", file, canonical, e.getMessage()));
+                }
+            }
+        }
+
+        writeIndex(indexFile, index);
+        logger.info(String.format("Hashed %s new or changed files under %s and linked %s identical files, saving %s.", hashed, baseDirectory.getAbsolutePath(), linkedFiles, FileUtils.byteCountToDisplaySize(linkedBytes)));
+    }
+
+    private List<Path> findFiles() throws IOException {
+        List<Path> files = new ArrayList<>();
+        File[] versionDirectories = baseDirectory.listFiles(file -> file.isDirectory() && new File(file, DownloadRecord.FILENAME).isFile());
+        if (null == versionDirectories) {
+            return files;
+        }
+
+        Arrays.sort(versionDirectories);
+        for (File versionDirectory : versionDirectories) {
+            Files.walkFileTree(versionDirectory.toPath(), new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                    if (attributes.isRegularFile() && !file.getFileName().toString().equals(DownloadRecord.FILENAME)) {
+                        files.add(file);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        }
+        return files;
+    }
+
+    private String readDigest(String indexEntry, String fingerprint) {
+        if (null == indexEntry || !indexEntry.startsWith(fingerprint + ",")) {
+            return null;
+        }
+        return indexEntry.substring(fingerprint.length() + 1);
+    }
+
+    private Properties loadIndex(File indexFile) {
+        Properties index = new Properties();
+        if (indexFile.isFile()) {
+            try (InputStream inputStream = new FileInputStream(indexFile)) {
+                index.load(inputStream);
+            } catch (IOException e) {
+                // every file is hashed again
+                logger.debug("Could not read the deduplication index: " + e.getMessage());
+            }
+        }
+        return index;
+    }
+
+    private void writeIndex(File indexFile, Properties index) {
+        try (OutputStream outputStream = new FileOutputStream(indexFile)) {
+            index.store(outputStream, "size,modified,sha256 of every file under the version directories");
+        } catch (IOException e) {
+            logger.warn("Could not save the deduplication index: " + e.getMessage());
+        }
+    }
+
+}
@@ -0,0 +1,165 @@
+/**
+ * blackduck-installer
+ *
+ * Copyright (c) 2019 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.installer.download;
+
+import com.synopsys.integration.blackduck.installer.exception.BlackDuckInstallerException;
+import com.synopsys.integration.blackduck.installer.model.ExecutablesRunner;
+import com.synopsys.integration.executable.Executable;
+import com.synopsys.integration.log.IntLogger;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+
+/*
+Stages archives and extracted releases that are already on this host, so nothing goes through the http stack.
+ */
+public class LocalStager {
+    public static final String FILE_SCHEME = "file:";
+
+    private final IntLogger logger;
+    private final ExecutablesRunner executablesRunner;
+
+    private volatile boolean reflinkUnsupported;
+
+    public static boolean isLocal(String downloadUrl) {
+        return downloadUrl.startsWith(FILE_SCHEME);
+    }
+
+    public static String toDownloadUrl(String path) {
+        return new File(path).getAbsoluteFile().toURI().toString();
+    }
+
+    public static File toFile(String downloadUrl) {
+        return new File(URI.create(downloadUrl));
+    }
+
+    public LocalStager(IntLogger logger, ExecutablesRunner executablesRunner) {
+        this.logger = logger;
+        this.executablesRunner = executablesRunner;
+    }
+
+    /*
+    A staged archive is filed in the cache under its digest, so it is never hard linked - the media file can be rewritten in
+    place, and a shared inode would change the cached blob behind its digest. A reflink shares blocks but not the inode.
+     */
+    public DownloadResult stageArchive(File source, File target) throws BlackDuckInstallerException {
+        if (!source.isFile()) {
+            throw new BlackDuckInstallerException(String.format("The local archive %s does not exist.", source.getAbsolutePath()));
+        }
+
+        try {
+            Files.deleteIfExists(target.toPath());
+            if (reflink(source, target)) {
+                logger.info(String.format("Staged %s as a reflink.", source.getAbsolutePath()));
+            } else {
+                copy(source, target);
+                logger.info(String.format("Staged %s as a copy.", source.getAbsolutePath()));
+            }
+
+            try (InputStream inputStream = Files.newInputStream(target.toPath())) {
+                return new DownloadResult(target, DigestUtils.sha256Hex(inputStream), target.length());
+            }
+        } catch (IOException e) {
+            throw new BlackDuckInstallerException(String.format("Could not stage %s: %s", source.getAbsolutePath(), e.getMessage()), e);
+        }
+    }
+
+    /*
+    The config files of an install are edited in place, so an extracted release is never hard linked - the edits would change the original.
+     */
+    public void stageDirectory(File source, File target) throws BlackDuckInstallerException {
+        if (!source.isDirectory()) {
+            throw new BlackDuckInstallerException(String.format("The local directory %s does not exist.", source.getAbsolutePath()));
+        }
+
+        try {
+            if (reflink(source, target)) {
+                logger.info(String.format("Staged %s as reflinks.", source.getAbsolutePath()));
+                return;
+            }
+
+            Path sourcePath = source.toPath();
+            Path targetPath = target.toPath();
+            Files.walkFileTree(sourcePath, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path directory, BasicFileAttributes attributes) throws IOException {
+                    Files.createDirectories(targetPath.resolve(sourcePath.relativize(directory)));
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+                    copy(file.toFile(), targetPath.resolve(sourcePath.relativize(file)).toFile());
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+            logger.info(String.format("Staged %s as a copy.", source.getAbsolutePath()));
+        } catch (IOException e) {
+            throw new BlackDuckInstallerException(String.format("Could not stage %s: %s", source.getAbsolutePath(), e.getMessage()), e);
+        }
+    }
+
+    private boolean reflink(File source, File target) {
+        if (reflinkUnsupported) {
+            return false;
+        }
+
+        Executable executable = Executable.create(new File("."), Arrays.asList("cp", "-R", "--preserve=mode,timestamps", "--reflink=always", source.getAbsolutePath(), target.getAbsolutePath()));
+        try {
+            if (0 == executablesRunner.runExecutableCode(executable)) {
+                return true;
+            }
+        } catch (BlackDuckInstallerException e) {
+            logger.debug("Could not run cp: " + e.getMessage());
+        }
+
+        // cp leaves behind whatever it managed before failing
+        FileUtils.deleteQuietly(target);
+        logger.debug("Reflinks are not supported here, files will be copied instead.");
+        reflinkUnsupported = true;
+        return false;
+    }
+
+    private void copy(File source, File target) throws IOException {
+        try (FileChannel sourceChannel = FileChannel.open(source.toPath(), StandardOpenOption.READ);
+             FileChannel targetChannel = FileChannel.open(target.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long size = sourceChannel.size();
+            long position = 0;
+            while (position < size) {
+                position += sourceChannel.transferTo(position, size - position, targetChannel);
+            }
+        }
+        if (source.canExecute()) {
+            target.setExecutable(true, false);
+        }
+    }
+
+}
@@ -0,0 +1,98 @@
+/**
+ * blackduck-installer
+ *
+ * Copyright (c) 2019 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.installer.download;
+
+import com.synopsys.integration.exception.IntegrationException;
+import com.synopsys.integration.log.IntLogger;
+import com.synopsys.integration.rest.client.IntHttpClient;
+import com.synopsys.integration.rest.request.Request;
+import com.synopsys.integration.rest.request.Response;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/*
+Every mirror is probed at once for its first byte and the first one to answer successfully is used - the slower probes are
+abandoned rather than waited for. The remaining mirrors keep their configured order as fallbacks.
+ */
+public class MirrorSelector {
+    private final IntLogger logger;
+    private final IntHttpClient intHttpClient;
+
+    public MirrorSelector(IntLogger logger, IntHttpClient intHttpClient) {
+        this.logger = logger;
+        this.intHttpClient = intHttpClient;
+    }
+
+    public List<String> rankMirrors(List<String> downloadUrls) {
+        if (downloadUrls.size() < 2) {
+            return downloadUrls;
+        }
+
+        ExecutorService executorService = Executors.newFixedThreadPool(downloadUrls.size());
+        try {
+            CompletionService<String> completionService = new ExecutorCompletionService<>(executorService);
+            for (String downloadUrl : downloadUrls) {
+                completionService.submit(() -> probe(downloadUrl));
+            }
+
+            long start = System.currentTimeMillis();
+            for (int i = 0; i < downloadUrls.size(); i++) {
+                try {
+                    String fastestUrl = completionService.take().get();
+                    logger.info(String.format("Using %s, the first mirror to respond (%s ms).", fastestUrl, System.currentTimeMillis() - start));
+
+                    List<String> rankedUrls = new ArrayList<>();
+                    rankedUrls.add(fastestUrl);
+                    downloadUrls
+                        .stream()
+                        .filter(downloadUrl -> !downloadUrl.equals(fastestUrl))
+                        .forEach(rankedUrls::add);
+                    return rankedUrls;
+                } catch (ExecutionException e) {
+                    logger.debug("A mirror could not be reached: " + e.getCause().getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        // no mirror answered, so the download itself will report the real problem
+        return downloadUrls;
+    }
+
+    private String probe(String downloadUrl) throws IntegrationException, IOException {
+        Request probeRequest = new Request.Builder(downloadUrl).addAdditionalHeader(ParallelDownloader.RANGE_HEADER, "bytes=0-0").build();
+        try (Response response = intHttpClient.execute(probeRequest)) {
+            if (response.isStatusCodeError()) {
+                throw new IntegrationException(String.format("%s responded with %s.", downloadUrl, response.getStatusCode()));
+            }
+            return downloadUrl;
+        }
+    }
+
+}
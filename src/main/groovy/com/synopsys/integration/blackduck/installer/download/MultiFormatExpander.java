@@ -0,0 +1,80 @@
+/**
+ * blackduck-installer
+ *
+ * Copyright (c) 2019 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.installer.download;
+
+import com.synopsys.integration.blackduck.installer.exception.BlackDuckInstallerException;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+
+/*
+Hands each archive to the expander for its format, judged by its first bytes.
+ */
+public class MultiFormatExpander implements ArchiveExpander {
+    private final ArchiveExpander zipExpander;
+    private final ArchiveExpander tarExpander;
+
+    public MultiFormatExpander(ArchiveExpander zipExpander, ArchiveExpander tarExpander) {
+        this.zipExpander = zipExpander;
+        this.tarExpander = tarExpander;
+    }
+
+    @Override
+    public void expand(File archive, File destinationDirectory) throws BlackDuckInstallerException {
+        selectExpander(archive).expand(archive, destinationDirectory);
+    }
+
+    @Override
+    public void expand(InputStream archiveStream, File destinationDirectory) throws IOException, BlackDuckInstallerException {
+        BufferedInputStream bufferedInputStream = new BufferedInputStream(archiveStream);
+        ArchiveFormat archiveFormat = ArchiveFormat.peek(bufferedInputStream).orElse(ArchiveFormat.ZIP);
+        selectExpander(archiveFormat).expand(bufferedInputStream, destinationDirectory);
+    }
+
+    @Override
+    public void restorePermissions(File archive, File destinationDirectory) throws BlackDuckInstallerException {
+        selectExpander(archive).restorePermissions(archive, destinationDirectory);
+    }
+
+    @Override
+    public Optional<File> expandEntry(File archive, File destinationDirectory, String entryPath) throws BlackDuckInstallerException {
+        return selectExpander(archive).expandEntry(archive, destinationDirectory, entryPath);
+    }
+
+    private ArchiveExpander selectExpander(File archive) throws BlackDuckInstallerException {
+        try {
+            // anything unrecognized is left to the zip expander to reject, as it always was
+            return selectExpander(ArchiveFormat.sniff(archive).orElse(ArchiveFormat.ZIP));
+        } catch (IOException e) {
+            throw new BlackDuckInstallerException(String.format("Could not read the archive %s: %s", archive.getAbsolutePath(), e.getMessage()), e);
+        }
+    }
+
+    private ArchiveExpander selectExpander(ArchiveFormat archiveFormat) {
+        return ArchiveFormat.ZIP == archiveFormat ? zipExpander : tarExpander;
+    }
+
+}
@@ -0,0 +1,333 @@
+/**
+ * blackduck-installer
+ *
+ * Copyright (c) 2019 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.installer.download;
+
+import com.synopsys.integration.blackduck.installer.exception.BlackDuckInstallerException;
+import com.synopsys.integration.exception.IntegrationException;
+import com.synopsys.integration.log.IntLogger;
+import com.synopsys.integration.rest.client.IntHttpClient;
+import com.synopsys.integration.rest.request.Request;
+import com.synopsys.integration.rest.request.Response;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class ParallelDownloader {
+    public static final String RANGE_HEADER = "Range";
+    public static final String CONTENT_RANGE_HEADER = "Content-Range";
+    public static final String CONTENT_LENGTH_HEADER = "Content-Length";
+    public static final String ETAG_HEADER = "ETag";
+    public static final String LAST_MODIFIED_HEADER = "Last-Modified";
+    public static final String IF_RANGE_HEADER = "If-Range";
+    public static final String IF_NONE_MATCH_HEADER = "If-None-Match";
+    public static final String IF_MODIFIED_SINCE_HEADER = "If-Modified-Since";
+    public static final int PARTIAL_CONTENT = 206;
+    public static final int NOT_MODIFIED = 304;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final long MINIMUM_RANGE_SIZE = 4 * 1024 * 1024;
+    private static final long CHECKPOINT_INTERVAL = 8 * 1024 * 1024;
+    private static final Pattern CONTENT_RANGE = Pattern.compile("bytes\\s+(\\d+)-\\d+/(\\d+)");
+
+    private final IntLogger logger;
+    private final IntHttpClient intHttpClient;
+    private final int connections;
+    private final long minimumBytesPerSecond;
+    private final TeePipeline teePipeline;
+
+    public ParallelDownloader(IntLogger logger, IntHttpClient intHttpClient, int connections, long minimumBytesPerSecond) {
+        this.logger = logger;
+        this.intHttpClient = intHttpClient;
+        this.connections = Math.max(1, connections);
+        this.minimumBytesPerSecond = minimumBytesPerSecond;
+        teePipeline = new TeePipeline(logger);
+    }
+
+    /*
+    The partFile is stable between runs so that an interrupted download can pick up where it stopped.
+    A single stream arrives in order, so it is also handed to the archiveStreamConsumer (when not null) as it downloads. Ranges
+    arrive out of order and are never streamed.
+    Only when there is another mirror to fail over to is a download that falls below the minimum throughput abandoned.
+     */
+    public DownloadResult download(String downloadUrl, File partFile, ArchiveStreamConsumer archiveStreamConsumer, boolean failoverAvailable) throws BlackDuckInstallerException {
+        ThroughputMonitor throughputMonitor = new ThroughputMonitor(logger, downloadUrl, failoverAvailable ? minimumBytesPerSecond : 0);
+        RemoteArchive remoteArchive = probe(downloadUrl);
+        if (!remoteArchive.isRangesSupported() || remoteArchive.getTotalLength() <= 0) {
+            PartialDownload.discard(partFile);
+            logger.debug(String.format("Downloading %s over a single connection.", downloadUrl));
+            return complete(downloadSingleStream(downloadUrl, partFile, archiveStreamConsumer, throughputMonitor), remoteArchive, throughputMonitor);
+        }
+
+        Optional<PartialDownload> savedDownload = PartialDownload.load(partFile);
+        PartialDownload partialDownload;
+        if (savedDownload.isPresent() && savedDownload.get().canResume(remoteArchive)) {
+            partialDownload = savedDownload.get();
+            logger.info(String.format("Resuming the download of %s with %s of %s bytes already downloaded.", downloadUrl, partialDownload.getTotalReceived(), partialDownload.getTotalLength()));
+        } else {
+            PartialDownload.discard(partFile);
+            int rangeCount = (int) Math.max(1, Math.min(connections, remoteArchive.getTotalLength() / MINIMUM_RANGE_SIZE));
+            partialDownload = PartialDownload.create(partFile, remoteArchive, rangeCount);
+            partialDownload.preallocate();
+            logger.info(String.format("Downloading %s bytes using %s parallel connections.", remoteArchive.getTotalLength(), rangeCount));
+        }
+
+        throughputMonitor.setExpectedBytes(partialDownload.getTotalLength() - partialDownload.getTotalReceived());
+        DownloadResult downloadResult = downloadRanges(remoteArchive, partialDownload, throughputMonitor);
+        partialDownload.complete();
+        return complete(downloadResult, remoteArchive, throughputMonitor);
+    }
+
+    /*
+    Asks the server whether the archive it recorded the validators for has changed, without transferring it. A 304 is the only
+    answer that means unchanged - a server that ignores conditional requests simply sends the archive again, which is then abandoned.
+     */
+    public boolean isUnchanged(String downloadUrl, String eTag, String lastModified) throws BlackDuckInstallerException {
+        Request.Builder requestBuilder = new Request.Builder(downloadUrl);
+        if (StringUtils.isNotBlank(eTag)) {
+            requestBuilder.addAdditionalHeader(IF_NONE_MATCH_HEADER, eTag);
+        }
+        if (StringUtils.isNotBlank(lastModified)) {
+            requestBuilder.addAdditionalHeader(IF_MODIFIED_SINCE_HEADER, lastModified);
+        }
+
+        try (Response response = intHttpClient.execute(requestBuilder.build())) {
+            if (NOT_MODIFIED == response.getStatusCode()) {
+                return true;
+            }
+            if (response.isStatusCodeError()) {
+                throw new BlackDuckInstallerException(String.format("Could not revalidate %s. The server responded with %s.", downloadUrl, response.getStatusCode()));
+            }
+            return false;
+        } catch (IntegrationException | IOException e) {
+            throw new BlackDuckInstallerException(String.format("Could not connect to %s: %s", downloadUrl, e.getMessage()), e);
+        }
+    }
+
+    /*
+    A one byte range request answers both questions at once: a 206 means ranges are honoured and its Content-Range carries the full length.
+     */
+    private RemoteArchive probe(String downloadUrl) throws BlackDuckInstallerException {
+        Request probeRequest = new Request.Builder(downloadUrl).addAdditionalHeader(RANGE_HEADER, "bytes=0-0").build();
+        try (Response response = intHttpClient.execute(probeRequest)) {
+            if (response.isStatusCodeError()) {
+                throw new BlackDuckInstallerException(String.format("Could not download: %s. The server responded with %s.", downloadUrl, response.getStatusCode()));
+            }
+
+            String eTag = response.getHeaderValue(ETAG_HEADER);
+            String lastModified = response.getHeaderValue(LAST_MODIFIED_HEADER);
+            OptionalLong totalLength = PARTIAL_CONTENT == response.getStatusCode() ? parseContentRange(response.getHeaderValue(CONTENT_RANGE_HEADER), 2) : OptionalLong.empty();
+            return new RemoteArchive(downloadUrl, totalLength.isPresent(), totalLength.orElse(-1), eTag, lastModified);
+        } catch (IntegrationException | IOException e) {
+            throw new BlackDuckInstallerException(String.format("Could not connect to %s: %s", downloadUrl, e.getMessage()), e);
+        }
+    }
+
+    private DownloadResult downloadRanges(RemoteArchive remoteArchive, PartialDownload partialDownload, ThroughputMonitor throughputMonitor) throws BlackDuckInstallerException {
+        String downloadUrl = remoteArchive.getDownloadUrl();
+        File partFile = partialDownload.getPartFile();
+
+        ExecutorService executorService = Executors.newFixedThreadPool(partialDownload.getRangeCount());
+        try (FileChannel fileChannel = FileChannel.open(partFile.toPath(), StandardOpenOption.WRITE)) {
+            partialDownload.checkpoint(fileChannel);
+
+            List<Future<?>> rangeFutures = new ArrayList<>();
+            for (int i = 0; i < partialDownload.getRangeCount(); i++) {
+                int rangeIndex = i;
+                if (partialDownload.getNextByte(rangeIndex) <= partialDownload.getRangeEnd(rangeIndex)) {
+                    rangeFutures.add(executorService.submit(() -> downloadRange(remoteArchive, fileChannel, partialDownload, rangeIndex, throughputMonitor)));
+                }
+            }
+
+            // every range is waited for, so none is still writing the part file or its checkpoint once this returns
+            ExecutionException rangeFailure = null;
+            for (Future<?> rangeFuture : rangeFutures) {
+                try {
+                    rangeFuture.get();
+                } catch (ExecutionException e) {
+                    rangeFailure = null == rangeFailure ? e : rangeFailure;
+                }
+            }
+            if (null != rangeFailure) {
+                throw rangeFailure;
+            }
+            if (partialDownload.getTotalReceived() != partialDownload.getTotalLength()) {
+                throw new BlackDuckInstallerException(String.format("The download of %s was incomplete: expected %s bytes but received %s.", downloadUrl, partialDownload.getTotalLength(), partialDownload.getTotalReceived()));
+            }
+        } catch (ExecutionException e) {
+            throw new BlackDuckInstallerException(String.format("Could not download %s, it will be resumed on the next run: %s", downloadUrl, e.getCause().getMessage()), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BlackDuckInstallerException("The download was interrupted: " + downloadUrl, e);
+        } catch (IOException e) {
+            throw new BlackDuckInstallerException(String.format("Could not write %s: %s", partFile.getAbsolutePath(), e.getMessage()), e);
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        return new DownloadResult(partFile, computeSha256(partFile), partialDownload.getTotalLength());
+    }
+
+    private Void downloadRange(RemoteArchive remoteArchive, FileChannel fileChannel, PartialDownload partialDownload, int rangeIndex, ThroughputMonitor throughputMonitor) throws IOException, IntegrationException {
+        long start = partialDownload.getNextByte(rangeIndex);
+        long end = partialDownload.getRangeEnd(rangeIndex);
+
+        Request.Builder requestBuilder = new Request.Builder(remoteArchive.getDownloadUrl()).addAdditionalHeader(RANGE_HEADER, String.format("bytes=%s-%s", start, end));
+        // if the archive changed since the probe the server answers with the whole new archive instead of mixing versions
+        remoteArchive.getValidator().ifPresent(validator -> requestBuilder.addAdditionalHeader(IF_RANGE_HEADER, validator));
+
+        try (Response response = intHttpClient.execute(requestBuilder.build())) {
+            if (PARTIAL_CONTENT != response.getStatusCode()) {
+                throw new IntegrationException(String.format("Expected a partial response for bytes %s-%s but the server responded with %s.", start, end, response.getStatusCode()));
+            }
+            OptionalLong rangeStart = parseContentRange(response.getHeaderValue(CONTENT_RANGE_HEADER), 1);
+            if (!rangeStart.isPresent() || rangeStart.getAsLong() != start) {
+                throw new IntegrationException(String.format("Expected bytes %s-%s but the server sent %s.", start, end, response.getHeaderValue(CONTENT_RANGE_HEADER)));
+            }
+
+            long position = start;
+            long sinceCheckpoint = 0;
+            byte[] buffer = new byte[BUFFER_SIZE];
+            try (InputStream inputStream = throughputMonitor.monitor(response.getContent(), response)) {
+                int read;
+                while (position <= end && (read = inputStream.read(buffer)) != -1) {
+                    ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, (int) Math.min(read, end - position + 1));
+                    int written = 0;
+                    while (byteBuffer.hasRemaining()) {
+                        written += fileChannel.write(byteBuffer, position + written);
+                    }
+                    position += written;
+                    partialDownload.addReceived(rangeIndex, written);
+
+                    sinceCheckpoint += written;
+                    if (sinceCheckpoint >= CHECKPOINT_INTERVAL) {
+                        partialDownload.checkpoint(fileChannel);
+                        sinceCheckpoint = 0;
+                    }
+                }
+            } finally {
+                checkpointQuietly(partialDownload, fileChannel);
+            }
+
+            if (position != end + 1) {
+                throw new IntegrationException(String.format("The range %s-%s ended early after %s bytes.", start, end, position - start));
+            }
+            return null;
+        }
+    }
+
+    private void checkpointQuietly(PartialDownload partialDownload, FileChannel fileChannel) {
+        try {
+            partialDownload.checkpoint(fileChannel);
+        } catch (IOException e) {
+            // the previous checkpoint is still valid, it only covers fewer bytes
+            logger.debug("Could not save the download progress: " + e.getMessage());
+        }
+    }
+
+    private DownloadResult downloadSingleStream(String downloadUrl, File targetFile, ArchiveStreamConsumer archiveStreamConsumer, ThroughputMonitor throughputMonitor) throws BlackDuckInstallerException {
+        Request downloadRequest = new Request.Builder(downloadUrl).build();
+        try (Response response = intHttpClient.execute(downloadRequest)) {
+            // an error page must never be mistaken for the archive
+            if (response.isStatusCodeError()) {
+                throw new BlackDuckInstallerException(String.format("Could not download: %s. The server responded with %s.", downloadUrl, response.getStatusCode()));
+            }
+
+            String contentLength = response.getHeaderValue(CONTENT_LENGTH_HEADER);
+            if (StringUtils.isNumeric(contentLength)) {
+                throughputMonitor.setExpectedBytes(Long.parseLong(contentLength));
+            }
+
+            DownloadResult downloadResult;
+            if (null != archiveStreamConsumer) {
+                try (InputStream inputStream = throughputMonitor.monitor(response.getContent(), response)) {
+                    downloadResult = teePipeline.run(inputStream, targetFile, archiveStreamConsumer);
+                }
+            } else {
+                MessageDigest messageDigest = DigestUtils.getSha256Digest();
+                long size;
+                try (InputStream inputStream = new DigestInputStream(throughputMonitor.monitor(response.getContent(), response), messageDigest); OutputStream outputStream = new FileOutputStream(targetFile)) {
+                    size = copy(inputStream, outputStream);
+                }
+                downloadResult = new DownloadResult(targetFile, Hex.encodeHexString(messageDigest.digest()), size);
+            }
+
+            if (StringUtils.isNumeric(contentLength) && Long.parseLong(contentLength) != downloadResult.getSize()) {
+                throw new BlackDuckInstallerException(String.format("The download of %s was incomplete: expected %s bytes but received %s.", downloadUrl, contentLength, downloadResult.getSize()));
+            }
+
+            return downloadResult;
+        } catch (IntegrationException | IOException e) {
+            throw new BlackDuckInstallerException(String.format("Could not download %s: %s", downloadUrl, e.getMessage()), e);
+        }
+    }
+
+    private DownloadResult complete(DownloadResult downloadResult, RemoteArchive remoteArchive, ThroughputMonitor throughputMonitor) {
+        return new DownloadResult(downloadResult.getFile(), downloadResult.getSha256(), downloadResult.getSize(), downloadResult.isExpanded(), remoteArchive, throughputMonitor.getTransferStatistics());
+    }
+
+    private long copy(InputStream inputStream, OutputStream outputStream) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long size = 0;
+        int read;
+        while ((read = inputStream.read(buffer)) != -1) {
+            outputStream.write(buffer, 0, read);
+            size += read;
+        }
+        return size;
+    }
+
+    private String computeSha256(File file) throws BlackDuckInstallerException {
+        try (InputStream inputStream = new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE)) {
+            return DigestUtils.sha256Hex(inputStream);
+        } catch (IOException e) {
+            throw new BlackDuckInstallerException(String.format("Could not hash %s: %s", file.getAbsolutePath(), e.getMessage()), e);
+        }
+    }
+
+    private OptionalLong parseContentRange(String contentRange, int group) {
+        if (StringUtils.isBlank(contentRange)) {
+            return OptionalLong.empty();
+        }
+
+        Matcher matcher = CONTENT_RANGE.matcher(contentRange.trim());
+        if (!matcher.matches()) {
+            return OptionalLong.empty();
+        }
+        return OptionalLong.of(Long.parseLong(matcher.group(group)));
+    }
+
+}
@@ -0,0 +1,179 @@
+/**
+ * blackduck-installer
+ *
+ * Copyright (c) 2019 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.installer.download;
+
+import com.synopsys.integration.blackduck.installer.exception.BlackDuckInstallerException;
+import com.synopsys.integration.log.IntLogger;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.*;
+
+/*
+Each worker opens its own ZipFile so no inflater or channel is ever shared, and entries are spread across the workers by size.
+ */
+public class ParallelZipExpander {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final IntLogger logger;
+    private final int threads;
+
+    public ParallelZipExpander(IntLogger logger, int threads) {
+        this.logger = logger;
+        this.threads = Math.max(1, threads);
+    }
+
+    public void expand(File archive, List<ZipArchiveEntry> entries, File destinationDirectory) throws BlackDuckInstallerException {
+        List<ZipArchiveEntry> fileEntries = createDirectories(entries, destinationDirectory);
+        if (fileEntries.isEmpty()) {
+            return;
+        }
+
+        List<List<String>> batches = createBatches(fileEntries);
+        logger.debug(String.format("Expanding %s files from %s using %s threads.", fileEntries.size(), archive.getName(), batches.size()));
+
+        ExecutorService executorService = Executors.newFixedThreadPool(batches.size());
+        try {
+            List<Future<?>> batchFutures = new ArrayList<>();
+            for (List<String> batch : batches) {
+                batchFutures.add(executorService.submit(() -> expandBatch(archive, batch, destinationDirectory)));
+            }
+            for (Future<?> batchFuture : batchFutures) {
+                batchFuture.get();
+            }
+        } catch (ExecutionException e) {
+            throw new BlackDuckInstallerException(String.format("Could not expand the archive %s: %s", archive.getAbsolutePath(), e.getCause().getMessage()), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BlackDuckInstallerException("Interrupted while expanding " + archive.getAbsolutePath(), e);
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    /*
+    All directories are created up front on this thread so the workers only ever write files.
+     */
+    private List<ZipArchiveEntry> createDirectories(List<ZipArchiveEntry> entries, File destinationDirectory) throws BlackDuckInstallerException {
+        Set<File> directories = new LinkedHashSet<>();
+        List<ZipArchiveEntry> fileEntries = new ArrayList<>();
+        try {
+            for (ZipArchiveEntry entry : entries) {
+                File target = resolveTarget(destinationDirectory, entry.getName());
+                if (entry.isDirectory()) {
+                    directories.add(target);
+                } else {
+                    directories.add(target.getParentFile());
+                    fileEntries.add(entry);
+                }
+            }
+        } catch (IOException e) {
+            throw new BlackDuckInstallerException("Could not expand the archive: " + e.getMessage(), e);
+        }
+
+        for (File directory : directories) {
+            if (!directory.isDirectory() && !directory.mkdirs()) {
+                throw new BlackDuckInstallerException("Could not create the directory " + directory.getAbsolutePath());
+            }
+        }
+        return fileEntries;
+    }
+
+    public static File resolveTarget(File destinationDirectory, String entryName) throws IOException {
+        File target = new File(destinationDirectory, entryName);
+        if (!target.getCanonicalPath().startsWith(destinationDirectory.getCanonicalPath() + File.separator)) {
+            throw new IOException(String.format("The entry %s is outside of the target directory.", entryName));
+        }
+        return target;
+    }
+
+    private List<List<String>> createBatches(List<ZipArchiveEntry> fileEntries) {
+        int batchCount = Math.min(threads, fileEntries.size());
+        List<List<String>> batches = new ArrayList<>();
+        long[] batchSizes = new long[batchCount];
+        for (int i = 0; i < batchCount; i++) {
+            batches.add(new ArrayList<>());
+        }
+
+        // largest first into the lightest batch keeps one huge entry from being queued behind the others
+        List<ZipArchiveEntry> sortedEntries = new ArrayList<>(fileEntries);
+        sortedEntries.sort(Comparator.comparingLong(ZipArchiveEntry::getCompressedSize).reversed());
+        for (ZipArchiveEntry entry : sortedEntries) {
+            int lightest = 0;
+            for (int i = 1; i < batchCount; i++) {
+                if (batchSizes[i] < batchSizes[lightest]) {
+                    lightest = i;
+                }
+            }
+            batches.get(lightest).add(entry.getName());
+            batchSizes[lightest] += Math.max(1, entry.getCompressedSize());
+        }
+        return batches;
+    }
+
+    private Void expandBatch(File archive, List<String> entryNames, File destinationDirectory) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (ZipFile zipFile = new ZipFile(archive)) {
+            for (String entryName : entryNames) {
+                ZipArchiveEntry entry = zipFile.getEntry(entryName);
+                File target = new File(destinationDirectory, entryName);
+                writeEntry(zipFile, entry, target, buffer);
+                if ((entry.getUnixMode() & 0111) != 0) {
+                    target.setExecutable(true, false);
+                }
+            }
+        }
+        return null;
+    }
+
+    private void writeEntry(ZipFile zipFile, ZipArchiveEntry entry, File target, byte[] buffer) throws IOException {
+        // never write through a hard link into the files of another version
+        Files.deleteIfExists(target.toPath());
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(target, "rw"); FileChannel fileChannel = randomAccessFile.getChannel(); InputStream inputStream = zipFile.getInputStream(entry)) {
+            long expectedSize = entry.getSize();
+            randomAccessFile.setLength(Math.max(0, expectedSize));
+
+            long position = 0;
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, read);
+                while (byteBuffer.hasRemaining()) {
+                    position += fileChannel.write(byteBuffer, position);
+                }
+            }
+            // the size from the central directory is only a hint, the inflated data wins
+            if (position != expectedSize) {
+                randomAccessFile.setLength(position);
+            }
+        }
+    }
+
+}
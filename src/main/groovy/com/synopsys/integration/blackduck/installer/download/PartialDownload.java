@@ -0,0 +1,211 @@
+/**
+ * blackduck-installer
+ *
+ * Copyright (c) 2019 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.installer.download;
+
+import com.synopsys.integration.blackduck.installer.exception.BlackDuckInstallerException;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*
+The state of an interrupted download lives next to its .part file so that a later run can request only the bytes that are still missing from each range.
+ */
+public class PartialDownload {
+    public static final String SIDECAR_EXTENSION = ".properties";
+
+    private static final String URL_KEY = "url";
+    private static final String ETAG_KEY = "etag";
+    private static final String LAST_MODIFIED_KEY = "last.modified";
+    private static final String TOTAL_LENGTH_KEY = "total.length";
+    private static final String RANGE_COUNT_KEY = "range.count";
+
+    private final File partFile;
+    private final String downloadUrl;
+    private final String eTag;
+    private final String lastModified;
+    private final long totalLength;
+    private final long[] rangeStarts;
+    private final long[] rangeEnds;
+    private final AtomicLongArray rangesReceived;
+
+    public static PartialDownload create(File partFile, RemoteArchive remoteArchive, int rangeCount) {
+        long totalLength = remoteArchive.getTotalLength();
+        long rangeSize = (totalLength + rangeCount - 1) / rangeCount;
+        long[] rangeStarts = new long[rangeCount];
+        long[] rangeEnds = new long[rangeCount];
+        for (int i = 0; i < rangeCount; i++) {
+            rangeStarts[i] = i * rangeSize;
+            rangeEnds[i] = Math.min(rangeStarts[i] + rangeSize, totalLength) - 1;
+        }
+
+        return new PartialDownload(partFile, remoteArchive.getDownloadUrl(), remoteArchive.getETag().orElse(null), remoteArchive.getLastModified().orElse(null), totalLength, rangeStarts, rangeEnds, new AtomicLongArray(rangeCount));
+    }
+
+    public static Optional<PartialDownload> load(File partFile) {
+        File sidecarFile = getSidecarFile(partFile);
+        if (!partFile.isFile() || !sidecarFile.isFile()) {
+            return Optional.empty();
+        }
+
+        Properties properties = new Properties();
+        try (InputStream inputStream = new FileInputStream(sidecarFile)) {
+            properties.load(inputStream);
+
+            int rangeCount = Integer.parseInt(properties.getProperty(RANGE_COUNT_KEY));
+            long[] rangeStarts = new long[rangeCount];
+            long[] rangeEnds = new long[rangeCount];
+            AtomicLongArray rangesReceived = new AtomicLongArray(rangeCount);
+            for (int i = 0; i < rangeCount; i++) {
+                rangeStarts[i] = Long.parseLong(properties.getProperty(rangeKey(i, "start")));
+                rangeEnds[i] = Long.parseLong(properties.getProperty(rangeKey(i, "end")));
+                rangesReceived.set(i, Long.parseLong(properties.getProperty(rangeKey(i, "received"))));
+            }
+            long totalLength = Long.parseLong(properties.getProperty(TOTAL_LENGTH_KEY));
+
+            return Optional.of(new PartialDownload(partFile, properties.getProperty(URL_KEY), properties.getProperty(ETAG_KEY), properties.getProperty(LAST_MODIFIED_KEY), totalLength, rangeStarts, rangeEnds, rangesReceived));
+        } catch (IOException | RuntimeException e) {
+            // a damaged sidecar only means the download has to start over
+            return Optional.empty();
+        }
+    }
+
+    public static void discard(File partFile) {
+        partFile.delete();
+        getSidecarFile(partFile).delete();
+    }
+
+    private static File getSidecarFile(File partFile) {
+        return new File(partFile.getParentFile(), partFile.getName() + SIDECAR_EXTENSION);
+    }
+
+    private static String rangeKey(int index, String field) {
+        return String.format("range.%s.%s", index, field);
+    }
+
+    private PartialDownload(File partFile, String downloadUrl, String eTag, String lastModified, long totalLength, long[] rangeStarts, long[] rangeEnds, AtomicLongArray rangesReceived) {
+        this.partFile = partFile;
+        this.downloadUrl = downloadUrl;
+        this.eTag = eTag;
+        this.lastModified = lastModified;
+        this.totalLength = totalLength;
+        this.rangeStarts = rangeStarts;
+        this.rangeEnds = rangeEnds;
+        this.rangesReceived = rangesReceived;
+    }
+
+    /*
+    Without a validator there is no way to know the remote archive is unchanged, so the bytes on disk can't be trusted.
+     */
+    public boolean canResume(RemoteArchive remoteArchive) {
+        if (!remoteArchive.isRangesSupported() || !remoteArchive.getValidator().isPresent()) {
+            return false;
+        }
+
+        return downloadUrl.equals(remoteArchive.getDownloadUrl())
+                   && totalLength == remoteArchive.getTotalLength()
+                   && partFile.length() == totalLength
+                   && Objects.equals(StringUtils.trimToNull(eTag), remoteArchive.getETag().orElse(null))
+                   && Objects.equals(StringUtils.trimToNull(lastModified), remoteArchive.getLastModified().orElse(null));
+    }
+
+    public void preallocate() throws BlackDuckInstallerException {
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(partFile, "rw")) {
+            randomAccessFile.setLength(totalLength);
+        } catch (IOException e) {
+            throw new BlackDuckInstallerException(String.format("Could not allocate %s: %s", partFile.getAbsolutePath(), e.getMessage()), e);
+        }
+    }
+
+    public int getRangeCount() {
+        return rangeStarts.length;
+    }
+
+    public long getNextByte(int index) {
+        return rangeStarts[index] + rangesReceived.get(index);
+    }
+
+    public long getRangeEnd(int index) {
+        return rangeEnds[index];
+    }
+
+    public void addReceived(int index, long received) {
+        rangesReceived.addAndGet(index, received);
+    }
+
+    public long getTotalReceived() {
+        long totalReceived = 0;
+        for (int i = 0; i < rangesReceived.length(); i++) {
+            totalReceived += rangesReceived.get(i);
+        }
+        return totalReceived;
+    }
+
+    public long getTotalLength() {
+        return totalLength;
+    }
+
+    public File getPartFile() {
+        return partFile;
+    }
+
+    /*
+    The counts are read before the data is forced to disk so the sidecar never claims bytes that a crash could lose.
+     */
+    public synchronized void checkpoint(FileChannel fileChannel) throws IOException {
+        long[] receivedSnapshot = new long[getRangeCount()];
+        for (int i = 0; i < getRangeCount(); i++) {
+            receivedSnapshot[i] = rangesReceived.get(i);
+        }
+        fileChannel.force(false);
+
+        Properties properties = new Properties();
+        properties.setProperty(URL_KEY, downloadUrl);
+        if (null != eTag) {
+            properties.setProperty(ETAG_KEY, eTag);
+        }
+        if (null != lastModified) {
+            properties.setProperty(LAST_MODIFIED_KEY, lastModified);
+        }
+        properties.setProperty(TOTAL_LENGTH_KEY, Long.toString(totalLength));
+        properties.setProperty(RANGE_COUNT_KEY, Integer.toString(getRangeCount()));
+        for (int i = 0; i < getRangeCount(); i++) {
+            properties.setProperty(rangeKey(i, "start"), Long.toString(rangeStarts[i]));
+            properties.setProperty(rangeKey(i, "end"), Long.toString(rangeEnds[i]));
+            properties.setProperty(rangeKey(i, "received"), Long.toString(receivedSnapshot[i]));
+        }
+
+        try (OutputStream outputStream = new FileOutputStream(getSidecarFile(partFile))) {
+            properties.store(outputStream, "partial download state");
+        }
+    }
+
+    public void complete() {
+        getSidecarFile(partFile).delete();
+    }
+
+}
@@ -0,0 +1,124 @@
+/**
+ * blackduck-installer
+ *
+ * Copyright (c) 2019 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.installer.download;
+
+import com.synopsys.integration.blackduck.installer.exception.BlackDuckInstallerException;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/*
+The release versions of one GitHub repository as of the last time they were asked for. The ETag lets a stale copy be revalidated
+for free (a 304 doesn't count against the rate limit) and an exhausted rate limit is remembered until it resets, so a fleet of
+installers sharing the base directory doesn't keep hitting it.
+ */
+public class ReleaseMetadata {
+    private static final String VERSIONS_KEY = "versions";
+    private static final String FETCHED_KEY = "fetched";
+    private static final String ETAG_KEY = "etag";
+    private static final String RATE_LIMIT_RESET_KEY = "rate.limit.reset";
+
+    private final List<String> versions;
+    private final long fetchedMillis;
+    private final String eTag;
+    private final long rateLimitResetMillis;
+
+    public static Optional<ReleaseMetadata> load(File metadataFile) {
+        if (!metadataFile.isFile()) {
+            return Optional.empty();
+        }
+
+        Properties properties = new Properties();
+        try (InputStream inputStream = new FileInputStream(metadataFile)) {
+            properties.load(inputStream);
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+
+        List<String> versions = Arrays.asList(StringUtils.split(properties.getProperty(VERSIONS_KEY, ""), ','));
+        long fetchedMillis = NumberUtils.toLong(properties.getProperty(FETCHED_KEY));
+        long rateLimitResetMillis = NumberUtils.toLong(properties.getProperty(RATE_LIMIT_RESET_KEY));
+        return Optional.of(new ReleaseMetadata(versions, fetchedMillis, properties.getProperty(ETAG_KEY), rateLimitResetMillis));
+    }
+
+    public ReleaseMetadata(List<String> versions, long fetchedMillis, String eTag, long rateLimitResetMillis) {
+        this.versions = Collections.unmodifiableList(new ArrayList<>(versions));
+        this.fetchedMillis = fetchedMillis;
+        this.eTag = StringUtils.trimToNull(eTag);
+        this.rateLimitResetMillis = rateLimitResetMillis;
+    }
+
+    public ReleaseMetadata revalidated(long fetchedMillis, long rateLimitResetMillis) {
+        return new ReleaseMetadata(versions, fetchedMillis, eTag, rateLimitResetMillis);
+    }
+
+    public ReleaseMetadata rateLimitedUntil(long rateLimitResetMillis) {
+        return new ReleaseMetadata(versions, fetchedMillis, eTag, rateLimitResetMillis);
+    }
+
+    // written to a sibling and moved into place, so a concurrent run never reads half of it
+    public void write(File metadataFile) throws BlackDuckInstallerException {
+        Properties properties = new Properties();
+        properties.setProperty(VERSIONS_KEY, StringUtils.join(versions, ','));
+        properties.setProperty(FETCHED_KEY, Long.toString(fetchedMillis));
+        if (null != eTag) {
+            properties.setProperty(ETAG_KEY, eTag);
+        }
+        if (rateLimitResetMillis > 0) {
+            properties.setProperty(RATE_LIMIT_RESET_KEY, Long.toString(rateLimitResetMillis));
+        }
+
+        metadataFile.getParentFile().mkdirs();
+        File partialFile = new File(metadataFile.getParentFile(), metadataFile.getName() + "." + UUID.randomUUID() + ".tmp");
+        try {
+            try (OutputStream outputStream = new FileOutputStream(partialFile)) {
+                properties.store(outputStream, "release versions from GitHub");
+            }
+            Files.move(partialFile.toPath(), metadataFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            partialFile.delete();
+            throw new BlackDuckInstallerException("Could not cache the release versions: " + e.getMessage(), e);
+        }
+    }
+
+    public List<String> getVersions() {
+        return versions;
+    }
+
+    public boolean isFresh(long nowMillis, long ttlMillis) {
+        return nowMillis - fetchedMillis < ttlMillis;
+    }
+
+    public long getRateLimitResetMillis() {
+        return rateLimitResetMillis;
+    }
+
+    public Optional<String> getETag() {
+        return Optional.ofNullable(eTag);
+    }
+
+}
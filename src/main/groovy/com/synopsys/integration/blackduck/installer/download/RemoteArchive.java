@@ -0,0 +1,73 @@
+/**
+ * blackduck-installer
+ *
+ * Copyright (c) 2019 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.installer.download;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Optional;
+
+public class RemoteArchive {
+    private final String downloadUrl;
+    private final boolean rangesSupported;
+    private final long totalLength;
+    private final String eTag;
+    private final String lastModified;
+
+    public RemoteArchive(String downloadUrl, boolean rangesSupported, long totalLength, String eTag, String lastModified) {
+        this.downloadUrl = downloadUrl;
+        this.rangesSupported = rangesSupported;
+        this.totalLength = totalLength;
+        this.eTag = eTag;
+        this.lastModified = lastModified;
+    }
+
+    public String getDownloadUrl() {
+        return downloadUrl;
+    }
+
+    public boolean isRangesSupported() {
+        return rangesSupported;
+    }
+
+    public long getTotalLength() {
+        return totalLength;
+    }
+
+    public Optional<String> getETag() {
+        return Optional.ofNullable(StringUtils.trimToNull(eTag));
+    }
+
+    public Optional<String> getLastModified() {
+        return Optional.ofNullable(StringUtils.trimToNull(lastModified));
+    }
+
+    // a strong ETag is preferred for If-Range, Last-Modified is only used when there is no ETag
+    public Optional<String> getValidator() {
+        if (getETag().isPresent() && !getETag().get().startsWith("W/")) {
+            return getETag();
+        }
+
+        return getLastModified();
+    }
+
+}
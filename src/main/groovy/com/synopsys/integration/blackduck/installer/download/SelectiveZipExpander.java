@@ -0,0 +1,130 @@
+/**
+ * blackduck-installer
+ *
+ * Copyright (c) 2019 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.installer.download;
+
+import com.synopsys.integration.blackduck.installer.exception.BlackDuckInstallerException;
+import com.synopsys.integration.log.IntLogger;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveInputStream;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/*
+Only the central directory is read up front - entries outside the prefixes are never touched unless expandEntry asks for them.
+ */
+public class SelectiveZipExpander implements ArchiveExpander {
+    private final IntLogger logger;
+    private final ParallelZipExpander parallelZipExpander;
+    private final ArchivePrefixes prefixes;
+
+    public SelectiveZipExpander(IntLogger logger, ParallelZipExpander parallelZipExpander, List<String> prefixes) {
+        this.logger = logger;
+        this.parallelZipExpander = parallelZipExpander;
+        this.prefixes = new ArchivePrefixes(prefixes);
+    }
+
+    @Override
+    public void expand(File archive, File destinationDirectory) throws BlackDuckInstallerException {
+        List<ZipArchiveEntry> allEntries = readEntries(archive, entry -> true);
+        List<ZipArchiveEntry> selectedEntries = allEntries
+                                                    .stream()
+                                                    .filter(entry -> prefixes.isSelected(entry.getName()))
+                                                    .collect(Collectors.toList());
+
+        parallelZipExpander.expand(archive, selectedEntries, destinationDirectory);
+        logger.debug(String.format("Expanded %s of the %s entries in %s (%s).", selectedEntries.size(), allEntries.size(), archive.getName(), prefixes));
+    }
+
+    /*
+    Streamed entries can only be inflated in order, one at a time - but it all happens while the archive is still downloading.
+     */
+    @Override
+    public void expand(InputStream archiveStream, File destinationDirectory) throws IOException {
+        try (ZipArchiveInputStream zipArchiveInputStream = new ZipArchiveInputStream(archiveStream, StandardCharsets.UTF_8.name(), true, true)) {
+            ZipArchiveEntry entry;
+            while (null != (entry = zipArchiveInputStream.getNextZipEntry())) {
+                if (!prefixes.isSelected(entry.getName())) {
+                    continue;
+                }
+
+                File target = ParallelZipExpander.resolveTarget(destinationDirectory, entry.getName());
+                if (entry.isDirectory()) {
+                    target.mkdirs();
+                } else {
+                    target.getParentFile().mkdirs();
+                    Files.copy(zipArchiveInputStream, target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void restorePermissions(File archive, File destinationDirectory) throws BlackDuckInstallerException {
+        List<ZipArchiveEntry> executableEntries = readEntries(archive, entry -> !entry.isDirectory() && (entry.getUnixMode() & 0111) != 0 && prefixes.isSelected(entry.getName()));
+        for (ZipArchiveEntry entry : executableEntries) {
+            new File(destinationDirectory, entry.getName()).setExecutable(true, false);
+        }
+    }
+
+    @Override
+    public Optional<File> expandEntry(File archive, File destinationDirectory, String entryPath) throws BlackDuckInstallerException {
+        File entryFile = new File(destinationDirectory, entryPath);
+        if (entryFile.isFile()) {
+            return Optional.of(entryFile);
+        }
+
+        List<ZipArchiveEntry> matchingEntries = readEntries(archive, entry -> ArchivePrefixes.matchesEntryPath(entry.getName(), entryPath));
+        parallelZipExpander.expand(archive, matchingEntries, destinationDirectory);
+
+        return entryFile.exists() ? Optional.of(entryFile) : Optional.empty();
+    }
+
+    private List<ZipArchiveEntry> readEntries(File archive, Predicate<ZipArchiveEntry> filter) throws BlackDuckInstallerException {
+        List<ZipArchiveEntry> entries = new ArrayList<>();
+        try (ZipFile zipFile = new ZipFile(archive)) {
+            Enumeration<ZipArchiveEntry> zipEntries = zipFile.getEntries();
+            while (zipEntries.hasMoreElements()) {
+                ZipArchiveEntry entry = zipEntries.nextElement();
+                if (filter.test(entry)) {
+                    entries.add(entry);
+                }
+            }
+        } catch (IOException e) {
+            throw new BlackDuckInstallerException(String.format("Could not read the archive %s: %s", archive.getAbsolutePath(), e.getMessage()), e);
+        }
+        return entries;
+    }
+
+}
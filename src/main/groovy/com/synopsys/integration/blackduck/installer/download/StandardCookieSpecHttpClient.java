@@ -33,6 +33,9 @@ import org.apache.http.impl.client.HttpClientBuilder;
 // https://stackoverflow.com/questions/36473478/fixing-httpclient-warning-invalid-expires-attribute-using-fluent-api/40697322
 // https://issues.apache.org/jira/browse/HTTPCLIENT-1763
 public class StandardCookieSpecHttpClient extends IntHttpClient {
+    // the default pool only allows 2 connections per route, which would serialize ranged downloads
+    public static final int MAX_CONNECTIONS_PER_ROUTE = 16;
+
     public StandardCookieSpecHttpClient(IntLogger logger, int timeoutInSeconds, boolean alwaysTrustServerCertificate, ProxyInfo proxyInfo) {
         super(logger, timeoutInSeconds, alwaysTrustServerCertificate, proxyInfo);
     }
@@ -42,6 +45,8 @@ public class StandardCookieSpecHttpClient extends IntHttpClient {
         super.populateHttpClientBuilder(httpClientBuilder, defaultRequestConfigBuilder);
 
         defaultRequestConfigBuilder.setCookieSpec(CookieSpecs.STANDARD);
+        httpClientBuilder.setMaxConnPerRoute(MAX_CONNECTIONS_PER_ROUTE);
+        httpClientBuilder.setMaxConnTotal(MAX_CONNECTIONS_PER_ROUTE * 2);
     }
 
 }
@@ -0,0 +1,162 @@
+/**
+ * blackduck-installer
+ *
+ * Copyright (c) 2019 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.installer.download;
+
+import com.synopsys.integration.blackduck.installer.exception.BlackDuckInstallerException;
+import com.synopsys.integration.log.IntLogger;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.compressors.zstandard.ZstdCompressorInputStream;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/*
+A tar has no central directory, so every expansion reads the archive from the start - entries are written straight to disk as
+they are decompressed. The headers carry the file modes, so there is never anything left for restorePermissions to do.
+ */
+public class TarArchiveExpander implements ArchiveExpander {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final IntLogger logger;
+    private final ArchivePrefixes prefixes;
+    private final int threads;
+
+    public TarArchiveExpander(IntLogger logger, ArchivePrefixes prefixes, int threads) {
+        this.logger = logger;
+        this.prefixes = prefixes;
+        this.threads = Math.max(1, threads);
+    }
+
+    @Override
+    public void expand(File archive, File destinationDirectory) throws BlackDuckInstallerException {
+        try (InputStream inputStream = new FileInputStream(archive)) {
+            int expanded = expandEntries(inputStream, destinationDirectory, entry -> prefixes.isSelected(entry.getName()));
+            logger.debug(String.format("Expanded %s entries from %s (%s).", expanded, archive.getName(), prefixes));
+        } catch (IOException e) {
+            throw new BlackDuckInstallerException(String.format("Could not expand the archive %s: %s", archive.getAbsolutePath(), e.getMessage()), e);
+        }
+    }
+
+    @Override
+    public void expand(InputStream archiveStream, File destinationDirectory) throws IOException {
+        expandEntries(archiveStream, destinationDirectory, entry -> prefixes.isSelected(entry.getName()));
+    }
+
+    @Override
+    public void restorePermissions(File archive, File destinationDirectory) {
+    }
+
+    @Override
+    public Optional<File> expandEntry(File archive, File destinationDirectory, String entryPath) throws BlackDuckInstallerException {
+        File entryFile = new File(destinationDirectory, entryPath);
+        if (!entryFile.isFile()) {
+            try (InputStream inputStream = new FileInputStream(archive)) {
+                expandEntries(inputStream, destinationDirectory, entry -> ArchivePrefixes.matchesEntryPath(entry.getName(), entryPath));
+            } catch (IOException e) {
+                throw new BlackDuckInstallerException(String.format("Could not expand %s from %s: %s", entryPath, archive.getAbsolutePath(), e.getMessage()), e);
+            }
+        }
+
+        return entryFile.exists() ? Optional.of(entryFile) : Optional.empty();
+    }
+
+    private int expandEntries(InputStream archiveStream, File destinationDirectory, Predicate<TarArchiveEntry> filter) throws IOException {
+        int expanded = 0;
+        try (TarArchiveInputStream tarArchiveInputStream = new TarArchiveInputStream(decompress(archiveStream))) {
+            TarArchiveEntry entry;
+            while (null != (entry = tarArchiveInputStream.getNextTarEntry())) {
+                if (!filter.test(entry)) {
+                    continue;
+                }
+
+                File target = ParallelZipExpander.resolveTarget(destinationDirectory, entry.getName());
+                if (entry.isDirectory()) {
+                    target.mkdirs();
+                } else if (entry.isSymbolicLink()) {
+                    target.getParentFile().mkdirs();
+                    Files.deleteIfExists(target.toPath());
+                    Files.createSymbolicLink(target.toPath(), new File(entry.getLinkName()).toPath());
+                } else if (entry.isFile()) {
+                    target.getParentFile().mkdirs();
+                    writeEntry(tarArchiveInputStream, entry, target.toPath());
+                }
+                expanded++;
+            }
+        }
+        return expanded;
+    }
+
+    private InputStream decompress(InputStream archiveStream) throws IOException {
+        BufferedInputStream bufferedInputStream = new BufferedInputStream(archiveStream, BUFFER_SIZE);
+        ArchiveFormat archiveFormat = ArchiveFormat.peek(bufferedInputStream).orElseThrow(() -> new IOException("The archive is neither gzip nor zstd compressed."));
+        if (ArchiveFormat.TAR_GZ == archiveFormat) {
+            return BlockGzipInputStream.open(bufferedInputStream, threads);
+        } else if (ArchiveFormat.TAR_ZST == archiveFormat) {
+            return new ZstdCompressorInputStream(bufferedInputStream);
+        }
+        throw new IOException(String.format("A %s archive can't be expanded as a tar.", archiveFormat));
+    }
+
+    private void writeEntry(InputStream entryStream, TarArchiveEntry entry, Path target) throws IOException {
+        // never write through a hard link into the files of another version
+        Files.deleteIfExists(target);
+        try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(target), BUFFER_SIZE)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = entryStream.read(buffer)) != -1) {
+                outputStream.write(buffer, 0, read);
+            }
+        }
+        applyMode(entry.getMode(), target);
+    }
+
+    /*
+    The owner always keeps read and write, since the config editors change expanded files in place.
+     */
+    private void applyMode(int mode, Path target) throws IOException {
+        Set<PosixFilePermission> permissions = EnumSet.of(PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE);
+        PosixFilePermission[] bits = PosixFilePermission.values();
+        for (int i = 0; i < bits.length; i++) {
+            // values() runs from OWNER_READ (0400) down to OTHERS_EXECUTE (0001)
+            if ((mode & (1 << (bits.length - 1 - i))) != 0) {
+                permissions.add(bits[i]);
+            }
+        }
+
+        try {
+            Files.setPosixFilePermissions(target, permissions);
+        } catch (UnsupportedOperationException e) {
+            if ((mode & 0111) != 0) {
+                target.toFile().setExecutable(true, false);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,254 @@
+/**
+ * blackduck-installer
+ *
+ * Copyright (c) 2019 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.installer.download;
+
+import com.synopsys.integration.blackduck.installer.exception.BlackDuckInstallerException;
+import com.synopsys.integration.log.IntLogger;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+
+import java.io.*;
+import java.security.MessageDigest;
+import java.util.concurrent.*;
+
+/*
+The network, the disk (with hashing) and the expander each run on their own thread, handing a fixed ring of chunks along:
+free -> reader -> writer -> consumer -> free. A slow stage only ever holds the others back by the size of the ring.
+ */
+public class TeePipeline {
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final int CHUNK_COUNT = 32;
+
+    private final IntLogger logger;
+
+    public TeePipeline(IntLogger logger) {
+        this.logger = logger;
+    }
+
+    public DownloadResult run(InputStream source, File targetFile, ArchiveStreamConsumer archiveStreamConsumer) throws IOException, BlackDuckInstallerException {
+        BlockingQueue<Chunk> freeChunks = new ArrayBlockingQueue<>(CHUNK_COUNT);
+        BlockingQueue<Chunk> writerChunks = new ArrayBlockingQueue<>(CHUNK_COUNT + 1);
+        BlockingQueue<Chunk> consumerChunks = new ArrayBlockingQueue<>(CHUNK_COUNT + 1);
+        for (int i = 0; i < CHUNK_COUNT; i++) {
+            freeChunks.add(new Chunk());
+        }
+
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+        // opened here so that a failure can't leave the reader waiting on a writer that never started
+        try (OutputStream outputStream = new FileOutputStream(targetFile)) {
+            Future<DownloadResult> writerFuture = executorService.submit(() -> write(outputStream, targetFile, writerChunks, consumerChunks));
+            Future<Boolean> consumerFuture = executorService.submit(() -> consume(archiveStreamConsumer, consumerChunks, freeChunks));
+
+            try {
+                read(source, freeChunks, writerChunks);
+            } catch (IOException e) {
+                awaitQuietly(writerFuture, consumerFuture);
+                throw e;
+            }
+
+            DownloadResult downloadResult = writerFuture.get();
+            boolean consumed = consumerFuture.get();
+            return new DownloadResult(downloadResult.getFile(), downloadResult.getSha256(), downloadResult.getSize(), consumed);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new BlackDuckInstallerException("The download pipeline failed: " + e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BlackDuckInstallerException("The download pipeline was interrupted.", e);
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    /*
+    The reader has already sent the end along, so the writer and consumer finish on their own - they must be done with the
+    target file before the caller fails over and expands it again.
+     */
+    private void awaitQuietly(Future<?>... futures) throws InterruptedException {
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                logger.debug("A download pipeline stage failed after the download failed: " + e.getCause().getMessage());
+            }
+        }
+    }
+
+    private void read(InputStream source, BlockingQueue<Chunk> freeChunks, BlockingQueue<Chunk> writerChunks) throws IOException, InterruptedException {
+        try {
+            while (true) {
+                Chunk chunk = freeChunks.take();
+                int read = source.read(chunk.data);
+                if (read == -1) {
+                    freeChunks.put(chunk);
+                    break;
+                }
+                chunk.length = read;
+                writerChunks.put(chunk);
+            }
+        } finally {
+            // the other stages always need to see the end, even when the network fails
+            writerChunks.put(Chunk.END);
+        }
+    }
+
+    /*
+    A failed write stops the writing, but the chunks keep moving so the reader and consumer can finish.
+     */
+    private DownloadResult write(OutputStream outputStream, File targetFile, BlockingQueue<Chunk> writerChunks, BlockingQueue<Chunk> consumerChunks) throws IOException, InterruptedException {
+        MessageDigest messageDigest = DigestUtils.getSha256Digest();
+        IOException writeException = null;
+        long size = 0;
+        while (true) {
+            Chunk chunk = writerChunks.take();
+            if (Chunk.END == chunk) {
+                consumerChunks.put(Chunk.END);
+                break;
+            }
+
+            if (null == writeException) {
+                try {
+                    outputStream.write(chunk.data, 0, chunk.length);
+                    messageDigest.update(chunk.data, 0, chunk.length);
+                    size += chunk.length;
+                } catch (IOException e) {
+                    writeException = e;
+                }
+            }
+            consumerChunks.put(chunk);
+        }
+
+        if (null != writeException) {
+            throw writeException;
+        }
+        return new DownloadResult(targetFile, Hex.encodeHexString(messageDigest.digest()), size);
+    }
+
+    /*
+    The consumer is best effort - if it fails or stops early the rest of the stream is drained and the archive on disk is expanded instead.
+     */
+    private boolean consume(ArchiveStreamConsumer archiveStreamConsumer, BlockingQueue<Chunk> consumerChunks, BlockingQueue<Chunk> freeChunks) throws InterruptedException {
+        ChunkInputStream chunkInputStream = new ChunkInputStream(consumerChunks, freeChunks);
+        boolean consumed;
+        try {
+            archiveStreamConsumer.consume(chunkInputStream);
+            consumed = true;
+        } catch (IOException | BlackDuckInstallerException | RuntimeException e) {
+            logger.debug("Could not expand the archive while it was downloading, it will be expanded once the download completes: " + e.getMessage());
+            consumed = false;
+        }
+
+        chunkInputStream.drain();
+        return consumed;
+    }
+
+    private static class Chunk {
+        private static final Chunk END = new Chunk();
+
+        private final byte[] data = new byte[CHUNK_SIZE];
+        private int length;
+
+    }
+
+    private static class ChunkInputStream extends InputStream {
+        private final BlockingQueue<Chunk> consumerChunks;
+        private final BlockingQueue<Chunk> freeChunks;
+        private Chunk current;
+        private int position;
+        private boolean ended;
+
+        public ChunkInputStream(BlockingQueue<Chunk> consumerChunks, BlockingQueue<Chunk> freeChunks) {
+            this.consumerChunks = consumerChunks;
+            this.freeChunks = freeChunks;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            int read = read(single, 0, 1);
+            return read == -1 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            if (!advance()) {
+                return -1;
+            }
+
+            int count = Math.min(length, current.length - position);
+            System.arraycopy(current.data, position, buffer, offset, count);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public void close() {
+            // the pipeline owns the chunks, they are drained rather than closed
+        }
+
+        public void drain() throws InterruptedException {
+            while (!ended) {
+                release();
+                takeNext();
+            }
+            release();
+        }
+
+        private boolean advance() throws IOException {
+            try {
+                while (!ended && (null == current || position >= current.length)) {
+                    release();
+                    takeNext();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the download.");
+            }
+            return !ended;
+        }
+
+        private void takeNext() throws InterruptedException {
+            Chunk next = consumerChunks.take();
+            if (Chunk.END == next) {
+                ended = true;
+            } else {
+                current = next;
+                position = 0;
+            }
+        }
+
+        private void release() throws InterruptedException {
+            if (null != current) {
+                freeChunks.put(current);
+                current = null;
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,239 @@
+/**
+ * blackduck-installer
+ *
+ * Copyright (c) 2019 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.installer.download;
+
+import com.synopsys.integration.blackduck.installer.exception.SlowDownloadException;
+import com.synopsys.integration.log.IntLogger;
+import org.apache.commons.io.FileUtils;
+
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Timer;
+import java.util.TimerTask;
+
+/*
+Shared by every stream of one download, so with parallel ranges it is the combined throughput that is measured and reported.
+A read only returns once bytes arrive, so while streams are open a watchdog also checks the throughput - when a connection
+stalls completely, it closes the connections to get the blocked reads to fail.
+ */
+public class ThroughputMonitor {
+    private static final long WINDOW_MILLIS = 10 * 1000;
+    private static final long PROGRESS_INTERVAL_MILLIS = 5 * 1000;
+    private static final long WATCHDOG_INTERVAL_MILLIS = 1000;
+
+    private final IntLogger logger;
+    private final String downloadUrl;
+    private final long minimumBytesPerSecond;
+    private final long windowMillis;
+    private final long startTime;
+    private final List<Closeable> openConnections = new ArrayList<>();
+
+    private long expectedBytes = -1;
+    private long bytesReceived;
+    private long firstByteTime;
+    private long lastByteTime;
+    private long windowStart;
+    private long windowBytes;
+    private long progressTime;
+    private long progressBytes;
+    private Timer watchdog;
+    private SlowDownloadException slowDownloadException;
+
+    /*
+    A minimumBytesPerSecond of 0 or less only counts, it never abandons the download.
+     */
+    public ThroughputMonitor(IntLogger logger, String downloadUrl, long minimumBytesPerSecond) {
+        this(logger, downloadUrl, minimumBytesPerSecond, WINDOW_MILLIS);
+    }
+
+    ThroughputMonitor(IntLogger logger, String downloadUrl, long minimumBytesPerSecond, long windowMillis) {
+        this.logger = logger;
+        this.downloadUrl = downloadUrl;
+        this.minimumBytesPerSecond = minimumBytesPerSecond;
+        this.windowMillis = windowMillis;
+        startTime = System.currentTimeMillis();
+    }
+
+    // only what this run still has to receive - a resumed download has part of the archive already
+    public synchronized void setExpectedBytes(long expectedBytes) {
+        this.expectedBytes = expectedBytes;
+    }
+
+    /*
+    The connection is what the watchdog closes when the download stalls - closing the stream itself would wait for the rest of it.
+     */
+    public InputStream monitor(InputStream inputStream, Closeable connection) {
+        open(connection);
+        return new FilterInputStream(inputStream) {
+            private boolean closed;
+
+            @Override
+            public int read() throws IOException {
+                int read;
+                try {
+                    read = super.read();
+                } catch (IOException e) {
+                    throw failure(e);
+                }
+                record(read == -1 ? 0 : 1);
+                return read;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                int read;
+                try {
+                    read = super.read(buffer, offset, length);
+                } catch (IOException e) {
+                    throw failure(e);
+                }
+                record(Math.max(0, read));
+                return read;
+            }
+
+            @Override
+            public void close() throws IOException {
+                if (!closed) {
+                    closed = true;
+                    release(connection);
+                }
+                super.close();
+            }
+        };
+    }
+
+    public synchronized TransferStatistics getTransferStatistics() {
+        long timeToFirstByte = 0 == firstByteTime ? -1 : firstByteTime - startTime;
+        long transferMillis = (0 == lastByteTime ? System.currentTimeMillis() : lastByteTime) - startTime;
+        return new TransferStatistics(bytesReceived, timeToFirstByte, transferMillis);
+    }
+
+    private synchronized void open(Closeable connection) {
+        openConnections.add(connection);
+        if (minimumBytesPerSecond > 0 && null == watchdog) {
+            if (0 == windowStart) {
+                windowStart = System.currentTimeMillis();
+            }
+            watchdog = new Timer("download-watchdog", true);
+            watchdog.schedule(new TimerTask() {
+                @Override
+                public void run() {
+                    checkForStall();
+                }
+            }, Math.min(WATCHDOG_INTERVAL_MILLIS, windowMillis), Math.min(WATCHDOG_INTERVAL_MILLIS, windowMillis));
+        }
+    }
+
+    private synchronized void release(Closeable connection) {
+        openConnections.remove(connection);
+        if (openConnections.isEmpty() && null != watchdog) {
+            watchdog.cancel();
+            watchdog = null;
+        }
+    }
+
+    private synchronized void checkForStall() {
+        try {
+            checkWindow(System.currentTimeMillis());
+        } catch (SlowDownloadException e) {
+            logger.debug(String.format("Closing the connections to %s: %s", downloadUrl, e.getMessage()));
+            for (Closeable connection : openConnections) {
+                try {
+                    connection.close();
+                } catch (IOException | RuntimeException closeException) {
+                    // the connection is being abandoned anyway
+                }
+            }
+        }
+    }
+
+    // a read that failed because the watchdog closed its connection reports why
+    private synchronized IOException failure(IOException e) {
+        return null == slowDownloadException ? e : slowDownloadException;
+    }
+
+    private synchronized void record(long bytes) throws SlowDownloadException {
+        if (null != slowDownloadException) {
+            throw slowDownloadException;
+        }
+
+        long now = System.currentTimeMillis();
+        if (bytes > 0) {
+            if (0 == firstByteTime) {
+                firstByteTime = now;
+                progressTime = now;
+                logger.debug(String.format("The first byte of %s arrived after %s ms.", downloadUrl, now - startTime));
+            }
+            lastByteTime = now;
+            bytesReceived += bytes;
+        }
+
+        if (now - progressTime >= PROGRESS_INTERVAL_MILLIS && 0 != progressTime) {
+            reportProgress(now);
+        }
+
+        if (minimumBytesPerSecond <= 0) {
+            return;
+        }
+        if (0 == windowStart) {
+            windowStart = now;
+        }
+        windowBytes += bytes;
+        checkWindow(now);
+    }
+
+    private void checkWindow(long now) throws SlowDownloadException {
+        if (null != slowDownloadException) {
+            throw slowDownloadException;
+        }
+
+        long elapsed = now - windowStart;
+        if (minimumBytesPerSecond > 0 && 0 != windowStart && elapsed >= windowMillis) {
+            long bytesPerSecond = windowBytes * 1000 / elapsed;
+            windowStart = now;
+            windowBytes = 0;
+            if (bytesPerSecond < minimumBytesPerSecond) {
+                slowDownloadException = new SlowDownloadException(String.format("The download slowed to %s bytes per second, below the minimum of %s.", bytesPerSecond, minimumBytesPerSecond));
+                throw slowDownloadException;
+            }
+        }
+    }
+
+    private void reportProgress(long now) {
+        long currentBytesPerSecond = (bytesReceived - progressBytes) * 1000 / (now - progressTime);
+        long averageBytesPerSecond = bytesReceived * 1000 / Math.max(1, now - firstByteTime);
+        progressTime = now;
+        progressBytes = bytesReceived;
+
+        String received = FileUtils.byteCountToDisplaySize(bytesReceived);
+        if (expectedBytes > 0) {
+            received = String.format("%s of %s (%s%%)", received, FileUtils.byteCountToDisplaySize(expectedBytes), bytesReceived * 100 / expectedBytes);
+        }
+        logger.info(String.format("Downloaded %s, currently %s/s, on average %s/s.", received, FileUtils.byteCountToDisplaySize(currentBytesPerSecond), FileUtils.byteCountToDisplaySize(averageBytesPerSecond)));
+    }
+
+}
@@ -0,0 +1,53 @@
+/**
+ * blackduck-installer
+ *
+ * Copyright (c) 2019 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.installer.download;
+
+public class TransferStatistics {
+    private final long bytesReceived;
+    private final long timeToFirstByteMillis;
+    private final long transferMillis;
+
+    public TransferStatistics(long bytesReceived, long timeToFirstByteMillis, long transferMillis) {
+        this.bytesReceived = bytesReceived;
+        this.timeToFirstByteMillis = timeToFirstByteMillis;
+        this.transferMillis = transferMillis;
+    }
+
+    public long getBytesReceived() {
+        return bytesReceived;
+    }
+
+    // -1 when not a single byte arrived
+    public long getTimeToFirstByteMillis() {
+        return timeToFirstByteMillis;
+    }
+
+    public long getTransferMillis() {
+        return transferMillis;
+    }
+
+    public long getAverageBytesPerSecond() {
+        return bytesReceived * 1000 / Math.max(1, transferMillis);
+    }
+
+}
@@ -0,0 +1,58 @@
+/**
+ * blackduck-installer
+ *
+ * Copyright (c) 2019 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.installer.download;
+
+import org.apache.commons.lang3.math.NumberUtils;
+
+import java.util.Comparator;
+
+/*
+Release versions are compared by their numeric parts alone (2019.8.1, 5.0.2, v2019.10.0) - anything missing counts as 0.
+ */
+public class VersionComparator implements Comparator<String> {
+    public static long[] parse(String version) {
+        String[] parts = version.replaceFirst("^\\D+", "").split("\\D+");
+        long[] numbers = new long[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            numbers[i] = NumberUtils.toLong(parts[i]);
+        }
+        return numbers;
+    }
+
+    @Override
+    public int compare(String first, String second) {
+        return compare(parse(first), parse(second));
+    }
+
+    public static int compare(long[] first, long[] second) {
+        for (int i = 0; i < Math.max(first.length, second.length); i++) {
+            long firstPart = i < first.length ? first[i] : 0;
+            long secondPart = i < second.length ? second[i] : 0;
+            if (firstPart != secondPart) {
+                return Long.compare(firstPart, secondPart);
+            }
+        }
+        return 0;
+    }
+
+}
@@ -0,0 +1,143 @@
+/**
+ * blackduck-installer
+ *
+ * Copyright (c) 2019 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.installer.download;
+
+import com.synopsys.integration.blackduck.installer.exception.BlackDuckInstallerException;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+
+/*
+The npm flavour of semver ranges, applied to the numeric parts of a release version:
+latest (or *), 2019.8.x, ^2019.8.0 (same first part), ~2019.8.0 (same first two parts) and comparisons such as >=2019.8.0 <2019.10.0.
+Anything else is an exact version and never needs the release metadata.
+ */
+public class VersionRange {
+    public static final String LATEST = "latest";
+
+    private final String spec;
+    private final List<Predicate<long[]>> conditions;
+
+    public static VersionRange parse(String spec) throws BlackDuckInstallerException {
+        String trimmedSpec = StringUtils.trimToEmpty(spec);
+        List<Predicate<long[]>> conditions = new ArrayList<>();
+        if (LATEST.equalsIgnoreCase(trimmedSpec) || "*".equals(trimmedSpec)) {
+            conditions.add(version -> true);
+            return new VersionRange(trimmedSpec, conditions);
+        }
+        if (!isRange(trimmedSpec)) {
+            return new VersionRange(trimmedSpec, null);
+        }
+
+        for (String condition : trimmedSpec.split("\\s+")) {
+            conditions.add(parseCondition(condition));
+        }
+        return new VersionRange(trimmedSpec, conditions);
+    }
+
+    private static boolean isRange(String spec) {
+        return StringUtils.containsAny(spec, '^', '~', '<', '>', '=', '*', ' ') || Arrays.stream(spec.split("\\.")).anyMatch(part -> part.equalsIgnoreCase("x"));
+    }
+
+    private static Predicate<long[]> parseCondition(String condition) throws BlackDuckInstallerException {
+        if (condition.startsWith("^")) {
+            long[] minimum = parseVersion(condition.substring(1), condition);
+            return version -> VersionComparator.compare(version, minimum) >= 0 && samePrefix(version, minimum, 1);
+        } else if (condition.startsWith("~")) {
+            long[] minimum = parseVersion(condition.substring(1), condition);
+            return version -> VersionComparator.compare(version, minimum) >= 0 && samePrefix(version, minimum, 2);
+        } else if (condition.startsWith(">=")) {
+            long[] bound = parseVersion(condition.substring(2), condition);
+            return version -> VersionComparator.compare(version, bound) >= 0;
+        } else if (condition.startsWith("<=")) {
+            long[] bound = parseVersion(condition.substring(2), condition);
+            return version -> VersionComparator.compare(version, bound) <= 0;
+        } else if (condition.startsWith(">")) {
+            long[] bound = parseVersion(condition.substring(1), condition);
+            return version -> VersionComparator.compare(version, bound) > 0;
+        } else if (condition.startsWith("<")) {
+            long[] bound = parseVersion(condition.substring(1), condition);
+            return version -> VersionComparator.compare(version, bound) < 0;
+        } else if (condition.startsWith("=")) {
+            long[] exact = parseVersion(condition.substring(1), condition);
+            return version -> VersionComparator.compare(version, exact) == 0;
+        }
+
+        // 2019.8.x matches everything that starts with 2019.8
+        List<String> parts = Arrays.asList(condition.split("\\."));
+        int wildcard = 0;
+        while (wildcard < parts.size() && !parts.get(wildcard).equalsIgnoreCase("x") && !parts.get(wildcard).equals("*")) {
+            wildcard++;
+        }
+        if (0 == wildcard) {
+            return version -> true;
+        }
+        long[] prefix = parseVersion(String.join(".", parts.subList(0, wildcard)), condition);
+        int prefixLength = wildcard;
+        return version -> samePrefix(version, prefix, prefixLength);
+    }
+
+    private static long[] parseVersion(String version, String condition) throws BlackDuckInstallerException {
+        if (!version.matches("\\d+(\\.\\d+)*")) {
+            throw new BlackDuckInstallerException(String.format("%s is not a version range that can be resolved.", condition));
+        }
+        return VersionComparator.parse(version);
+    }
+
+    private static boolean samePrefix(long[] version, long[] prefix, int length) {
+        for (int i = 0; i < length; i++) {
+            long versionPart = i < version.length ? version[i] : 0;
+            long prefixPart = i < prefix.length ? prefix[i] : 0;
+            if (versionPart != prefixPart) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private VersionRange(String spec, List<Predicate<long[]>> conditions) {
+        this.spec = spec;
+        this.conditions = conditions;
+    }
+
+    public boolean isExact() {
+        return null == conditions;
+    }
+
+    public boolean matches(String version) {
+        if (isExact()) {
+            return spec.equals(version);
+        }
+        long[] parsedVersion = VersionComparator.parse(version);
+        return conditions.stream().allMatch(condition -> condition.test(parsedVersion));
+    }
+
+    @Override
+    public String toString() {
+        return spec;
+    }
+
+}
@@ -23,33 +23,53 @@
 package com.synopsys.integration.blackduck.installer.download;
 
 import com.synopsys.integration.blackduck.installer.exception.BlackDuckInstallerException;
+import com.synopsys.integration.blackduck.installer.retention.InstallRetention;
 import com.synopsys.integration.blackduck.installer.workflow.DownloadUrlDecider;
-import com.synopsys.integration.exception.IntegrationException;
 import com.synopsys.integration.log.IntLogger;
-import com.synopsys.integration.rest.client.IntHttpClient;
-import com.synopsys.integration.rest.request.Request;
-import com.synopsys.integration.rest.request.Response;
-import com.synopsys.integration.util.CommonZipExpander;
-import org.apache.commons.compress.archivers.ArchiveException;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
 
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 
 public class ZipFileDownloader {
     private final IntLogger logger;
-    private final IntHttpClient intHttpClient;
-    private final CommonZipExpander commonZipExpander;
+    private final ParallelDownloader parallelDownloader;
+    private final ArchiveExpander archiveExpander;
+    private final ArtifactCache artifactCache;
+    private final MirrorSelector mirrorSelector;
+    private final LocalStager localStager;
+    private final DeltaUpgrader deltaUpgrader;
+    private final InstallRetention installRetention;
+    private final List<String> peerCacheUrls;
     private final DownloadUrlDecider downloadUrlDecider;
     private final File baseDirectory;
     private final String name;
     private final String version;
     private final boolean forceDownload;
 
-    public ZipFileDownloader(IntLogger logger, IntHttpClient intHttpClient, CommonZipExpander commonZipExpander, DownloadUrlDecider downloadUrlDecider, File baseDirectory, String name, String version, boolean forceDownload) {
+    private final VersionComparator versionComparator = new VersionComparator();
+    private final AtomicLong extractionMillis = new AtomicLong();
+
+    private Future<File> prefetchedDownload;
+    private volatile DownloadSummary downloadSummary;
+
+    public ZipFileDownloader(IntLogger logger, ParallelDownloader parallelDownloader, ArchiveExpander archiveExpander, ArtifactCache artifactCache, MirrorSelector mirrorSelector, LocalStager localStager, DeltaUpgrader deltaUpgrader, InstallRetention installRetention, List<String> peerCacheUrls, DownloadUrlDecider downloadUrlDecider, File baseDirectory, String name, String version, boolean forceDownload) {
         this.logger = logger;
-        this.intHttpClient = intHttpClient;
-        this.commonZipExpander = commonZipExpander;
+        this.parallelDownloader = parallelDownloader;
+        this.archiveExpander = archiveExpander;
+        this.artifactCache = artifactCache;
+        this.mirrorSelector = mirrorSelector;
+        this.localStager = localStager;
+        this.deltaUpgrader = deltaUpgrader;
+        this.installRetention = installRetention;
+        this.peerCacheUrls = peerCacheUrls.stream().filter(StringUtils::isNotBlank).collect(Collectors.toList());
         this.downloadUrlDecider = downloadUrlDecider;
         this.baseDirectory = baseDirectory;
         this.name = name;
@@ -57,35 +77,361 @@ public class ZipFileDownloader {
         this.forceDownload = forceDownload;
     }
 
+    /*
+    Starts the download and expansion in the background - download() will then wait for it rather than starting over.
+     */
+    public synchronized void prefetch(ExecutorService executorService) {
+        if (null == prefetchedDownload) {
+            logger.info(String.format("Starting the download of %s %s in the background.", name, version));
+            prefetchedDownload = executorService.submit(this::downloadAndExpand);
+        }
+    }
+
     public File download() throws BlackDuckInstallerException {
-        File downloadDirectory = new File(baseDirectory, name + "-" + version);
+        Future<File> prefetched;
+        synchronized (this) {
+            prefetched = prefetchedDownload;
+        }
+        if (null == prefetched) {
+            return downloadAndExpand();
+        }
+
+        try {
+            return prefetched.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof BlackDuckInstallerException) {
+                throw (BlackDuckInstallerException) e.getCause();
+            }
+            throw new BlackDuckInstallerException(String.format("The background download of %s %s failed: %s", name, version, e.getCause().getMessage()), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BlackDuckInstallerException(String.format("Interrupted while waiting for the download of %s %s.", name, version), e);
+        }
+    }
+
+    /*
+    Files the archive expander skipped are expanded from the cached archive the first time they are asked for.
+     */
+    public Optional<File> resolve(String relativePath) throws BlackDuckInstallerException {
+        File downloadDirectory = getDownloadDirectory();
+        File installDirectory = findInstallDirectory(downloadDirectory);
+        String entryPath = installDirectory.getName() + "/" + relativePath;
+
+        File entryFile = new File(downloadDirectory, entryPath);
+        if (entryFile.exists()) {
+            return Optional.of(entryFile);
+        }
+
+        DownloadRecord downloadRecord = DownloadRecord.load(downloadDirectory).orElseThrow(() -> new BlackDuckInstallerException(String.format("%s %s has not been downloaded yet.", name, version)));
+        Optional<File> archive = artifactCache.findArchive(downloadRecord.getDownloadUrl(), version);
+        if (!archive.isPresent()) {
+            throw new BlackDuckInstallerException(String.format("%s was not expanded and the archive for %s %s is no longer in the artifact cache - please force the download.", relativePath, name, version));
+        }
+        return archiveExpander.expandEntry(archive.get(), downloadDirectory, entryPath);
+    }
+
+    /*
+    Empty when the download directory from a previous run was used as it is.
+     */
+    public Optional<DownloadSummary> getDownloadSummary() {
+        return Optional.ofNullable(downloadSummary);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public Optional<DownloadRecord> getDownloadRecord() {
+        return DownloadRecord.load(getDownloadDirectory());
+    }
+
+    /*
+    Empty for a release that was staged from an extracted directory, or whose archive has since left the artifact cache.
+     */
+    public Optional<File> findArchive() throws BlackDuckInstallerException {
+        Optional<DownloadRecord> downloadRecord = getDownloadRecord();
+        if (!downloadRecord.isPresent()) {
+            return Optional.empty();
+        }
+        return artifactCache.findArchive(downloadRecord.get().getDownloadUrl(), version);
+    }
+
+    private File getDownloadDirectory() {
+        return new File(baseDirectory, name + "-" + version);
+    }
+
+    private File downloadAndExpand() throws BlackDuckInstallerException {
+        File downloadDirectory = getDownloadDirectory();
         downloadDirectory.mkdirs();
-        if (downloadDirectory.listFiles().length != 0) {
+        Optional<DownloadRecord> previousRecord = DownloadRecord.load(downloadDirectory);
+        if (previousRecord.isPresent()) {
             if (!forceDownload) {
                 logger.info(String.format("%s %s has already been downloaded - it won't be downloaded or edited again. To force downloading/editing, please use the appropriate download.force property.", name, version));
-                return downloadDirectory.listFiles()[0];
+                installRetention.markUsed(downloadDirectory);
+                return findInstallDirectory(downloadDirectory);
             } else {
                 logger.info(String.format("%s %s has already been downloaded, but downloading/editing has been forced, so local changes could be lost.", name, version));
+                new File(downloadDirectory, DownloadRecord.FILENAME).delete();
             }
+        } else if (downloadDirectory.listFiles().length != 0 && !forceDownload && isLegacyInstall()) {
+            adoptLegacyInstall(downloadDirectory);
+            installRetention.markUsed(downloadDirectory);
+            return findInstallDirectory(downloadDirectory);
+        } else if (downloadDirectory.listFiles().length != 0) {
+            logger.warn(String.format("%s %s was not completely downloaded and expanded by a previous run - it will be expanded again, so local changes could be lost.", name, version));
+        }
+
+        installRetention.ensureFreeSpace(name, version);
+        List<String> downloadUrls = downloadUrlDecider.determineDownloadUrls();
+        if (downloadUrls.isEmpty()) {
+            throw new BlackDuckInstallerException("No download url could be determined - not enough information provided to use github or artifactory.");
         }
 
-        String downloadUrl = downloadUrlDecider.determineDownloadUrl().orElseThrow(() -> new BlackDuckInstallerException("No download url could be determined - not enough information provided to use github or artifactory."));
+        DownloadRecord downloadRecord = null;
+        if (LocalStager.isLocal(downloadUrls.get(0))) {
+            downloadRecord = stageLocal(downloadUrls.get(0), downloadDirectory);
+        } else if (previousRecord.isPresent() && previousRecord.get().hasValidators() && downloadUrls.contains(previousRecord.get().getDownloadUrl())) {
+            // a forced download with validators either confirms the cached archive or replaces it, so the plain cache lookup is skipped
+            Optional<DownloadRecord> revalidatedRecord = revalidateCachedArchive(previousRecord.get(), downloadDirectory);
+            downloadRecord = revalidatedRecord.isPresent() ? revalidatedRecord.get() : downloadFromFastestMirror(downloadUrls, downloadDirectory);
+        }
 
-        logger.info("Downloading " + name + " version " + version + " from " + downloadUrl + ".");
-        Request downloadRequest = new Request.Builder(downloadUrl).build();
-        try (Response response = intHttpClient.execute(downloadRequest)) {
-            try (InputStream responseStream = response.getContent()) {
-                commonZipExpander.expand(responseStream, downloadDirectory);
-            } catch (ArchiveException e) {
-                throw new BlackDuckInstallerException("Could not expand the archive.", e);
+        for (int i = 0; null == downloadRecord && i < downloadUrls.size(); i++) {
+            String mirrorUrl = downloadUrls.get(i);
+            Optional<File> cachedArchive = artifactCache.findArchive(mirrorUrl, version);
+            if (cachedArchive.isPresent()) {
+                logger.info(String.format("%s %s was found in the artifact cache (%s) - it will not be downloaded again.", name, version, cachedArchive.get().getAbsolutePath()));
+                expand(cachedArchive.get(), downloadDirectory);
+                downloadRecord = new DownloadRecord(mirrorUrl, version);
+                downloadSummary = DownloadSummary.fromCache(name, version, mirrorUrl, extractionMillis.get());
             }
+        }
+        if (null == downloadRecord) {
+            downloadRecord = upgradeFromPreviousVersion(downloadUrls.get(0), downloadDirectory).orElse(null);
+        }
+        if (null == downloadRecord) {
+            downloadRecord = downloadFromFastestMirror(downloadUrls, downloadDirectory);
+        }
+        downloadRecord.write(downloadDirectory);
+        logger.info(downloadSummary.describe());
+
+        return findInstallDirectory(downloadDirectory);
+    }
+
+    /*
+    Installers before the download record kept any directory that wasn't empty, and never had an artifact cache. A directory with
+    no record is only from an interrupted run when this installer started downloading it, which leaves the archive or its .part
+    file in the cache.
+     */
+    private boolean isLegacyInstall() throws BlackDuckInstallerException {
+        for (String downloadUrl : downloadUrlDecider.determineDownloadUrls()) {
+            if (artifactCache.findArchive(downloadUrl, version).isPresent() || artifactCache.getPartialFile(downloadUrl, version).exists()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void adoptLegacyInstall(File downloadDirectory) throws BlackDuckInstallerException {
+        logger.info(String.format("%s %s was downloaded by an earlier installer - it won't be downloaded or edited again. To force downloading/editing, please use the appropriate download.force property.", name, version));
+        List<String> downloadUrls = downloadUrlDecider.determineDownloadUrls();
+        if (!downloadUrls.isEmpty()) {
+            new DownloadRecord(downloadUrls.get(0), version).write(downloadDirectory);
+        }
+    }
 
-            logger.info(String.format(name + " downloaded successfully."));
-        } catch (IntegrationException| IOException e) {
-            throw new BlackDuckInstallerException("Could not download: " + downloadUrl + ". Make sure that the url finder is configured correctly.", e);
+    /*
+    Forcing is mostly about discarding local edits, so the cached archive is re-expanded unless the server says it has changed.
+    An empty result means the archive has to be downloaded again.
+     */
+    private Optional<DownloadRecord> revalidateCachedArchive(DownloadRecord previousRecord, File downloadDirectory) throws BlackDuckInstallerException {
+        String downloadUrl = previousRecord.getDownloadUrl();
+        Optional<File> cachedArchive = artifactCache.findArchive(downloadUrl, version);
+        if (!cachedArchive.isPresent()) {
+            return Optional.empty();
         }
+        if (previousRecord.getContentLength() >= 0 && cachedArchive.get().length() != previousRecord.getContentLength()) {
+            logger.warn(String.format("The cached archive for %s %s is not the size that was downloaded - it will be downloaded again.", name, version));
+            return Optional.empty();
+        }
+
+        try {
+            if (!parallelDownloader.isUnchanged(downloadUrl, previousRecord.getETag().orElse(null), previousRecord.getLastModified().orElse(null))) {
+                logger.info(String.format("%s %s has changed on %s since it was downloaded - it will be downloaded again.", name, version, downloadUrl));
+                return Optional.empty();
+            }
+            logger.info(String.format("%s %s has not changed on %s - it will be expanded again from the artifact cache.", name, version, downloadUrl));
+        } catch (BlackDuckInstallerException e) {
+            logger.warn(String.format("Could not check whether %s %s has changed (%s) - the cached archive will be used.", name, version, e.getMessage()));
+        }
+
+        expand(cachedArchive.get(), downloadDirectory);
+        downloadSummary = DownloadSummary.fromCache(name, version, downloadUrl, extractionMillis.get());
+        return Optional.of(previousRecord);
+    }
+
+    /*
+    Local media is staged every time rather than trusted to the artifact cache, since the file behind the path can be replaced.
+     */
+    private DownloadRecord stageLocal(String downloadUrl, File downloadDirectory) throws BlackDuckInstallerException {
+        File source = LocalStager.toFile(downloadUrl);
+        logger.info(String.format("Staging %s version %s from %s.", name, version, source.getAbsolutePath()));
+
+        long start = System.currentTimeMillis();
+        if (source.isDirectory()) {
+            cleanDownloadDirectory(downloadDirectory);
+            localStager.stageDirectory(source, new File(downloadDirectory, source.getName()));
+            TransferStatistics transferStatistics = new TransferStatistics(FileUtils.sizeOfDirectory(source), 0, System.currentTimeMillis() - start);
+            downloadSummary = new DownloadSummary(name, version, downloadUrl, transferStatistics, 0, false);
+        } else {
+            DownloadResult downloadResult = localStager.stageArchive(source, artifactCache.getPartialFile(downloadUrl, version));
+            TransferStatistics transferStatistics = new TransferStatistics(downloadResult.getSize(), 0, System.currentTimeMillis() - start);
+            File archive = artifactCache.store(downloadResult, downloadUrl, version);
+            expand(archive, downloadDirectory);
+            downloadSummary = new DownloadSummary(name, version, downloadUrl, transferStatistics, extractionMillis.get(), false);
+        }
+
+        return new DownloadRecord(downloadUrl, version);
+    }
+
+    private Optional<DownloadRecord> upgradeFromPreviousVersion(String downloadUrl, File downloadDirectory) throws BlackDuckInstallerException {
+        if (!deltaUpgrader.isEnabled()) {
+            return Optional.empty();
+        }
+        Optional<DownloadRecord> previousDownload = findPreviousDownload();
+        if (!previousDownload.isPresent()) {
+            return Optional.empty();
+        }
+        Optional<File> previousArchive = artifactCache.findArchive(previousDownload.get().getDownloadUrl(), previousDownload.get().getVersion());
+        if (!previousArchive.isPresent()) {
+            return Optional.empty();
+        }
+
+        Optional<DownloadResult> downloadResult = deltaUpgrader.upgrade(name, previousDownload.get().getVersion(), previousArchive.get(), version);
+        if (!downloadResult.isPresent()) {
+            return Optional.empty();
+        }
+
+        File archive = artifactCache.store(downloadResult.get(), downloadUrl, version);
+        expand(archive, downloadDirectory);
+        String deltaUrl = downloadResult.get().getRemoteArchive().map(RemoteArchive::getDownloadUrl).orElse(downloadUrl);
+        downloadSummary = new DownloadSummary(name, version, deltaUrl, downloadResult.get().getTransferStatistics().orElse(null), extractionMillis.get(), false);
+        return Optional.of(new DownloadRecord(downloadUrl, version));
+    }
+
+    // the newest completely expanded version of this product older than this one
+    private Optional<DownloadRecord> findPreviousDownload() {
+        File[] downloadDirectories = baseDirectory.listFiles(file -> file.isDirectory() && file.getName().startsWith(name + "-"));
+        if (null == downloadDirectories) {
+            return Optional.empty();
+        }
+
+        return Arrays.stream(downloadDirectories)
+                   .map(directory -> DownloadRecord.load(directory).filter(downloadRecord -> directory.getName().equals(name + "-" + downloadRecord.getVersion())))
+                   .filter(Optional::isPresent)
+                   .map(Optional::get)
+                   .filter(downloadRecord -> null != downloadRecord.getVersion() && versionComparator.compare(downloadRecord.getVersion(), version) < 0)
+                   .max((first, second) -> versionComparator.compare(first.getVersion(), second.getVersion()));
+    }
+
+    /*
+    Peers are always tried first, in the configured order - they are on the local network and never race the upstream mirrors.
+    A peer may hold the archive under any of the upstream urls, so each one is asked for every url.
+     */
+    private DownloadRecord downloadFromFastestMirror(List<String> downloadUrls, File downloadDirectory) throws BlackDuckInstallerException {
+        Map<String, String> upstreamUrlsBySourceUrl = new LinkedHashMap<>();
+        for (String peerCacheUrl : peerCacheUrls) {
+            for (String downloadUrl : downloadUrls) {
+                upstreamUrlsBySourceUrl.put(ArtifactCacheServer.createArchiveUrl(peerCacheUrl, artifactCache.getArchiveId(downloadUrl, version)), downloadUrl);
+            }
+        }
+        for (String downloadUrl : mirrorSelector.rankMirrors(downloadUrls)) {
+            upstreamUrlsBySourceUrl.put(downloadUrl, downloadUrl);
+        }
+
+        List<String> sourceUrls = new ArrayList<>(upstreamUrlsBySourceUrl.keySet());
+        for (int i = 0; i < sourceUrls.size(); i++) {
+            String sourceUrl = sourceUrls.get(i);
+            boolean failoverAvailable = i < sourceUrls.size() - 1;
+            try {
+                return downloadArchive(sourceUrl, upstreamUrlsBySourceUrl.get(sourceUrl), downloadDirectory, failoverAvailable);
+            } catch (BlackDuckInstallerException e) {
+                // the partial file is kept so the next run can resume it
+                if (!failoverAvailable) {
+                    throw new BlackDuckInstallerException("Could not download: " + sourceUrl + ". Make sure that the url finder is configured correctly.", e);
+                }
+                logger.warn(String.format("Could not download %s %s from %s (%s) - trying %s instead.", name, version, sourceUrl, e.getMessage(), sourceUrls.get(i + 1)));
+                cleanDownloadDirectory(downloadDirectory);
+            }
+        }
+
+        throw new BlackDuckInstallerException("No download url could be determined - not enough information provided to use github or artifactory.");
+    }
+
+    /*
+    The archive is cached and recorded under its upstream url even when a peer supplied it.
+     */
+    private DownloadRecord downloadArchive(String sourceUrl, String downloadUrl, File downloadDirectory, boolean failoverAvailable) throws BlackDuckInstallerException {
+        logger.info("Downloading " + name + " version " + version + " from " + sourceUrl + ".");
+        File partialFile = artifactCache.getPartialFile(sourceUrl, version);
+        extractionMillis.set(0);
+        DownloadResult downloadResult = parallelDownloader.download(sourceUrl, partialFile, archiveStream -> {
+            long start = System.currentTimeMillis();
+            archiveExpander.expand(archiveStream, downloadDirectory);
+            extractionMillis.addAndGet(System.currentTimeMillis() - start);
+        }, failoverAvailable);
+
+        boolean fromPeer = !sourceUrl.equals(downloadUrl);
+        Optional<RemoteArchive> remoteArchive = downloadResult.getRemoteArchive();
+        if (fromPeer && !remoteArchive.flatMap(RemoteArchive::getETag).filter(eTag -> eTag.equals("\"" + downloadResult.getSha256() + "\"")).isPresent()) {
+            PartialDownload.discard(partialFile);
+            throw new BlackDuckInstallerException(String.format("The archive from %s does not match its digest.", sourceUrl));
+        }
+        File archive = artifactCache.store(downloadResult, downloadUrl, version);
+        logger.info(String.format(name + " downloaded successfully."));
+
+        long start = System.currentTimeMillis();
+        if (downloadResult.isExpanded()) {
+            archiveExpander.restorePermissions(archive, downloadDirectory);
+        } else {
+            archiveExpander.expand(archive, downloadDirectory);
+        }
+        extractionMillis.addAndGet(System.currentTimeMillis() - start);
+        downloadSummary = new DownloadSummary(name, version, sourceUrl, downloadResult.getTransferStatistics().orElse(null), extractionMillis.get(), downloadResult.isExpanded());
+
+        if (fromPeer) {
+            // the peer's validators mean nothing to the upstream server
+            return new DownloadRecord(downloadUrl, version);
+        }
+        String eTag = remoteArchive.flatMap(RemoteArchive::getETag).orElse(null);
+        String lastModified = remoteArchive.flatMap(RemoteArchive::getLastModified).orElse(null);
+        return new DownloadRecord(downloadUrl, version, eTag, lastModified, downloadResult.getSize());
+    }
+
+    private void expand(File archive, File downloadDirectory) throws BlackDuckInstallerException {
+        long start = System.currentTimeMillis();
+        archiveExpander.expand(archive, downloadDirectory);
+        extractionMillis.set(System.currentTimeMillis() - start);
+    }
+
+    // mirrors don't necessarily agree on the archive layout, so nothing expanded from the abandoned mirror may be left behind
+    private void cleanDownloadDirectory(File downloadDirectory) throws BlackDuckInstallerException {
+        try {
+            FileUtils.cleanDirectory(downloadDirectory);
+        } catch (IOException e) {
+            throw new BlackDuckInstallerException(String.format("Could not clean %s: %s", downloadDirectory.getAbsolutePath(), e.getMessage()), e);
+        }
+    }
 
-        return downloadDirectory.listFiles()[0];
+    private File findInstallDirectory(File downloadDirectory) throws BlackDuckInstallerException {
+        return Arrays.stream(downloadDirectory.listFiles())
+                   .filter(File::isDirectory)
+                   .findFirst()
+                   .orElseThrow(() -> new BlackDuckInstallerException(String.format("The archive for %s %s did not contain a directory.", name, version)));
     }
 
 }
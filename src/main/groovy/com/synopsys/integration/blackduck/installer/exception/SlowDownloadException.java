@@ -20,23 +20,16 @@
  * specific language governing permissions and limitations
  * under the License.
  */
-package com.synopsys.integration.blackduck.installer.dockerswarm.output;
+package com.synopsys.integration.blackduck.installer.exception;
 
-import com.synopsys.integration.blackduck.installer.model.DockerService;
+import java.io.IOException;
 
-public class DockerServices {
-    private String dockerServices;
+// an IOException so that it can be thrown from within the streams that are being read
+public class SlowDownloadException extends IOException {
+    private static final long serialVersionUID = 1L;
 
-    public static DockerServices create(String dockerServicesOutput) {
-        return new DockerServices(dockerServicesOutput);
-    }
-
-    private DockerServices(String dockerServicesOutput) {
-        this.dockerServices = dockerServicesOutput;
-    }
-
-    public boolean doesServiceExist(DockerService dockerService) {
-        return dockerServices.contains(dockerService.getDockerName());
+    public SlowDownloadException(String message) {
+        super(message);
     }
 
 }
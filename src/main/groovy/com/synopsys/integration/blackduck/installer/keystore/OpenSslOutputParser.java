@@ -22,12 +22,57 @@
  */
 package com.synopsys.integration.blackduck.installer.keystore;
 
+import com.synopsys.integration.blackduck.installer.model.StreamingExecutableRunner;
+
+import java.util.Optional;
+import java.util.function.Consumer;
+
 public class OpenSslOutputParser {
     private static final String START_TOKEN = "-----BEGIN CERTIFICATE-----";
     private static final String END_TOKEN = "-----END CERTIFICATE-----";
 
     public String parseCertificateOutput(String fullOutput) {
-        return fullOutput.substring(fullOutput.indexOf(START_TOKEN), fullOutput.indexOf(END_TOKEN) + END_TOKEN.length());
+        CertificateCollector certificateCollector = createCertificateCollector();
+        StreamingExecutableRunner.forEachLine(fullOutput, certificateCollector);
+        return certificateCollector.getCertificate().orElse("");
+    }
+
+    public CertificateCollector createCertificateCollector() {
+        return new CertificateCollector();
+    }
+
+    /*
+    Keeps only the first certificate block of the openssl output as its lines go by - the rest of the handshake output is dropped.
+     */
+    public static class CertificateCollector implements Consumer<String> {
+        private final StringBuilder certificate = new StringBuilder();
+        private boolean inCertificate = false;
+        private boolean complete = false;
+
+        @Override
+        public void accept(String line) {
+            if (complete) {
+                return;
+            }
+            if (!inCertificate && line.contains(START_TOKEN)) {
+                inCertificate = true;
+                line = line.substring(line.indexOf(START_TOKEN));
+            }
+            if (!inCertificate) {
+                return;
+            }
+
+            if (line.contains(END_TOKEN)) {
+                certificate.append(line, 0, line.indexOf(END_TOKEN) + END_TOKEN.length());
+                complete = true;
+            } else {
+                certificate.append(line).append('\n');
+            }
+        }
+
+        public Optional<String> getCertificate() {
+            return complete ? Optional.of(certificate.toString()) : Optional.empty();
+        }
     }
 
 }
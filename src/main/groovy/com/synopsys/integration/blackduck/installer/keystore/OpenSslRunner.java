@@ -27,6 +27,7 @@ import com.synopsys.integration.blackduck.installer.model.ExecutablesRunner;
 import com.synopsys.integration.executable.Executable;
 import com.synopsys.integration.executable.ExecutableOutput;
 import com.synopsys.integration.log.IntLogger;
+import org.apache.commons.lang3.StringUtils;
 
 import java.io.File;
 import java.util.ArrayList;
@@ -49,8 +50,10 @@ public class OpenSslRunner {
         commands.add("-c");
         commands.add(String.format("\"Q\" | openssl s_client -connect %s:%s", host, port));
         Executable executable = Executable.create(new File("."), commands);
-        ExecutableOutput executableOutput = executablesRunner.runExecutable(executable);
-        String certificateContent = openSslOutputParser.parseCertificateOutput(executableOutput.getStandardOutput());
+        OpenSslOutputParser.CertificateCollector certificateCollector = openSslOutputParser.createCertificateCollector();
+        ExecutableOutput executableOutput = executablesRunner.runExecutable(executable, certificateCollector);
+        String certificateContent = certificateCollector.getCertificate()
+                                        .orElseThrow(() -> new BlackDuckInstallerException(String.format("openssl printed no certificate for %s:%s: %s", host, port, StringUtils.trim(executableOutput.getErrorOutput()))));
         intLogger.info("Certificate content:\n" + certificateContent);
 
         return certificateContent;
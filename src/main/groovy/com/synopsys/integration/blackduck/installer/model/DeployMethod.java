@@ -24,6 +24,8 @@ package com.synopsys.integration.blackduck.installer.model;
 
 public enum DeployMethod {
     DEPLOY,
+    // deploys over the running stack instead of removing it first
+    UPDATE,
     NONE
 
 }
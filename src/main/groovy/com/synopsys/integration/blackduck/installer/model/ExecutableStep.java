@@ -0,0 +1,102 @@
+/**
+ * blackduck-installer
+ *
+ * Copyright (c) 2019 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.installer.model;
+
+import com.synopsys.integration.executable.Executable;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Optional;
+import java.util.Set;
+
+/*
+One node of an ExecutionPlan. Steps that name the same resource (a stack, a secret, a service) never run at the same time, and
+a step only runs once every step it depends on has succeeded.
+ */
+public class ExecutableStep {
+    private final String name;
+    private final Executable executable;
+    private final String description;
+    private final StepAction action;
+    private final Set<String> resourceKeys;
+    private final Set<String> dependencies;
+
+    public static String stack(String stackName) {
+        return "stack:" + stackName;
+    }
+
+    public static String secret(String secretName) {
+        return "secret:" + secretName;
+    }
+
+    public static String service(String serviceName) {
+        return "service:" + serviceName;
+    }
+
+    public static String image(String image) {
+        return "image:" + image;
+    }
+
+    public ExecutableStep(String name, Executable executable, Collection<String> resourceKeys, Collection<String> dependencies) {
+        this(name, executable, executable.getExecutableDescription(), null, resourceKeys, dependencies);
+    }
+
+    public ExecutableStep(String name, String description, StepAction action, Collection<String> resourceKeys, Collection<String> dependencies) {
+        this(name, null, description, action, resourceKeys, dependencies);
+    }
+
+    private ExecutableStep(String name, Executable executable, String description, StepAction action, Collection<String> resourceKeys, Collection<String> dependencies) {
+        this.name = name;
+        this.executable = executable;
+        this.description = description;
+        this.action = action;
+        this.resourceKeys = Collections.unmodifiableSet(new LinkedHashSet<>(resourceKeys));
+        this.dependencies = Collections.unmodifiableSet(new LinkedHashSet<>(dependencies));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Executable getExecutable() {
+        return executable;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public Optional<StepAction> getAction() {
+        return Optional.ofNullable(action);
+    }
+
+    public Set<String> getResourceKeys() {
+        return resourceKeys;
+    }
+
+    public Set<String> getDependencies() {
+        return dependencies;
+    }
+
+}
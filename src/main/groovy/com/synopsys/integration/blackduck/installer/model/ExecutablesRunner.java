@@ -27,14 +27,27 @@ import com.synopsys.integration.executable.Executable;
 import com.synopsys.integration.executable.ExecutableOutput;
 import com.synopsys.integration.executable.ExecutableRunner;
 import com.synopsys.integration.executable.ExecutableRunnerException;
+import com.synopsys.integration.log.IntLogger;
+import com.synopsys.integration.log.SilentIntLogger;
+import org.apache.commons.lang3.StringUtils;
 
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
 
 public class ExecutablesRunner {
-    private ExecutableRunner executableRunner;
+    private final ExecutableRunner executableRunner;
+    private final IntLogger logger;
+    private final int maxParallelSteps;
 
     public ExecutablesRunner(ExecutableRunner executableRunner) {
+        this(executableRunner, new SilentIntLogger(), 1);
+    }
+
+    public ExecutablesRunner(ExecutableRunner executableRunner, IntLogger logger, int maxParallelSteps) {
         this.executableRunner = executableRunner;
+        this.logger = logger;
+        this.maxParallelSteps = maxParallelSteps;
     }
 
     public int runExecutables(List<Executable> executables) throws BlackDuckInstallerException {
@@ -46,6 +59,96 @@ public class ExecutablesRunner {
         return overallReturnCode;
     }
 
+    /*
+    Runs each step once its prerequisites have succeeded, at most maxParallelSteps at a time - a step whose prerequisite failed or
+    was skipped is skipped. With a single step at a time (always the case for a dry run) the steps run in the order of the plan.
+    An exception from a step is only thrown once every step that could still run has finished.
+     */
+    public List<StepResult> runPlan(ExecutionPlan executionPlan) throws BlackDuckInstallerException {
+        logger.info("Executing:");
+        executionPlan.describe().forEach(line -> logger.info("  " + line));
+
+        Map<String, StepResult> results = new HashMap<>();
+        List<BlackDuckInstallerException> failures = Collections.synchronizedList(new ArrayList<>());
+        List<ExecutableStep> waiting = new LinkedList<>(executionPlan.getSteps());
+        int threads = Math.max(1, Math.min(maxParallelSteps, executionPlan.size()));
+        ExecutorService executorService = 1 == threads ? null : Executors.newFixedThreadPool(threads);
+        CompletionService<StepResult> completionService = null == executorService ? null : new ExecutorCompletionService<>(executorService);
+        int running = 0;
+        try {
+            while (!waiting.isEmpty() || running > 0) {
+                Iterator<ExecutableStep> waitingIterator = waiting.iterator();
+                while (waitingIterator.hasNext()) {
+                    ExecutableStep step = waitingIterator.next();
+                    Set<String> prerequisites = executionPlan.getPrerequisites(step.getName());
+                    if (!results.keySet().containsAll(prerequisites)) {
+                        continue;
+                    }
+
+                    waitingIterator.remove();
+                    Optional<String> unsuccessful = prerequisites.stream().filter(prerequisite -> !results.get(prerequisite).isSuccess()).findFirst();
+                    if (unsuccessful.isPresent()) {
+                        logger.warn(String.format("%s was skipped because %s did not succeed.", step.getName(), unsuccessful.get()));
+                        results.put(step.getName(), StepResult.skipped(step.getName()));
+                    } else if (null == completionService) {
+                        results.put(step.getName(), runStep(step, failures));
+                    } else {
+                        completionService.submit(() -> runStep(step, failures));
+                        running++;
+                    }
+                }
+
+                if (running > 0) {
+                    StepResult stepResult = completionService.take().get();
+                    running--;
+                    results.put(stepResult.getName(), stepResult);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BlackDuckInstallerException("Interrupted while executing the plan.", e);
+        } catch (ExecutionException e) {
+            throw new BlackDuckInstallerException("Exception executing the plan: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            if (null != executorService) {
+                executorService.shutdownNow();
+            }
+        }
+
+        if (!failures.isEmpty()) {
+            throw failures.get(0);
+        }
+
+        List<StepResult> orderedResults = new ArrayList<>();
+        executionPlan.getStepNames().forEach(name -> orderedResults.add(results.get(name)));
+        return orderedResults;
+    }
+
+    private StepResult runStep(ExecutableStep step, List<BlackDuckInstallerException> failures) {
+        long start = System.nanoTime();
+        try {
+            int returnCode;
+            if (step.getAction().isPresent()) {
+                returnCode = step.getAction().get().run();
+            } else {
+                // a long deploy shows its progress as it goes
+                ExecutableOutput executableOutput = runExecutable(step.getExecutable(), line -> logger.info(String.format("%s: %s", step.getName(), line)));
+                returnCode = Math.abs(executableOutput.getReturnCode());
+                if (0 != returnCode && StringUtils.isNotBlank(executableOutput.getErrorOutput())) {
+                    logger.error(String.format("%s printed:%n%s", step.getName(), executableOutput.getErrorOutput()));
+                }
+            }
+            long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            logger.info(String.format("%s finished with %d in %d ms.", step.getName(), returnCode, durationMillis));
+            return new StepResult(step.getName(), 0 == returnCode ? StepResult.Status.SUCCEEDED : StepResult.Status.FAILED, returnCode, durationMillis);
+        } catch (BlackDuckInstallerException e) {
+            long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            logger.error(String.format("%s failed after %d ms: %s", step.getName(), durationMillis, e.getMessage()));
+            failures.add(e);
+            return new StepResult(step.getName(), StepResult.Status.FAILED, 1, durationMillis);
+        }
+    }
+
     public ExecutableOutput runExecutable(Executable executable) throws BlackDuckInstallerException {
         try {
             ExecutableOutput executableOutput = executableRunner.execute(executable);
@@ -55,6 +158,23 @@ public class ExecutablesRunner {
         }
     }
 
+    /*
+    Each line of the standard output goes to the consumer as it is printed, when the runner can stream - the output returned
+    then only holds the last lines of each stream.
+     */
+    public ExecutableOutput runExecutable(Executable executable, Consumer<String> standardOutputConsumer) throws BlackDuckInstallerException {
+        try {
+            if (executableRunner instanceof StreamingExecutableRunner) {
+                return ((StreamingExecutableRunner) executableRunner).execute(executable, standardOutputConsumer);
+            }
+            ExecutableOutput executableOutput = executableRunner.execute(executable);
+            StreamingExecutableRunner.forEachLine(executableOutput.getStandardOutput(), standardOutputConsumer);
+            return executableOutput;
+        } catch (ExecutableRunnerException e) {
+            throw new BlackDuckInstallerException("Exception running executable: " + executable.getExecutableDescription(), e);
+        }
+    }
+
     public int runExecutableCode(Executable executable) throws BlackDuckInstallerException {
         return Math.abs(runExecutable(executable).getReturnCode());
     }
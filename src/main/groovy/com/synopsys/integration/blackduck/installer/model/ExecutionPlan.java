@@ -0,0 +1,93 @@
+/**
+ * blackduck-installer
+ *
+ * Copyright (c) 2019 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.installer.model;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.*;
+
+/*
+Steps can only depend on steps added before them, so the plan can't have a cycle and the order the steps were added in is always
+a valid order to run them one at a time. A step sharing a resource key with an earlier step implicitly depends on it.
+ */
+public class ExecutionPlan {
+    private final Map<String, ExecutableStep> steps = new LinkedHashMap<>();
+    private final Map<String, Set<String>> prerequisites = new HashMap<>();
+    private final Map<String, String> lastStepByResourceKey = new HashMap<>();
+
+    public ExecutionPlan add(ExecutableStep step) {
+        if (steps.containsKey(step.getName())) {
+            throw new IllegalArgumentException(String.format("The plan already has a step named %s.", step.getName()));
+        }
+
+        Set<String> stepPrerequisites = new LinkedHashSet<>();
+        for (String dependency : step.getDependencies()) {
+            if (!steps.containsKey(dependency)) {
+                throw new IllegalArgumentException(String.format("The step %s depends on %s, which has not been added to the plan.", step.getName(), dependency));
+            }
+            stepPrerequisites.add(dependency);
+        }
+        for (String resourceKey : step.getResourceKeys()) {
+            String previousStep = lastStepByResourceKey.put(resourceKey, step.getName());
+            if (null != previousStep) {
+                stepPrerequisites.add(previousStep);
+            }
+        }
+
+        steps.put(step.getName(), step);
+        prerequisites.put(step.getName(), Collections.unmodifiableSet(stepPrerequisites));
+        return this;
+    }
+
+    public boolean hasStep(String name) {
+        return steps.containsKey(name);
+    }
+
+    public List<ExecutableStep> getSteps() {
+        return new ArrayList<>(steps.values());
+    }
+
+    public List<String> getStepNames() {
+        return new ArrayList<>(steps.keySet());
+    }
+
+    public Set<String> getPrerequisites(String name) {
+        return prerequisites.getOrDefault(name, Collections.emptySet());
+    }
+
+    public int size() {
+        return steps.size();
+    }
+
+    public List<String> describe() {
+        List<String> lines = new ArrayList<>();
+        int index = 1;
+        for (ExecutableStep step : steps.values()) {
+            Set<String> stepPrerequisites = getPrerequisites(step.getName());
+            String after = stepPrerequisites.isEmpty() ? "" : String.format(" (after %s)", StringUtils.join(stepPrerequisites, ", "));
+            lines.add(String.format("%d. %s%s: %s", index++, step.getName(), after, step.getDescription()));
+        }
+        return lines;
+    }
+
+}
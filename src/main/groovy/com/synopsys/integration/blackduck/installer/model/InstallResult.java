@@ -23,18 +23,22 @@
 package com.synopsys.integration.blackduck.installer.model;
 
 import com.synopsys.integration.blackduck.installer.dockerswarm.DockerStackDeploy;
+import com.synopsys.integration.blackduck.installer.download.DownloadSummary;
 
 import java.io.File;
+import java.util.Optional;
 
 public class InstallResult {
     private int returnCode;
     private File installDirectory;
     private DockerStackDeploy dockerStackDeploy;
+    private DownloadSummary downloadSummary;
 
-    public InstallResult(int returnCode, File installDirectory, DockerStackDeploy dockerStackDeploy) {
+    public InstallResult(int returnCode, File installDirectory, DockerStackDeploy dockerStackDeploy, DownloadSummary downloadSummary) {
         this.returnCode = returnCode;
         this.installDirectory = installDirectory;
         this.dockerStackDeploy = dockerStackDeploy;
+        this.downloadSummary = downloadSummary;
     }
 
     public int getReturnCode() {
@@ -49,4 +53,8 @@ public class InstallResult {
         return dockerStackDeploy;
     }
 
+    public Optional<DownloadSummary> getDownloadSummary() {
+        return Optional.ofNullable(downloadSummary);
+    }
+
 }
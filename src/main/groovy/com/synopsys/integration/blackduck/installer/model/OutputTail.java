@@ -0,0 +1,62 @@
+/**
+ * blackduck-installer
+ *
+ * Copyright (c) 2019 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.installer.model;
+
+/*
+The last lines a command printed, kept in a ring so a command that prints for an hour costs no more memory than one that
+prints a few lines - enough to report why it failed.
+ */
+public class OutputTail {
+    private final String[] lines;
+    private int count = 0;
+    private int next = 0;
+    private long dropped = 0;
+
+    public OutputTail(int maxLines) {
+        lines = new String[maxLines];
+    }
+
+    public synchronized void add(String line) {
+        if (count == lines.length) {
+            dropped++;
+        } else {
+            count++;
+        }
+        lines[next] = line;
+        next = (next + 1) % lines.length;
+    }
+
+    @Override
+    public synchronized String toString() {
+        StringBuilder tail = new StringBuilder();
+        if (dropped > 0) {
+            tail.append(String.format("(%d earlier lines are not shown)", dropped)).append('\n');
+        }
+        int first = (next - count + lines.length) % lines.length;
+        for (int i = 0; i < count; i++) {
+            tail.append(lines[(first + i) % lines.length]).append('\n');
+        }
+        return tail.toString();
+    }
+
+}
@@ -0,0 +1,68 @@
+/**
+ * blackduck-installer
+ *
+ * Copyright (c) 2019 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.installer.model;
+
+public class StepResult {
+    public enum Status {
+        SUCCEEDED,
+        FAILED,
+        SKIPPED
+    }
+
+    private final String name;
+    private final Status status;
+    private final int returnCode;
+    private final long durationMillis;
+
+    public static StepResult skipped(String name) {
+        return new StepResult(name, Status.SKIPPED, 0, 0);
+    }
+
+    public StepResult(String name, Status status, int returnCode, long durationMillis) {
+        this.name = name;
+        this.status = status;
+        this.returnCode = returnCode;
+        this.durationMillis = durationMillis;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isSuccess() {
+        return Status.SUCCEEDED == status;
+    }
+
+    public int getReturnCode() {
+        return returnCode;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+}
@@ -0,0 +1,49 @@
+/**
+ * blackduck-installer
+ *
+ * Copyright (c) 2019 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.installer.model;
+
+import com.synopsys.integration.executable.Executable;
+import com.synopsys.integration.executable.ExecutableOutput;
+import com.synopsys.integration.executable.ExecutableRunner;
+import com.synopsys.integration.executable.ExecutableRunnerException;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.function.Consumer;
+
+/*
+An ExecutableRunner that can hand each line of the standard output to a consumer as soon as it is printed, instead of only
+once the command has finished. The output it returns then only holds the last lines of each stream.
+ */
+public interface StreamingExecutableRunner extends ExecutableRunner {
+    ExecutableOutput execute(Executable executable, Consumer<String> standardOutputConsumer) throws ExecutableRunnerException;
+
+    static void forEachLine(String output, Consumer<String> lineConsumer) {
+        if (StringUtils.isEmpty(output)) {
+            return;
+        }
+        for (String line : output.split("\\r?\\n")) {
+            lineConsumer.accept(line);
+        }
+    }
+
+}
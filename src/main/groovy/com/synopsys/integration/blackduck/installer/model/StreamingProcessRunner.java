@@ -0,0 +1,125 @@
+/**
+ * blackduck-installer
+ *
+ * Copyright (c) 2019 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.installer.model;
+
+import com.synopsys.integration.executable.Executable;
+import com.synopsys.integration.executable.ExecutableOutput;
+import com.synopsys.integration.executable.ExecutableRunnerException;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/*
+Runs the command as a process, reading its output a line at a time as it is printed. The error output is read alongside on a
+thread of its own and only its tail is kept. Lines longer than the limit are cut short, so nothing a command prints can make a
+single line grow without bound.
+ */
+public class StreamingProcessRunner implements StreamingExecutableRunner {
+    public static final int TAIL_LINES = 200;
+    public static final int MAX_LINE_LENGTH = 8192;
+
+    /*
+    For callers that want the whole standard output at once - it is collected once, with every line complete.
+     */
+    @Override
+    public ExecutableOutput execute(Executable executable) throws ExecutableRunnerException {
+        StringBuilder standardOutput = new StringBuilder();
+        ExecutableOutput executableOutput = run(executable, line -> standardOutput.append(line).append('\n'), Integer.MAX_VALUE);
+        return new ExecutableOutput(executableOutput.getCommandDescription(), executableOutput.getReturnCode(), standardOutput.toString(), executableOutput.getErrorOutput());
+    }
+
+    @Override
+    public ExecutableOutput execute(Executable executable, Consumer<String> standardOutputConsumer) throws ExecutableRunnerException {
+        return run(executable, standardOutputConsumer, MAX_LINE_LENGTH);
+    }
+
+    private ExecutableOutput run(Executable executable, Consumer<String> standardOutputConsumer, int maxLineLength) throws ExecutableRunnerException {
+        String description = executable.getExecutableDescription();
+        ProcessBuilder processBuilder = new ProcessBuilder(executable.getCommandWithArguments()).directory(executable.getWorkingDirectory());
+        processBuilder.environment().putAll(executable.getEnvironmentVariables());
+
+        OutputTail standardOutputTail = new OutputTail(TAIL_LINES);
+        OutputTail errorOutputTail = new OutputTail(TAIL_LINES);
+        Process process = null;
+        try {
+            process = processBuilder.start();
+            process.getOutputStream().close();
+
+            InputStream errorStream = process.getErrorStream();
+            Thread errorReader = new Thread(() -> {
+                try {
+                    readLines(errorStream, errorOutputTail::add, maxLineLength);
+                } catch (IOException e) {
+                    errorOutputTail.add("Could not read the error output: " + e.getMessage());
+                }
+            }, "stderr of " + executable.getCommandWithArguments().get(0));
+            errorReader.setDaemon(true);
+            errorReader.start();
+
+            readLines(process.getInputStream(), line -> {
+                standardOutputTail.add(StringUtils.left(line, MAX_LINE_LENGTH));
+                standardOutputConsumer.accept(line);
+            }, maxLineLength);
+
+            int returnCode = process.waitFor();
+            errorReader.join();
+            return new ExecutableOutput(description, returnCode, standardOutputTail.toString(), errorOutputTail.toString());
+        } catch (IOException e) {
+            throw new ExecutableRunnerException(String.format("Could not run %s: %s", description, e.getMessage()), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ExecutableRunnerException("Interrupted while running " + description, e);
+        } finally {
+            if (null != process && process.isAlive()) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    private void readLines(InputStream inputStream, Consumer<String> lineConsumer, int maxLineLength) throws IOException {
+        try (Reader reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8)) {
+            StringBuilder line = new StringBuilder();
+            char[] buffer = new char[8192];
+            int read;
+            while (-1 != (read = reader.read(buffer))) {
+                for (int i = 0; i < read; i++) {
+                    if ('\n' == buffer[i]) {
+                        lineConsumer.accept(StringUtils.removeEnd(line.toString(), "\r"));
+                        line.setLength(0);
+                    } else if (line.length() < maxLineLength) {
+                        line.append(buffer[i]);
+                    }
+                }
+            }
+            if (line.length() > 0) {
+                lineConsumer.accept(StringUtils.removeEnd(line.toString(), "\r"));
+            }
+        }
+    }
+
+}
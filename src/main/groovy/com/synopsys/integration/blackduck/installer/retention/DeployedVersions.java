@@ -0,0 +1,88 @@
+/**
+ * blackduck-installer
+ *
+ * Copyright (c) 2019 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.installer.retention;
+
+import com.synopsys.integration.blackduck.installer.dockerswarm.DockerCommands;
+import com.synopsys.integration.blackduck.installer.exception.BlackDuckInstallerException;
+import com.synopsys.integration.blackduck.installer.model.ExecutablesRunner;
+import com.synopsys.integration.blackduck.installer.model.StreamingExecutableRunner;
+import com.synopsys.integration.executable.ExecutableOutput;
+import com.synopsys.integration.log.IntLogger;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+
+/*
+The product versions running in the stack, as the tags of its service images - the webapp of Black Duck and the Alert image
+carry the product version as their tag.
+ */
+public class DeployedVersions {
+    private final IntLogger logger;
+    private final DockerCommands dockerCommands;
+    private final ExecutablesRunner executablesRunner;
+    private final String stackName;
+
+    /*
+    The runner has to really run docker, even on a dry run, or every version would look unused.
+     */
+    public DeployedVersions(IntLogger logger, DockerCommands dockerCommands, ExecutablesRunner executablesRunner, String stackName) {
+        this.logger = logger;
+        this.dockerCommands = dockerCommands;
+        this.executablesRunner = executablesRunner;
+        this.stackName = stackName;
+    }
+
+    /*
+    Empty when the stack could not be inspected, in which case no version can be known to be unused.
+     */
+    public Optional<Set<String>> find() {
+        try {
+            Set<String> imageTags = new HashSet<>();
+            ExecutableOutput executableOutput = executablesRunner.runExecutable(dockerCommands.listServiceImages(stackName), line -> parseImageTag(line).ifPresent(imageTags::add));
+            if (0 != executableOutput.getReturnCode()) {
+                logger.warn(String.format("Could not list the services of the %s stack: %s", stackName, StringUtils.trim(executableOutput.getErrorOutput())));
+                return Optional.empty();
+            }
+            return Optional.of(imageTags);
+        } catch (BlackDuckInstallerException e) {
+            logger.warn(String.format("Could not list the services of the %s stack: %s", stackName, e.getMessage()));
+            return Optional.empty();
+        }
+    }
+
+    public static Set<String> parseImageTags(String serviceImages) {
+        Set<String> imageTags = new HashSet<>();
+        StreamingExecutableRunner.forEachLine(serviceImages, line -> parseImageTag(line).ifPresent(imageTags::add));
+        return imageTags;
+    }
+
+    // a registry port is not a tag
+    public static Optional<String> parseImageTag(String serviceImage) {
+        String image = StringUtils.substringBefore(StringUtils.strip(serviceImage, " \t\""), "@");
+        String tag = StringUtils.substringAfterLast(image, ":");
+        return tag.length() > 0 && !tag.contains("/") ? Optional.of(tag) : Optional.empty();
+    }
+
+}
@@ -0,0 +1,111 @@
+/**
+ * blackduck-installer
+ *
+ * Copyright (c) 2019 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.installer.retention;
+
+import com.synopsys.integration.blackduck.installer.download.HardLinks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/*
+Version directories may share files through hard links, so a shared file is counted once for the whole tree and is only
+reclaimable from a directory that holds every one of its links.
+ */
+public final class DiskUsage {
+    private DiskUsage() {
+    }
+
+    public static long measure(File directory) {
+        Set<Object> counted = new HashSet<>();
+        long[] total = new long[1];
+        walk(directory, (file, attributes) -> {
+            Object fileKey = attributes.fileKey();
+            if (null == fileKey || counted.add(fileKey)) {
+                total[0] += attributes.size();
+            }
+        });
+        return total[0];
+    }
+
+    public static long measureReclaimable(File directory) {
+        Map<Object, Integer> linksInside = new HashMap<>();
+        Map<Object, Long> sizes = new HashMap<>();
+        Map<Object, Integer> linkCounts = new HashMap<>();
+        long[] unshared = new long[1];
+        walk(directory, (file, attributes) -> {
+            Object fileKey = attributes.fileKey();
+            int linkCount = HardLinks.getLinkCount(file.toFile());
+            if (null == fileKey || linkCount <= 1) {
+                unshared[0] += attributes.size();
+            } else {
+                linksInside.merge(fileKey, 1, Integer::sum);
+                sizes.put(fileKey, attributes.size());
+                linkCounts.put(fileKey, linkCount);
+            }
+        });
+
+        long reclaimable = unshared[0];
+        for (Map.Entry<Object, Integer> entry : linksInside.entrySet()) {
+            if (entry.getValue() >= linkCounts.get(entry.getKey())) {
+                reclaimable += sizes.get(entry.getKey());
+            }
+        }
+        return reclaimable;
+    }
+
+    // files that vanish or can't be read during the walk are skipped
+    private static void walk(File directory, BiConsumer<Path, BasicFileAttributes> consumer) {
+        if (!directory.isDirectory()) {
+            return;
+        }
+        try {
+            Files.walkFileTree(directory.toPath(), new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                    if (attributes.isRegularFile()) {
+                        consumer.accept(file, attributes);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException e) {
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            // the visitor never fails, so only the starting directory can
+        }
+    }
+
+}
@@ -0,0 +1,294 @@
+/**
+ * blackduck-installer
+ *
+ * Copyright (c) 2019 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.installer.retention;
+
+import com.synopsys.integration.blackduck.installer.download.ArtifactCache;
+import com.synopsys.integration.blackduck.installer.download.DownloadRecord;
+import com.synopsys.integration.blackduck.installer.download.VersionComparator;
+import com.synopsys.integration.blackduck.installer.exception.BlackDuckInstallerException;
+import com.synopsys.integration.log.IntLogger;
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/*
+Removes downloaded versions from the base directory, keeping the newest ones of each product, the ones deployed in the stack
+and the ones this run installs. A version is moved aside before it is deleted, so an interrupted removal never leaves a
+version directory that looks complete.
+ */
+public class InstallRetention {
+    public static final String TRASH_PREFIX = ".trash-";
+
+    private final IntLogger logger;
+    private final File baseDirectory;
+    private final ArtifactCache artifactCache;
+    private final DeployedVersions deployedVersions;
+    private final int keepLast;
+    private final long quotaBytes;
+    private final long minimumFreeBytes;
+    private final long partialMaxAgeMillis;
+    private final boolean dryRun;
+
+    private final VersionComparator versionComparator = new VersionComparator();
+    private final Set<String> inUseDirectoryNames = ConcurrentHashMap.newKeySet();
+
+    public InstallRetention(IntLogger logger, File baseDirectory, ArtifactCache artifactCache, DeployedVersions deployedVersions, int keepLast, long quotaBytes, long minimumFreeBytes, long partialMaxAgeMillis, boolean dryRun) {
+        this.logger = logger;
+        this.baseDirectory = baseDirectory;
+        this.artifactCache = artifactCache;
+        this.deployedVersions = deployedVersions;
+        this.keepLast = keepLast;
+        this.quotaBytes = quotaBytes;
+        this.minimumFreeBytes = minimumFreeBytes;
+        this.partialMaxAgeMillis = partialMaxAgeMillis;
+        this.dryRun = dryRun;
+    }
+
+    /*
+    Versions this run downloads or installs are never removed, whatever their age.
+     */
+    public void protect(String name, String version) {
+        inUseDirectoryNames.add(name + "-" + version);
+    }
+
+    /*
+    Reusing a downloaded version counts as using it, so the least recently used versions go first.
+     */
+    public void markUsed(File downloadDirectory) {
+        new File(downloadDirectory, DownloadRecord.FILENAME).setLastModified(System.currentTimeMillis());
+    }
+
+    public Future<?> evictInBackground(ExecutorService executorService) {
+        return executorService.submit(() -> {
+            try {
+                evict();
+            } catch (BlackDuckInstallerException e) {
+                logger.warn("Could not remove old versions from " + baseDirectory.getAbsolutePath() + ": " + e.getMessage());
+            }
+        });
+    }
+
+    public synchronized void evict() throws BlackDuckInstallerException {
+        deleteLeftovers();
+
+        Optional<List<InstalledVersion>> candidates = findRemovableVersions();
+        if (!candidates.isPresent() || candidates.get().isEmpty()) {
+            return;
+        }
+
+        List<InstalledVersion> remaining = new ArrayList<>(candidates.get());
+        if (keepLast > 0) {
+            Set<InstalledVersion> newest = findInstalledVersions().stream()
+                                               .collect(Collectors.groupingBy(InstalledVersion::getName))
+                                               .values().stream()
+                                               .flatMap(versions -> versions.stream()
+                                                                        .sorted((first, second) -> versionComparator.compare(second.getVersion(), first.getVersion()))
+                                                                        .limit(keepLast))
+                                               .collect(Collectors.toSet());
+            for (InstalledVersion installedVersion : candidates.get()) {
+                if (!newestContains(newest, installedVersion)) {
+                    remove(installedVersion, String.format("only the newest %s are kept", keepLast));
+                    remaining.remove(installedVersion);
+                }
+            }
+        }
+
+        if (quotaBytes > 0) {
+            long usedBytes = DiskUsage.measure(baseDirectory);
+            Iterator<InstalledVersion> leastRecentlyUsed = remaining.iterator();
+            while (usedBytes > quotaBytes && leastRecentlyUsed.hasNext()) {
+                usedBytes -= remove(leastRecentlyUsed.next(), String.format("%s is over the quota of %s", baseDirectory.getAbsolutePath(), FileUtils.byteCountToDisplaySize(quotaBytes)));
+            }
+            if (usedBytes > quotaBytes) {
+                logger.warn(String.format("%s uses %s, over the quota of %s, but every remaining version is deployed or in use.", baseDirectory.getAbsolutePath(), FileUtils.byteCountToDisplaySize(usedBytes), FileUtils.byteCountToDisplaySize(quotaBytes)));
+            }
+        }
+    }
+
+    /*
+    Only checked when a minimum is configured. Then a download needs about the space of the previous version of the product
+    (its archive and expanded tree), and at least that minimum. When keep-last or a quota allows removing versions at all,
+    the least recently used ones are removed until there is enough - a dry run only reports what it would remove.
+     */
+    public synchronized void ensureFreeSpace(String name, String version) throws BlackDuckInstallerException {
+        protect(name, version);
+        if (minimumFreeBytes <= 0) {
+            return;
+        }
+
+        long requiredBytes = Math.max(minimumFreeBytes, estimateDownloadBytes(name));
+        long usableBytes = baseDirectory.getUsableSpace();
+        if (usableBytes >= requiredBytes) {
+            return;
+        }
+
+        if (isRemovalEnabled()) {
+            logger.info(String.format("%s %s needs about %s under %s but only %s is free - the least recently used versions will be removed.", name, version, FileUtils.byteCountToDisplaySize(requiredBytes), baseDirectory.getAbsolutePath(), FileUtils.byteCountToDisplaySize(usableBytes)));
+            deleteLeftovers();
+            // a dry run frees nothing, so what it would free is counted instead
+            long plannedBytes = 0;
+            Iterator<InstalledVersion> leastRecentlyUsed = findRemovableVersions().orElse(Collections.emptyList()).iterator();
+            while (baseDirectory.getUsableSpace() + plannedBytes < requiredBytes && leastRecentlyUsed.hasNext()) {
+                long freedBytes = remove(leastRecentlyUsed.next(), "more space is needed for " + name + " " + version);
+                if (dryRun) {
+                    plannedBytes += freedBytes;
+                }
+            }
+            usableBytes = baseDirectory.getUsableSpace() + plannedBytes;
+        }
+
+        if (usableBytes < requiredBytes) {
+            String message = String.format("%s %s needs about %s under %s but only %s is free - please free some space, or lower retention.minimum.free.megabytes if less is enough.", name, version, FileUtils.byteCountToDisplaySize(requiredBytes), baseDirectory.getAbsolutePath(), FileUtils.byteCountToDisplaySize(usableBytes));
+            if (dryRun) {
+                logger.warn("Dry run: " + message);
+                return;
+            }
+            throw new BlackDuckInstallerException(message);
+        }
+    }
+
+    /*
+    Every completely downloaded version, least recently used first.
+     */
+    public List<InstalledVersion> findInstalledVersions() {
+        File[] directories = baseDirectory.listFiles(file -> file.isDirectory() && !file.getName().startsWith(TRASH_PREFIX));
+        if (null == directories) {
+            return Collections.emptyList();
+        }
+
+        List<InstalledVersion> installedVersions = new ArrayList<>();
+        for (File directory : directories) {
+            Optional<DownloadRecord> downloadRecord = DownloadRecord.load(directory);
+            String suffix = downloadRecord.map(record -> "-" + record.getVersion()).orElse(null);
+            if (null != suffix && directory.getName().endsWith(suffix) && directory.getName().length() > suffix.length()) {
+                String name = directory.getName().substring(0, directory.getName().length() - suffix.length());
+                long lastUsed = new File(directory, DownloadRecord.FILENAME).lastModified();
+                installedVersions.add(new InstalledVersion(name, directory, downloadRecord.get(), lastUsed));
+            }
+        }
+        installedVersions.sort(Comparator.comparingLong(InstalledVersion::getLastUsed));
+        return installedVersions;
+    }
+
+    // empty when the deployed versions are unknown, since then nothing is safe to remove
+    private Optional<List<InstalledVersion>> findRemovableVersions() {
+        List<InstalledVersion> installedVersions = findInstalledVersions();
+        if (installedVersions.isEmpty()) {
+            return Optional.of(installedVersions);
+        }
+
+        Optional<Set<String>> deployed = deployedVersions.find();
+        if (!deployed.isPresent()) {
+            logger.warn("The deployed versions are unknown, so no version will be removed from " + baseDirectory.getAbsolutePath() + ".");
+            return Optional.empty();
+        }
+
+        return Optional.of(installedVersions.stream()
+                               .filter(installedVersion -> !inUseDirectoryNames.contains(installedVersion.getDirectory().getName()))
+                               .filter(installedVersion -> !deployed.get().contains(installedVersion.getVersion()))
+                               .collect(Collectors.toList()));
+    }
+
+    // with neither keep-last nor a quota every version is kept, whatever the free space
+    private boolean isRemovalEnabled() {
+        return keepLast > 0 || quotaBytes > 0;
+    }
+
+    private boolean newestContains(Set<InstalledVersion> newest, InstalledVersion installedVersion) {
+        return newest.stream().anyMatch(kept -> kept.getDirectory().equals(installedVersion.getDirectory()));
+    }
+
+    private long estimateDownloadBytes(String name) {
+        Optional<InstalledVersion> previous = findInstalledVersions().stream()
+                                                  .filter(installedVersion -> name.equals(installedVersion.getName()))
+                                                  .max((first, second) -> versionComparator.compare(first.getVersion(), second.getVersion()));
+        if (!previous.isPresent()) {
+            return 0;
+        }
+
+        long archiveBytes = 0;
+        try {
+            archiveBytes = artifactCache.findArchive(previous.get().getDownloadRecord().getDownloadUrl(), previous.get().getVersion()).map(File::length).orElse(0L);
+        } catch (BlackDuckInstallerException e) {
+            logger.debug("Could not look up the previous archive: " + e.getMessage());
+        }
+        return archiveBytes + FileUtils.sizeOfDirectory(previous.get().getDirectory());
+    }
+
+    // the bytes this freed, or would free on a dry run
+    private long remove(InstalledVersion installedVersion, String reason) throws BlackDuckInstallerException {
+        File directory = installedVersion.getDirectory();
+        long reclaimableBytes = DiskUsage.measureReclaimable(directory);
+        if (dryRun) {
+            logger.info(String.format("Dry run: %s %s (%s) would be removed - %s.", installedVersion.getName(), installedVersion.getVersion(), FileUtils.byteCountToDisplaySize(reclaimableBytes), reason));
+            return reclaimableBytes;
+        }
+
+        File trash = new File(baseDirectory, TRASH_PREFIX + directory.getName() + "-" + System.currentTimeMillis());
+        try {
+            Files.move(directory.toPath(), trash.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn(String.format("Could not remove %s: %s", directory.getAbsolutePath(), e.getMessage()));
+            return 0;
+        }
+        deleteQuietly(trash);
+
+        long archiveBytes = artifactCache.remove(installedVersion.getDownloadRecord().getDownloadUrl(), installedVersion.getVersion());
+        logger.info(String.format("Removed %s %s (%s) - %s.", installedVersion.getName(), installedVersion.getVersion(), FileUtils.byteCountToDisplaySize(reclaimableBytes + archiveBytes), reason));
+        return reclaimableBytes + archiveBytes;
+    }
+
+    // what interrupted removals and downloads left behind
+    private void deleteLeftovers() {
+        if (dryRun) {
+            return;
+        }
+
+        File[] trash = baseDirectory.listFiles(file -> file.getName().startsWith(TRASH_PREFIX));
+        if (null != trash) {
+            Arrays.stream(trash).forEach(this::deleteQuietly);
+        }
+        long partialBytes = artifactCache.deleteStalePartials(partialMaxAgeMillis);
+        if (partialBytes > 0) {
+            logger.info(String.format("Deleted %s of interrupted downloads older than %s hours.", FileUtils.byteCountToDisplaySize(partialBytes), TimeUnit.MILLISECONDS.toHours(partialMaxAgeMillis)));
+        }
+    }
+
+    private void deleteQuietly(File trash) {
+        try {
+            FileUtils.deleteDirectory(trash);
+        } catch (IOException e) {
+            logger.warn(String.format("Could not delete %s - it will be tried again on the next run: %s", trash.getAbsolutePath(), e.getMessage()));
+        }
+    }
+
+}
@@ -0,0 +1,62 @@
+/**
+ * blackduck-installer
+ *
+ * Copyright (c) 2019 Synopsys, Inc.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.synopsys.integration.blackduck.installer.retention;
+
+import com.synopsys.integration.blackduck.installer.download.DownloadRecord;
+
+import java.io.File;
+
+public class InstalledVersion {
+    private final String name;
+    private final File directory;
+    private final DownloadRecord downloadRecord;
+    private final long lastUsed;
+
+    public InstalledVersion(String name, File directory, DownloadRecord downloadRecord, long lastUsed) {
+        this.name = name;
+        this.directory = directory;
+        this.downloadRecord = downloadRecord;
+        this.lastUsed = lastUsed;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getVersion() {
+        return downloadRecord.getVersion();
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    public DownloadRecord getDownloadRecord() {
+        return downloadRecord;
+    }
+
+    public long getLastUsed() {
+        return lastUsed;
+    }
+
+}
@@ -26,6 +26,8 @@ import com.synopsys.integration.blackduck.installer.download.DownloadSource;
 import com.synopsys.integration.blackduck.installer.exception.BlackDuckInstallerException;
 import com.synopsys.integration.function.ThrowingSupplier;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.function.Supplier;
 
@@ -33,11 +35,13 @@ public class DownloadUrlDecider {
     private final DownloadSource downloadSource;
     private final ThrowingSupplier<String, BlackDuckInstallerException> githubDownloadUrl;
     private final ThrowingSupplier<String, BlackDuckInstallerException> artifactoryDownloadUrl;
+    private final ThrowingSupplier<String, BlackDuckInstallerException> localDownloadUrl;
 
-    public DownloadUrlDecider(DownloadSource downloadSource, ThrowingSupplier<String, BlackDuckInstallerException> githubDownloadUrl, ThrowingSupplier<String, BlackDuckInstallerException> artifactoryDownloadUrl) {
+    public DownloadUrlDecider(DownloadSource downloadSource, ThrowingSupplier<String, BlackDuckInstallerException> githubDownloadUrl, ThrowingSupplier<String, BlackDuckInstallerException> artifactoryDownloadUrl, ThrowingSupplier<String, BlackDuckInstallerException> localDownloadUrl) {
         this.downloadSource = downloadSource;
         this.githubDownloadUrl = githubDownloadUrl;
         this.artifactoryDownloadUrl = artifactoryDownloadUrl;
+        this.localDownloadUrl = localDownloadUrl;
     }
 
     public Optional<String> determineDownloadUrl() throws BlackDuckInstallerException {
@@ -45,9 +49,39 @@ public class DownloadUrlDecider {
             return Optional.of(githubDownloadUrl.get());
         } else if (DownloadSource.ARTIFACTORY == downloadSource) {
             return Optional.of(artifactoryDownloadUrl.get());
+        } else if (DownloadSource.LOCAL == downloadSource) {
+            return Optional.of(localDownloadUrl.get());
         } else {
             return Optional.empty();
         }
     }
 
+    /*
+    The configured source always comes first - the other source is only added as a mirror when it is completely configured.
+    A local archive has no mirrors.
+     */
+    public List<String> determineDownloadUrls() throws BlackDuckInstallerException {
+        List<String> downloadUrls = new ArrayList<>();
+        Optional<String> configuredUrl = determineDownloadUrl();
+        if (!configuredUrl.isPresent()) {
+            return downloadUrls;
+        }
+        downloadUrls.add(configuredUrl.get());
+        if (DownloadSource.LOCAL == downloadSource) {
+            return downloadUrls;
+        }
+
+        ThrowingSupplier<String, BlackDuckInstallerException> mirrorUrl = DownloadSource.GITHUB == downloadSource ? artifactoryDownloadUrl : githubDownloadUrl;
+        try {
+            String mirror = mirrorUrl.get();
+            if (!downloadUrls.contains(mirror)) {
+                downloadUrls.add(mirror);
+            }
+        } catch (BlackDuckInstallerException e) {
+            // not configured, so not a mirror
+        }
+
+        return downloadUrls;
+    }
+
 }
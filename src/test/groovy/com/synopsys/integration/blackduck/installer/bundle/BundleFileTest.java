@@ -0,0 +1,70 @@
+package com.synopsys.integration.blackduck.installer.bundle;
+
+import com.synopsys.integration.blackduck.installer.exception.BlackDuckInstallerException;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+public class BundleFileTest {
+    @Test
+    public void testEveryEntryIsReadBack(@TempDir Path tempDirectory) throws BlackDuckInstallerException, IOException {
+        // sizes around the 512 byte tar blocks, so every entry starts at a different padding
+        Map<String, File> entryFiles = new LinkedHashMap<>();
+        Map<String, byte[]> contents = new LinkedHashMap<>();
+        Random random = new Random(0);
+        for (int size : Arrays.asList(0, 1, 511, 512, 513, 100 * 1024 + 7)) {
+            byte[] bytes = new byte[size];
+            random.nextBytes(bytes);
+            String entryName = String.format("images/%03d.tar.gz", entryFiles.size());
+            File entryFile = tempDirectory.resolve("entry-" + size).toFile();
+            Files.write(entryFile.toPath(), bytes);
+            entryFiles.put(entryName, entryFile);
+            contents.put(entryName, bytes);
+        }
+        BundleIndex bundleIndex = new BundleIndex();
+        bundleIndex.addImage(new BundleImage("blackducksoftware/blackduck-webapp:2019.10.0", "images/000.tar.gz", "0123abcd"));
+        File bundle = tempDirectory.resolve("bundle.tar").toFile();
+
+        BundleCreator.writeBundle(bundleIndex, entryFiles, bundle);
+        BundleFile bundleFile = BundleFile.open(bundle);
+
+        Assertions.assertEquals("blackducksoftware/blackduck-webapp:2019.10.0", bundleFile.readIndex().getImages().get(0).getImage());
+        for (Map.Entry<String, byte[]> entry : contents.entrySet()) {
+            try (InputStream inputStream = bundleFile.openEntry(entry.getKey())) {
+                Assertions.assertArrayEquals(entry.getValue(), IOUtils.toByteArray(inputStream), entry.getKey());
+            }
+        }
+    }
+
+    @Test
+    public void testMissingEntryIsReported(@TempDir Path tempDirectory) throws BlackDuckInstallerException, IOException {
+        File bundle = tempDirectory.resolve("bundle.tar").toFile();
+        BundleCreator.writeBundle(new BundleIndex(), new LinkedHashMap<>(), bundle);
+
+        BlackDuckInstallerException e = Assertions.assertThrows(BlackDuckInstallerException.class, () -> BundleFile.open(bundle).openEntry("archives/blackduck-2019.10.0.zip"));
+        Assertions.assertTrue(e.getMessage().endsWith("does not contain archives/blackduck-2019.10.0.zip."), e.getMessage());
+    }
+
+    @Test
+    public void testOtherFileIsNotABundle(@TempDir Path tempDirectory) throws IOException {
+        File notABundle = tempDirectory.resolve("hub.zip").toFile();
+        byte[] bytes = new byte[2048];
+        Arrays.fill(bytes, (byte) 'x');
+        Files.write(notABundle.toPath(), bytes);
+
+        BlackDuckInstallerException e = Assertions.assertThrows(BlackDuckInstallerException.class, () -> BundleFile.open(notABundle));
+        Assertions.assertTrue(e.getMessage().contains("is not a bundle"), e.getMessage());
+    }
+
+}
@@ -0,0 +1,143 @@
+package com.synopsys.integration.blackduck.installer.bundle;
+
+import com.synopsys.integration.blackduck.installer.dockerswarm.DockerImageTransfer;
+import com.synopsys.integration.blackduck.installer.download.ArtifactCache;
+import com.synopsys.integration.blackduck.installer.exception.BlackDuckInstallerException;
+import com.synopsys.integration.log.SilentIntLogger;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+public class BundleImporterTest {
+    private static final String DOWNLOAD_URL = "https://github.com/blackducksoftware/hub/archive/v2019.10.0.zip";
+    private static final String ARCHIVE_ENTRY = "archives/blackduck-2019.10.0.zip";
+    private static final String IMAGE_ENTRY = "images/000.tar.gz";
+    private static final byte[] ARCHIVE = "the contents of the 2019.10.0 release archive".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] IMAGE = "the layers of blackduck-webapp".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    public void testArchiveIsImportedIntoTheCache(@TempDir Path tempDirectory) throws BlackDuckInstallerException, IOException {
+        ArtifactCache artifactCache = new ArtifactCache(new SilentIntLogger(), tempDirectory.resolve("cache").toFile());
+        BundleFile bundleFile = BundleFile.open(writeBundle(tempDirectory, DigestUtils.sha256Hex(ARCHIVE), DigestUtils.sha256Hex(compress(IMAGE))));
+
+        new BundleImporter(new SilentIntLogger(), artifactCache, new RecordingImageTransfer(), 2, false).importArchives(bundleFile);
+
+        File cachedArchive = artifactCache.findArchive(DOWNLOAD_URL, "2019.10.0").get();
+        Assertions.assertArrayEquals(ARCHIVE, Files.readAllBytes(cachedArchive.toPath()));
+        Assertions.assertTrue(findPartialFiles(tempDirectory).isEmpty());
+    }
+
+    @Test
+    public void testCorruptArchiveIsRejected(@TempDir Path tempDirectory) throws BlackDuckInstallerException, IOException {
+        ArtifactCache artifactCache = new ArtifactCache(new SilentIntLogger(), tempDirectory.resolve("cache").toFile());
+        File bundle = writeBundle(tempDirectory, DigestUtils.sha256Hex(ARCHIVE), DigestUtils.sha256Hex(compress(IMAGE)));
+        corrupt(bundle, ARCHIVE);
+        BundleFile bundleFile = BundleFile.open(bundle);
+
+        BlackDuckInstallerException e = Assertions.assertThrows(BlackDuckInstallerException.class, () -> new BundleImporter(new SilentIntLogger(), artifactCache, new RecordingImageTransfer(), 2, false).importArchives(bundleFile));
+
+        Assertions.assertTrue(e.getMessage().startsWith(ARCHIVE_ENTRY + " in the bundle is corrupt"), e.getMessage());
+        Assertions.assertFalse(artifactCache.findArchive(DOWNLOAD_URL, "2019.10.0").isPresent());
+        Assertions.assertTrue(findPartialFiles(tempDirectory).isEmpty(), "no partial file should be left: " + findPartialFiles(tempDirectory));
+    }
+
+    @Test
+    public void testImageIsLoadedUncompressed(@TempDir Path tempDirectory) throws BlackDuckInstallerException, IOException {
+        RecordingImageTransfer imageTransfer = new RecordingImageTransfer();
+        BundleFile bundleFile = BundleFile.open(writeBundle(tempDirectory, DigestUtils.sha256Hex(ARCHIVE), DigestUtils.sha256Hex(compress(IMAGE))));
+
+        new BundleImporter(new SilentIntLogger(), null, imageTransfer, 2, false).loadImages(bundleFile);
+
+        Assertions.assertEquals(1, imageTransfer.loadedImages.size());
+        Assertions.assertArrayEquals(IMAGE, imageTransfer.loadedImages.get(0));
+    }
+
+    @Test
+    public void testCorruptImageNeverReachesDocker(@TempDir Path tempDirectory) throws IOException {
+        RecordingImageTransfer imageTransfer = new RecordingImageTransfer();
+        String otherDigest = DigestUtils.sha256Hex("another image");
+
+        BlackDuckInstallerException e = Assertions.assertThrows(BlackDuckInstallerException.class, () -> {
+            BundleFile bundleFile = BundleFile.open(writeBundle(tempDirectory, DigestUtils.sha256Hex(ARCHIVE), otherDigest));
+            new BundleImporter(new SilentIntLogger(), null, imageTransfer, 2, false).loadImages(bundleFile);
+        });
+
+        Assertions.assertTrue(e.getMessage().startsWith(IMAGE_ENTRY + " in the bundle is corrupt"), e.getMessage());
+        Assertions.assertTrue(imageTransfer.loadedImages.isEmpty());
+    }
+
+    private File writeBundle(Path tempDirectory, String archiveSha256, String imageSha256) throws IOException {
+        File archive = tempDirectory.resolve("blackduck-2019.10.0.zip").toFile();
+        Files.write(archive.toPath(), ARCHIVE);
+        File image = tempDirectory.resolve("image.tar.gz").toFile();
+        Files.write(image.toPath(), compress(IMAGE));
+
+        BundleIndex bundleIndex = new BundleIndex();
+        bundleIndex.addArchive(new BundleArchive("blackduck", "2019.10.0", DOWNLOAD_URL, ARCHIVE_ENTRY, archiveSha256));
+        bundleIndex.addImage(new BundleImage("blackducksoftware/blackduck-webapp:2019.10.0", IMAGE_ENTRY, imageSha256));
+        Map<String, File> entryFiles = new LinkedHashMap<>();
+        entryFiles.put(ARCHIVE_ENTRY, archive);
+        entryFiles.put(IMAGE_ENTRY, image);
+
+        File bundle = tempDirectory.resolve("bundle.tar").toFile();
+        BundleCreator.writeBundle(bundleIndex, entryFiles, bundle);
+        return bundle;
+    }
+
+    // flips the last byte of the entry's contents where it sits in the bundle
+    private void corrupt(File bundle, byte[] contents) throws IOException {
+        byte[] bytes = Files.readAllBytes(bundle.toPath());
+        String searchable = new String(bytes, StandardCharsets.ISO_8859_1);
+        int offset = searchable.indexOf(new String(contents, StandardCharsets.ISO_8859_1));
+        Assertions.assertTrue(offset > 0);
+        bytes[offset + contents.length - 1] ^= 1;
+        Files.write(bundle.toPath(), bytes);
+    }
+
+    private byte[] compress(byte[] contents) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (OutputStream outputStream = new GZIPOutputStream(compressed)) {
+            outputStream.write(contents);
+        }
+        return compressed.toByteArray();
+    }
+
+    private List<Path> findPartialFiles(Path tempDirectory) throws IOException {
+        try (Stream<Path> files = Files.walk(tempDirectory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".part")).collect(Collectors.toList());
+        }
+    }
+
+    private static class RecordingImageTransfer extends DockerImageTransfer {
+        private final List<byte[]> loadedImages = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String load(InputStream imageStream) throws BlackDuckInstallerException {
+            try {
+                loadedImages.add(IOUtils.toByteArray(imageStream));
+            } catch (IOException e) {
+                throw new BlackDuckInstallerException(e.getMessage());
+            }
+            return "Loaded image";
+        }
+    }
+
+}
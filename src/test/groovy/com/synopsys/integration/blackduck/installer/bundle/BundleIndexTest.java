@@ -0,0 +1,45 @@
+package com.synopsys.integration.blackduck.installer.bundle;
+
+import com.synopsys.integration.blackduck.installer.exception.BlackDuckInstallerException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+public class BundleIndexTest {
+    @Test
+    public void testIndexIsReadBack() throws BlackDuckInstallerException, IOException {
+        BundleIndex bundleIndex = new BundleIndex();
+        bundleIndex.addArchive(new BundleArchive("blackduck", "2019.10.0", "https://github.com/blackducksoftware/hub/archive/v2019.10.0.zip", "archives/blackduck-2019.10.0.zip", "0123abcd"));
+        bundleIndex.addArchive(new BundleArchive("blackduck-alert", "5.0.0", "https://github.com/blackducksoftware/blackduck-alert/releases/download/5.0.0/blackduck-alert-5.0.0-deployment.zip", "archives/blackduck-alert-5.0.0.zip", "4567ef01"));
+        bundleIndex.addImage(new BundleImage("blackducksoftware/blackduck-webapp:2019.10.0", "images/000.tar.gz", "89abcdef"));
+        ByteArrayOutputStream written = new ByteArrayOutputStream();
+        bundleIndex.write(written);
+
+        BundleIndex loaded = BundleIndex.load(new ByteArrayInputStream(written.toByteArray()));
+
+        Assertions.assertEquals(2, loaded.getArchives().size());
+        BundleArchive alert = loaded.getArchives().get(1);
+        Assertions.assertEquals("blackduck-alert", alert.getName());
+        Assertions.assertEquals("5.0.0", alert.getVersion());
+        Assertions.assertEquals("https://github.com/blackducksoftware/blackduck-alert/releases/download/5.0.0/blackduck-alert-5.0.0-deployment.zip", alert.getDownloadUrl());
+        Assertions.assertEquals("archives/blackduck-alert-5.0.0.zip", alert.getEntryName());
+        Assertions.assertEquals("4567ef01", alert.getSha256());
+        Assertions.assertEquals(1, loaded.getImages().size());
+        Assertions.assertEquals("blackducksoftware/blackduck-webapp:2019.10.0", loaded.getImages().get(0).getImage());
+        Assertions.assertEquals("images/000.tar.gz", loaded.getImages().get(0).getEntryName());
+        Assertions.assertEquals("89abcdef", loaded.getImages().get(0).getSha256());
+    }
+
+    @Test
+    public void testUnknownFormatIsRejected() {
+        String index = "format=2\narchives=0\nimages=0\n";
+
+        BlackDuckInstallerException e = Assertions.assertThrows(BlackDuckInstallerException.class, () -> BundleIndex.load(new ByteArrayInputStream(index.getBytes(StandardCharsets.UTF_8))));
+        Assertions.assertEquals("The bundle format 2 is not supported by this installer.", e.getMessage());
+    }
+
+}
@@ -0,0 +1,29 @@
+package com.synopsys.integration.blackduck.installer.dockerswarm;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+public class ComposeImagesTest {
+    @Test
+    public void testOnlyTheGivenFilesAreRead(@TempDir Path dockerSwarm) throws Exception {
+        File compose = write(dockerSwarm, OrchestrationFiles.COMPOSE, "services:\n  webapp:\n    image: blackducksoftware/blackduck-webapp:2019.8.1\n  webserver:\n    image: \"blackducksoftware/blackduck-nginx:1.0.9\" # the web server\n");
+        File localOverrides = write(dockerSwarm, OrchestrationFiles.LOCAL_OVERRIDES, "services:\n  webapp:\n    image: blackducksoftware/blackduck-webapp:2019.8.1\n  #cfssl:\n    #image: blackducksoftware/blackduck-cfssl:1.0.0\n");
+        write(dockerSwarm, OrchestrationFiles.BDBA, "services:\n  binaryscanner:\n    image: sigsynopsys/bdba-worker:2019.09\n");
+
+        Assertions.assertEquals(Arrays.asList("blackducksoftware/blackduck-nginx:1.0.9", "blackducksoftware/blackduck-webapp:2019.8.1"), Arrays.asList(new ComposeImages().find(Arrays.asList(compose, localOverrides)).toArray()));
+    }
+
+    private File write(Path directory, String filename, String content) throws Exception {
+        Path path = directory.resolve(filename);
+        Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+        return path.toFile();
+    }
+
+}
@@ -0,0 +1,101 @@
+package com.synopsys.integration.blackduck.installer.dockerswarm;
+
+import com.synopsys.integration.blackduck.installer.exception.BlackDuckInstallerException;
+import com.synopsys.integration.blackduck.installer.model.ExecutableCreator;
+import com.synopsys.integration.blackduck.installer.model.ExecutablesRunner;
+import com.synopsys.integration.executable.Executable;
+import com.synopsys.integration.executable.ExecutableOutput;
+import com.synopsys.integration.executable.ExecutableRunner;
+import com.synopsys.integration.log.SilentIntLogger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+public class StackDrainerTest {
+    private final DockerCommands dockerCommands = new DockerCommands(new ExecutableCreator());
+
+    @Test
+    public void testDrainsWithinAFewPolls() throws BlackDuckInstallerException {
+        StubDocker stubDocker = new StubDocker((kind, poll) -> {
+            if ("service".equals(kind) && poll < 2) {
+                return output("hub_webserver\nhub_registration\n");
+            }
+            if ("container".equals(kind) && poll < 3) {
+                return output("hub_webserver.1.y5zyt8bcg1ch\n");
+            }
+            if ("network".equals(kind) && poll < 3) {
+                return output("hub_default\n");
+            }
+            return output("");
+        });
+
+        Assertions.assertEquals(0, createStackDrainer(stubDocker, 60).waitUntilDrained("hub"));
+        Assertions.assertEquals(4, stubDocker.getPolls("network"));
+    }
+
+    @Test
+    public void testDeadlineReportsWhatIsLeft() {
+        StubDocker stubDocker = new StubDocker((kind, poll) -> "network".equals(kind) ? output("hub_default\n") : output(""));
+
+        long start = System.currentTimeMillis();
+        BlackDuckInstallerException e = Assertions.assertThrows(BlackDuckInstallerException.class, () -> createStackDrainer(stubDocker, 1).waitUntilDrained("hub"));
+
+        Assertions.assertTrue(System.currentTimeMillis() - start < 5000);
+        Assertions.assertTrue(e.getMessage().startsWith("The stack \"hub\" was still not removed after 1 seconds."), e.getMessage());
+        Assertions.assertTrue(e.getMessage().contains("networks: hub_default"), e.getMessage());
+        Assertions.assertFalse(e.getMessage().contains("services:"), e.getMessage());
+    }
+
+    @Test
+    public void testFailedListingCountsAsStillThere() {
+        StubDocker stubDocker = new StubDocker((kind, poll) -> "container".equals(kind) ? new ExecutableOutput(1, "", "Cannot connect to the Docker daemon") : output(""));
+
+        BlackDuckInstallerException e = Assertions.assertThrows(BlackDuckInstallerException.class, () -> createStackDrainer(stubDocker, 1).waitUntilDrained("hub"));
+
+        Assertions.assertTrue(e.getMessage().contains("containers: unknown (docker container ls"), e.getMessage());
+        Assertions.assertTrue(e.getMessage().contains("failed: Cannot connect to the Docker daemon)"), e.getMessage());
+    }
+
+    @Test
+    public void testListingThatRecoversStillDrains() throws BlackDuckInstallerException {
+        StubDocker stubDocker = new StubDocker((kind, poll) -> "service".equals(kind) && 0 == poll ? new ExecutableOutput(125, "", "") : output(""));
+
+        Assertions.assertEquals(0, createStackDrainer(stubDocker, 60).waitUntilDrained("hub"));
+        // the first answer was no answer at all, so it took a second poll
+        Assertions.assertEquals(2, stubDocker.getPolls("service"));
+    }
+
+    private StackDrainer createStackDrainer(StubDocker stubDocker, long timeoutSeconds) {
+        return new StackDrainer(new SilentIntLogger(), dockerCommands, new ExecutablesRunner(stubDocker), timeoutSeconds, false);
+    }
+
+    private static ExecutableOutput output(String standardOutput) {
+        return new ExecutableOutput(0, standardOutput, "");
+    }
+
+    // answers each docker listing by what it lists and how often it has been asked already
+    private static class StubDocker implements ExecutableRunner {
+        private final BiFunction<String, Integer, ExecutableOutput> answers;
+        private final Map<String, Integer> polls = new ConcurrentHashMap<>();
+
+        public StubDocker(BiFunction<String, Integer, ExecutableOutput> answers) {
+            this.answers = answers;
+        }
+
+        @Override
+        public ExecutableOutput execute(Executable executable) {
+            String kind = executable.getCommandWithArguments().get(1);
+            int poll = polls.getOrDefault(kind, 0);
+            polls.put(kind, poll + 1);
+            return answers.apply(kind, poll);
+        }
+
+        public int getPolls(String kind) {
+            return polls.getOrDefault(kind, 0);
+        }
+    }
+
+}
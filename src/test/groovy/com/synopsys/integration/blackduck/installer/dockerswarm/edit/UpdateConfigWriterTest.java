@@ -0,0 +1,63 @@
+package com.synopsys.integration.blackduck.installer.dockerswarm.edit;
+
+import com.synopsys.integration.blackduck.installer.dockerswarm.OrchestrationFiles;
+import com.synopsys.integration.blackduck.installer.exception.BlackDuckInstallerException;
+import com.synopsys.integration.log.SilentIntLogger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+public class UpdateConfigWriterTest {
+    @Test
+    public void testServicesWithVolumesStopFirst() {
+        List<String> composeLines = Arrays.asList(
+            "version: '3.6'",
+            "services:",
+            "  postgres:",
+            "    image: blackducksoftware/blackduck-postgres:1.0.9",
+            "    volumes: ['postgres96-data-volume:/var/lib/postgresql/data']",
+            "  webapp:",
+            "    image: blackducksoftware/blackduck-webapp:2019.8.1",
+            "    # volumes:",
+            "    deploy:",
+            "      resources: {limits: {memory: 2560M}}",
+            "  solr:",
+            "    volumes:",
+            "      - solr6-volume:/opt/blackduck/hub/solr/cores.data",
+            "volumes: {postgres96-data-volume: null, solr6-volume: null}");
+
+        Map<String, Boolean> services = new UpdateConfigWriter(new SilentIntLogger(), "\n", 1, 10).findServices(composeLines);
+
+        Assertions.assertEquals(Arrays.asList("postgres", "webapp", "solr"), Arrays.asList(services.keySet().toArray()));
+        Assertions.assertTrue(services.get("postgres"));
+        Assertions.assertFalse(services.get("webapp"));
+        Assertions.assertTrue(services.get("solr"));
+    }
+
+    @Test
+    public void testLinkedFileOfAnotherVersionIsNotChanged(@TempDir Path tempDirectory) throws BlackDuckInstallerException, IOException {
+        Path installDirectory = tempDirectory.resolve("blackduck-2019.10.0");
+        Path dockerSwarm = Files.createDirectories(installDirectory.resolve("docker-swarm"));
+        Files.write(dockerSwarm.resolve(OrchestrationFiles.COMPOSE), Arrays.asList("version: '3.6'", "services:", "  webapp:", "    image: blackducksoftware/blackduck-webapp:2019.10.0"), StandardCharsets.UTF_8);
+        new UpdateConfigWriter(new SilentIntLogger(), "\n", 1, 10).write(installDirectory.toFile());
+
+        // deduplicated with the identical file of an older version
+        Path olderUpdateConfig = Files.createDirectories(tempDirectory.resolve("blackduck-2019.8.0/docker-swarm")).resolve(OrchestrationFiles.ROLLING_UPDATE);
+        Files.createLink(olderUpdateConfig, dockerSwarm.resolve(OrchestrationFiles.ROLLING_UPDATE));
+        byte[] olderContents = Files.readAllBytes(olderUpdateConfig);
+
+        new UpdateConfigWriter(new SilentIntLogger(), "\n", 2, 30).write(installDirectory.toFile());
+
+        Assertions.assertArrayEquals(olderContents, Files.readAllBytes(olderUpdateConfig));
+        Assertions.assertTrue(new String(Files.readAllBytes(dockerSwarm.resolve(OrchestrationFiles.ROLLING_UPDATE)), StandardCharsets.UTF_8).contains("parallelism: 2"));
+    }
+
+}
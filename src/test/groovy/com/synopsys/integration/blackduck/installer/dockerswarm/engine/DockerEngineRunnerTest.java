@@ -0,0 +1,174 @@
+package com.synopsys.integration.blackduck.installer.dockerswarm.engine;
+
+import com.synopsys.integration.blackduck.installer.model.StreamingExecutableRunner;
+import com.synopsys.integration.executable.Executable;
+import com.synopsys.integration.executable.ExecutableOutput;
+import com.synopsys.integration.log.SilentIntLogger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+public class DockerEngineRunnerTest {
+    @Test
+    public void testStackLsListsEachNamespaceOnce() throws Exception {
+        StubDockerEngineClient dockerEngineClient = new StubDockerEngineClient();
+        dockerEngineClient.respond("GET", "/services", 200, "[" + service("hub_webserver", "hub") + "," + service("hub_registration", "hub") + "," + service("alert_alert", "alert") + "]");
+        StubCliRunner cliRunner = new StubCliRunner();
+
+        ExecutableOutput output = new DockerEngineRunner(new SilentIntLogger(), dockerEngineClient, cliRunner).execute(docker("stack", "ls", "--format", "{{.Name}}"));
+
+        Assertions.assertEquals(0, output.getReturnCode());
+        Assertions.assertEquals("hub\nalert\n", output.getStandardOutput());
+        Assertions.assertEquals("GET /services?filters={\"label\":[\"com.docker.stack.namespace\"]}", dockerEngineClient.requests.get(0));
+        Assertions.assertTrue(cliRunner.executables.isEmpty());
+    }
+
+    @Test
+    public void testSecretCreateSendsTheFileContents(@TempDir Path tempDirectory) throws Exception {
+        File secretFile = tempDirectory.resolve("cert.pem").toFile();
+        Files.write(secretFile.toPath(), "secret".getBytes(StandardCharsets.UTF_8));
+        StubDockerEngineClient dockerEngineClient = new StubDockerEngineClient();
+        dockerEngineClient.respond("POST", "/secrets/create", 201, "{\"ID\":\"ktnbjxoalbkvbvedmg1urrz8h\"}");
+
+        ExecutableOutput output = new DockerEngineRunner(new SilentIntLogger(), dockerEngineClient, new StubCliRunner()).execute(docker("secret", "create", "hub_WEBSERVER_CUSTOM_CERT_FILE", secretFile.getAbsolutePath()));
+
+        Assertions.assertEquals(0, output.getReturnCode());
+        Assertions.assertEquals("ktnbjxoalbkvbvedmg1urrz8h\n", output.getStandardOutput());
+        Assertions.assertEquals("POST /secrets/create {\"Name\":\"hub_WEBSERVER_CUSTOM_CERT_FILE\",\"Data\":\"c2VjcmV0\"}", dockerEngineClient.requests.get(0));
+    }
+
+    @Test
+    public void testFailedSecretCreateReportsTheDaemonMessage(@TempDir Path tempDirectory) throws Exception {
+        File secretFile = tempDirectory.resolve("secret.txt").toFile();
+        Files.write(secretFile.toPath(), "secret".getBytes(StandardCharsets.UTF_8));
+        StubDockerEngineClient dockerEngineClient = new StubDockerEngineClient();
+        dockerEngineClient.respond("POST", "/secrets/create", 409, "{\"message\":\"secret hub_a already exists\"}");
+
+        ExecutableOutput output = new DockerEngineRunner(new SilentIntLogger(), dockerEngineClient, new StubCliRunner()).execute(docker("secret", "create", "hub_a", secretFile.getAbsolutePath()));
+
+        Assertions.assertEquals(1, output.getReturnCode());
+        Assertions.assertEquals("Error response from daemon: secret hub_a already exists\n", output.getErrorOutput());
+    }
+
+    @Test
+    public void testLabelFiltersArePassedToTheEngine() throws Exception {
+        StubDockerEngineClient dockerEngineClient = new StubDockerEngineClient();
+        dockerEngineClient.respond("GET", "/containers/json", 200, "[{\"Id\":\"0123456789abcdef\",\"Names\":[\"/hub_webserver.1.abc\"]}]");
+        StubCliRunner cliRunner = new StubCliRunner();
+        DockerEngineRunner dockerEngineRunner = new DockerEngineRunner(new SilentIntLogger(), dockerEngineClient, cliRunner);
+
+        ExecutableOutput output = dockerEngineRunner.execute(docker("container", "ls", "--filter", "label=com.docker.stack.namespace=hub", "--format", "{{.ID}} {{.Names}}"));
+
+        Assertions.assertEquals("0123456789ab hub_webserver.1.abc\n", output.getStandardOutput());
+        Assertions.assertEquals("GET /containers/json?filters={\"label\":[\"com.docker.stack.namespace=hub\"]}", dockerEngineClient.requests.get(0));
+
+        // anything but a label filter is left to the CLI
+        dockerEngineRunner.execute(docker("container", "ls", "--filter", "name=hub", "--format", "{{.Names}}"));
+        Assertions.assertEquals(1, dockerEngineClient.requests.size());
+        Assertions.assertEquals(1, cliRunner.executables.size());
+    }
+
+    @Test
+    public void testUnsupportedCommandsGoToTheCli() throws Exception {
+        StubDockerEngineClient dockerEngineClient = new StubDockerEngineClient();
+        StubCliRunner cliRunner = new StubCliRunner();
+        DockerEngineRunner dockerEngineRunner = new DockerEngineRunner(new SilentIntLogger(), dockerEngineClient, cliRunner);
+
+        List<String> lines = new ArrayList<>();
+        ExecutableOutput output = dockerEngineRunner.execute(docker("stack", "deploy", "--compose-file", "docker-compose.yml", "hub"), lines::add);
+        dockerEngineRunner.execute(docker("stack", "ls", "--format", "{{.Name}} {{.Services}}"));
+
+        Assertions.assertEquals("cli", output.getStandardOutput());
+        Assertions.assertEquals(Arrays.asList("cli"), lines);
+        Assertions.assertEquals(2, cliRunner.executables.size());
+        Assertions.assertTrue(dockerEngineClient.requests.isEmpty());
+    }
+
+    @Test
+    public void testUnreachableEngineFallsBackToTheCli() throws Exception {
+        StubDockerEngineClient dockerEngineClient = new StubDockerEngineClient();
+        dockerEngineClient.unreachable = true;
+        StubCliRunner cliRunner = new StubCliRunner();
+        DockerEngineRunner dockerEngineRunner = new DockerEngineRunner(new SilentIntLogger(), dockerEngineClient, cliRunner);
+
+        Assertions.assertEquals("cli", dockerEngineRunner.execute(docker("secret", "ls", "--format", "{{.Name}}")).getStandardOutput());
+        Assertions.assertEquals("cli", dockerEngineRunner.execute(docker("secret", "ls", "--format", "{{.Name}}")).getStandardOutput());
+
+        // once the engine couldn't be reached it isn't tried again
+        Assertions.assertEquals(1, dockerEngineClient.requests.size());
+        Assertions.assertEquals(2, cliRunner.executables.size());
+    }
+
+    private Executable docker(String... arguments) {
+        List<String> commandWithArguments = new ArrayList<>();
+        commandWithArguments.add("docker");
+        commandWithArguments.addAll(Arrays.asList(arguments));
+        return Executable.create(new File("."), commandWithArguments);
+    }
+
+    private String service(String name, String stackName) {
+        return String.format("{\"ID\":\"%s-id\",\"Spec\":{\"Name\":\"%s\",\"Labels\":{\"com.docker.stack.namespace\":\"%s\"}}}", name, name, stackName);
+    }
+
+    private static class StubDockerEngineClient extends DockerEngineClient {
+        private final Map<String, DockerEngineResponse> responses = new HashMap<>();
+        private final List<String> requests = new ArrayList<>();
+        private boolean unreachable;
+
+        public StubDockerEngineClient() {
+            super(Paths.get("/var/run/docker.sock"));
+        }
+
+        public void respond(String method, String path, int statusCode, String body) {
+            responses.put(method + " " + path, new DockerEngineResponse(statusCode, body));
+        }
+
+        @Override
+        public boolean isAvailable() {
+            return true;
+        }
+
+        @Override
+        public synchronized DockerEngineResponse execute(String method, String path, String jsonBody) throws IOException {
+            String decodedPath = URLDecoder.decode(path, StandardCharsets.UTF_8.name());
+            requests.add(method + " " + decodedPath + (null == jsonBody ? "" : " " + jsonBody));
+            if (unreachable) {
+                throw new ConnectException("Could not connect to /var/run/docker.sock");
+            }
+            DockerEngineResponse response = responses.get(method + " " + decodedPath.split("\\?")[0]);
+            return null == response ? new DockerEngineResponse(404, "{\"message\":\"page not found\"}") : response;
+        }
+    }
+
+    private static class StubCliRunner implements StreamingExecutableRunner {
+        private final List<Executable> executables = new ArrayList<>();
+
+        @Override
+        public ExecutableOutput execute(Executable executable) {
+            executables.add(executable);
+            return new ExecutableOutput(executable.getExecutableDescription(), 0, "cli", "");
+        }
+
+        @Override
+        public ExecutableOutput execute(Executable executable, Consumer<String> standardOutputConsumer) {
+            standardOutputConsumer.accept("cli");
+            return execute(executable);
+        }
+    }
+
+}
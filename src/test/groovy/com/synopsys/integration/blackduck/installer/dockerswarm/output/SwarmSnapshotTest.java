@@ -0,0 +1,32 @@
+package com.synopsys.integration.blackduck.installer.dockerswarm.output;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class SwarmSnapshotTest {
+    @Test
+    public void testLookupsAreExact() {
+        String stacks = "hub2\nhub_2\n";
+        String secrets = "hub2_WEBSERVER_CUSTOM_CERT_FILE\n";
+        String services = "a1\thub2_webapp\treplicated\tblackducksoftware/blackduck-webapp:2019.8.1\n"
+                              + "a2\thub_2_alert\treplicated\tblackducksoftware/blackduck-alert:5.0.0\n";
+        String nodes = "n1\tmanager\tReady\tActive\n";
+        String tasks = "t1\thub2_webapp.1\tmanager\tRunning\tRunning 2 minutes ago\n"
+                           + "t2\thub2_webapp.1\tmanager\tShutdown\tFailed 3 minutes ago\n";
+
+        SwarmSnapshot swarmSnapshot = SwarmSnapshot.parse(stacks, secrets, services, nodes, tasks);
+
+        Assertions.assertFalse(swarmSnapshot.hasStack("hub"));
+        Assertions.assertTrue(swarmSnapshot.hasStack("hub2"));
+        Assertions.assertFalse(swarmSnapshot.hasSecret("hub_WEBSERVER_CUSTOM_CERT_FILE"));
+        Assertions.assertFalse(swarmSnapshot.hasService("hub_webapp"));
+        Assertions.assertEquals("hub_2", swarmSnapshot.findService("hub_2_alert").flatMap(SwarmService::getStackName).orElse(null));
+        Assertions.assertTrue(swarmSnapshot.getStackServices("hub").isEmpty());
+
+        Assertions.assertEquals(2, swarmSnapshot.getTasks("hub2_webapp").size());
+        Assertions.assertTrue(swarmSnapshot.getTasks("hub2_webapp").get(0).isRunning());
+        Assertions.assertEquals("Failed", swarmSnapshot.getTasks("hub2_webapp").get(1).getCurrentState());
+        Assertions.assertTrue(swarmSnapshot.getNodes().iterator().next().isReady());
+    }
+
+}
@@ -0,0 +1,70 @@
+package com.synopsys.integration.blackduck.installer.download;
+
+import com.synopsys.integration.blackduck.installer.exception.BlackDuckInstallerException;
+import com.synopsys.integration.log.SilentIntLogger;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+public class ArtifactCacheTest {
+    private static final String DOWNLOAD_URL = "https://github.com/blackducksoftware/hub/archive/v2019.8.1.zip";
+
+    @Test
+    public void testStoredArchiveIsFoundByUrlAndVersion(@TempDir Path tempDirectory) throws BlackDuckInstallerException, IOException {
+        ArtifactCache artifactCache = new ArtifactCache(new SilentIntLogger(), tempDirectory.toFile());
+        byte[] contents = "not really a zip".getBytes(StandardCharsets.UTF_8);
+
+        Assertions.assertFalse(artifactCache.findArchive(DOWNLOAD_URL, "2019.8.1").isPresent());
+
+        File blob = storeContents(artifactCache, contents);
+        Assertions.assertEquals(DigestUtils.sha256Hex(contents) + ".blob", blob.getName());
+        Assertions.assertArrayEquals(contents, Files.readAllBytes(blob.toPath()));
+
+        Optional<File> cachedArchive = artifactCache.findArchive(DOWNLOAD_URL, "2019.8.1");
+        Assertions.assertEquals(Optional.of(blob), cachedArchive);
+        Assertions.assertFalse(artifactCache.findArchive(DOWNLOAD_URL, "2019.10.0").isPresent());
+    }
+
+    @Test
+    public void testMissingBlobIsTreatedAsAMiss(@TempDir Path tempDirectory) throws BlackDuckInstallerException, IOException {
+        ArtifactCache artifactCache = new ArtifactCache(new SilentIntLogger(), tempDirectory.toFile());
+        File blob = storeContents(artifactCache, new byte[]{1, 2, 3});
+        Files.delete(blob.toPath());
+
+        Assertions.assertFalse(artifactCache.findArchive(DOWNLOAD_URL, "2019.8.1").isPresent());
+    }
+
+    @Test
+    public void testLegacyZipBlobIsStillFound(@TempDir Path tempDirectory) throws BlackDuckInstallerException, IOException {
+        ArtifactCache artifactCache = new ArtifactCache(new SilentIntLogger(), tempDirectory.toFile());
+        byte[] contents = "cached by an earlier installer".getBytes(StandardCharsets.UTF_8);
+        File blob = storeContents(artifactCache, contents);
+        File legacyBlob = new File(blob.getParentFile(), DigestUtils.sha256Hex(contents) + ".zip");
+        Files.move(blob.toPath(), legacyBlob.toPath());
+
+        Optional<File> cachedArchive = artifactCache.findArchive(DOWNLOAD_URL, "2019.8.1");
+
+        Assertions.assertEquals(Optional.of(blob), cachedArchive);
+        Assertions.assertArrayEquals(contents, Files.readAllBytes(blob.toPath()));
+        Assertions.assertFalse(legacyBlob.exists());
+    }
+
+    private File storeContents(ArtifactCache artifactCache, byte[] contents) throws BlackDuckInstallerException, IOException {
+        File tempFile = artifactCache.getPartialFile(DOWNLOAD_URL, "2019.8.1");
+        Files.write(tempFile.toPath(), contents);
+        DownloadResult downloadResult = new DownloadResult(tempFile, DigestUtils.sha256Hex(contents), contents.length);
+
+        File blob = artifactCache.store(downloadResult, DOWNLOAD_URL, "2019.8.1");
+        Assertions.assertFalse(tempFile.exists());
+        return blob;
+    }
+
+}
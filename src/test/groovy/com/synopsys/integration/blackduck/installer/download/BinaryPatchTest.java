@@ -0,0 +1,104 @@
+package com.synopsys.integration.blackduck.installer.download;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorOutputStream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class BinaryPatchTest {
+    private static final byte[] OLD = "The quick brown fox jumps over the lazy dog".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NEW = "The quick red fox jumps over the lazy cat!!The quick".getBytes(StandardCharsets.US_ASCII);
+
+    @Test
+    public void testPatchRebuildsTheNewFile(@TempDir Path tempDirectory) throws IOException {
+        File oldFile = tempDirectory.resolve("old").toFile();
+        File patchFile = tempDirectory.resolve("patch").toFile();
+        File newFile = tempDirectory.resolve("new").toFile();
+        Files.write(oldFile.toPath(), OLD);
+        Files.write(patchFile.toPath(), createPatch());
+
+        DownloadResult downloadResult = new BinaryPatch().apply(oldFile, patchFile, newFile);
+
+        Assertions.assertArrayEquals(NEW, Files.readAllBytes(newFile.toPath()));
+        Assertions.assertEquals(DigestUtils.sha256Hex(NEW), downloadResult.getSha256());
+        Assertions.assertEquals(NEW.length, downloadResult.getSize());
+    }
+
+    @Test
+    public void testOtherFormatsAreRejected(@TempDir Path tempDirectory) throws IOException {
+        File oldFile = tempDirectory.resolve("old").toFile();
+        File patchFile = tempDirectory.resolve("patch").toFile();
+        Files.write(oldFile.toPath(), OLD);
+        Files.write(patchFile.toPath(), "BSDIFF41 is not a real patch header".getBytes(StandardCharsets.US_ASCII));
+
+        Assertions.assertThrows(IOException.class, () -> new BinaryPatch().apply(oldFile, patchFile, tempDirectory.resolve("new").toFile()));
+    }
+
+    private byte[] createPatch() throws IOException {
+        ByteArrayOutputStream control = new ByteArrayOutputStream();
+        ByteArrayOutputStream diff = new ByteArrayOutputStream();
+        ByteArrayOutputStream extra = new ByteArrayOutputStream();
+
+        // "The quick " is unchanged, "red" replaces "brown"
+        writeControl(control, 10, 3, 5);
+        diff.write(new byte[10]);
+        extra.write("red".getBytes(StandardCharsets.US_ASCII));
+
+        // " fox jumps over the lazy " is unchanged, "dog" becomes "cat", then seek back to the start
+        writeControl(control, 28, 2, -43);
+        diff.write(new byte[25]);
+        for (int i = 0; i < 3; i++) {
+            diff.write("cat".charAt(i) - "dog".charAt(i));
+        }
+        extra.write("!!".getBytes(StandardCharsets.US_ASCII));
+
+        writeControl(control, 9, 0, 0);
+        diff.write(new byte[9]);
+
+        byte[] controlBlock = compress(control.toByteArray());
+        byte[] diffBlock = compress(diff.toByteArray());
+        ByteArrayOutputStream patch = new ByteArrayOutputStream();
+        patch.write("BSDIFF40".getBytes(StandardCharsets.US_ASCII));
+        writeOffset(patch, controlBlock.length);
+        writeOffset(patch, diffBlock.length);
+        writeOffset(patch, NEW.length);
+        patch.write(controlBlock);
+        patch.write(diffBlock);
+        patch.write(compress(extra.toByteArray()));
+        return patch.toByteArray();
+    }
+
+    private void writeControl(ByteArrayOutputStream control, long diffBytes, long extraBytes, long seek) {
+        writeOffset(control, diffBytes);
+        writeOffset(control, extraBytes);
+        writeOffset(control, seek);
+    }
+
+    private void writeOffset(ByteArrayOutputStream outputStream, long offset) {
+        long magnitude = Math.abs(offset);
+        for (int i = 0; i < 8; i++) {
+            int value = (int) (magnitude >>> (8 * i)) & 0xFF;
+            if (7 == i && offset < 0) {
+                value |= 0x80;
+            }
+            outputStream.write(value);
+        }
+    }
+
+    private byte[] compress(byte[] bytes) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (BZip2CompressorOutputStream outputStream = new BZip2CompressorOutputStream(compressed)) {
+            outputStream.write(bytes);
+        }
+        return compressed.toByteArray();
+    }
+
+}
@@ -0,0 +1,126 @@
+package com.synopsys.integration.blackduck.installer.download;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+public class BlockGzipInputStreamTest {
+    private static final int BLOCK_SIZE = 16 * 1024;
+
+    @Test
+    public void testBlocksAreInflatedInOrder() throws IOException {
+        byte[] data = createData();
+        byte[] blocked = createBlockedGzip(data);
+
+        try (InputStream inputStream = BlockGzipInputStream.open(new ByteArrayInputStream(blocked), 4)) {
+            Assertions.assertTrue(inputStream instanceof BlockGzipInputStream);
+            Assertions.assertArrayEquals(data, IOUtils.toByteArray(inputStream));
+        }
+    }
+
+    @Test
+    public void testPlainGzipIsStillRead() throws IOException {
+        byte[] data = createData();
+        ByteArrayOutputStream plain = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(plain)) {
+            gzipOutputStream.write(data);
+        }
+
+        try (InputStream inputStream = BlockGzipInputStream.open(new ByteArrayInputStream(plain.toByteArray()), 4)) {
+            Assertions.assertFalse(inputStream instanceof BlockGzipInputStream);
+            Assertions.assertArrayEquals(data, IOUtils.toByteArray(inputStream));
+        }
+    }
+
+    @Test
+    public void testCorruptBlockIsRejected() throws IOException {
+        byte[] blocked = createBlockedGzip(createData());
+        // the CRC of the first block
+        int crcOffset = readShort(blocked, 16) + 1 - 8;
+        blocked[crcOffset] ^= 1;
+
+        try (InputStream inputStream = BlockGzipInputStream.open(new ByteArrayInputStream(blocked), 4)) {
+            IOException e = Assertions.assertThrows(IOException.class, () -> IOUtils.toByteArray(inputStream));
+            Assertions.assertEquals("A gzip block failed its CRC check.", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testImpossibleInflatedSizeIsRejected() throws IOException {
+        byte[] blocked = createBlockedGzip(createData());
+        // the ISIZE of the first block, now close to 4 GB
+        int isizeOffset = readShort(blocked, 16) + 1 - 4;
+        blocked[isizeOffset + 3] = (byte) 0xff;
+
+        try (InputStream inputStream = BlockGzipInputStream.open(new ByteArrayInputStream(blocked), 4)) {
+            IOException e = Assertions.assertThrows(IOException.class, () -> IOUtils.toByteArray(inputStream));
+            Assertions.assertTrue(e.getMessage().contains("claims to inflate to"), e.getMessage());
+        }
+    }
+
+    private byte[] createData() {
+        byte[] data = new byte[BLOCK_SIZE * 10 + 123];
+        Random random = new Random(42);
+        for (int i = 0; i < data.length; i++) {
+            // compressible, but not trivially
+            data[i] = (byte) ('a' + random.nextInt(8));
+        }
+        return data;
+    }
+
+    private byte[] createBlockedGzip(byte[] data) throws IOException {
+        ByteArrayOutputStream blocked = new ByteArrayOutputStream();
+        for (int offset = 0; offset < data.length; offset += BLOCK_SIZE) {
+            writeBlock(blocked, data, offset, Math.min(BLOCK_SIZE, data.length - offset));
+        }
+        // bgzip ends with an empty block
+        writeBlock(blocked, data, 0, 0);
+        return blocked.toByteArray();
+    }
+
+    private void writeBlock(ByteArrayOutputStream blocked, byte[] data, int offset, int length) throws IOException {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        deflater.setInput(data, offset, length);
+        deflater.finish();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        byte[] buffer = new byte[BLOCK_SIZE];
+        while (!deflater.finished()) {
+            compressed.write(buffer, 0, deflater.deflate(buffer));
+        }
+        deflater.end();
+
+        CRC32 crc32 = new CRC32();
+        crc32.update(data, offset, length);
+
+        int blockSize = 18 + compressed.size() + 8;
+        blocked.write(new byte[] { 0x1f, (byte) 0x8b, 8, 4, 0, 0, 0, 0, 0, (byte) 0xff, 6, 0, 'B', 'C', 2, 0 });
+        writeShort(blocked, blockSize - 1);
+        compressed.writeTo(blocked);
+        writeInt(blocked, (int) crc32.getValue());
+        writeInt(blocked, length);
+    }
+
+    private void writeShort(ByteArrayOutputStream outputStream, int value) {
+        outputStream.write(value & 0xff);
+        outputStream.write((value >>> 8) & 0xff);
+    }
+
+    private void writeInt(ByteArrayOutputStream outputStream, int value) {
+        writeShort(outputStream, value & 0xffff);
+        writeShort(outputStream, value >>> 16);
+    }
+
+    private int readShort(byte[] bytes, int position) {
+        return (bytes[position] & 0xff) | (bytes[position + 1] & 0xff) << 8;
+    }
+
+}
@@ -0,0 +1,36 @@
+package com.synopsys.integration.blackduck.installer.download;
+
+import com.synopsys.integration.blackduck.installer.exception.BlackDuckInstallerException;
+import com.synopsys.integration.blackduck.installer.model.ExecutablesRunner;
+import com.synopsys.integration.executable.ExecutableOutput;
+import com.synopsys.integration.log.SilentIntLogger;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class LocalStagerTest {
+    @Test
+    public void testStagedArchiveIsNotChangedWithTheMedia(@TempDir Path tempDirectory) throws BlackDuckInstallerException, IOException {
+        // cp --reflink=always is not supported, so the archive is copied
+        LocalStager localStager = new LocalStager(new SilentIntLogger(), new ExecutablesRunner(executable -> new ExecutableOutput(1, "", "")));
+        File source = tempDirectory.resolve("blackduck-2019.10.0.zip").toFile();
+        File target = tempDirectory.resolve("staged.zip.part").toFile();
+        Files.write(source.toPath(), "2019.10.0".getBytes(StandardCharsets.UTF_8));
+
+        DownloadResult downloadResult = localStager.stageArchive(source, target);
+        // a new release copied over the same path, the way scp rewrites a file
+        Files.write(source.toPath(), "2019.10.1".getBytes(StandardCharsets.UTF_8));
+
+        Assertions.assertFalse(Files.isSameFile(source.toPath(), target.toPath()));
+        Assertions.assertEquals(DigestUtils.sha256Hex("2019.10.0"), downloadResult.getSha256());
+        Assertions.assertEquals("2019.10.0", new String(Files.readAllBytes(target.toPath()), StandardCharsets.UTF_8));
+    }
+
+}
@@ -0,0 +1,68 @@
+package com.synopsys.integration.blackduck.installer.download;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.synopsys.integration.log.SilentIntLogger;
+import com.synopsys.integration.rest.client.IntHttpClient;
+import com.synopsys.integration.rest.proxy.ProxyInfo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+public class MirrorSelectorTest {
+    private HttpServer httpServer;
+    private String baseUrl;
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        httpServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        httpServer.createContext("/slow", httpExchange -> respond(httpExchange, 206, 2000));
+        httpServer.createContext("/fast", httpExchange -> respond(httpExchange, 206, 0));
+        httpServer.createContext("/missing", httpExchange -> respond(httpExchange, 404, 0));
+        httpServer.setExecutor(Executors.newCachedThreadPool());
+        httpServer.start();
+        baseUrl = "http://127.0.0.1:" + httpServer.getAddress().getPort();
+    }
+
+    @AfterEach
+    public void stopServer() {
+        httpServer.stop(0);
+    }
+
+    @Test
+    public void testFirstMirrorToAnswerIsUsed() {
+        MirrorSelector mirrorSelector = new MirrorSelector(new SilentIntLogger(), new IntHttpClient(new SilentIntLogger(), 30, false, ProxyInfo.NO_PROXY_INFO));
+
+        List<String> rankedUrls = mirrorSelector.rankMirrors(Arrays.asList(baseUrl + "/missing", baseUrl + "/slow", baseUrl + "/fast"));
+
+        Assertions.assertEquals(Arrays.asList(baseUrl + "/fast", baseUrl + "/missing", baseUrl + "/slow"), rankedUrls);
+    }
+
+    @Test
+    public void testNoAnswerKeepsTheConfiguredOrder() {
+        MirrorSelector mirrorSelector = new MirrorSelector(new SilentIntLogger(), new IntHttpClient(new SilentIntLogger(), 30, false, ProxyInfo.NO_PROXY_INFO));
+        List<String> downloadUrls = Arrays.asList(baseUrl + "/missing", "http://127.0.0.1:1/hub.zip");
+
+        Assertions.assertEquals(downloadUrls, mirrorSelector.rankMirrors(downloadUrls));
+    }
+
+    private void respond(HttpExchange httpExchange, int statusCode, long delayMillis) throws IOException {
+        try {
+            Thread.sleep(delayMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        httpExchange.getResponseHeaders().add(ParallelDownloader.CONTENT_RANGE_HEADER, "bytes 0-0/1");
+        httpExchange.sendResponseHeaders(statusCode, 1);
+        httpExchange.getResponseBody().write('x');
+        httpExchange.close();
+    }
+
+}
@@ -0,0 +1,103 @@
+package com.synopsys.integration.blackduck.installer.download;
+
+import com.synopsys.integration.blackduck.installer.exception.BlackDuckInstallerException;
+import com.synopsys.integration.log.SilentIntLogger;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
+import org.apache.commons.compress.compressors.zstandard.ZstdCompressorOutputStream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Collections;
+import java.util.Optional;
+
+public class MultiFormatExpanderTest {
+    @Test
+    public void testTarGzIsExpanded(@TempDir Path tempDirectory) throws BlackDuckInstallerException, IOException {
+        File archive = createArchive(tempDirectory.resolve("hub-2019.10.0.tar.gz").toFile(), ArchiveFormat.TAR_GZ);
+        File destination = tempDirectory.resolve("expanded").toFile();
+
+        createExpander().expand(archive, destination);
+
+        assertOnlyDockerSwarmExpanded(destination);
+    }
+
+    @Test
+    public void testTarZstIsExpandedWhileStreaming(@TempDir Path tempDirectory) throws BlackDuckInstallerException, IOException {
+        File archive = createArchive(tempDirectory.resolve("hub-2019.10.0.tar.zst").toFile(), ArchiveFormat.TAR_ZST);
+        File destination = tempDirectory.resolve("expanded").toFile();
+
+        try (InputStream inputStream = new FileInputStream(archive)) {
+            createExpander().expand(inputStream, destination);
+        }
+
+        assertOnlyDockerSwarmExpanded(destination);
+    }
+
+    @Test
+    public void testSkippedEntryIsExpandedOnDemand(@TempDir Path tempDirectory) throws BlackDuckInstallerException, IOException {
+        for (ArchiveFormat archiveFormat : new ArchiveFormat[] { ArchiveFormat.TAR_GZ, ArchiveFormat.TAR_ZST }) {
+            File archive = createArchive(tempDirectory.resolve("hub-2019.10.0" + archiveFormat.getExtension()).toFile(), archiveFormat);
+            File destination = tempDirectory.resolve("expanded" + archiveFormat.getExtension()).toFile();
+            ArchiveExpander archiveExpander = createExpander();
+            archiveExpander.expand(archive, destination);
+
+            Optional<File> entryFile = archiveExpander.expandEntry(archive, destination, "hub-2019.10.0/kubernetes/1-cfssl.yml");
+
+            Assertions.assertTrue(entryFile.isPresent(), archiveFormat.toString());
+            Assertions.assertEquals("kind: Deployment", new String(Files.readAllBytes(entryFile.get().toPath()), StandardCharsets.UTF_8));
+            Assertions.assertFalse(archiveExpander.expandEntry(archive, destination, "hub-2019.10.0/kubernetes/missing.yml").isPresent());
+        }
+    }
+
+    private ArchiveExpander createExpander() {
+        ArchivePrefixes prefixes = new ArchivePrefixes(Collections.singletonList("docker-swarm"));
+        SelectiveZipExpander zipExpander = new SelectiveZipExpander(new SilentIntLogger(), new ParallelZipExpander(new SilentIntLogger(), 2), Collections.singletonList("docker-swarm"));
+        return new MultiFormatExpander(zipExpander, new TarArchiveExpander(new SilentIntLogger(), prefixes, 2));
+    }
+
+    private void assertOnlyDockerSwarmExpanded(File destination) throws IOException {
+        File dockerSwarm = new File(destination, "hub-2019.10.0/docker-swarm");
+        Assertions.assertEquals("version: '3.6'", new String(Files.readAllBytes(new File(dockerSwarm, "docker-compose.yml").toPath()), StandardCharsets.UTF_8));
+        Assertions.assertEquals("rwxr-x---", PosixFilePermissions.toString(Files.getPosixFilePermissions(new File(dockerSwarm, "bin/docker-compose-check.sh").toPath())));
+        // a read only entry stays writable for its owner, since the editors change it
+        Assertions.assertEquals("rw-r--r--", PosixFilePermissions.toString(Files.getPosixFilePermissions(new File(dockerSwarm, "docker-compose.yml").toPath())));
+        Assertions.assertFalse(new File(destination, "hub-2019.10.0/docker-swarm-extra").exists());
+        Assertions.assertFalse(new File(destination, "hub-2019.10.0/kubernetes").exists());
+    }
+
+    private File createArchive(File archive, ArchiveFormat archiveFormat) throws IOException {
+        try (OutputStream fileOutputStream = new FileOutputStream(archive);
+             OutputStream compressedOutputStream = ArchiveFormat.TAR_GZ == archiveFormat ? new GzipCompressorOutputStream(fileOutputStream) : new ZstdCompressorOutputStream(fileOutputStream);
+             TarArchiveOutputStream tarArchiveOutputStream = new TarArchiveOutputStream(compressedOutputStream)) {
+            addEntry(tarArchiveOutputStream, "hub-2019.10.0/docker-swarm/docker-compose.yml", "version: '3.6'", 0444);
+            addEntry(tarArchiveOutputStream, "hub-2019.10.0/docker-swarm/bin/docker-compose-check.sh", "#!/bin/sh", 0750);
+            addEntry(tarArchiveOutputStream, "hub-2019.10.0/docker-swarm-extra/notes.txt", "not selected", 0644);
+            addEntry(tarArchiveOutputStream, "hub-2019.10.0/kubernetes/1-cfssl.yml", "kind: Deployment", 0644);
+        }
+        return archive;
+    }
+
+    private void addEntry(TarArchiveOutputStream tarArchiveOutputStream, String name, String contents, int mode) throws IOException {
+        byte[] bytes = contents.getBytes(StandardCharsets.UTF_8);
+        TarArchiveEntry entry = new TarArchiveEntry(name);
+        entry.setSize(bytes.length);
+        entry.setMode(mode);
+        tarArchiveOutputStream.putArchiveEntry(entry);
+        tarArchiveOutputStream.write(bytes);
+        tarArchiveOutputStream.closeArchiveEntry();
+    }
+
+}
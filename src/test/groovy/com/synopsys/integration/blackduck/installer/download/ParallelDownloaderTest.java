@@ -0,0 +1,217 @@
+package com.synopsys.integration.blackduck.installer.download;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.synopsys.integration.blackduck.installer.exception.BlackDuckInstallerException;
+import com.synopsys.integration.blackduck.installer.exception.SlowDownloadException;
+import com.synopsys.integration.log.SilentIntLogger;
+import com.synopsys.integration.rest.client.IntHttpClient;
+import com.synopsys.integration.rest.proxy.ProxyInfo;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class ParallelDownloaderTest {
+    private static final Pattern RANGE = Pattern.compile("bytes=(\\d+)-(\\d+)");
+
+    private final CountDownLatch stopped = new CountDownLatch(1);
+    private final List<String> requestedRanges = new CopyOnWriteArrayList<>();
+
+    private HttpServer httpServer;
+    private String baseUrl;
+
+    // what the archive server currently serves
+    private volatile byte[] contents = createContents(0);
+    private volatile String eTag = "\"v1\"";
+    private volatile long bytesPerResponse = Long.MAX_VALUE;
+    private volatile boolean rangesSupported = true;
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        httpServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        httpServer.createContext("/archive.zip", this::serveArchive);
+        httpServer.createContext("/stalled.zip", httpExchange -> {
+            // a little of the archive, then nothing until the test is over
+            httpExchange.sendResponseHeaders(200, 1024 * 1024);
+            OutputStream responseBody = httpExchange.getResponseBody();
+            responseBody.write(new byte[1024]);
+            responseBody.flush();
+            try {
+                stopped.await(60, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            httpExchange.close();
+        });
+        httpServer.setExecutor(Executors.newCachedThreadPool());
+        httpServer.start();
+        baseUrl = "http://127.0.0.1:" + httpServer.getAddress().getPort();
+    }
+
+    @AfterEach
+    public void stopServer() {
+        stopped.countDown();
+        httpServer.stop(0);
+    }
+
+    @Test
+    public void testRangesAreAssembled(@TempDir Path tempDirectory) throws BlackDuckInstallerException, IOException {
+        ParallelDownloader parallelDownloader = new ParallelDownloader(new SilentIntLogger(), createHttpClient(), 4, 0);
+        File partFile = tempDirectory.resolve("archive.zip.part").toFile();
+
+        DownloadResult downloadResult = parallelDownloader.download(baseUrl + "/archive.zip", partFile, null, false);
+
+        // the probe and one request for each of the three ranges
+        Assertions.assertEquals(4, requestedRanges.size());
+        Assertions.assertEquals("bytes=0-0", requestedRanges.get(0));
+        Assertions.assertEquals(contents.length, downloadResult.getSize());
+        Assertions.assertEquals(contents.length, partFile.length());
+        Assertions.assertEquals(DigestUtils.sha256Hex(contents), downloadResult.getSha256());
+        Assertions.assertEquals(DigestUtils.sha256Hex(contents), DigestUtils.sha256Hex(Files.readAllBytes(partFile.toPath())));
+        Assertions.assertFalse(downloadResult.isExpanded());
+        Assertions.assertFalse(PartialDownload.load(partFile).isPresent());
+    }
+
+    @Test
+    public void testServerWithoutRangesUsesOneStream(@TempDir Path tempDirectory) throws BlackDuckInstallerException, IOException {
+        ParallelDownloader parallelDownloader = new ParallelDownloader(new SilentIntLogger(), createHttpClient(), 4, 0);
+        File partFile = tempDirectory.resolve("archive.zip.part").toFile();
+        ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+
+        rangesSupported = false;
+        DownloadResult downloadResult = parallelDownloader.download(baseUrl + "/archive.zip", partFile, archiveStream -> IOUtils.copy(archiveStream, streamed), false);
+
+        Assertions.assertTrue(requestedRanges.isEmpty());
+        Assertions.assertEquals(contents.length, downloadResult.getSize());
+        Assertions.assertEquals(DigestUtils.sha256Hex(contents), downloadResult.getSha256());
+        Assertions.assertArrayEquals(contents, Files.readAllBytes(partFile.toPath()));
+        // a single stream arrives in order, so it is expanded while it downloads
+        Assertions.assertTrue(downloadResult.isExpanded());
+        Assertions.assertArrayEquals(contents, streamed.toByteArray());
+        Assertions.assertFalse(downloadResult.getRemoteArchive().get().isRangesSupported());
+    }
+
+    @Test
+    public void testInterruptedDownloadIsResumed(@TempDir Path tempDirectory) throws BlackDuckInstallerException, IOException {
+        ParallelDownloader parallelDownloader = new ParallelDownloader(new SilentIntLogger(), createHttpClient(), 4, 0);
+        File partFile = tempDirectory.resolve("archive.zip.part").toFile();
+
+        bytesPerResponse = 1024 * 1024;
+        Assertions.assertThrows(BlackDuckInstallerException.class, () -> parallelDownloader.download(baseUrl + "/archive.zip", partFile, null, false));
+        Optional<PartialDownload> interruptedDownload = PartialDownload.load(partFile);
+        Assertions.assertTrue(interruptedDownload.isPresent());
+        long receivedBeforeInterruption = interruptedDownload.get().getTotalReceived();
+        Assertions.assertTrue(receivedBeforeInterruption > 0 && receivedBeforeInterruption < contents.length);
+
+        bytesPerResponse = Long.MAX_VALUE;
+        requestedRanges.clear();
+        DownloadResult downloadResult = parallelDownloader.download(baseUrl + "/archive.zip", partFile, null, false);
+
+        Assertions.assertArrayEquals(contents, Files.readAllBytes(partFile.toPath()));
+        Assertions.assertEquals(DigestUtils.sha256Hex(contents), downloadResult.getSha256());
+        Assertions.assertEquals(contents.length - receivedBeforeInterruption, downloadResult.getTransferStatistics().get().getBytesReceived());
+        Assertions.assertFalse(isRangeRequestedFromStart(), "the first range should not start over: " + requestedRanges);
+        Assertions.assertFalse(PartialDownload.load(partFile).isPresent());
+    }
+
+    @Test
+    public void testChangedArchiveStartsOver(@TempDir Path tempDirectory) throws BlackDuckInstallerException, IOException {
+        ParallelDownloader parallelDownloader = new ParallelDownloader(new SilentIntLogger(), createHttpClient(), 4, 0);
+        File partFile = tempDirectory.resolve("archive.zip.part").toFile();
+
+        bytesPerResponse = 1024 * 1024;
+        Assertions.assertThrows(BlackDuckInstallerException.class, () -> parallelDownloader.download(baseUrl + "/archive.zip", partFile, null, false));
+        Assertions.assertTrue(PartialDownload.load(partFile).isPresent());
+
+        // a new release was published under the same url
+        contents = createContents(1);
+        eTag = "\"v2\"";
+        bytesPerResponse = Long.MAX_VALUE;
+        requestedRanges.clear();
+        DownloadResult downloadResult = parallelDownloader.download(baseUrl + "/archive.zip", partFile, null, false);
+
+        Assertions.assertArrayEquals(contents, Files.readAllBytes(partFile.toPath()));
+        Assertions.assertEquals(DigestUtils.sha256Hex(contents), downloadResult.getSha256());
+        Assertions.assertEquals(contents.length, downloadResult.getTransferStatistics().get().getBytesReceived());
+        Assertions.assertTrue(isRangeRequestedFromStart());
+    }
+
+    @Test
+    public void testStalledTransferIsAbandonedForFailover(@TempDir Path tempDirectory) {
+        ParallelDownloader parallelDownloader = new ParallelDownloader(new SilentIntLogger(), createHttpClient(), 4, 64 * 1024);
+
+        long start = System.currentTimeMillis();
+        BlackDuckInstallerException e = Assertions.assertThrows(BlackDuckInstallerException.class, () -> parallelDownloader.download(baseUrl + "/stalled.zip", tempDirectory.resolve("stalled.zip.part").toFile(), null, true));
+
+        Assertions.assertTrue(e.getCause() instanceof SlowDownloadException, "the stall should be reported, not " + e.getCause());
+        // one throughput window, not the server's 60 seconds
+        Assertions.assertTrue(System.currentTimeMillis() - start < 30 * 1000);
+    }
+
+    /*
+    Honours Range and If-Range like a release server would, but gives up on a response after bytesPerResponse bytes.
+     */
+    private void serveArchive(HttpExchange httpExchange) throws IOException {
+        byte[] served = contents;
+        String range = httpExchange.getRequestHeaders().getFirst(ParallelDownloader.RANGE_HEADER);
+        String ifRange = httpExchange.getRequestHeaders().getFirst(ParallelDownloader.IF_RANGE_HEADER);
+        httpExchange.getResponseHeaders().add(ParallelDownloader.ETAG_HEADER, eTag);
+
+        int start = 0;
+        int end = served.length - 1;
+        Matcher matcher = null == range ? null : RANGE.matcher(range);
+        if (rangesSupported && null != matcher && matcher.matches() && (null == ifRange || ifRange.equals(eTag))) {
+            requestedRanges.add(range);
+            start = Integer.parseInt(matcher.group(1));
+            end = Math.min(Integer.parseInt(matcher.group(2)), served.length - 1);
+            httpExchange.getResponseHeaders().add(ParallelDownloader.CONTENT_RANGE_HEADER, String.format("bytes %s-%s/%s", start, end, served.length));
+            httpExchange.sendResponseHeaders(ParallelDownloader.PARTIAL_CONTENT, end - start + 1);
+        } else {
+            httpExchange.sendResponseHeaders(200, served.length);
+        }
+
+        // closing a response that is short of its length fails, and the server then drops the connection
+        int length = (int) Math.min(end - start + 1, bytesPerResponse);
+        try (OutputStream responseBody = httpExchange.getResponseBody()) {
+            responseBody.write(served, start, length);
+        }
+    }
+
+    // the one byte probe doesn't count
+    private boolean isRangeRequestedFromStart() {
+        return requestedRanges.stream().anyMatch(range -> range.startsWith("bytes=0-") && !range.equals("bytes=0-0"));
+    }
+
+    private IntHttpClient createHttpClient() {
+        return new IntHttpClient(new SilentIntLogger(), 120, false, ProxyInfo.NO_PROXY_INFO);
+    }
+
+    private static byte[] createContents(long seed) {
+        // enough for three ranges of the minimum range size
+        byte[] contents = new byte[12 * 1024 * 1024 + 5];
+        new Random(seed).nextBytes(contents);
+        return contents;
+    }
+
+}
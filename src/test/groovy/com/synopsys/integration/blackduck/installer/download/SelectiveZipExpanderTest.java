@@ -0,0 +1,69 @@
+package com.synopsys.integration.blackduck.installer.download;
+
+import com.synopsys.integration.blackduck.installer.exception.BlackDuckInstallerException;
+import com.synopsys.integration.log.SilentIntLogger;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+
+public class SelectiveZipExpanderTest {
+    @Test
+    public void testOnlyPrefixedEntriesAreExpanded(@TempDir Path tempDirectory) throws BlackDuckInstallerException, IOException {
+        File archive = createArchive(tempDirectory.toFile());
+        File destination = new File(tempDirectory.toFile(), "expanded");
+
+        SelectiveZipExpander selectiveZipExpander = new SelectiveZipExpander(new SilentIntLogger(), new ParallelZipExpander(new SilentIntLogger(), 2), Collections.singletonList("docker-swarm/"));
+        selectiveZipExpander.expand(archive, destination);
+
+        Assertions.assertTrue(new File(destination, "hub-2019.8.1/docker-swarm/docker-compose.yml").isFile());
+        Assertions.assertTrue(new File(destination, "hub-2019.8.1/docker-swarm/bin/docker-compose-check.sh").canExecute());
+        Assertions.assertFalse(new File(destination, "hub-2019.8.1/docker-swarm-extra").exists());
+        Assertions.assertFalse(new File(destination, "hub-2019.8.1/kubernetes").exists());
+
+        Optional<File> lazyFile = selectiveZipExpander.expandEntry(archive, destination, "hub-2019.8.1/kubernetes");
+        Assertions.assertTrue(lazyFile.isPresent());
+        Assertions.assertTrue(new File(lazyFile.get(), "blackduck.yml").isFile());
+        Assertions.assertFalse(selectiveZipExpander.expandEntry(archive, destination, "hub-2019.8.1/openshift").isPresent());
+    }
+
+    @Test
+    public void testNoPrefixesExpandsEverything(@TempDir Path tempDirectory) throws BlackDuckInstallerException, IOException {
+        File archive = createArchive(tempDirectory.toFile());
+        File destination = new File(tempDirectory.toFile(), "expanded");
+
+        new SelectiveZipExpander(new SilentIntLogger(), new ParallelZipExpander(new SilentIntLogger(), 2), Arrays.asList("", " ")).expand(archive, destination);
+
+        Assertions.assertTrue(new File(destination, "hub-2019.8.1/docker-swarm/docker-compose.yml").isFile());
+        Assertions.assertTrue(new File(destination, "hub-2019.8.1/kubernetes/blackduck.yml").isFile());
+    }
+
+    private File createArchive(File directory) throws IOException {
+        File archive = new File(directory, "hub.zip");
+        try (ZipArchiveOutputStream zipArchiveOutputStream = new ZipArchiveOutputStream(archive)) {
+            addEntry(zipArchiveOutputStream, "hub-2019.8.1/docker-swarm/docker-compose.yml", 0644);
+            addEntry(zipArchiveOutputStream, "hub-2019.8.1/docker-swarm/bin/docker-compose-check.sh", 0755);
+            addEntry(zipArchiveOutputStream, "hub-2019.8.1/docker-swarm-extra/readme.md", 0644);
+            addEntry(zipArchiveOutputStream, "hub-2019.8.1/kubernetes/blackduck.yml", 0644);
+        }
+        return archive;
+    }
+
+    private void addEntry(ZipArchiveOutputStream zipArchiveOutputStream, String name, int unixMode) throws IOException {
+        ZipArchiveEntry entry = new ZipArchiveEntry(name);
+        entry.setUnixMode(unixMode);
+        zipArchiveOutputStream.putArchiveEntry(entry);
+        zipArchiveOutputStream.write(name.getBytes(StandardCharsets.UTF_8));
+        zipArchiveOutputStream.closeArchiveEntry();
+    }
+
+}
@@ -0,0 +1,101 @@
+package com.synopsys.integration.blackduck.installer.download;
+
+import com.synopsys.integration.blackduck.installer.exception.BlackDuckInstallerException;
+import com.synopsys.integration.log.SilentIntLogger;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.NullOutputStream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class TeePipelineTest {
+    private static final byte[] CONTENTS = createContents();
+
+    @Test
+    public void testConsumerSeesEveryByte(@TempDir Path tempDirectory) throws BlackDuckInstallerException, IOException {
+        File targetFile = tempDirectory.resolve("archive.zip").toFile();
+        ByteArrayOutputStream consumed = new ByteArrayOutputStream();
+
+        DownloadResult downloadResult = new TeePipeline(new SilentIntLogger()).run(new ByteArrayInputStream(CONTENTS), targetFile, archiveStream -> IOUtils.copy(archiveStream, consumed));
+
+        Assertions.assertTrue(downloadResult.isExpanded());
+        Assertions.assertEquals(CONTENTS.length, downloadResult.getSize());
+        Assertions.assertEquals(DigestUtils.sha256Hex(CONTENTS), downloadResult.getSha256());
+        Assertions.assertArrayEquals(CONTENTS, Files.readAllBytes(targetFile.toPath()));
+        Assertions.assertArrayEquals(CONTENTS, consumed.toByteArray());
+    }
+
+    @Test
+    public void testFailedConsumerStillPersistsTheArchive(@TempDir Path tempDirectory) throws BlackDuckInstallerException, IOException {
+        File targetFile = tempDirectory.resolve("archive.zip").toFile();
+
+        DownloadResult downloadResult = new TeePipeline(new SilentIntLogger()).run(new ByteArrayInputStream(CONTENTS), targetFile, archiveStream -> {
+            archiveStream.read(new byte[100]);
+            throw new IOException("not a zip");
+        });
+
+        Assertions.assertFalse(downloadResult.isExpanded());
+        Assertions.assertEquals(DigestUtils.sha256Hex(CONTENTS), downloadResult.getSha256());
+        Assertions.assertArrayEquals(CONTENTS, Files.readAllBytes(targetFile.toPath()));
+    }
+
+    @Test
+    public void testFailedReadWaitsForTheConsumer(@TempDir Path tempDirectory) {
+        File targetFile = tempDirectory.resolve("archive.zip").toFile();
+        InputStream failingSource = new InputStream() {
+            private final InputStream contents = new ByteArrayInputStream(CONTENTS, 0, 1024 * 1024);
+
+            @Override
+            public int read() throws IOException {
+                int read = contents.read();
+                if (-1 == read) {
+                    throw new IOException("connection reset");
+                }
+                return read;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                int read = contents.read(buffer, offset, length);
+                if (-1 == read) {
+                    throw new IOException("connection reset");
+                }
+                return read;
+            }
+        };
+        AtomicBoolean consumerFinished = new AtomicBoolean();
+
+        IOException e = Assertions.assertThrows(IOException.class, () -> new TeePipeline(new SilentIntLogger()).run(failingSource, targetFile, archiveStream -> {
+            IOUtils.copy(archiveStream, NullOutputStream.NULL_OUTPUT_STREAM);
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException interrupted) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            consumerFinished.set(true);
+        }));
+
+        Assertions.assertEquals("connection reset", e.getMessage());
+        Assertions.assertTrue(consumerFinished.get());
+    }
+
+    private static byte[] createContents() {
+        // several times the ring so the stages have to wait on each other
+        byte[] contents = new byte[5 * 1024 * 1024 + 17];
+        new Random(0).nextBytes(contents);
+        return contents;
+    }
+
+}
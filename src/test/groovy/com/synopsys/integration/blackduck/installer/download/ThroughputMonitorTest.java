@@ -0,0 +1,77 @@
+package com.synopsys.integration.blackduck.installer.download;
+
+import com.synopsys.integration.blackduck.installer.exception.SlowDownloadException;
+import com.synopsys.integration.log.SilentIntLogger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class ThroughputMonitorTest {
+    @Test
+    public void testStalledConnectionIsClosed() {
+        ThroughputMonitor throughputMonitor = new ThroughputMonitor(new SilentIntLogger(), "http://mirror/hub.zip", 1024, 200);
+        StalledConnection stalledConnection = new StalledConnection();
+
+        long start = System.currentTimeMillis();
+        InputStream inputStream = throughputMonitor.monitor(stalledConnection, stalledConnection);
+        Assertions.assertThrows(SlowDownloadException.class, () -> inputStream.read(new byte[1024]));
+
+        Assertions.assertTrue(stalledConnection.closed);
+        Assertions.assertTrue(System.currentTimeMillis() - start < 5000);
+    }
+
+    @Test
+    public void testSlowTransferIsAbandoned() throws IOException, InterruptedException {
+        ThroughputMonitor throughputMonitor = new ThroughputMonitor(new SilentIntLogger(), "http://mirror/hub.zip", 1024 * 1024, 200);
+        InputStream inputStream = throughputMonitor.monitor(new ByteArrayInputStream(new byte[1024]), () -> {
+        });
+
+        inputStream.read(new byte[10]);
+        Thread.sleep(300);
+
+        Assertions.assertThrows(SlowDownloadException.class, () -> inputStream.read(new byte[10]));
+    }
+
+    @Test
+    public void testNoMinimumOnlyCounts() throws IOException, InterruptedException {
+        ThroughputMonitor throughputMonitor = new ThroughputMonitor(new SilentIntLogger(), "http://mirror/hub.zip", 0, 100);
+        InputStream inputStream = throughputMonitor.monitor(new ByteArrayInputStream(new byte[1024]), () -> {
+        });
+
+        inputStream.read(new byte[10]);
+        Thread.sleep(300);
+        inputStream.read(new byte[1014]);
+        inputStream.close();
+
+        Assertions.assertEquals(1024, throughputMonitor.getTransferStatistics().getBytesReceived());
+    }
+
+    // blocks every read until it is closed, like a connection that stopped sending
+    private static class StalledConnection extends InputStream {
+        private final CountDownLatch closedLatch = new CountDownLatch(1);
+        private volatile boolean closed;
+
+        @Override
+        public int read() throws IOException {
+            try {
+                closedLatch.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new InterruptedIOException("Socket closed");
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            closedLatch.countDown();
+        }
+    }
+
+}
@@ -0,0 +1,26 @@
+package com.synopsys.integration.blackduck.installer.download;
+
+import com.synopsys.integration.blackduck.installer.exception.BlackDuckInstallerException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class VersionRangeTest {
+    @Test
+    public void testRangesMatchVersions() throws BlackDuckInstallerException {
+        Assertions.assertTrue(VersionRange.parse("2019.8.1").isExact());
+        Assertions.assertFalse(VersionRange.parse("latest").isExact());
+
+        VersionRange caret = VersionRange.parse("^2019.8.0");
+        Assertions.assertTrue(caret.matches("2019.12.3"));
+        Assertions.assertFalse(caret.matches("2020.2.0"));
+
+        VersionRange wildcard = VersionRange.parse("2019.8.x");
+        Assertions.assertTrue(wildcard.matches("2019.8.10"));
+        Assertions.assertFalse(wildcard.matches("2019.10.0"));
+
+        VersionRange between = VersionRange.parse(">=2019.8.1 <2019.10");
+        Assertions.assertTrue(between.matches("2019.8.1"));
+        Assertions.assertFalse(between.matches("2019.10.0"));
+    }
+
+}
@@ -0,0 +1,66 @@
+package com.synopsys.integration.blackduck.installer.download;
+
+import com.synopsys.integration.blackduck.installer.exception.BlackDuckInstallerException;
+import com.synopsys.integration.log.SilentIntLogger;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Optional;
+
+public class ZipFileDownloaderTest {
+    private static final String DOWNLOAD_URL = "https://github.com/blackducksoftware/hub/archive/v2019.8.1.zip";
+    private static final String VERSION = "2019.8.1";
+
+    @Test
+    public void testSkippedEntriesAreExpandedWhenResolved(@TempDir Path tempDirectory) throws BlackDuckInstallerException, IOException {
+        File baseDirectory = tempDirectory.toFile();
+        ArtifactCache artifactCache = new ArtifactCache(new SilentIntLogger(), new File(baseDirectory, ArtifactCache.DEFAULT_DIRECTORY_NAME));
+        File archive = artifactCache.getPartialFile(DOWNLOAD_URL, VERSION);
+        archive.getParentFile().mkdirs();
+        createArchive(archive);
+        File cachedArchive = artifactCache.store(new DownloadResult(archive, DigestUtils.sha256Hex(Files.readAllBytes(archive.toPath())), archive.length()), DOWNLOAD_URL, VERSION);
+
+        SelectiveZipExpander selectiveZipExpander = new SelectiveZipExpander(new SilentIntLogger(), new ParallelZipExpander(new SilentIntLogger(), 2), Collections.singletonList("docker-swarm"));
+        File downloadDirectory = new File(baseDirectory, "hub-" + VERSION);
+        selectiveZipExpander.expand(cachedArchive, downloadDirectory);
+        new DownloadRecord(DOWNLOAD_URL, VERSION).write(downloadDirectory);
+        Assertions.assertFalse(new File(downloadDirectory, "hub-2019.8.1/kubernetes").exists());
+
+        ZipFileDownloader zipFileDownloader = new ZipFileDownloader(new SilentIntLogger(), null, selectiveZipExpander, artifactCache, null, null, null, null, Collections.emptyList(), null, baseDirectory, "hub", VERSION, false);
+
+        Optional<File> composeFile = zipFileDownloader.resolve("docker-swarm/docker-compose.yml");
+        Assertions.assertEquals(new File(downloadDirectory, "hub-2019.8.1/docker-swarm/docker-compose.yml"), composeFile.orElse(null));
+
+        Optional<File> skippedFile = zipFileDownloader.resolve("kubernetes/blackduck.yml");
+        Assertions.assertTrue(skippedFile.isPresent());
+        Assertions.assertEquals("hub-2019.8.1/kubernetes/blackduck.yml", new String(Files.readAllBytes(skippedFile.get().toPath()), StandardCharsets.UTF_8));
+        Assertions.assertFalse(new File(downloadDirectory, "hub-2019.8.1/openshift").exists());
+
+        Assertions.assertFalse(zipFileDownloader.resolve("docker-swarm/docker-compose.rolling-update.yml").isPresent());
+    }
+
+    private void createArchive(File archive) throws IOException {
+        try (ZipArchiveOutputStream zipArchiveOutputStream = new ZipArchiveOutputStream(archive)) {
+            addEntry(zipArchiveOutputStream, "hub-2019.8.1/docker-swarm/docker-compose.yml");
+            addEntry(zipArchiveOutputStream, "hub-2019.8.1/kubernetes/blackduck.yml");
+            addEntry(zipArchiveOutputStream, "hub-2019.8.1/openshift/blackduck.yml");
+        }
+    }
+
+    private void addEntry(ZipArchiveOutputStream zipArchiveOutputStream, String name) throws IOException {
+        zipArchiveOutputStream.putArchiveEntry(new ZipArchiveEntry(name));
+        zipArchiveOutputStream.write(name.getBytes(StandardCharsets.UTF_8));
+        zipArchiveOutputStream.closeArchiveEntry();
+    }
+
+}
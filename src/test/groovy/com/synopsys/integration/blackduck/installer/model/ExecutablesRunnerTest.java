@@ -0,0 +1,51 @@
+package com.synopsys.integration.blackduck.installer.model;
+
+import com.synopsys.integration.executable.Executable;
+import com.synopsys.integration.executable.ExecutableOutput;
+import com.synopsys.integration.executable.ExecutableRunner;
+import com.synopsys.integration.log.SilentIntLogger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class ExecutablesRunnerTest {
+    private final ExecutableCreator executableCreator = new ExecutableCreator();
+
+    @Test
+    public void testFailedStepSkipsItsDependents() throws Exception {
+        ExecutableRunner executableRunner = executable -> new ExecutableOutput(executable.getExecutableDescription().contains("fail") ? 1 : 0, "", "");
+
+        ExecutionPlan executionPlan = new ExecutionPlan();
+        executionPlan.add(step("create-a", "echo a", ExecutableStep.secret("a")));
+        executionPlan.add(step("create-b", "fail b", ExecutableStep.secret("b")));
+        executionPlan.add(new ExecutableStep("deploy", executableCreator.createExecutable("echo deploy"), Collections.singleton(ExecutableStep.stack("hub")), executionPlan.getStepNames()));
+
+        List<StepResult> stepResults = new ExecutablesRunner(executableRunner, new SilentIntLogger(), 4).runPlan(executionPlan);
+
+        Assertions.assertEquals(Arrays.asList(StepResult.Status.SUCCEEDED, StepResult.Status.FAILED, StepResult.Status.SKIPPED), stepResults.stream().map(StepResult::getStatus).collect(Collectors.toList()));
+        Assertions.assertEquals(1, stepResults.stream().mapToInt(StepResult::getReturnCode).sum());
+    }
+
+    @Test
+    public void testSharedResourceOrdersSteps() {
+        ExecutionPlan executionPlan = new ExecutionPlan();
+        executionPlan.add(step("stop", "docker stack rm hub", ExecutableStep.stack("hub")));
+        executionPlan.add(step("secret", "docker secret create", ExecutableStep.secret("hub_a")));
+        executionPlan.add(step("deploy", "docker stack deploy", ExecutableStep.stack("hub")));
+
+        Assertions.assertEquals(Collections.singleton("stop"), executionPlan.getPrerequisites("deploy"));
+        Assertions.assertTrue(executionPlan.getPrerequisites("secret").isEmpty());
+        Assertions.assertEquals("3. deploy (after stop): docker stack deploy", executionPlan.describe().get(2));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> executionPlan.add(new ExecutableStep("late", executableCreator.createExecutable("echo"), Collections.emptyList(), Collections.singleton("missing"))));
+    }
+
+    private ExecutableStep step(String name, String command, String resourceKey) {
+        Executable executable = executableCreator.createExecutable(command);
+        return new ExecutableStep(name, executable, Collections.singleton(resourceKey), Collections.emptyList());
+    }
+
+}
@@ -0,0 +1,29 @@
+package com.synopsys.integration.blackduck.installer.model;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class OutputTailTest {
+    @Test
+    public void testKeepsEverythingUpToItsSize() {
+        OutputTail outputTail = new OutputTail(3);
+        Assertions.assertEquals("", outputTail.toString());
+
+        outputTail.add("a");
+        outputTail.add("b");
+        outputTail.add("c");
+
+        Assertions.assertEquals("a\nb\nc\n", outputTail.toString());
+    }
+
+    @Test
+    public void testKeepsOnlyTheLastLines() {
+        OutputTail outputTail = new OutputTail(3);
+        for (int i = 1; i <= 10000; i++) {
+            outputTail.add(Integer.toString(i));
+        }
+
+        Assertions.assertEquals("(9997 earlier lines are not shown)\n9998\n9999\n10000\n", outputTail.toString());
+    }
+
+}
@@ -0,0 +1,68 @@
+package com.synopsys.integration.blackduck.installer.model;
+
+import com.synopsys.integration.executable.Executable;
+import com.synopsys.integration.executable.ExecutableOutput;
+import com.synopsys.integration.executable.ExecutableRunnerException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class StreamingProcessRunnerTest {
+    private final StreamingProcessRunner streamingProcessRunner = new StreamingProcessRunner();
+
+    @Test
+    public void testConsumerSeesEveryLineInOrder() throws ExecutableRunnerException {
+        List<String> lines = new ArrayList<>();
+
+        ExecutableOutput executableOutput = streamingProcessRunner.execute(shell("seq 1 1000; exit 3"), lines::add);
+
+        Assertions.assertEquals(3, executableOutput.getReturnCode());
+        Assertions.assertEquals(IntStream.rangeClosed(1, 1000).mapToObj(Integer::toString).collect(Collectors.toList()), lines);
+        String[] tail = executableOutput.getStandardOutput().split("\n");
+        Assertions.assertEquals(StreamingProcessRunner.TAIL_LINES + 1, tail.length);
+        Assertions.assertEquals("(800 earlier lines are not shown)", tail[0]);
+        Assertions.assertEquals("801", tail[1]);
+        Assertions.assertEquals("1000", tail[tail.length - 1]);
+    }
+
+    @Test
+    public void testErrorOutputIsBounded() throws ExecutableRunnerException {
+        ExecutableOutput executableOutput = streamingProcessRunner.execute(shell("seq 1 5000 1>&2"), line -> {
+        });
+
+        String[] tail = executableOutput.getErrorOutput().split("\n");
+        Assertions.assertEquals(StreamingProcessRunner.TAIL_LINES + 1, tail.length);
+        Assertions.assertEquals("(4800 earlier lines are not shown)", tail[0]);
+        Assertions.assertEquals("5000", tail[tail.length - 1]);
+    }
+
+    @Test
+    public void testLongLinesAreCapped() throws ExecutableRunnerException {
+        List<String> lines = new ArrayList<>();
+
+        streamingProcessRunner.execute(shell("head -c 20000 /dev/zero | tr '\\\\0' x; echo; echo done"), lines::add);
+
+        Assertions.assertEquals(2, lines.size());
+        Assertions.assertEquals(StreamingProcessRunner.MAX_LINE_LENGTH, lines.get(0).length());
+        Assertions.assertEquals("done", lines.get(1));
+    }
+
+    @Test
+    public void testWholeOutputWithoutConsumer() throws ExecutableRunnerException {
+        ExecutableOutput executableOutput = streamingProcessRunner.execute(shell("seq 1 1000"));
+
+        Assertions.assertEquals(0, executableOutput.getReturnCode());
+        Assertions.assertEquals(IntStream.rangeClosed(1, 1000).mapToObj(Integer::toString).collect(Collectors.joining("\n", "", "\n")), executableOutput.getStandardOutput());
+    }
+
+    private Executable shell(String script) {
+        return Executable.create(new File("."), Arrays.asList("sh", "-c", script));
+    }
+
+}
@@ -0,0 +1,17 @@
+package com.synopsys.integration.blackduck.installer.retention;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+public class DeployedVersionsTest {
+    @Test
+    public void testImageTagsAreParsed() {
+        String serviceImages = "blackducksoftware/blackduck-webapp:2019.8.1@sha256:0123abcd\n\"blackducksoftware/blackduck-alert:5.0.0\"\nregistry.local:5000/blackduck-nginx\n\n";
+
+        Assertions.assertEquals(new HashSet<>(Arrays.asList("2019.8.1", "5.0.0")), DeployedVersions.parseImageTags(serviceImages));
+    }
+
+}
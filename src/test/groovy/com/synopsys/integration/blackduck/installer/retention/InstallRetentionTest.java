@@ -0,0 +1,175 @@
+package com.synopsys.integration.blackduck.installer.retention;
+
+import com.synopsys.integration.blackduck.installer.dockerswarm.DockerCommands;
+import com.synopsys.integration.blackduck.installer.download.ArtifactCache;
+import com.synopsys.integration.blackduck.installer.download.DownloadRecord;
+import com.synopsys.integration.blackduck.installer.exception.BlackDuckInstallerException;
+import com.synopsys.integration.blackduck.installer.model.ExecutableCreator;
+import com.synopsys.integration.blackduck.installer.model.ExecutablesRunner;
+import com.synopsys.integration.executable.ExecutableOutput;
+import com.synopsys.integration.log.SilentIntLogger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class InstallRetentionTest {
+    private static final long MEGABYTE = 1024 * 1024;
+    // more than any disk has free
+    private static final long UNREACHABLE_FREE_BYTES = Long.MAX_VALUE / 2;
+
+    @Test
+    public void testOnlyTheNewestOfEachProductAreKept(@TempDir Path tempDirectory) throws BlackDuckInstallerException, IOException {
+        File baseDirectory = tempDirectory.resolve("base").toFile();
+        install(baseDirectory, "blackduck", "2019.6.0", 1);
+        install(baseDirectory, "blackduck", "2019.8.0", 2);
+        install(baseDirectory, "blackduck", "2019.10.0", 3);
+        install(baseDirectory, "blackduck-alert", "5.0.0", 4);
+
+        createInstallRetention(baseDirectory, deployed(""), 2, 0, 0, false).evict();
+
+        Assertions.assertEquals(Arrays.asList("blackduck-2019.10.0", "blackduck-2019.8.0", "blackduck-alert-5.0.0"), remainingDirectoryNames(baseDirectory));
+    }
+
+    @Test
+    public void testDeployedAndProtectedVersionsAreKept(@TempDir Path tempDirectory) throws BlackDuckInstallerException, IOException {
+        File baseDirectory = tempDirectory.resolve("base").toFile();
+        install(baseDirectory, "blackduck", "2019.4.0", 1);
+        install(baseDirectory, "blackduck", "2019.6.0", 2);
+        install(baseDirectory, "blackduck", "2019.8.0", 3);
+        install(baseDirectory, "blackduck", "2019.10.0", 4);
+
+        InstallRetention installRetention = createInstallRetention(baseDirectory, deployed("blackducksoftware/blackduck-webapp:2019.4.0\n"), 1, 0, 0, false);
+        installRetention.protect("blackduck", "2019.6.0");
+        installRetention.evict();
+
+        Assertions.assertEquals(Arrays.asList("blackduck-2019.10.0", "blackduck-2019.4.0", "blackduck-2019.6.0"), remainingDirectoryNames(baseDirectory));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedAreRemovedDownToTheQuota(@TempDir Path tempDirectory) throws BlackDuckInstallerException, IOException {
+        File baseDirectory = tempDirectory.resolve("base").toFile();
+        install(baseDirectory, "blackduck", "2019.10.0", 1);
+        install(baseDirectory, "blackduck", "2019.6.0", 2);
+        install(baseDirectory, "blackduck", "2019.8.0", 3);
+
+        // room for two of the versions
+        createInstallRetention(baseDirectory, deployed(""), 0, 2 * MEGABYTE + MEGABYTE / 2, 0, false).evict();
+
+        Assertions.assertEquals(Arrays.asList("blackduck-2019.6.0", "blackduck-2019.8.0"), remainingDirectoryNames(baseDirectory));
+    }
+
+    @Test
+    public void testUnknownDeployedVersionsRemoveNothing(@TempDir Path tempDirectory) throws BlackDuckInstallerException, IOException {
+        File baseDirectory = tempDirectory.resolve("base").toFile();
+        install(baseDirectory, "blackduck", "2019.6.0", 1);
+        install(baseDirectory, "blackduck", "2019.8.0", 2);
+        DeployedVersions unknown = new DeployedVersions(new SilentIntLogger(), new DockerCommands(new ExecutableCreator()), new ExecutablesRunner(executable -> new ExecutableOutput(1, "", "Cannot connect to the Docker daemon")), "hub");
+
+        createInstallRetention(baseDirectory, unknown, 1, 1, 0, false).evict();
+
+        Assertions.assertEquals(Arrays.asList("blackduck-2019.6.0", "blackduck-2019.8.0"), remainingDirectoryNames(baseDirectory));
+    }
+
+    @Test
+    public void testRemovalLeavesNoTrash(@TempDir Path tempDirectory) throws BlackDuckInstallerException, IOException {
+        File baseDirectory = tempDirectory.resolve("base").toFile();
+        install(baseDirectory, "blackduck", "2019.6.0", 1);
+        install(baseDirectory, "blackduck", "2019.8.0", 2);
+        // an interrupted removal of an earlier run
+        File interrupted = new File(baseDirectory, InstallRetention.TRASH_PREFIX + "blackduck-2019.4.0-1");
+        Files.createDirectories(interrupted.toPath().resolve("docker-swarm"));
+
+        createInstallRetention(baseDirectory, deployed(""), 1, 0, 0, false).evict();
+
+        Assertions.assertFalse(interrupted.exists());
+        Assertions.assertArrayEquals(new String[]{"blackduck-2019.8.0"}, baseDirectory.list());
+    }
+
+    @Test
+    public void testDryRunRemovesNothing(@TempDir Path tempDirectory) throws BlackDuckInstallerException, IOException {
+        File baseDirectory = tempDirectory.resolve("base").toFile();
+        install(baseDirectory, "blackduck", "2019.6.0", 1);
+        install(baseDirectory, "blackduck", "2019.8.0", 2);
+
+        createInstallRetention(baseDirectory, deployed(""), 1, 1, 0, true).evict();
+
+        Assertions.assertEquals(Arrays.asList("blackduck-2019.6.0", "blackduck-2019.8.0"), remainingDirectoryNames(baseDirectory));
+    }
+
+    @Test
+    public void testNoMinimumFreeSpaceRemovesNothing(@TempDir Path tempDirectory) throws BlackDuckInstallerException, IOException {
+        File baseDirectory = tempDirectory.resolve("base").toFile();
+        install(baseDirectory, "blackduck", "2019.6.0", 1);
+
+        createInstallRetention(baseDirectory, deployed(""), 1, 0, 0, false).ensureFreeSpace("blackduck", "2019.8.0");
+
+        Assertions.assertEquals(Arrays.asList("blackduck-2019.6.0"), remainingDirectoryNames(baseDirectory));
+    }
+
+    @Test
+    public void testFreeSpaceRemovesWhatIsNotDeployed(@TempDir Path tempDirectory) throws BlackDuckInstallerException, IOException {
+        File baseDirectory = tempDirectory.resolve("base").toFile();
+        install(baseDirectory, "blackduck", "2019.6.0", 1);
+        install(baseDirectory, "blackduck", "2019.8.0", 2);
+
+        InstallRetention installRetention = createInstallRetention(baseDirectory, deployed("blackducksoftware/blackduck-webapp:2019.8.0\n"), 3, 0, UNREACHABLE_FREE_BYTES, false);
+        BlackDuckInstallerException e = Assertions.assertThrows(BlackDuckInstallerException.class, () -> installRetention.ensureFreeSpace("blackduck", "2019.10.0"));
+
+        Assertions.assertTrue(e.getMessage().startsWith("blackduck 2019.10.0 needs about"), e.getMessage());
+        // the deployed version is never removed, not even for space
+        Assertions.assertEquals(Arrays.asList("blackduck-2019.8.0"), remainingDirectoryNames(baseDirectory));
+    }
+
+    @Test
+    public void testFreeSpaceWithoutRetentionKeepsEveryVersion(@TempDir Path tempDirectory) throws BlackDuckInstallerException, IOException {
+        File baseDirectory = tempDirectory.resolve("base").toFile();
+        install(baseDirectory, "blackduck", "2019.6.0", 1);
+
+        InstallRetention installRetention = createInstallRetention(baseDirectory, deployed(""), 0, 0, UNREACHABLE_FREE_BYTES, false);
+        Assertions.assertThrows(BlackDuckInstallerException.class, () -> installRetention.ensureFreeSpace("blackduck", "2019.8.0"));
+
+        Assertions.assertEquals(Arrays.asList("blackduck-2019.6.0"), remainingDirectoryNames(baseDirectory));
+    }
+
+    @Test
+    public void testFreeSpaceDryRunOnlyReports(@TempDir Path tempDirectory) throws BlackDuckInstallerException, IOException {
+        File baseDirectory = tempDirectory.resolve("base").toFile();
+        install(baseDirectory, "blackduck", "2019.6.0", 1);
+
+        createInstallRetention(baseDirectory, deployed(""), 3, 0, UNREACHABLE_FREE_BYTES, true).ensureFreeSpace("blackduck", "2019.8.0");
+
+        Assertions.assertEquals(Arrays.asList("blackduck-2019.6.0"), remainingDirectoryNames(baseDirectory));
+    }
+
+    private InstallRetention createInstallRetention(File baseDirectory, DeployedVersions deployedVersions, int keepLast, long quotaBytes, long minimumFreeBytes, boolean dryRun) {
+        // the cache lives beside the base directory, so it doesn't count against the quota
+        ArtifactCache artifactCache = new ArtifactCache(new SilentIntLogger(), new File(baseDirectory.getParentFile(), ArtifactCache.DEFAULT_DIRECTORY_NAME));
+        return new InstallRetention(new SilentIntLogger(), baseDirectory, artifactCache, deployedVersions, keepLast, quotaBytes, minimumFreeBytes, 0, dryRun);
+    }
+
+    private DeployedVersions deployed(String serviceImages) {
+        return new DeployedVersions(new SilentIntLogger(), new DockerCommands(new ExecutableCreator()), new ExecutablesRunner(executable -> new ExecutableOutput(0, serviceImages, "")), "hub");
+    }
+
+    // a version of a megabyte, last used the given number of minutes after the epoch
+    private void install(File baseDirectory, String name, String version, int lastUsedMinutes) throws BlackDuckInstallerException, IOException {
+        File directory = new File(baseDirectory, name + "-" + version);
+        Files.createDirectories(directory.toPath().resolve("docker-swarm"));
+        Files.write(directory.toPath().resolve("docker-swarm/docker-compose.yml"), new byte[(int) MEGABYTE]);
+        new DownloadRecord("https://github.com/blackducksoftware/hub/archive/v" + version + ".zip", version).write(directory);
+        new File(directory, DownloadRecord.FILENAME).setLastModified(lastUsedMinutes * 60 * 1000L);
+    }
+
+    private List<String> remainingDirectoryNames(File baseDirectory) {
+        return Arrays.stream(baseDirectory.list()).sorted().collect(Collectors.toList());
+    }
+
+}